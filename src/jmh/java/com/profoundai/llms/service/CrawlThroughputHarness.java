@@ -0,0 +1,165 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.LlmsTxtGeneratorApplication;
+import com.profoundai.llms.entity.CrawlReport;
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.PageType;
+import org.springframework.boot.Banner;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * End-to-end crawl throughput against a {@link SyntheticSite}: runs the application context
+ * without a web server, then repeatedly crawls the site with {@link CrawlServiceImpl#crawl} and
+ * {@link LlmsTxtMonitoringService#crawlAndUpdate} and prints pages per second, p50/p99 page
+ * latency (fetch plus render, in whole milliseconds) and the heap high-water mark of each run.
+ * <p>
+ * Options are {@code key=value} arguments: {@code mode} ({@code crawl}, {@code update} or
+ * {@code both}), {@code warmup}, {@code iterations}, and every {@link SyntheticSite.Spec}
+ * component by name. The site is edited between update runs, so every run after the first is a
+ * diff crawl. The heap high-water mark adds up each heap pool's peak, so it is an upper bound.
+ */
+public final class CrawlThroughputHarness {
+
+    private CrawlThroughputHarness() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 1) {
+                throw new IllegalArgumentException("Expected key=value, got '" + arg + "'");
+            }
+            options.put(arg.substring(0, eq), arg.substring(eq + 1));
+        }
+        String mode = options.getOrDefault("mode", "both");
+        int warmup = Integer.parseInt(options.getOrDefault("warmup", "1"));
+        int iterations = Integer.parseInt(options.getOrDefault("iterations", "3"));
+        SyntheticSite.Spec d = SyntheticSite.Spec.DEFAULT;
+        SyntheticSite.Spec spec = new SyntheticSite.Spec(
+                intOption(options, "pages", d.pages()), intOption(options, "fanOut", d.fanOut()),
+                intOption(options, "depth", d.depth()), intOption(options, "htmlBytes", d.htmlBytes()),
+                intOption(options, "latencyMs", d.latencyMs()), intOption(options, "jitterMs", d.jitterMs()),
+                doubleOption(options, "errorRate", d.errorRate()), doubleOption(options, "csrRate", d.csrRate()),
+                intOption(options, "scripts", d.scripts()), intOption(options, "assets", d.assets()),
+                doubleOption(options, "changeRate", d.changeRate()),
+                Long.parseLong(options.getOrDefault("seed", String.valueOf(d.seed()))));
+
+        try (SyntheticSite site = SyntheticSite.start(spec);
+             ConfigurableApplicationContext context = start(spec)) {
+            System.out.printf("%s%n%d pages (%d answering 503) at %s%n", spec, site.pageCount(),
+                    site.errorPageCount(), site.baseUrl());
+            System.out.printf("%-7s %5s %7s %7s %7s %8s %9s %7s %7s %8s  %s%n", "mode", "run", "pages", "assets",
+                    "errors", "seconds", "pages/s", "p50 ms", "p99 ms", "heap MB", "diff");
+            if (!mode.equals("update")) {
+                CrawlServiceImpl crawlService = context.getBean(CrawlServiceImpl.class);
+                CrawlProfile profile = context.getBean(CrawlProfiles.class).resolve(CrawlProfile.DEFAULT.name());
+                run("crawl", warmup, iterations, () -> {
+                    CrawlService.CrawlResult result = crawlService.crawl(site.baseUrl(), profile, CrawlListener.NONE);
+                    return new Run(result.getStats().toReport(new CrawlSnapshot(site.baseUrl()), Integer.MAX_VALUE), "");
+                });
+            }
+            if (!mode.equals("crawl")) {
+                LlmsTxtMonitoringService monitoringService = context.getBean(LlmsTxtMonitoringService.class);
+                CrawlReportService reportService = context.getBean(CrawlReportService.class);
+                boolean[] first = {true};
+                run("update", warmup, iterations, () -> {
+                    int edited = first[0] ? 0 : site.advance();
+                    first[0] = false;
+                    MonitoringResult result = monitoringService.crawlAndUpdate(site.baseUrl());
+                    return new Run(reportService.history(site.baseUrl(), 1).get(0), String.format(
+                            "%d edited: +%d -%d ~%d", edited, result.getAddedUrls().size(), result.getRemovedUrls().size(),
+                            result.getModifiedUrls().size()));
+                });
+            }
+        }
+    }
+
+    private record Run(CrawlReport report, String diff) {
+    }
+
+    private static void run(String mode, int warmup, int iterations, Supplier<Run> crawl) {
+        double totalPagesPerSecond = 0;
+        for (int i = 0; i < warmup + iterations; i++) {
+            System.gc();
+            List<MemoryPoolMXBean> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+                    .filter(pool -> pool.getType() == MemoryType.HEAP)
+                    .toList();
+            heapPools.forEach(MemoryPoolMXBean::resetPeakUsage);
+            long start = System.nanoTime();
+            Run run = crawl.get();
+            double seconds = (System.nanoTime() - start) / (double) TimeUnit.SECONDS.toNanos(1);
+            long heapPeak = heapPools.stream().mapToLong(pool -> pool.getPeakUsage().getUsed()).sum();
+
+            List<Long> latencies = new ArrayList<>();
+            run.report().getSlowestPages().stream()
+                    .filter(page -> page.pageType() == PageType.PAGE)
+                    .forEach(page -> latencies.add(page.fetchMs() + page.renderMs()));
+            latencies.sort(null);
+            CrawlReport.Counts counts = run.report().getCounts();
+            double pagesPerSecond = counts.pagesFetched() / seconds;
+            boolean measured = i >= warmup;
+            if (measured) {
+                totalPagesPerSecond += pagesPerSecond;
+            }
+            System.out.printf(Locale.ROOT, "%-7s %5s %7d %7d %7d %8.2f %9.1f %7d %7d %8.1f  %s%n", mode,
+                    measured ? String.valueOf(i - warmup + 1) : "w" + (i + 1), counts.pagesFetched(),
+                    counts.assetsFetched(), counts.errors(), seconds, pagesPerSecond, percentile(latencies, 0.5),
+                    percentile(latencies, 0.99), heapPeak / (1024.0 * 1024.0), run.diff());
+        }
+        if (iterations > 0) {
+            System.out.printf(Locale.ROOT, "%-7s %5s %7s %7s %7s %8s %9.1f%n", mode, "mean", "", "", "", "",
+                    totalPagesPerSecond / iterations);
+        }
+    }
+
+    /** Nearest-rank percentile of sorted values. */
+    private static long percentile(List<Long> sorted, double p) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+        return sorted.get(Math.max(0, (int) Math.ceil(p * sorted.size()) - 1));
+    }
+
+    private static ConfigurableApplicationContext start(SyntheticSite.Spec spec) throws Exception {
+        return new SpringApplicationBuilder(LlmsTxtGeneratorApplication.class)
+                .web(WebApplicationType.NONE)
+                .bannerMode(Banner.Mode.OFF)
+                .properties(
+                        "llms.content.dir=" + Files.createTempDirectory("llms-content"),
+                        // Every page and asset, down to the site's deepest level
+                        "llms.crawl.profiles.default.max-pages=" + Integer.MAX_VALUE,
+                        "llms.crawl.profiles.default.max-depth=" + spec.depth(),
+                        // Keep every page's timing in the report, for the latency percentiles
+                        "llms.reports.slowest-pages=" + Integer.MAX_VALUE,
+                        // Measure the crawler, not the per-host rate limit
+                        "llms.politeness.rate-per-second=0",
+                        // No scheduled recrawl of the site between runs
+                        "llms.monitor.interval-ms=" + TimeUnit.DAYS.toMillis(1),
+                        "llms.monitor.min-interval-ms=" + TimeUnit.DAYS.toMillis(1),
+                        "logging.level.root=WARN")
+                .run();
+    }
+
+    private static int intOption(Map<String, String> options, String key, int defaultValue) {
+        return options.containsKey(key) ? Integer.parseInt(options.get(key)) : defaultValue;
+    }
+
+    private static double doubleOption(Map<String, String> options, String key, double defaultValue) {
+        return options.containsKey(key) ? Double.parseDouble(options.get(key)) : defaultValue;
+    }
+}
@@ -0,0 +1,58 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Full llms.txt generation from a snapshot's pages, as done when no materialized document exists.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class GeneratorBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int pages;
+
+    private final LlmsTxtGeneratorService generator = new LlmsTxtGeneratorService();
+    private final LocalDateTime generatedAt = LocalDateTime.of(2025, 11, 30, 12, 0);
+    private List<PageMeta> pageMetas;
+
+    @Setup
+    public void setUp() {
+        pageMetas = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            String url = HtmlCorpus.BASE_URL + "/guide/section-" + (i % 50) + "/page-" + i;
+            pageMetas.add(i % 20 == 19
+                    ? new PageMeta(1L, HtmlCorpus.BASE_URL + "/static/chunk-" + i + ".js", null, null,
+                    "%064x".formatted(i), PageType.STATIC_ASSET)
+                    : new PageMeta(1L, url, "Page " + i + " | Example Docs",
+                    "How to configure and deploy feature " + i + " of the example platform.",
+                    "%064x".formatted(i), PageType.PAGE));
+        }
+    }
+
+    @Benchmark
+    public String generate() {
+        return generator.generate(pageMetas, HtmlCorpus.BASE_URL, generatedAt);
+    }
+}
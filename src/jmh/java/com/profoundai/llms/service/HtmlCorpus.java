@@ -0,0 +1,121 @@
+package com.profoundai.llms.service;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Deterministic HTML pages shaped like the sites the crawler meets, so benchmark runs are
+ * comparable between builds.
+ */
+public enum HtmlCorpus {
+
+    /** Server-rendered article: header nav, ~20 KB of prose, a few scripts and a footer. */
+    BLOG(40, 60, 3, false),
+    /** Documentation page: a sidebar of 1500 links around a long reference section. */
+    DOCS(1500, 120, 8, false),
+    /** Client-rendered shell: an empty root element and the bundles that fill it. */
+    SPA(4, 0, 6, true);
+
+    static final String BASE_URL = "https://docs.example.com";
+
+    private static final String[] WORDS = ("crawler snapshot page site render index token cache request "
+            + "response header body link anchor table section guide api reference release note "
+            + "install configure deploy monitor query schema migrate stream buffer worker").split(" ");
+
+    private final int links;
+    private final int paragraphs;
+    private final int scripts;
+    private final boolean clientRendered;
+
+    HtmlCorpus(int links, int paragraphs, int scripts, boolean clientRendered) {
+        this.links = links;
+        this.paragraphs = paragraphs;
+        this.scripts = scripts;
+        this.clientRendered = clientRendered;
+    }
+
+    /** The page as the server sends it. */
+    String serverHtml() {
+        return html(paragraphs);
+    }
+
+    /**
+     * The page as the headless browser returns it: the client-rendered shell filled in, or a
+     * server-rendered page with slightly more text, so richness is decided on extracted text.
+     */
+    String renderedHtml() {
+        return html(clientRendered ? 80 : paragraphs + paragraphs / 10);
+    }
+
+    /** Absolute, relative, fragment, asset and off-site URLs, in the proportions links have. */
+    static List<String> urls(int count) {
+        Random random = new Random(42);
+        List<String> urls = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            String path = "/" + word(random) + "/" + word(random) + "-" + i;
+            urls.add(switch (i % 8) {
+                case 0 -> BASE_URL + path + "#" + word(random);
+                case 1 -> BASE_URL + path + "?page=" + i;
+                case 2 -> BASE_URL + "/static/" + word(random) + "." + i + ".js";
+                case 3 -> BASE_URL + "/static/" + word(random) + ".css";
+                case 4 -> "https://cdn.example.net" + path;
+                case 5 -> "mailto:team" + i + "@example.com";
+                case 6 -> path;
+                default -> BASE_URL + path;
+            });
+        }
+        return urls;
+    }
+
+    private String html(int paragraphCount) {
+        Random random = new Random(ordinal() * 31L + paragraphCount);
+        StringBuilder html = new StringBuilder(paragraphCount * 400 + links * 80 + 1024);
+        html.append("<!DOCTYPE html><html lang=\"en\"><head><meta charset=\"utf-8\">")
+                .append("<title>").append(name()).append(" page - Example Docs</title>")
+                .append("<meta name=\"description\" content=\"").append(sentence(random, 20)).append("\">")
+                .append("<link rel=\"stylesheet\" href=\"/static/site.css\">");
+        for (int i = 0; i < scripts; i++) {
+            html.append("<script src=\"/static/chunk-").append(i).append(".js\" defer></script>");
+        }
+        html.append("</head><body>");
+        if (clientRendered && paragraphCount == 0) {
+            html.append("<div id=\"root\"></div><noscript>You need to enable JavaScript to run this app.</noscript>");
+        } else {
+            html.append("<nav class=\"sidebar\"><ul>");
+            for (int i = 0; i < links; i++) {
+                String href = switch (i % 10) {
+                    case 0 -> BASE_URL + "/guide/" + word(random) + "-" + i + "#overview";
+                    case 1 -> "https://github.com/example/" + word(random);
+                    case 2 -> "/static/" + word(random) + ".pdf.js";
+                    default -> "/guide/" + word(random) + "-" + i;
+                };
+                html.append("<li><a href=\"").append(href).append("\">").append(sentence(random, 3)).append("</a></li>");
+            }
+            html.append("</ul></nav><main><article>");
+            for (int i = 0; i < paragraphCount; i++) {
+                if (i % 12 == 0) {
+                    html.append("<h2 id=\"s").append(i).append("\">").append(sentence(random, 5)).append("</h2>");
+                }
+                html.append("<p>").append(sentence(random, 60)).append("</p>");
+            }
+            html.append("</article></main><footer><a href=\"/privacy\">Privacy</a> <a href=\"/terms\">Terms</a></footer>");
+        }
+        return html.append("</body></html>").toString();
+    }
+
+    private static String sentence(Random random, int words) {
+        StringBuilder sentence = new StringBuilder(words * 8);
+        for (int i = 0; i < words; i++) {
+            if (i > 0) {
+                sentence.append(' ');
+            }
+            sentence.append(word(random));
+        }
+        return sentence.toString();
+    }
+
+    private static String word(Random random) {
+        return WORDS[random.nextInt(WORDS.length)];
+    }
+}
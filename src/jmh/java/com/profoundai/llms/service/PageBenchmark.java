@@ -0,0 +1,80 @@
+package com.profoundai.llms.service;
+
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-page work of the crawler on each {@link HtmlCorpus} page shape: CSR detection, the
+ * rendered-vs-server comparison, parsing, link discovery and content hashing.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PageBenchmark {
+
+    @Param({"BLOG", "DOCS", "SPA"})
+    public HtmlCorpus corpus;
+
+    private CrawlServiceImpl crawlService;
+    private String serverHtml;
+    private String renderedHtml;
+    private Document document;
+    private String text;
+
+    @Setup
+    public void setUp() {
+        crawlService = new CrawlServiceImpl(null, null, null, new HttpResponseCache(false, "unused", 1, 0), null);
+        serverHtml = corpus.serverHtml();
+        renderedHtml = corpus.renderedHtml();
+        document = Jsoup.parse(serverHtml, HtmlCorpus.BASE_URL + "/guide/page");
+        text = document.body().text();
+    }
+
+    @TearDown
+    public void tearDown() {
+        crawlService.shutdown();
+    }
+
+    @Benchmark
+    public boolean isLikelyCSR() {
+        return crawlService.isLikelyCSR(serverHtml);
+    }
+
+    @Benchmark
+    public boolean isRicherContent() {
+        return crawlService.isRicherContent(renderedHtml, serverHtml);
+    }
+
+    @Benchmark
+    public Document parse() {
+        return Jsoup.parse(serverHtml, HtmlCorpus.BASE_URL + "/guide/page");
+    }
+
+    @Benchmark
+    public List<?> discoverLinks() {
+        return crawlService.discoverLinks(document, 1, () -> false);
+    }
+
+    @Benchmark
+    public String sha256() throws Exception {
+        return crawlService.sha256(text);
+    }
+}
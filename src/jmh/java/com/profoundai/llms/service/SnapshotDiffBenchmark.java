@@ -0,0 +1,64 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The diff {@code crawlAndUpdate} computes between the previous snapshot and a new crawl. The
+ * new crawl drops 2% of the pages, adds as many, changes the body of 5% and only the title of 1%.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SnapshotDiffBenchmark {
+
+    @Param({"100", "10000", "100000"})
+    public int pages;
+
+    private List<PageMeta> oldPages;
+    private List<CrawlService.PageInfo> newPages;
+
+    @Setup
+    public void setUp() {
+        oldPages = new ArrayList<>(pages);
+        newPages = new ArrayList<>(pages);
+        for (int i = 0; i < pages; i++) {
+            String url = HtmlCorpus.BASE_URL + "/guide/page-" + i;
+            String title = "Page " + i;
+            String hash = "%064x".formatted(i);
+            oldPages.add(new PageMeta(1L, url, title, "Description " + i, hash, PageType.PAGE));
+            if (i % 50 == 0) {
+                continue;
+            }
+            newPages.add(new CrawlService.PageInfo(url, i % 100 == 1 ? title + " (updated)" : title,
+                    "Description " + i, i % 20 == 3 ? "%064x".formatted(-i) : hash, PageType.PAGE));
+        }
+        for (int i = 0; i < pages / 50; i++) {
+            newPages.add(new CrawlService.PageInfo(HtmlCorpus.BASE_URL + "/guide/new-" + i, "New " + i,
+                    null, "%064x".formatted(pages + i), PageType.PAGE));
+        }
+    }
+
+    @Benchmark
+    public SnapshotDiff diff() {
+        return SnapshotDiff.compute(oldPages, newPages);
+    }
+}
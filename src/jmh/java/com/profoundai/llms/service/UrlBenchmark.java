@@ -0,0 +1,60 @@
+package com.profoundai.llms.service;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * URL handling the crawler does for every link it sees. Each operation covers a batch of 1024
+ * mixed URLs, so divide by 1024 for the cost per link.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class UrlBenchmark {
+
+    private CrawlServiceImpl crawlService;
+    private List<String> urls;
+    private List<String> normalizedUrls;
+
+    @Setup
+    public void setUp() {
+        crawlService = new CrawlServiceImpl(null, null, null, new HttpResponseCache(false, "unused", 1, 0), null);
+        urls = HtmlCorpus.urls(1024);
+        normalizedUrls = urls.stream().map(crawlService::normalizeUrl).filter(u -> u != null).toList();
+    }
+
+    @TearDown
+    public void tearDown() {
+        crawlService.shutdown();
+    }
+
+    @Benchmark
+    public void normalizeUrl(Blackhole blackhole) {
+        for (String url : urls) {
+            blackhole.consume(crawlService.normalizeUrl(url));
+        }
+    }
+
+    @Benchmark
+    public void isStaticAsset(Blackhole blackhole) {
+        for (String url : normalizedUrls) {
+            blackhole.consume(crawlService.isStaticAsset(url));
+        }
+    }
+}
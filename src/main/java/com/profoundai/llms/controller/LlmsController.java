@@ -1,49 +1,497 @@
 package com.profoundai.llms.controller;
 
+import com.profoundai.llms.entity.CrawlReport;
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.LlmsTxtDocument;
+import com.profoundai.llms.entity.MonitoredSite;
+import com.profoundai.llms.service.AdaptiveRecrawlSchedule;
+import com.profoundai.llms.service.CircuitOpenException;
+import com.profoundai.llms.service.CrawlAdmissionControl;
+import com.profoundai.llms.service.CrawlBatch;
+import com.profoundai.llms.service.CrawlBatchService;
+import com.profoundai.llms.service.CrawlCoordinator;
+import com.profoundai.llms.service.CrawlEventHub;
+import com.profoundai.llms.service.CrawlJob;
+import com.profoundai.llms.service.CrawlJobService;
+import com.profoundai.llms.service.CrawlRejectedException;
+import com.profoundai.llms.service.CrawlReportService;
+import com.profoundai.llms.service.HostCircuitBreaker;
+import com.profoundai.llms.service.LlmsTxtDocumentService;
 import com.profoundai.llms.service.LlmsTxtMonitoringService;
 import com.profoundai.llms.service.MonitoringResult;
+import com.profoundai.llms.service.format.LlmsTxtFormat;
+import com.profoundai.llms.service.format.LlmsTxtFormatRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 @RestController
 @RequestMapping("/api")
 public class LlmsController {
 
     private final LlmsTxtMonitoringService monitoringService;
+    private final CrawlCoordinator crawlCoordinator;
+    private final LlmsTxtDocumentService documentService;
+    private final LlmsTxtFormatRegistry formatRegistry;
+    private final AdaptiveRecrawlSchedule recrawlSchedule;
+    private final HostCircuitBreaker circuitBreaker;
+    private final CrawlJobService jobService;
+    private final CrawlBatchService batchService;
+    private final CrawlEventHub eventHub;
+    private final CrawlAdmissionControl admissionControl;
+    private final CrawlReportService reportService;
+    private final long eventStreamTimeoutMs;
+    private final String clientHeader;
+    private final int trustedProxies;
 
-    public LlmsController(LlmsTxtMonitoringService monitoringService) {
+    public LlmsController(LlmsTxtMonitoringService monitoringService,
+                          CrawlCoordinator crawlCoordinator,
+                          LlmsTxtDocumentService documentService,
+                          LlmsTxtFormatRegistry formatRegistry,
+                          AdaptiveRecrawlSchedule recrawlSchedule,
+                          HostCircuitBreaker circuitBreaker,
+                          CrawlJobService jobService,
+                          CrawlBatchService batchService,
+                          CrawlEventHub eventHub,
+                          CrawlAdmissionControl admissionControl,
+                          CrawlReportService reportService,
+                          @Value("${llms.events.stream-timeout-ms:1800000}") long eventStreamTimeoutMs,
+                          @Value("${llms.admission.client-header:}") String clientHeader,
+                          @Value("${llms.admission.trusted-proxies:1}") int trustedProxies) {
         this.monitoringService = monitoringService;
+        this.crawlCoordinator = crawlCoordinator;
+        this.documentService = documentService;
+        this.formatRegistry = formatRegistry;
+        this.recrawlSchedule = recrawlSchedule;
+        this.circuitBreaker = circuitBreaker;
+        this.jobService = jobService;
+        this.batchService = batchService;
+        this.eventHub = eventHub;
+        this.admissionControl = admissionControl;
+        this.reportService = reportService;
+        this.eventStreamTimeoutMs = eventStreamTimeoutMs;
+        this.clientHeader = clientHeader;
+        this.trustedProxies = trustedProxies;
     }
 
-    @GetMapping(value = "/llms.txt", produces = MediaType.TEXT_PLAIN_VALUE)
-    public String getLlmsTxt(@RequestParam String baseUrl,
-                             @RequestParam(defaultValue = "false") boolean refresh) {
+    /**
+     * @param format output format name: {@code classic} (default), {@code spec}, {@code json},
+     *               or a template configured under {@code llms.formats.templates}
+     */
+    @GetMapping("/llms.txt")
+    public ResponseEntity<?> getLlmsTxt(@RequestParam String baseUrl,
+                                        @RequestParam(defaultValue = "false") boolean refresh,
+                                        @RequestParam(defaultValue = LlmsTxtFormat.CLASSIC) String format,
+                                        @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                        WebRequest request,
+                                        HttpServletRequest servletRequest) {
+
+        LlmsTxtFormat outputFormat;
+        try {
+            outputFormat = formatRegistry.resolve(format);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+
+        LlmsTxtDocument document = latestDocument(baseUrl, refresh, outputFormat, clientOf(servletRequest));
+        MediaType contentType = MediaType.parseMediaType(outputFormat.contentType());
+        boolean gzip = document.getGzipContent() != null && acceptsGzip(acceptEncoding);
+
+        // Each encoding is a distinct representation, so it gets its own strong ETag
+        String etag = "\"" + document.getEtag() + (gzip ? "-gzip" : "") + "\"";
+        long lastModified = document.getGeneratedAt() != null
+                ? document.getGeneratedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()
+                : -1;
+        if (request.checkNotModified(etag, lastModified)) {
+            // 304 with ETag/Last-Modified headers already set by checkNotModified
+            return null;
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .eTag(etag)
+                .varyBy(HttpHeaders.ACCEPT_ENCODING)
+                .contentType(contentType);
+        if (lastModified >= 0) {
+            response.lastModified(lastModified);
+        }
+        if (gzip) {
+            return response
+                    .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+                    .body(document.getGzipContent());
+        }
+        return response.body(document.getContent());
+    }
 
+    /**
+     * Streaming mode for very large sites: pages are read through a database cursor and
+     * written straight to the response instead of being materialized as one String.
+     */
+    @GetMapping(value = "/llms.txt", params = "stream=true", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> streamLlmsTxt(@RequestParam String baseUrl,
+                                                               @RequestParam(defaultValue = "false") boolean refresh,
+                                                               HttpServletRequest servletRequest) {
         if (refresh) {
-            monitoringService.crawlAndStore(baseUrl);
-            return monitoringService.getLatestLlmsTxt(baseUrl);
+            admittedCrawl(baseUrl, clientOf(servletRequest));
         }
 
+        CrawlSnapshot snapshot = latestSnapshot(baseUrl, clientOf(servletRequest));
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(out -> documentService.streamLlmsTxt(snapshot, out));
+    }
+
+    /**
+     * llms-full.txt: every page's metadata followed by its extracted text, streamed from the
+     * content store.
+     */
+    @GetMapping(value = "/llms-full.txt", produces = MediaType.TEXT_PLAIN_VALUE)
+    public ResponseEntity<StreamingResponseBody> getLlmsFullTxt(@RequestParam String baseUrl,
+                                                                @RequestParam(defaultValue = "false") boolean refresh,
+                                                                HttpServletRequest servletRequest) {
+        if (refresh) {
+            admittedCrawl(baseUrl, clientOf(servletRequest));
+        }
+
+        CrawlSnapshot snapshot = latestSnapshot(baseUrl, clientOf(servletRequest));
+        return ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_PLAIN, StandardCharsets.UTF_8))
+                .body(out -> documentService.streamLlmsFullTxt(snapshot, out));
+    }
+
+    private CrawlSnapshot latestSnapshot(String baseUrl, String clientId) {
         try {
-            return monitoringService.getLatestLlmsTxt(baseUrl);
+            return monitoringService.getLatestSnapshot(baseUrl);
         } catch (IllegalStateException ex) {
-            monitoringService.crawlAndStore(baseUrl);
-            return monitoringService.getLatestLlmsTxt(baseUrl);
+            admittedCrawl(baseUrl, clientId);
+            return monitoringService.getLatestSnapshot(baseUrl);
         }
     }
 
+    /**
+     * Crawls in the request thread, subject to the client's rate limit and the crawl slots.
+     */
+    private MonitoringResult admittedCrawl(String baseUrl, String clientId) {
+        admissionControl.checkRate(clientId);
+        return admissionControl.runCrawl(() -> crawlCoordinator.crawlAndUpdate(baseUrl));
+    }
+
+    /**
+     * The client a request is rate-limited as: the entry of the configured
+     * {@code llms.admission.client-header} added by the outermost of {@code llms.admission.trusted-proxies}
+     * proxies, else the remote address. See {@link CrawlAdmissionControl#clientOf}.
+     */
+    private String clientOf(HttpServletRequest request) {
+        if (clientHeader.isBlank()) {
+            return request.getRemoteAddr();
+        }
+        return CrawlAdmissionControl.clientOf(request.getHeader(clientHeader), trustedProxies, request.getRemoteAddr());
+    }
+
+    /**
+     * True if the Accept-Encoding header allows gzip, either by name or via "*", with a non-zero q-value.
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String part : acceptEncoding.split(",")) {
+            String[] tokens = part.trim().split(";");
+            String coding = tokens[0].trim().toLowerCase();
+            if (!coding.equals("gzip") && !coding.equals("x-gzip") && !coding.equals("*")) {
+                continue;
+            }
+            boolean refused = false;
+            for (int i = 1; i < tokens.length; i++) {
+                String param = tokens[i].trim().toLowerCase();
+                if (param.startsWith("q=")) {
+                    try {
+                        refused = Double.parseDouble(param.substring(2)) <= 0;
+                    } catch (NumberFormatException e) {
+                        refused = true;
+                    }
+                }
+            }
+            if (!refused) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private LlmsTxtDocument latestDocument(String baseUrl, boolean refresh, LlmsTxtFormat format, String clientId) {
+        if (refresh) {
+            admittedCrawl(baseUrl, clientId);
+            return monitoringService.getLatestDocument(baseUrl, format);
+        }
+
+        try {
+            return monitoringService.getLatestDocument(baseUrl, format);
+        } catch (IllegalStateException ex) {
+            admittedCrawl(baseUrl, clientId);
+            return monitoringService.getLatestDocument(baseUrl, format);
+        }
+    }
+
+
+    /**
+     * Monitored sites with their recrawl interval, next due time and last outcome.
+     */
+    @GetMapping("/sites")
+    public List<MonitoredSite> sites() {
+        return recrawlSchedule.listSites();
+    }
+
+    /**
+     * Per-host circuit breakers for hosts that have failed since they were last crawled
+     * successfully: state, consecutive failures and when the next probe crawl is allowed.
+     */
+    @GetMapping("/breakers")
+    public List<HostCircuitBreaker.HostState> breakers() {
+        return circuitBreaker.states();
+    }
+
+    /**
+     * Performance reports of the site's most recent crawls, newest first.
+     */
+    @GetMapping("/reports")
+    public List<CrawlReport> reports(@RequestParam String baseUrl,
+                                     @RequestParam(defaultValue = "20") int limit) {
+        return reportService.history(baseUrl, limit);
+    }
+
+    /**
+     * The most expensive crawls of the last {@code hours} across all sites, slowest first.
+     */
+    @GetMapping("/reports/slowest")
+    public List<CrawlReport> slowestReports(@RequestParam(defaultValue = "24") long hours,
+                                            @RequestParam(defaultValue = "20") int limit) {
+        return reportService.slowest(Duration.ofHours(hours), limit);
+    }
+
+    @GetMapping("/reports/{snapshotId}")
+    public ResponseEntity<CrawlReport> report(@PathVariable Long snapshotId) {
+        return ResponseEntity.of(reportService.find(snapshotId));
+    }
 
+    /**
+     * @param async if true, queue the crawl as a job and answer 202 with the job instead of
+     *              holding the request until the crawl finishes
+     */
     @PostMapping("/crawl")
-    public MonitoringResult crawl(@RequestParam String baseUrl) {
-        // Normal button: only crawl if no snapshot exists yet
-        return monitoringService.crawlAndUpdate(baseUrl);
+    public ResponseEntity<?> crawl(@RequestParam String baseUrl,
+                                   @RequestParam(defaultValue = "false") boolean async,
+                                   HttpServletRequest servletRequest) {
+        if (async) {
+            return submitJob(baseUrl, servletRequest);
+        }
+        // Normal button: joins an in-flight crawl for the same site if there is one
+        return ResponseEntity.ok(admittedCrawl(baseUrl, clientOf(servletRequest)));
+    }
+
+    /**
+     * Queues a crawl and returns at once with the job (202, Location points at its status).
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<CrawlJob> submitJob(@RequestParam String baseUrl, HttpServletRequest servletRequest) {
+        CrawlJob job = admittedJob(baseUrl, clientOf(servletRequest));
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/jobs/" + job.getId()))
+                .body(job);
+    }
+
+    private CrawlJob admittedJob(String baseUrl, String clientId) {
+        admissionControl.checkRate(clientId);
+        admissionControl.checkJobCapacity();
+        return jobService.submit(baseUrl);
+    }
+
+    @GetMapping("/jobs")
+    public List<CrawlJob> jobs() {
+        return jobService.list();
+    }
+
+    /** Status and progress counters of a crawl job. */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<CrawlJob> job(@PathVariable String id) {
+        return ResponseEntity.of(jobService.find(id));
+    }
+
+    /**
+     * The crawl's diff once the job has succeeded; 202 with the job while it is still queued or
+     * running, 409 with the job if it failed or was cancelled.
+     */
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<?> jobResult(@PathVariable String id) {
+        CrawlJob job = jobService.find(id).orElse(null);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return switch (job.getStatus()) {
+            case SUCCEEDED -> ResponseEntity.ok(job.result());
+            case QUEUED, RUNNING -> ResponseEntity.accepted().body(job);
+            case FAILED, CANCELLED -> ResponseEntity.status(HttpStatus.CONFLICT).body(job);
+        };
+    }
+
+    /**
+     * Server-Sent Events feed of crawl progress: per-page {@code queued}, {@code fetched},
+     * {@code rendered}, {@code skipped}, {@code hashed} and {@code page-failed} events, then one
+     * {@code result} (the site's MonitoringResult delta) or {@code crawl-failed} per crawl.
+     * Covers every crawl, including scheduled monitoring. A client that falls behind loses its
+     * oldest page events, never a {@code result} or {@code crawl-failed}.
+     *
+     * @param baseUrl only stream this site's events; all sites if omitted
+     * @param crawl   also start a crawl of {@code baseUrl} as a job, announced in a {@code job} event,
+     *                and end the stream with a second {@code job} event once that job has finished
+     *                (after the outcome of the crawl it ran or joined)
+     */
+    @GetMapping(value = "/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter events(@RequestParam(required = false) String baseUrl,
+                             @RequestParam(defaultValue = "false") boolean crawl,
+                             HttpServletRequest servletRequest) {
+        if (crawl && (baseUrl == null || baseUrl.isBlank())) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "crawl=true requires a baseUrl");
+        }
+        if (crawl) {
+            // Refuse before the stream is opened, so the client sees a plain 429/503
+            admissionControl.checkRate(clientOf(servletRequest));
+            admissionControl.checkJobCapacity();
+        }
+        SseEmitter emitter = new SseEmitter(eventStreamTimeoutMs);
+        CrawlEventHub.Subscription subscription = eventHub.subscribe(baseUrl, event -> {
+            try {
+                emitter.send(SseEmitter.event().name(event.type().eventName()).data(event));
+            } catch (IOException e) {
+                // Client went away; the hub unsubscribes us
+                throw new UncheckedIOException(e);
+            }
+        });
+        emitter.onCompletion(subscription::cancel);
+        emitter.onTimeout(subscription::cancel);
+        emitter.onError(e -> subscription.cancel());
+
+        if (crawl) {
+            // Subscribed first, so none of the crawl's events can be missed. The crawl publishes its
+            // outcome before the job finishes, so the closing job event is queued behind it; other
+            // crawls of the site streaming past do not end the stream.
+            CompletableFuture<Void> announced = new CompletableFuture<>();
+            CrawlJob job = jobService.submit(baseUrl, finished -> announced.thenRun(() ->
+                    subscription.afterDelivered(() -> {
+                        try {
+                            emitter.send(SseEmitter.event().name("job").data(finished));
+                            emitter.complete();
+                        } catch (IOException e) {
+                            subscription.cancel();
+                        }
+                    })));
+            try {
+                emitter.send(SseEmitter.event().name("job").data(job));
+            } catch (IOException e) {
+                subscription.cancel();
+            }
+            announced.complete(null);
+        }
+        return emitter;
+    }
+
+    @PostMapping("/jobs/{id}/cancel")
+    public ResponseEntity<CrawlJob> cancelJob(@PathVariable String id) {
+        return ResponseEntity.of(jobService.cancel(id));
+    }
+
+    /**
+     * Onboards many sites at once: a JSON array of {@code {"baseUrl": ..., "profile": ...}}.
+     * Answers 202 with the batch (Location points at its status), 400 if any site is invalid, or
+     * 503 while the job queue is full or {@code llms.admission.max-running-batches} batches are running.
+     */
+    @PostMapping("/batches")
+    public ResponseEntity<?> submitBatch(@RequestBody List<CrawlBatchService.SiteRequest> sites,
+                                         HttpServletRequest servletRequest) {
+        admissionControl.checkRate(clientOf(servletRequest));
+        admissionControl.checkJobCapacity();
+        admissionControl.checkBatchCapacity();
+        CrawlBatch batch;
+        try {
+            batch = batchService.submit(sites);
+        } catch (IllegalArgumentException ex) {
+            return ResponseEntity.badRequest().body(ex.getMessage());
+        }
+        return ResponseEntity.accepted()
+                .location(URI.create("/api/batches/" + batch.getId()))
+                .body(batch);
+    }
+
+    @GetMapping("/batches")
+    public List<CrawlBatch> batches() {
+        return batchService.list();
+    }
+
+    /** Status, aggregate progress and per-site status of a batch. */
+    @GetMapping("/batches/{id}")
+    public ResponseEntity<CrawlBatch> batch(@PathVariable String id) {
+        return ResponseEntity.of(batchService.find(id));
+    }
+
+    @PostMapping("/batches/{id}/cancel")
+    public ResponseEntity<CrawlBatch> cancelBatch(@PathVariable String id) {
+        return ResponseEntity.of(batchService.cancel(id));
     }
 
     @PostMapping("/crawl/reset")
-    public void resetAndCrawl(@RequestParam String baseUrl) {
+    public void resetAndCrawl(@RequestParam String baseUrl, HttpServletRequest servletRequest) {
         // Reset/force button: wipe old snapshots (if your recrawlFresh does that)
         // and perform a fresh crawl
-        monitoringService.recrawlFresh(baseUrl);
+        admissionControl.checkRate(clientOf(servletRequest));
+        admissionControl.runCrawl(() -> monitoringService.recrawlFresh(baseUrl));
+    }
+
+    /** Crawl slots in use, requests waiting for one, and queued crawl jobs. */
+    @GetMapping("/admission")
+    public CrawlAdmissionControl.Load admission() {
+        return admissionControl.load();
+    }
+
+    /**
+     * Rate-limited clients get 429, a saturated node 503; both say when to try again.
+     */
+    @ExceptionHandler(CrawlRejectedException.class)
+    public ResponseEntity<String> crawlRejected(CrawlRejectedException ex) {
+        HttpStatus status = ex.getReason() == CrawlRejectedException.Reason.RATE_LIMITED
+                ? HttpStatus.TOO_MANY_REQUESTS
+                : HttpStatus.SERVICE_UNAVAILABLE;
+        // Round up: retrying a little late is fine, retrying early is refused again
+        long retryAfterSeconds = Math.max(1, (ex.getRetryAfter().toMillis() + 999) / 1000);
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ex.getMessage());
     }
-}
 
+    /**
+     * A crawl refused by an open circuit is a temporary unavailability of that host, not a server error.
+     */
+    @ExceptionHandler(CircuitOpenException.class)
+    public ResponseEntity<String> circuitOpen(CircuitOpenException ex) {
+        long retryAfterSeconds = Math.max(1, Duration.between(LocalDateTime.now(), ex.getRetryAt()).toSeconds());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfterSeconds))
+                .body(ex.getMessage());
+    }
+}
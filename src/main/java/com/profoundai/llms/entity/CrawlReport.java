@@ -0,0 +1,133 @@
+package com.profoundai.llms.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * How the crawl behind one snapshot went: where its time went, what it downloaded, what it
+ * skipped or failed on, its slowest pages and why it stopped.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_crawl_report_base_url_created_at", columnList = "baseUrl, createdAt"))
+public class CrawlReport {
+
+    public enum StopReason {
+        /** Every reachable page within the depth limit was crawled. */
+        COMPLETED,
+        /** The profile's page limit was reached with pages left to crawl. */
+        MAX_PAGES,
+        /** Links beyond the profile's depth limit were left uncrawled. */
+        MAX_DEPTH
+    }
+
+    /**
+     * Time spent per stage. Fetch, render, parse and hash are summed over the crawl's worker
+     * threads, so together they can exceed the wall time.
+     */
+    @Embeddable
+    public record Stages(long fetchMs, long renderMs, long parseMs, long hashMs,
+                         long persistMs, long diffMs, long generationMs) {
+    }
+
+    /**
+     * @param renders     pages sent to the headless browser
+     * @param rendersUsed renders whose DOM replaced the server HTML
+     * @param skipped     links left uncrawled (other hosts, over the page limit)
+     * @param errors      pages and assets that could not be fetched or processed
+     */
+    @Embeddable
+    public record Counts(long bytesFetched, int pagesFetched, int assetsFetched, int renders, int rendersUsed,
+                         int skipped, int errors) {
+    }
+
+    /** One of the crawl's slowest pages. */
+    @Embeddable
+    public record PageTiming(@Column(length = 1000) String url,
+                             @Enumerated(EnumType.STRING) @Column(length = 32) PageType pageType,
+                             long fetchMs, long renderMs) {
+    }
+
+    @Id
+    private Long snapshotId;
+
+    private String baseUrl;
+
+    private LocalDateTime createdAt;
+
+    @Column(length = 64)
+    private String crawlProfile;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 16)
+    private StopReason stopReason;
+
+    private long wallTimeMs;
+
+    @Embedded
+    private Stages stages;
+
+    @Embedded
+    private Counts counts;
+
+    /** Slowest first. */
+    @ElementCollection(fetch = FetchType.EAGER)
+    @CollectionTable(name = "crawl_report_page", joinColumns = @JoinColumn(name = "snapshot_id"))
+    @OrderColumn(name = "page_order")
+    private List<PageTiming> slowestPages = new ArrayList<>();
+
+    protected CrawlReport() {
+    }
+
+    public CrawlReport(Long snapshotId, String baseUrl, LocalDateTime createdAt, String crawlProfile,
+                       StopReason stopReason, long wallTimeMs, Stages stages, Counts counts,
+                       List<PageTiming> slowestPages) {
+        this.snapshotId = snapshotId;
+        this.baseUrl = baseUrl;
+        this.createdAt = createdAt;
+        this.crawlProfile = crawlProfile;
+        this.stopReason = stopReason;
+        this.wallTimeMs = wallTimeMs;
+        this.stages = stages;
+        this.counts = counts;
+        this.slowestPages = new ArrayList<>(slowestPages);
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public String getCrawlProfile() {
+        return crawlProfile;
+    }
+
+    public StopReason getStopReason() {
+        return stopReason;
+    }
+
+    /** From the start of the crawl until the snapshot and its llms.txt were stored. */
+    public long getWallTimeMs() {
+        return wallTimeMs;
+    }
+
+    public Stages getStages() {
+        return stages;
+    }
+
+    public Counts getCounts() {
+        return counts;
+    }
+
+    public List<PageTiming> getSlowestPages() {
+        return slowestPages;
+    }
+}
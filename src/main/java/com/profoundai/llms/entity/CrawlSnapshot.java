@@ -4,6 +4,7 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
+@Table(indexes = @Index(name = "idx_crawl_snapshot_base_url_created_at", columnList = "baseUrl, createdAt"))
 public class CrawlSnapshot {
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -22,6 +23,7 @@ public class CrawlSnapshot {
     }
 
     public CrawlSnapshot(String baseUrl) {
+        this(baseUrl, LocalDateTime.now());
     }
 
     public Long getId() {
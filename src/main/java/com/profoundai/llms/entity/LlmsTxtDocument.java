@@ -0,0 +1,69 @@
+package com.profoundai.llms.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Generated llms.txt for one snapshot. Materialized once and then served as-is.
+ */
+@Entity
+public class LlmsTxtDocument {
+
+    @Id
+    private Long snapshotId;
+
+    private String baseUrl;
+
+    @Lob
+    private String content;
+
+    /** Gzip-compressed content, produced once alongside the text so requests never compress. */
+    @Lob
+    private byte[] gzipContent;
+
+    @Column(length = 64)
+    private String etag;
+
+    private LocalDateTime generatedAt;
+
+    protected LlmsTxtDocument() {
+    }
+
+    public LlmsTxtDocument(Long snapshotId, String baseUrl, String content, String etag, LocalDateTime generatedAt) {
+        this(snapshotId, baseUrl, content, null, etag, generatedAt);
+    }
+
+    public LlmsTxtDocument(Long snapshotId, String baseUrl, String content, byte[] gzipContent,
+                           String etag, LocalDateTime generatedAt) {
+        this.snapshotId = snapshotId;
+        this.baseUrl = baseUrl;
+        this.content = content;
+        this.gzipContent = gzipContent;
+        this.etag = etag;
+        this.generatedAt = generatedAt;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public byte[] getGzipContent() {
+        return gzipContent;
+    }
+
+    public String getEtag() {
+        return etag;
+    }
+
+    public LocalDateTime getGeneratedAt() {
+        return generatedAt;
+    }
+}
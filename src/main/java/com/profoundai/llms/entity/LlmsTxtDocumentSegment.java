@@ -0,0 +1,58 @@
+package com.profoundai.llms.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * One segment of a snapshot's llms.txt, in document order. Order 0 is the header; every other
+ * segment records the URL of its first entry, which is what lets the next snapshot find the
+ * segments its changes fall into.
+ */
+@Entity
+@Table(indexes = {
+        @Index(name = "idx_llms_txt_document_segment_snapshot", columnList = "snapshotId, segmentOrder"),
+        @Index(name = "idx_llms_txt_document_segment_hash", columnList = "segmentHash")
+})
+public class LlmsTxtDocumentSegment {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long snapshotId;
+
+    @Column(nullable = false)
+    private int segmentOrder;
+
+    @Column(length = 64, nullable = false)
+    private String segmentHash;
+
+    @Column(length = 1000)
+    private String firstUrl;
+
+    protected LlmsTxtDocumentSegment() {
+    }
+
+    public LlmsTxtDocumentSegment(Long snapshotId, int segmentOrder, String segmentHash, String firstUrl) {
+        this.snapshotId = snapshotId;
+        this.segmentOrder = segmentOrder;
+        this.segmentHash = segmentHash;
+        this.firstUrl = firstUrl;
+    }
+
+    public Long getSnapshotId() {
+        return snapshotId;
+    }
+
+    public int getSegmentOrder() {
+        return segmentOrder;
+    }
+
+    public String getSegmentHash() {
+        return segmentHash;
+    }
+
+    public String getFirstUrl() {
+        return firstUrl;
+    }
+}
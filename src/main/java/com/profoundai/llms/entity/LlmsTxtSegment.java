@@ -0,0 +1,43 @@
+package com.profoundai.llms.entity;
+
+import jakarta.persistence.*;
+
+/**
+ * A run of consecutive llms.txt entries (or a document's header), stored once by the SHA-256 of
+ * its content and shared by every snapshot whose document contains it.
+ */
+@Entity
+public class LlmsTxtSegment {
+
+    @Id
+    @Column(length = 64)
+    private String hash;
+
+    @Lob
+    private String content;
+
+    /** Raw deflate of the content ending in a sync flush, so segments concatenate into one gzip member. */
+    @Lob
+    private byte[] deflated;
+
+    protected LlmsTxtSegment() {
+    }
+
+    public LlmsTxtSegment(String hash, String content, byte[] deflated) {
+        this.hash = hash;
+        this.content = content;
+        this.deflated = deflated;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public String getContent() {
+        return content;
+    }
+
+    public byte[] getDeflated() {
+        return deflated;
+    }
+}
@@ -0,0 +1,133 @@
+package com.profoundai.llms.entity;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * A site under automatic monitoring, with its recrawl schedule and the outcome of its last crawl.
+ */
+@Entity
+@Table(indexes = @Index(name = "idx_monitored_site_next_due_at", columnList = "nextDueAt"))
+public class MonitoredSite {
+
+    public static final String DEFAULT_PROFILE = "default";
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, unique = true)
+    private String baseUrl;
+
+    private long intervalMs;
+
+    @Column(nullable = false)
+    private LocalDateTime nextDueAt;
+
+    private LocalDateTime lastCrawledAt;
+
+    @Enumerated(EnumType.STRING)
+    @Column(length = 32)
+    private SiteStatus lastStatus;
+
+    private int failureCount;
+
+    @Column(length = 64, nullable = false)
+    private String crawlProfile = DEFAULT_PROFILE;
+
+    /** Recent crawl observations, oldest first, encoded as {@code changed:elapsedMs} pairs separated by commas. */
+    @Column(length = 512)
+    private String changeHistory;
+
+    /** Node currently crawling the site, if any; only meaningful until {@link #leaseExpiresAt}. */
+    @Column(length = 128)
+    private String leaseOwner;
+
+    private LocalDateTime leaseExpiresAt;
+
+    protected MonitoredSite() {
+    }
+
+    public MonitoredSite(String baseUrl, long intervalMs, LocalDateTime nextDueAt) {
+        this.baseUrl = baseUrl;
+        this.intervalMs = intervalMs;
+        this.nextDueAt = nextDueAt;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public long getIntervalMs() {
+        return intervalMs;
+    }
+
+    public void setIntervalMs(long intervalMs) {
+        this.intervalMs = intervalMs;
+    }
+
+    public LocalDateTime getNextDueAt() {
+        return nextDueAt;
+    }
+
+    public void setNextDueAt(LocalDateTime nextDueAt) {
+        this.nextDueAt = nextDueAt;
+    }
+
+    public LocalDateTime getLastCrawledAt() {
+        return lastCrawledAt;
+    }
+
+    public void setLastCrawledAt(LocalDateTime lastCrawledAt) {
+        this.lastCrawledAt = lastCrawledAt;
+    }
+
+    public SiteStatus getLastStatus() {
+        return lastStatus;
+    }
+
+    public void setLastStatus(SiteStatus lastStatus) {
+        this.lastStatus = lastStatus;
+    }
+
+    public int getFailureCount() {
+        return failureCount;
+    }
+
+    public void setFailureCount(int failureCount) {
+        this.failureCount = failureCount;
+    }
+
+    public String getCrawlProfile() {
+        return crawlProfile;
+    }
+
+    public void setCrawlProfile(String crawlProfile) {
+        this.crawlProfile = crawlProfile;
+    }
+
+    public String getChangeHistory() {
+        return changeHistory;
+    }
+
+    public void setChangeHistory(String changeHistory) {
+        this.changeHistory = changeHistory;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public LocalDateTime getLeaseExpiresAt() {
+        return leaseExpiresAt;
+    }
+
+    public void releaseLease() {
+        this.leaseOwner = null;
+        this.leaseExpiresAt = null;
+    }
+}
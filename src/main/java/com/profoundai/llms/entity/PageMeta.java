@@ -3,6 +3,11 @@ package com.profoundai.llms.entity;
 import jakarta.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_page_meta_snapshot_id", columnList = "snapshotId"),
+        @Index(name = "idx_page_meta_snapshot_id_url", columnList = "snapshotId, url"),
+        @Index(name = "idx_page_meta_content_hash", columnList = "contentHash")
+})
 public class PageMeta {
 
     @Id
@@ -24,6 +29,7 @@ public class PageMeta {
     private String contentHash;
 
     @Enumerated(EnumType.STRING)
+    @Column(length = 32)
     private PageType pageType;
 
     protected PageMeta() {
@@ -0,0 +1,9 @@
+package com.profoundai.llms.entity;
+
+public enum SiteStatus {
+    SUCCEEDED,
+    FAILED,
+    TIMED_OUT,
+    /** Not crawled because the host's circuit breaker is open. */
+    CIRCUIT_OPEN
+}
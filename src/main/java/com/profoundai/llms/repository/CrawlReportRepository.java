@@ -0,0 +1,17 @@
+package com.profoundai.llms.repository;
+
+import com.profoundai.llms.entity.CrawlReport;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public interface CrawlReportRepository extends JpaRepository<CrawlReport, Long> {
+
+    List<CrawlReport> findByBaseUrlOrderByCreatedAtDesc(String baseUrl, Limit limit);
+
+    List<CrawlReport> findByCreatedAtAfterOrderByWallTimeMsDesc(LocalDateTime since, Limit limit);
+
+    void deleteBySnapshotIdIn(List<Long> snapshotIds);
+}
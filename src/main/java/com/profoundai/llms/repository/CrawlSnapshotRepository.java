@@ -2,7 +2,6 @@ package com.profoundai.llms.repository;
 
 import com.profoundai.llms.entity.CrawlSnapshot;
 import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Query;
 
 import java.util.List;
 import java.util.Optional;
@@ -12,9 +11,4 @@ public interface CrawlSnapshotRepository extends JpaRepository<CrawlSnapshot, Lo
     Optional<CrawlSnapshot> findFirstByBaseUrlOrderByCreatedAtDesc(String baseUrl);
 
     List<CrawlSnapshot> findByBaseUrl(String baseUrl);
-
-    //For generic if from website we want to crawl and not test
-
-    @Query("select distinct cs.baseUrl from CrawlSnapshot cs")
-    List<String> findAllBaseUrls();
 }
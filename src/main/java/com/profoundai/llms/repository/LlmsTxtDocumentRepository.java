@@ -0,0 +1,11 @@
+package com.profoundai.llms.repository;
+
+import com.profoundai.llms.entity.LlmsTxtDocument;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface LlmsTxtDocumentRepository extends JpaRepository<LlmsTxtDocument, Long> {
+
+    void deleteBySnapshotIdIn(List<Long> snapshotIds);
+}
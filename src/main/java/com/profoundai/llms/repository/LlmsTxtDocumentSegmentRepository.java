@@ -0,0 +1,14 @@
+package com.profoundai.llms.repository;
+
+import com.profoundai.llms.entity.LlmsTxtDocumentSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface LlmsTxtDocumentSegmentRepository extends JpaRepository<LlmsTxtDocumentSegment, Long> {
+
+    List<LlmsTxtDocumentSegment> findBySnapshotIdOrderBySegmentOrder(Long snapshotId);
+
+    /** Deletes the segment lists of these snapshots and returns the rows deleted. */
+    List<LlmsTxtDocumentSegment> deleteBySnapshotIdIn(List<Long> snapshotIds);
+}
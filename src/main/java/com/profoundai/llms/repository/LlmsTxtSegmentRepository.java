@@ -0,0 +1,17 @@
+package com.profoundai.llms.repository;
+
+import com.profoundai.llms.entity.LlmsTxtSegment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+
+import java.util.Collection;
+
+public interface LlmsTxtSegmentRepository extends JpaRepository<LlmsTxtSegment, String> {
+
+    /** Deletes those of {@code hashes} that no snapshot's document is made of any more. */
+    @Modifying
+    @Query("delete from LlmsTxtSegment s where s.hash in :hashes and not exists "
+            + "(select r.id from LlmsTxtDocumentSegment r where r.segmentHash = s.hash)")
+    int deleteUnreferenced(Collection<String> hashes);
+}
@@ -0,0 +1,39 @@
+package com.profoundai.llms.repository;
+
+import com.profoundai.llms.entity.MonitoredSite;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+public interface MonitoredSiteRepository extends JpaRepository<MonitoredSite, Long> {
+
+    Optional<MonitoredSite> findByBaseUrl(String baseUrl);
+
+    boolean existsByBaseUrl(String baseUrl);
+
+    /**
+     * Unleased (or expired-lease) sites due at {@code now}, most overdue first;
+     * a range scan on idx_monitored_site_next_due_at.
+     */
+    @Query("select s from MonitoredSite s where s.nextDueAt <= :now"
+            + " and (s.leaseExpiresAt is null or s.leaseExpiresAt < :now) order by s.nextDueAt")
+    List<MonitoredSite> findDue(@Param("now") LocalDateTime now, Pageable limit);
+
+    /**
+     * Atomically leases a due site to {@code owner} unless another node holds a live lease.
+     *
+     * @return 1 if the lease was taken, 0 if the site is not due or already leased
+     */
+    @Modifying
+    @Query("update MonitoredSite s set s.leaseOwner = :owner, s.leaseExpiresAt = :expiresAt"
+            + " where s.baseUrl = :baseUrl and s.nextDueAt <= :now"
+            + " and (s.leaseExpiresAt is null or s.leaseExpiresAt < :now)")
+    int claim(@Param("baseUrl") String baseUrl, @Param("owner") String owner,
+              @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+}
@@ -1,14 +1,37 @@
 package com.profoundai.llms.repository;
 
 import com.profoundai.llms.entity.PageMeta;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Stream;
 
 public interface PageMetaRepository extends JpaRepository<PageMeta, Long> {
 
     List<PageMeta> findBySnapshotId(Long snapshotId);
 
+    /**
+     * Cursor over a snapshot's pages for streaming generation, in the canonical URL order of
+     * {@code LlmsTxtGeneratorService.URL_ORDER}. Must be consumed inside a transaction and
+     * closed afterwards.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("select p from PageMeta p where p.snapshotId = :snapshotId order by p.url")
+    Stream<PageMeta> streamBySnapshotId(Long snapshotId);
+
     void deleteBySnapshotIdIn(List<Long> snapshotIds);
-}
 
+    /** Those of {@code hashes} some page still references, for sweeping the content store. */
+    @Query("select distinct p.contentHash from PageMeta p where p.contentHash in :hashes")
+    Set<String> findReferencedContentHashesIn(@Param("hashes") Collection<String> hashes);
+}
@@ -0,0 +1,308 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.MonitoredSite;
+import com.profoundai.llms.entity.SiteStatus;
+import com.profoundai.llms.repository.MonitoredSiteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Per-site recrawl intervals driven by how often each site has actually changed.
+ * Schedules live on {@link MonitoredSite} rows, so finding work is one indexed query on the
+ * next due time; after every crawl the site's interval is re-estimated from its recent crawl
+ * history and clamped to [min, max].
+ *
+ * <p>The estimate is the observed change rate: changes seen divided by the time those
+ * crawls covered, so a site that changed once in the last hour gets roughly an hourly
+ * interval. A site with no observed change doubles its interval each time.
+ *
+ * <p>When several instances share the database, a node must {@link #tryClaim claim} a site
+ * before crawling it. The claim is a conditional update that takes a row lease, so exactly
+ * one node wins; the lease is released when the crawl is recorded, and a lease left behind
+ * by a crashed node expires after {@code llms.monitor.lease-ms} and is reclaimed by whoever
+ * picks the site up next.
+ */
+@Component
+public class AdaptiveRecrawlSchedule {
+
+    private static final Logger log = LoggerFactory.getLogger(AdaptiveRecrawlSchedule.class);
+
+    /** Number of past crawls the change rate is estimated from. */
+    static final int HISTORY_SIZE = 10;
+
+    private final MonitoredSiteRepository siteRepository;
+    private final long minIntervalMs;
+    private final long maxIntervalMs;
+    private final long leaseMs;
+    private final String nodeId;
+
+    public AdaptiveRecrawlSchedule(MonitoredSiteRepository siteRepository,
+                                   @Value("${llms.monitor.min-interval-ms:30000}") long minIntervalMs,
+                                   @Value("${llms.monitor.max-interval-ms:86400000}") long maxIntervalMs,
+                                   @Value("${llms.monitor.lease-ms:600000}") long leaseMs,
+                                   @Value("${llms.node-id:}") String nodeId) {
+        if (minIntervalMs <= 0 || maxIntervalMs < minIntervalMs) {
+            throw new IllegalArgumentException(
+                    "Invalid recrawl bounds: min=" + minIntervalMs + " ms, max=" + maxIntervalMs + " ms");
+        }
+        this.siteRepository = siteRepository;
+        this.minIntervalMs = minIntervalMs;
+        this.maxIntervalMs = maxIntervalMs;
+        this.leaseMs = leaseMs;
+        this.nodeId = nodeId != null && !nodeId.isBlank() ? nodeId : defaultNodeId();
+        log.info("Recrawl schedule node id={}, lease={} ms", this.nodeId, leaseMs);
+    }
+
+    public String getNodeId() {
+        return nodeId;
+    }
+
+    /**
+     * Starts monitoring a site that was just crawled for the first time; a no-op for known sites
+     * other than recording the first crawl of an {@link #enroll enrolled} one. Runs in its own
+     * transaction so that losing a registration race to another node (unique base URL) does not
+     * roll back the caller's crawl.
+     */
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    public MonitoredSite register(String baseUrl, LocalDateTime crawledAt) {
+        Optional<MonitoredSite> existing = siteRepository.findByBaseUrl(baseUrl);
+        if (existing.isPresent()) {
+            MonitoredSite site = existing.get();
+            if (site.getLastCrawledAt() == null) {
+                markFirstCrawl(site, crawledAt);
+            }
+            return site;
+        }
+        MonitoredSite site = new MonitoredSite(baseUrl, minIntervalMs, crawledAt.plus(Duration.ofMillis(minIntervalMs)));
+        markFirstCrawl(site, crawledAt);
+        log.info("Registered {} for monitoring, first recrawl in {} ms", baseUrl, minIntervalMs);
+        return siteRepository.save(site);
+    }
+
+    /**
+     * Starts monitoring a site with the given crawl profile before it is first crawled, or
+     * switches a known site to that profile. The site's first crawl is expected to be run by
+     * the caller; should it not happen, the scheduler picks the site up after the minimum
+     * interval.
+     */
+    @Transactional
+    public MonitoredSite enroll(String baseUrl, String crawlProfile, LocalDateTime now) {
+        MonitoredSite site = siteRepository.findByBaseUrl(baseUrl)
+                .orElseGet(() -> new MonitoredSite(baseUrl, minIntervalMs, now.plus(Duration.ofMillis(minIntervalMs))));
+        if (site.getId() == null) {
+            log.info("Enrolled {} for monitoring with crawl profile {}", baseUrl, crawlProfile);
+        } else if (!crawlProfile.equals(site.getCrawlProfile())) {
+            log.info("Switched {} from crawl profile {} to {}", baseUrl, site.getCrawlProfile(), crawlProfile);
+        }
+        site.setCrawlProfile(crawlProfile);
+        return siteRepository.save(site);
+    }
+
+    /**
+     * Base URLs of up to {@code limit} sites due at {@code now} and not leased by a live node,
+     * most overdue first. These are candidates only; each must be {@link #tryClaim claimed}.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findDue(LocalDateTime now, int limit) {
+        return siteRepository.findDue(now, PageRequest.of(0, limit)).stream()
+                .map(MonitoredSite::getBaseUrl)
+                .toList();
+    }
+
+    /**
+     * Leases a due site to this node. Call right before crawling, so that a node only takes
+     * as much work as it has free workers and idle nodes pick up the rest.
+     *
+     * @return false if the site is no longer due or another node holds a live lease on it
+     */
+    @Transactional
+    public boolean tryClaim(String baseUrl, LocalDateTime now) {
+        boolean claimed = siteRepository.claim(baseUrl, nodeId, now, now.plus(Duration.ofMillis(leaseMs))) == 1;
+        if (!claimed) {
+            log.debug("{} was claimed by another node or is no longer due", baseUrl);
+        }
+        return claimed;
+    }
+
+    /** All monitored sites, soonest due first. */
+    @Transactional(readOnly = true)
+    public List<MonitoredSite> listSites() {
+        return siteRepository.findAll(Sort.by("nextDueAt"));
+    }
+
+    /**
+     * Records a completed crawl and reschedules the site from its updated change history.
+     *
+     * @return the site's new interval in milliseconds, or -1 if the site is not monitored
+     */
+    @Transactional
+    public long recordCrawl(String baseUrl, boolean changed, LocalDateTime now) {
+        MonitoredSite site = siteRepository.findByBaseUrl(baseUrl).orElse(null);
+        if (site == null) {
+            // Site stopped being monitored while it was crawling
+            return -1;
+        }
+        List<Observation> history = decode(site.getChangeHistory());
+        if (site.getLastCrawledAt() != null) {
+            long elapsedMs = Math.max(1, Duration.between(site.getLastCrawledAt(), now).toMillis());
+            history.add(new Observation(changed, elapsedMs));
+            if (history.size() > HISTORY_SIZE) {
+                history.remove(0);
+            }
+        }
+        long interval = estimateInterval(history, site.getIntervalMs());
+
+        site.setChangeHistory(encode(history));
+        site.setIntervalMs(interval);
+        site.setLastCrawledAt(now);
+        site.setNextDueAt(now.plus(Duration.ofMillis(interval)));
+        site.setLastStatus(SiteStatus.SUCCEEDED);
+        site.setFailureCount(0);
+        releaseIfOwned(site);
+        siteRepository.save(site);
+        log.debug("{} {}, next crawl in {} ms", baseUrl, changed ? "changed" : "unchanged", interval);
+        return interval;
+    }
+
+    /**
+     * Settles a successful scheduled run. Its crawl was already {@link #recordCrawl recorded} if it
+     * stored a snapshot, which released the lease; a crawl skipped because the site's latest
+     * snapshot was still fresh stored nothing, so the site is only put back one interval out,
+     * without an observation.
+     */
+    @Transactional
+    public void releaseAfterCrawl(String baseUrl, LocalDateTime now) {
+        siteRepository.findByBaseUrl(baseUrl)
+                .filter(site -> nodeId.equals(site.getLeaseOwner()))
+                .ifPresent(site -> {
+                    site.setNextDueAt(now.plus(Duration.ofMillis(site.getIntervalMs())));
+                    site.setLastStatus(SiteStatus.SUCCEEDED);
+                    site.setFailureCount(0);
+                    site.releaseLease();
+                    siteRepository.save(site);
+                    log.debug("{} was not crawled, next crawl in {} ms", baseUrl, site.getIntervalMs());
+                });
+    }
+
+    /**
+     * Records a failed or timed-out crawl, keeping the site's current interval.
+     */
+    @Transactional
+    public void recordFailure(String baseUrl, SiteStatus status, LocalDateTime now) {
+        recordFailure(baseUrl, status, now, null);
+    }
+
+    /**
+     * Records a failed, timed-out or refused crawl, keeping the site's current interval but not
+     * retrying before {@code notBefore} (the host's circuit breaker backoff), so that no node
+     * picks the site up again while its host is known to be down.
+     */
+    @Transactional
+    public void recordFailure(String baseUrl, SiteStatus status, LocalDateTime now, LocalDateTime notBefore) {
+        siteRepository.findByBaseUrl(baseUrl).ifPresent(site -> {
+            LocalDateTime nextDueAt = now.plus(Duration.ofMillis(site.getIntervalMs()));
+            if (notBefore != null && notBefore.isAfter(nextDueAt)) {
+                nextDueAt = notBefore;
+            }
+            site.setLastStatus(status);
+            site.setFailureCount(site.getFailureCount() + 1);
+            site.setNextDueAt(nextDueAt);
+            releaseIfOwned(site);
+            siteRepository.save(site);
+            log.debug("{} {} ({} consecutive), retrying at {}",
+                    baseUrl, status, site.getFailureCount(), nextDueAt);
+        });
+    }
+
+    long estimateInterval(List<Observation> history, long currentIntervalMs) {
+        long changes = 0;
+        long coveredMs = 0;
+        for (Observation observation : history) {
+            coveredMs += observation.elapsedMs();
+            if (observation.changed()) {
+                changes++;
+            }
+        }
+        long interval;
+        if (history.isEmpty()) {
+            interval = currentIntervalMs;
+        } else if (changes == 0) {
+            interval = saturatedDouble(currentIntervalMs);
+        } else {
+            interval = coveredMs / changes;
+        }
+        return Math.max(minIntervalMs, Math.min(maxIntervalMs, interval));
+    }
+
+    static List<Observation> decode(String history) {
+        List<Observation> observations = new ArrayList<>();
+        if (history == null || history.isBlank()) {
+            return observations;
+        }
+        for (String item : history.split(",")) {
+            int colon = item.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            try {
+                observations.add(new Observation(
+                        "1".equals(item.substring(0, colon)), Long.parseLong(item.substring(colon + 1))));
+            } catch (NumberFormatException e) {
+                log.debug("Ignoring malformed change history entry '{}'", item);
+            }
+        }
+        return observations;
+    }
+
+    static String encode(List<Observation> history) {
+        return history.stream()
+                .map(o -> (o.changed() ? "1" : "0") + ":" + o.elapsedMs())
+                .collect(Collectors.joining(","));
+    }
+
+    private void releaseIfOwned(MonitoredSite site) {
+        // A lease that expired and was reclaimed by another node is that node's to release
+        if (nodeId.equals(site.getLeaseOwner())) {
+            site.releaseLease();
+        }
+    }
+
+    private void markFirstCrawl(MonitoredSite site, LocalDateTime crawledAt) {
+        site.setLastCrawledAt(crawledAt);
+        site.setLastStatus(SiteStatus.SUCCEEDED);
+        site.setNextDueAt(crawledAt.plus(Duration.ofMillis(site.getIntervalMs())));
+    }
+
+    private static String defaultNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "node";
+        }
+        return host + "-" + UUID.randomUUID().toString().substring(0, 8);
+    }
+
+    private static long saturatedDouble(long value) {
+        return value > Long.MAX_VALUE / 2 ? Long.MAX_VALUE : value * 2;
+    }
+
+    record Observation(boolean changed, long elapsedMs) {
+    }
+}
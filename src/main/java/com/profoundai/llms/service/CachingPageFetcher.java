@@ -0,0 +1,65 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Fetches through an {@link HttpResponseCache}: fresh responses are served from it, stale ones
+ * with validators are revalidated, everything else goes to the network and is offered to the
+ * cache. Rendering always goes to the network fetcher.
+ */
+class CachingPageFetcher implements PageFetcher {
+
+    private final PageFetcher network;
+    private final HttpResponseCache cache;
+
+    CachingPageFetcher(PageFetcher network, HttpResponseCache cache) {
+        this.network = network;
+        this.cache = cache;
+    }
+
+    @Override
+    public Response exchange(String url, PageType pageType) throws IOException {
+        HttpResponseCache.Entry cached = cache.get(url);
+        if (cached != null && cache.isFresh(cached, pageType)) {
+            cache.record(HttpResponseCache.Outcome.HIT);
+            return cached.response();
+        }
+        Map<String, String> validators = new LinkedHashMap<>();
+        if (cached != null) {
+            String etag = cached.response().header("ETag");
+            String lastModified = cached.response().header("Last-Modified");
+            if (etag != null) {
+                validators.put("If-None-Match", etag);
+            }
+            if (lastModified != null) {
+                validators.put("If-Modified-Since", lastModified);
+            }
+        }
+        long requestTime = cache.now();
+        Response response = network.exchange(url, pageType, validators);
+        long responseTime = cache.now();
+        if (cached != null && !validators.isEmpty() && response.status() == 304) {
+            Response freshened = HttpResponseCache.freshen(cached.response(), response);
+            cache.put(url, freshened, requestTime, responseTime);
+            cache.record(HttpResponseCache.Outcome.REVALIDATED);
+            return freshened;
+        }
+        cache.put(url, response, requestTime, responseTime);
+        cache.record(HttpResponseCache.Outcome.MISS);
+        return response;
+    }
+
+    @Override
+    public String render(String url) {
+        return network.render(url);
+    }
+
+    @Override
+    public void close() {
+        network.close();
+    }
+}
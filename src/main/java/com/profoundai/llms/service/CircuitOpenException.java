@@ -0,0 +1,26 @@
+package com.profoundai.llms.service;
+
+import java.time.LocalDateTime;
+
+/**
+ * Thrown instead of crawling a host whose {@link HostCircuitBreaker} circuit is open.
+ */
+public class CircuitOpenException extends RuntimeException {
+
+    private final String host;
+    private final LocalDateTime retryAt;
+
+    public CircuitOpenException(String host, LocalDateTime retryAt) {
+        super("Circuit open for " + host + " after repeated crawl failures, next attempt at " + retryAt);
+        this.host = host;
+        this.retryAt = retryAt;
+    }
+
+    public String getHost() {
+        return host;
+    }
+
+    public LocalDateTime getRetryAt() {
+        return retryAt;
+    }
+}
@@ -0,0 +1,251 @@
+package com.profoundai.llms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Decides whether the API may start another crawl, so that a burst of requests is turned away
+ * quickly instead of piling up crawls (and the browsers they launch) until the node falls over.
+ * <p>
+ * Four limits apply, each failing with a {@link CrawlRejectedException} that carries a retry hint:
+ * <ul>
+ *   <li>every crawl-triggering request spends a token from its client's bucket, refilled at
+ *       {@code llms.admission.rate-per-minute} and holding at most {@code llms.admission.burst};</li>
+ *   <li>crawls run inside a request hold one of {@code llms.admission.max-concurrent-crawls} slots.
+ *       Up to {@code llms.admission.max-pending} more wait for a slot, for at most
+ *       {@code llms.admission.queue-timeout-ms}; anything beyond that is refused at once;</li>
+ *   <li>no new crawl jobs are queued while {@code llms.admission.max-queued-jobs} are already
+ *       waiting for a worker;</li>
+ *   <li>no new batch starts while {@code llms.admission.max-running-batches} are still running,
+ *       since a batch admits up to {@code llms.batch.max-sites} crawls for a single token.</li>
+ * </ul>
+ * Scheduled monitoring has its own bounded pool and does not go through here.
+ */
+@Component
+public class CrawlAdmissionControl {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlAdmissionControl.class);
+
+    /** Buckets are pruned once there are this many clients; full buckets are idle ones. */
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    /**
+     * Current load, as exposed by the API.
+     *
+     * @param activeCrawls  request crawls holding a slot
+     * @param pendingCrawls request crawls waiting for a slot
+     * @param queuedJobs     crawl jobs waiting for a worker
+     * @param runningBatches batches with sites still waiting or crawling
+     * @param clients        clients with a rate-limit bucket
+     */
+    public record Load(int activeCrawls, int pendingCrawls, int queuedJobs, int runningBatches, int clients) {
+    }
+
+    private final CrawlJobService jobService;
+    private final CrawlBatchService batchService;
+    private final int maxConcurrentCrawls;
+    private final int maxPending;
+    private final long queueTimeoutMs;
+    private final int maxQueuedJobs;
+    private final int maxRunningBatches;
+    private final double tokensPerMs;
+    private final int burst;
+    private final Duration saturatedRetryAfter;
+    private final Clock clock;
+
+    private final Semaphore crawlSlots;
+    private final AtomicInteger pending = new AtomicInteger();
+    private final ConcurrentMap<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+
+    @Autowired
+    public CrawlAdmissionControl(CrawlJobService jobService,
+                                 CrawlBatchService batchService,
+                                 @Value("${llms.admission.max-concurrent-crawls:4}") int maxConcurrentCrawls,
+                                 @Value("${llms.admission.max-pending:16}") int maxPending,
+                                 @Value("${llms.admission.queue-timeout-ms:30000}") long queueTimeoutMs,
+                                 @Value("${llms.admission.max-queued-jobs:100}") int maxQueuedJobs,
+                                 @Value("${llms.admission.max-running-batches:2}") int maxRunningBatches,
+                                 @Value("${llms.admission.rate-per-minute:30}") double ratePerMinute,
+                                 @Value("${llms.admission.burst:10}") int burst) {
+        this(jobService, batchService, maxConcurrentCrawls, maxPending, queueTimeoutMs, maxQueuedJobs,
+                maxRunningBatches, ratePerMinute, burst, Clock.systemDefaultZone());
+    }
+
+    CrawlAdmissionControl(CrawlJobService jobService, CrawlBatchService batchService, int maxConcurrentCrawls,
+                          int maxPending, long queueTimeoutMs, int maxQueuedJobs, int maxRunningBatches,
+                          double ratePerMinute, int burst, Clock clock) {
+        if (maxConcurrentCrawls < 1 || maxPending < 0 || queueTimeoutMs < 0 || maxQueuedJobs < 0
+                || maxRunningBatches < 0 || burst < 1) {
+            throw new IllegalArgumentException("Invalid admission settings: max-concurrent-crawls=" + maxConcurrentCrawls
+                    + ", max-pending=" + maxPending + ", queue-timeout-ms=" + queueTimeoutMs
+                    + ", max-queued-jobs=" + maxQueuedJobs + ", max-running-batches=" + maxRunningBatches
+                    + ", burst=" + burst);
+        }
+        this.jobService = jobService;
+        this.batchService = batchService;
+        this.maxConcurrentCrawls = maxConcurrentCrawls;
+        this.maxPending = maxPending;
+        this.queueTimeoutMs = queueTimeoutMs;
+        this.maxQueuedJobs = maxQueuedJobs;
+        this.maxRunningBatches = maxRunningBatches;
+        this.tokensPerMs = ratePerMinute / 60_000.0;
+        this.burst = burst;
+        // A slot frees up when a crawl finishes; the queue timeout is a fair guess at how long that takes
+        this.saturatedRetryAfter = Duration.ofMillis(Math.max(1_000, queueTimeoutMs));
+        this.clock = clock;
+        this.crawlSlots = new Semaphore(maxConcurrentCrawls, true);
+    }
+
+    /**
+     * The client a request is rate-limited as. {@code forwardedFor} is an X-Forwarded-For style list,
+     * to which each proxy appends the address it was called from. Only the last
+     * {@code trustedProxies} entries were written by proxies of ours; anything left of them came from
+     * the client and may be made up, so the client is the entry the outermost trusted proxy added.
+     * Without the header (or with no trusted proxies) it is the remote address.
+     */
+    public static String clientOf(String forwardedFor, int trustedProxies, String remoteAddr) {
+        if (forwardedFor == null || forwardedFor.isBlank() || trustedProxies < 1) {
+            return remoteAddr;
+        }
+        String[] hops = forwardedFor.split(",");
+        String client = hops[Math.max(0, hops.length - trustedProxies)].trim();
+        return client.isEmpty() ? remoteAddr : client;
+    }
+
+    /**
+     * Spends one of {@code clientId}'s tokens. A no-op when rate limiting is disabled
+     * ({@code rate-per-minute <= 0}).
+     *
+     * @throws CrawlRejectedException with {@link CrawlRejectedException.Reason#RATE_LIMITED} if the bucket is empty
+     */
+    public void checkRate(String clientId) {
+        if (tokensPerMs <= 0) {
+            return;
+        }
+        if (buckets.size() >= PRUNE_THRESHOLD) {
+            long now = clock.millis();
+            buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        TokenBucket bucket = buckets.computeIfAbsent(clientId, id -> new TokenBucket(clock.millis()));
+        long waitMs = bucket.tryTake(clock.millis());
+        if (waitMs > 0) {
+            log.debug("Rate limited crawl request from {}, next token in {} ms", clientId, waitMs);
+            throw new CrawlRejectedException(CrawlRejectedException.Reason.RATE_LIMITED,
+                    "Crawl rate limit exceeded for " + clientId, Duration.ofMillis(waitMs));
+        }
+    }
+
+    /**
+     * Runs a crawl inside the caller's thread once a slot is free.
+     *
+     * @throws CrawlRejectedException with {@link CrawlRejectedException.Reason#SATURATED} if the
+     *                                pending queue is full or no slot frees up in time
+     */
+    public <T> T runCrawl(Supplier<T> crawl) {
+        acquireSlot();
+        try {
+            return crawl.get();
+        } finally {
+            crawlSlots.release();
+        }
+    }
+
+    /**
+     * @throws CrawlRejectedException with {@link CrawlRejectedException.Reason#SATURATED} if the
+     *                                crawl job backlog is full
+     */
+    public void checkJobCapacity() {
+        int queued = jobService.queuedCount();
+        if (queued >= maxQueuedJobs) {
+            log.warn("Refusing crawl job: {} jobs already queued", queued);
+            throw saturated("Crawl job queue is full (" + queued + " jobs waiting)");
+        }
+    }
+
+    /**
+     * @throws CrawlRejectedException with {@link CrawlRejectedException.Reason#SATURATED} if
+     *                                {@code llms.admission.max-running-batches} batches are still running
+     */
+    public void checkBatchCapacity() {
+        int running = batchService.runningCount();
+        if (running >= maxRunningBatches) {
+            log.warn("Refusing crawl batch: {} batches still running", running);
+            throw saturated("Too many crawl batches running (" + running + ")");
+        }
+    }
+
+    public Load load() {
+        return new Load(maxConcurrentCrawls - crawlSlots.availablePermits(), pending.get(),
+                jobService.queuedCount(), batchService.runningCount(), buckets.size());
+    }
+
+    private void acquireSlot() {
+        if (crawlSlots.tryAcquire()) {
+            return;
+        }
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            log.warn("Refusing crawl: {} crawls running and {} waiting", maxConcurrentCrawls, maxPending);
+            throw saturated("Crawl capacity exhausted, " + maxConcurrentCrawls + " crawls running and "
+                    + maxPending + " waiting");
+        }
+        try {
+            if (!crawlSlots.tryAcquire(queueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                throw saturated("No crawl slot became free within " + queueTimeoutMs + " ms");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw saturated("Interrupted while waiting for a crawl slot");
+        } finally {
+            pending.decrementAndGet();
+        }
+    }
+
+    private CrawlRejectedException saturated(String message) {
+        return new CrawlRejectedException(CrawlRejectedException.Reason.SATURATED, message, saturatedRetryAfter);
+    }
+
+    private final class TokenBucket {
+        private double tokens;
+        private long refilledAt;
+
+        TokenBucket(long now) {
+            this.tokens = burst;
+            this.refilledAt = now;
+        }
+
+        /** @return 0 if a token was taken, otherwise milliseconds until the next one */
+        synchronized long tryTake(long now) {
+            refill(now);
+            if (tokens >= 1) {
+                tokens -= 1;
+                return 0;
+            }
+            return Math.max(1, (long) Math.ceil((1 - tokens) / tokensPerMs));
+        }
+
+        synchronized boolean isFull(long now) {
+            refill(now);
+            return tokens >= burst;
+        }
+
+        private void refill(long now) {
+            if (now > refilledAt) {
+                tokens = Math.min(burst, tokens + (now - refilledAt) * tokensPerMs);
+                refilledAt = now;
+            }
+        }
+    }
+}
@@ -0,0 +1,214 @@
+package com.profoundai.llms.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Many sites submitted together through {@link CrawlBatchService}. Each site becomes a
+ * {@link CrawlJob} once the batch dispatches it; until then it waits in its host's queue.
+ * <p>
+ * Dispatching goes round-robin over hosts: every time a slot frees up, the next host in the
+ * rotation that still has sites waiting and is below its per-host limit gets one crawl. A
+ * batch of 300 sites on one host and 5 sites on others therefore starts the 5 right away
+ * instead of after the 300, and never crawls one host with more than the per-host limit.
+ */
+public class CrawlBatch {
+
+    public enum Status {
+        RUNNING,
+        FINISHED,
+        CANCELLED
+    }
+
+    /**
+     * One site of the batch. {@code jobId} is {@code null} until the site is dispatched; a site
+     * that is still waiting reports {@link CrawlJob.Status#QUEUED}.
+     */
+    public record Site(String baseUrl, String profile, String jobId, CrawlJob.Status status, String error) {
+    }
+
+    /**
+     * @param queued       sites waiting for a slot or for their job to start
+     * @param pagesCrawled pages and static assets hashed so far, across all of the batch's crawls
+     */
+    public record Progress(int total, int queued, int running, int succeeded, int failed, int cancelled,
+                           int pagesCrawled) {
+    }
+
+    private final String id;
+    private final LocalDateTime submittedAt;
+    private final int parallelism;
+    private final int perHostParallelism;
+    private final List<Entry> entries = new ArrayList<>();
+
+    /** Waiting sites per host, hosts in rotation order. */
+    private final Map<String, Deque<Entry>> waiting = new LinkedHashMap<>();
+    private final Map<String, Integer> runningByHost = new HashMap<>();
+    private final Map<String, Entry> byJobId = new HashMap<>();
+    private int running;
+    private boolean cancelled;
+    private LocalDateTime finishedAt;
+
+    CrawlBatch(String id, LocalDateTime submittedAt, int parallelism, int perHostParallelism) {
+        this.id = id;
+        this.submittedAt = submittedAt;
+        this.parallelism = Math.max(1, parallelism);
+        this.perHostParallelism = Math.max(1, perHostParallelism);
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public synchronized LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized Status getStatus() {
+        if (cancelled) {
+            return Status.CANCELLED;
+        }
+        return finishedAt != null ? Status.FINISHED : Status.RUNNING;
+    }
+
+    public synchronized Progress getProgress() {
+        int queued = 0;
+        int runningSites = 0;
+        int succeeded = 0;
+        int failed = 0;
+        int cancelledSites = 0;
+        int pagesCrawled = 0;
+        for (Entry entry : entries) {
+            switch (entry.status()) {
+                case QUEUED -> queued++;
+                case RUNNING -> runningSites++;
+                case SUCCEEDED -> succeeded++;
+                case FAILED -> failed++;
+                case CANCELLED -> cancelledSites++;
+            }
+            if (entry.job != null) {
+                pagesCrawled += entry.job.getProgress().pagesCrawled();
+            }
+        }
+        return new Progress(entries.size(), queued, runningSites, succeeded, failed, cancelledSites, pagesCrawled);
+    }
+
+    /** The batch's sites in submission order. */
+    public synchronized List<Site> getSites() {
+        return entries.stream()
+                .map(entry -> new Site(entry.baseUrl, entry.profile, entry.job != null ? entry.job.getId() : null,
+                        entry.status(), entry.job != null ? entry.job.getError() : null))
+                .toList();
+    }
+
+    synchronized void add(String baseUrl, String host, String profile) {
+        Entry entry = new Entry(baseUrl, host, profile);
+        entries.add(entry);
+        waiting.computeIfAbsent(host, h -> new ArrayDeque<>()).add(entry);
+    }
+
+    /**
+     * Starts waiting sites, round-robin by host, until the batch's slots are used up or no
+     * waiting host is below its limit. {@code startJob} starts a site's crawl and returns its job.
+     */
+    synchronized void dispatch(Function<String, CrawlJob> startJob) {
+        while (!cancelled && running < parallelism) {
+            Entry next = pollNextHost();
+            if (next == null) {
+                break;
+            }
+            running++;
+            runningByHost.merge(next.host, 1, Integer::sum);
+            next.job = startJob.apply(next.baseUrl);
+            byJobId.put(next.job.getId(), next);
+        }
+        finishIfDone();
+    }
+
+    /**
+     * Frees the finished job's slot; the caller dispatches again.
+     */
+    synchronized void jobFinished(CrawlJob job) {
+        Entry entry = byJobId.remove(job.getId());
+        if (entry == null) {
+            return;
+        }
+        running--;
+        runningByHost.merge(entry.host, -1, Integer::sum);
+        finishIfDone();
+    }
+
+    /**
+     * Drops the waiting sites and returns the ids of the jobs still to be cancelled.
+     */
+    synchronized List<String> cancel(LocalDateTime now) {
+        if (finishedAt != null) {
+            return List.of();
+        }
+        cancelled = true;
+        waiting.values().forEach(queue -> queue.forEach(entry -> entry.dropped = true));
+        waiting.clear();
+        finishIfDone(now);
+        return List.copyOf(byJobId.keySet());
+    }
+
+    private Entry pollNextHost() {
+        for (Map.Entry<String, Deque<Entry>> hostQueue : waiting.entrySet()) {
+            String host = hostQueue.getKey();
+            if (runningByHost.getOrDefault(host, 0) >= perHostParallelism) {
+                continue;
+            }
+            Deque<Entry> queue = hostQueue.getValue();
+            Entry entry = queue.poll();
+            // Move the host to the back of the rotation (or out of it, once drained)
+            waiting.remove(host);
+            if (!queue.isEmpty()) {
+                waiting.put(host, queue);
+            }
+            return entry;
+        }
+        return null;
+    }
+
+    private void finishIfDone() {
+        finishIfDone(LocalDateTime.now());
+    }
+
+    private void finishIfDone(LocalDateTime now) {
+        if (finishedAt == null && running == 0 && waiting.isEmpty()) {
+            finishedAt = now;
+        }
+    }
+
+    private static final class Entry {
+        private final String baseUrl;
+        private final String host;
+        private final String profile;
+        private CrawlJob job;
+        private boolean dropped;
+
+        Entry(String baseUrl, String host, String profile) {
+            this.baseUrl = baseUrl;
+            this.host = host;
+            this.profile = profile;
+        }
+
+        CrawlJob.Status status() {
+            if (job != null) {
+                return job.getStatus();
+            }
+            return dropped ? CrawlJob.Status.CANCELLED : CrawlJob.Status.QUEUED;
+        }
+    }
+}
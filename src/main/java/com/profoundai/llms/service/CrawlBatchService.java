@@ -0,0 +1,169 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.MonitoredSite;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.net.URI;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Onboards many sites at once. A batch enrolls every site for monitoring with its crawl profile,
+ * then runs their first crawls as {@link CrawlJob}s, at most {@code llms.batch.parallelism} at a
+ * time per batch and {@code llms.batch.per-host-parallelism} per host, round-robin by host (see
+ * {@link CrawlBatch}). Like jobs, batches live in memory on the node that accepted them and are
+ * forgotten {@code llms.jobs.retention-ms} after they finish.
+ */
+@Service
+public class CrawlBatchService {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlBatchService.class);
+
+    /**
+     * One site to onboard.
+     *
+     * @param profile crawl profile name; the default profile if blank
+     */
+    public record SiteRequest(String baseUrl, String profile) {
+    }
+
+    private final CrawlJobService jobService;
+    private final AdaptiveRecrawlSchedule recrawlSchedule;
+    private final CrawlProfiles crawlProfiles;
+    private final int parallelism;
+    private final int perHostParallelism;
+    private final int maxSites;
+    private final Duration retention;
+
+    private final ConcurrentMap<String, CrawlBatch> batches = new ConcurrentHashMap<>();
+
+    public CrawlBatchService(CrawlJobService jobService,
+                             AdaptiveRecrawlSchedule recrawlSchedule,
+                             CrawlProfiles crawlProfiles,
+                             @Value("${llms.batch.parallelism:${llms.jobs.parallelism:4}}") int parallelism,
+                             @Value("${llms.batch.per-host-parallelism:1}") int perHostParallelism,
+                             @Value("${llms.batch.max-sites:1000}") int maxSites,
+                             @Value("${llms.jobs.retention-ms:3600000}") long retentionMs) {
+        this.jobService = jobService;
+        this.recrawlSchedule = recrawlSchedule;
+        this.crawlProfiles = crawlProfiles;
+        this.parallelism = Math.max(1, parallelism);
+        this.perHostParallelism = Math.max(1, perHostParallelism);
+        this.maxSites = maxSites;
+        this.retention = Duration.ofMillis(retentionMs);
+    }
+
+    /**
+     * Validates all sites, enrolls them and starts the batch. A site listed twice is crawled once,
+     * with the profile it was first listed with.
+     *
+     * @throws IllegalArgumentException if the batch is empty or too large, or a site has an invalid
+     *                                  base URL or an unknown profile; nothing is enrolled then
+     */
+    public CrawlBatch submit(List<SiteRequest> sites) {
+        if (sites == null || sites.isEmpty()) {
+            throw new IllegalArgumentException("A batch needs at least one site");
+        }
+        if (sites.size() > maxSites) {
+            throw new IllegalArgumentException("A batch takes at most " + maxSites + " sites, got " + sites.size());
+        }
+        Map<String, String> profileByUrl = new LinkedHashMap<>();
+        for (SiteRequest site : sites) {
+            String baseUrl = validBaseUrl(site != null ? site.baseUrl() : null);
+            String profile = site.profile() == null || site.profile().isBlank()
+                    ? MonitoredSite.DEFAULT_PROFILE
+                    : crawlProfiles.resolve(site.profile().trim()).name();
+            if (profileByUrl.putIfAbsent(baseUrl, profile) != null) {
+                log.debug("Ignoring duplicate batch entry for {}", baseUrl);
+            }
+        }
+
+        pruneFinished();
+        LocalDateTime now = LocalDateTime.now();
+        CrawlBatch batch = new CrawlBatch(UUID.randomUUID().toString(), now, parallelism, perHostParallelism);
+        profileByUrl.forEach((baseUrl, profile) -> {
+            recrawlSchedule.enroll(baseUrl, profile, now);
+            batch.add(baseUrl, HostCircuitBreaker.hostOf(baseUrl), profile);
+        });
+        batches.put(batch.getId(), batch);
+        log.info("Submitted crawl batch {} with {} sites", batch.getId(), profileByUrl.size());
+        dispatch(batch);
+        return batch;
+    }
+
+    public Optional<CrawlBatch> find(String id) {
+        return Optional.ofNullable(batches.get(id));
+    }
+
+    /** Batches with sites still waiting or crawling. */
+    public int runningCount() {
+        return (int) batches.values().stream()
+                .filter(batch -> batch.getStatus() == CrawlBatch.Status.RUNNING)
+                .count();
+    }
+
+    /** Retained batches, newest first. */
+    public List<CrawlBatch> list() {
+        pruneFinished();
+        return batches.values().stream()
+                .sorted(Comparator.comparing(CrawlBatch::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Drops the batch's waiting sites and cancels its running crawls. Sites that were already
+     * crawled stay crawled, and every site stays enrolled for monitoring.
+     */
+    public Optional<CrawlBatch> cancel(String id) {
+        CrawlBatch batch = batches.get(id);
+        if (batch == null) {
+            return Optional.empty();
+        }
+        List<String> runningJobs = batch.cancel(LocalDateTime.now());
+        runningJobs.forEach(jobService::cancel);
+        log.info("Cancelled crawl batch {}, {} running crawls interrupted", id, runningJobs.size());
+        return Optional.of(batch);
+    }
+
+    private void dispatch(CrawlBatch batch) {
+        batch.dispatch(baseUrl -> jobService.submit(baseUrl, job -> {
+            batch.jobFinished(job);
+            dispatch(batch);
+        }));
+        if (batch.getStatus() == CrawlBatch.Status.FINISHED) {
+            log.debug("Crawl batch {} finished: {}", batch.getId(), batch.getProgress());
+        }
+    }
+
+    private void pruneFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        batches.values().removeIf(batch -> batch.getFinishedAt() != null && batch.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static String validBaseUrl(String baseUrl) {
+        if (baseUrl != null) {
+            String trimmed = baseUrl.trim();
+            try {
+                URI uri = new URI(trimmed);
+                if (("http".equalsIgnoreCase(uri.getScheme()) || "https".equalsIgnoreCase(uri.getScheme()))
+                        && uri.getHost() != null) {
+                    return trimmed;
+                }
+            } catch (Exception e) {
+                // reported below
+            }
+        }
+        throw new IllegalArgumentException("Invalid baseUrl '" + baseUrl + "', expected an http(s) URL");
+    }
+}
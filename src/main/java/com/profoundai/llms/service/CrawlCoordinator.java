@@ -0,0 +1,281 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.repository.CrawlSnapshotRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Single-flight front for {@link LlmsTxtMonitoringService#crawlAndUpdate(String)}.
+ * <p>
+ * Callers that ask for a site which is already being crawled join the in-flight crawl
+ * and receive its result instead of starting a second crawl and writing a second snapshot.
+ * Optionally, a site whose latest snapshot is younger than {@code llms.crawl.min-freshness-ms}
+ * is not crawled again at all.
+ * <p>
+ * Crawls also go through the {@link HostCircuitBreaker}: a host that keeps failing is refused
+ * with a {@link CircuitOpenException} until its backoff has passed.
+ * <p>
+ * Every crawl's page events and outcome are published to the {@link CrawlEventHub}, once per
+ * crawl however many callers share it.
+ * <p>
+ * The crawl runs on a thread of the coordinator's, not the caller's. A caller that is interrupted
+ * only stops waiting for it; the crawl is cancelled once no caller is waiting any more.
+ */
+@Service
+public class CrawlCoordinator {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlCoordinator.class);
+
+    private final LlmsTxtMonitoringService monitoringService;
+    private final CrawlSnapshotRepository snapshotRepository;
+    private final HostCircuitBreaker circuitBreaker;
+    private final CrawlEventHub eventHub;
+    private final Duration minFreshness;
+
+    private final ConcurrentMap<String, InFlight> inFlight = new ConcurrentHashMap<>();
+    private final ExecutorService crawlPool = Executors.newCachedThreadPool(daemonThreads("llms-crawl-"));
+
+    public CrawlCoordinator(LlmsTxtMonitoringService monitoringService,
+                            CrawlSnapshotRepository snapshotRepository,
+                            HostCircuitBreaker circuitBreaker,
+                            CrawlEventHub eventHub,
+                            @Value("${llms.crawl.min-freshness-ms:0}") long minFreshnessMs) {
+        this.monitoringService = monitoringService;
+        this.snapshotRepository = snapshotRepository;
+        this.circuitBreaker = circuitBreaker;
+        this.eventHub = eventHub;
+        this.minFreshness = Duration.ofMillis(minFreshnessMs);
+    }
+
+    public MonitoringResult crawlAndUpdate(String baseUrl) {
+        return crawlAndUpdate(baseUrl, CrawlListener.NONE);
+    }
+
+    /**
+     * Crawls {@code baseUrl}, or joins the crawl already in flight for it. Either way
+     * {@code listener} receives the crawl's progress from the moment the caller arrives.
+     *
+     * @throws CancellationException if the calling thread is interrupted while waiting for the crawl
+     */
+    public MonitoringResult crawlAndUpdate(String baseUrl, CrawlListener listener) {
+        if (isFresh(baseUrl)) {
+            log.info("Latest snapshot for baseUrl={} is within freshness window of {}, skipping crawl",
+                    baseUrl, minFreshness);
+            MonitoringResult unchanged = new MonitoringResult(Set.of(), Set.of(), Set.of());
+            eventHub.publishResult(baseUrl, unchanged);
+            return unchanged;
+        }
+
+        while (true) {
+            InFlight mine = new InFlight(listener);
+            InFlight existing = inFlight.putIfAbsent(baseUrl, mine);
+            if (existing == null) {
+                mine.listeners.add(eventHub.listenerFor(baseUrl));
+                mine.task = crawlPool.submit(() -> run(baseUrl, mine));
+                return await(baseUrl, mine, listener);
+            }
+            if (existing.attach(listener)) {
+                log.info("Crawl already in flight for baseUrl={}, joining it", baseUrl);
+                return await(baseUrl, existing, listener);
+            }
+            // Its last caller just gave up on it; start a crawl of our own
+            inFlight.remove(baseUrl, existing);
+        }
+    }
+
+    /**
+     * Runs a coalesced crawl on a thread of its own, so that no single caller's cancellation
+     * reaches it while other callers still wait for its result.
+     */
+    private void run(String baseUrl, InFlight flight) {
+        MonitoringResult result;
+        try {
+            circuitBreaker.acquire(baseUrl);
+            try {
+                result = monitoringService.crawlAndUpdate(baseUrl, flight.listeners);
+            } catch (CancellationException e) {
+                // Stopped because every caller gave up; says nothing about the host's health
+                circuitBreaker.recordCancelled(baseUrl);
+                throw e;
+            } catch (RuntimeException e) {
+                circuitBreaker.recordFailure(baseUrl);
+                throw e;
+            }
+            circuitBreaker.recordSuccess(baseUrl);
+        } catch (RuntimeException e) {
+            // Out of the map before the callers wake, so that a retry starts a new crawl; published
+            // before too, so a caller's own follow-up events come after the crawl's outcome
+            inFlight.remove(baseUrl, flight);
+            eventHub.publishFailure(baseUrl, e.getMessage());
+            flight.future.completeExceptionally(e);
+            return;
+        }
+        inFlight.remove(baseUrl, flight);
+        eventHub.publishResult(baseUrl, result);
+        flight.future.complete(result);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        crawlPool.shutdownNow();
+    }
+
+    public boolean isCrawling(String baseUrl) {
+        return inFlight.containsKey(baseUrl);
+    }
+
+    private boolean isFresh(String baseUrl) {
+        if (minFreshness.isZero() || minFreshness.isNegative()) {
+            return false;
+        }
+        Optional<CrawlSnapshot> latest = snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl);
+        return latest
+                .map(CrawlSnapshot::getCreatedAt)
+                .map(createdAt -> createdAt.isAfter(LocalDateTime.now().minus(minFreshness)))
+                .orElse(false);
+    }
+
+    private MonitoringResult await(String baseUrl, InFlight flight, CrawlListener listener) {
+        try {
+            return flight.future.get();
+        } catch (InterruptedException e) {
+            // Only this caller stops waiting; the crawl carries on unless nobody else waits for it
+            Thread.currentThread().interrupt();
+            if (flight.detach(listener)) {
+                log.info("Every caller stopped waiting for the crawl of baseUrl={}, cancelling it", baseUrl);
+                inFlight.remove(baseUrl, flight);
+                flight.task.cancel(true);
+            }
+            throw new CancellationException("Stopped waiting for in-flight crawl");
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new CompletionException(e.getCause());
+        } finally {
+            flight.listeners.remove(listener);
+        }
+    }
+
+    /**
+     * One coalesced crawl and the callers waiting for it. Once its last caller has given up it is
+     * abandoned: it no longer takes new callers, and its crawl is cancelled.
+     */
+    private static final class InFlight {
+        private final CompletableFuture<MonitoringResult> future = new CompletableFuture<>();
+        private final CompositeCrawlListener listeners = new CompositeCrawlListener();
+        private volatile Future<?> task;
+        private int waiting = 1;
+        private boolean abandoned;
+
+        InFlight(CrawlListener first) {
+            listeners.add(first);
+        }
+
+        synchronized boolean attach(CrawlListener listener) {
+            if (abandoned) {
+                return false;
+            }
+            waiting++;
+            listeners.add(listener);
+            return true;
+        }
+
+        /** @return whether this was the last waiting caller, so the crawl should be cancelled */
+        synchronized boolean detach(CrawlListener listener) {
+            waiting--;
+            abandoned = waiting == 0 && !future.isDone();
+            return abandoned;
+        }
+    }
+
+    /**
+     * Fans the leader's crawl progress out to every caller currently waiting on that crawl.
+     * A misbehaving listener is logged and skipped so it cannot fail the crawl.
+     */
+    private static final class CompositeCrawlListener implements CrawlListener {
+        private final List<CrawlListener> listeners = new CopyOnWriteArrayList<>();
+
+        void add(CrawlListener listener) {
+            if (listener != CrawlListener.NONE) {
+                listeners.add(listener);
+            }
+        }
+
+        void remove(CrawlListener listener) {
+            listeners.remove(listener);
+        }
+
+        @Override
+        public void urlsQueued(int depth, int count) {
+            forEach(l -> l.urlsQueued(depth, count));
+        }
+
+        @Override
+        public void pageFetched(String url, int depth) {
+            forEach(l -> l.pageFetched(url, depth));
+        }
+
+        @Override
+        public void pageRendered(String url) {
+            forEach(l -> l.pageRendered(url));
+        }
+
+        @Override
+        public void pageSkipped(String url, String reason) {
+            forEach(l -> l.pageSkipped(url, reason));
+        }
+
+        @Override
+        public void pageCrawled(CrawlService.PageInfo page) {
+            forEach(l -> l.pageCrawled(page));
+        }
+
+        @Override
+        public void pageFailed(String url, String error) {
+            forEach(l -> l.pageFailed(url, error));
+        }
+
+        private void forEach(Consumer<CrawlListener> event) {
+            for (CrawlListener listener : listeners) {
+                try {
+                    event.accept(listener);
+                } catch (RuntimeException e) {
+                    log.warn("Crawl listener {} failed: {}", listener, e.getMessage());
+                }
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
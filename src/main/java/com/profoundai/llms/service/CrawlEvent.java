@@ -0,0 +1,61 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+
+import java.time.LocalDateTime;
+import java.util.Locale;
+
+/**
+ * One crawl progress or outcome event, as streamed by {@link CrawlEventHub}. Fields that do not
+ * apply to an event's type are {@code null}.
+ *
+ * @param count  URLs queued, for {@link Type#QUEUED}
+ * @param detail skip reason or error message
+ * @param result the site's diff against its previous snapshot, for {@link Type#RESULT}
+ */
+public record CrawlEvent(Type type, String baseUrl, LocalDateTime at, String url, Integer depth, Integer count,
+                         String contentHash, PageType pageType, String detail, MonitoringResult result) {
+
+    public enum Type {
+        QUEUED,
+        FETCHED,
+        RENDERED,
+        SKIPPED,
+        HASHED,
+        PAGE_FAILED,
+        /** The crawl finished and its snapshot was stored; always the site's last event. */
+        RESULT,
+        /** The crawl failed or was refused; always the site's last event. */
+        CRAWL_FAILED;
+
+        /** Event name on the wire, e.g. {@code page-failed}. */
+        public String eventName() {
+            return name().toLowerCase(Locale.ROOT).replace('_', '-');
+        }
+
+        public boolean isFinal() {
+            return this == RESULT || this == CRAWL_FAILED;
+        }
+    }
+
+    static CrawlEvent queued(String baseUrl, int depth, int count) {
+        return new CrawlEvent(Type.QUEUED, baseUrl, LocalDateTime.now(), null, depth, count, null, null, null, null);
+    }
+
+    static CrawlEvent page(Type type, String baseUrl, String url, Integer depth, String detail) {
+        return new CrawlEvent(type, baseUrl, LocalDateTime.now(), url, depth, null, null, null, detail, null);
+    }
+
+    static CrawlEvent hashed(String baseUrl, CrawlService.PageInfo page) {
+        return new CrawlEvent(Type.HASHED, baseUrl, LocalDateTime.now(), page.getUrl(), null, null,
+                page.getContentHash(), page.getPageType(), null, null);
+    }
+
+    static CrawlEvent result(String baseUrl, MonitoringResult result) {
+        return new CrawlEvent(Type.RESULT, baseUrl, LocalDateTime.now(), null, null, null, null, null, null, result);
+    }
+
+    static CrawlEvent failed(String baseUrl, String error) {
+        return new CrawlEvent(Type.CRAWL_FAILED, baseUrl, LocalDateTime.now(), null, null, null, null, null, error, null);
+    }
+}
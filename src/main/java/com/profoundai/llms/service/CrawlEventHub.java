@@ -0,0 +1,270 @@
+package com.profoundai.llms.service;
+
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+/**
+ * Fans crawl events out to live subscribers (the SSE endpoint).
+ * <p>
+ * {@link CrawlCoordinator} attaches {@link #listenerFor} to every crawl it runs, whoever asked
+ * for it, and publishes each crawl's outcome. Publishing never blocks a crawl thread: each
+ * subscriber has its own queue of {@code llms.events.queue-capacity} events, drained on a
+ * separate thread, and a subscriber that falls that far behind loses its oldest page events
+ * rather than slowing the crawl down. Final events ({@code result}, {@code crawl-failed}) are
+ * never dropped.
+ */
+@Component
+public class CrawlEventHub {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlEventHub.class);
+
+    /** Stops delivery to a subscriber. */
+    public interface Subscription {
+        void cancel();
+
+        /**
+         * Runs {@code action} on the delivery thread once every event published to this
+         * subscriber so far has been handed to its sink (or dropped).
+         */
+        void afterDelivered(Runnable action);
+    }
+
+    private final int queueCapacity;
+    private final ExecutorService dispatcher;
+    private final List<Subscriber> subscribers = new CopyOnWriteArrayList<>();
+
+    public CrawlEventHub(@Value("${llms.events.queue-capacity:1000}") int queueCapacity) {
+        this.queueCapacity = Math.max(1, queueCapacity);
+        this.dispatcher = Executors.newCachedThreadPool(daemonThreads("llms-events-"));
+    }
+
+    /**
+     * Delivers events for {@code baseUrl}, or for every site if it is {@code null}, to
+     * {@code sink} until cancelled. A sink that throws is unsubscribed.
+     */
+    public Subscription subscribe(String baseUrl, Consumer<CrawlEvent> sink) {
+        Subscriber subscriber = new Subscriber(baseUrl, sink);
+        subscribers.add(subscriber);
+        log.debug("Event subscriber added for {}, {} subscribers", baseUrl != null ? baseUrl : "all sites",
+                subscribers.size());
+        return subscriber;
+    }
+
+    public int subscriberCount() {
+        return subscribers.size();
+    }
+
+    /**
+     * Listener that publishes {@code baseUrl}'s page events. Cheap when nobody is subscribed.
+     */
+    public CrawlListener listenerFor(String baseUrl) {
+        return new CrawlListener() {
+            @Override
+            public void urlsQueued(int depth, int count) {
+                if (!subscribers.isEmpty()) {
+                    publish(CrawlEvent.queued(baseUrl, depth, count));
+                }
+            }
+
+            @Override
+            public void pageFetched(String url, int depth) {
+                if (!subscribers.isEmpty()) {
+                    publish(CrawlEvent.page(CrawlEvent.Type.FETCHED, baseUrl, url, depth, null));
+                }
+            }
+
+            @Override
+            public void pageRendered(String url) {
+                if (!subscribers.isEmpty()) {
+                    publish(CrawlEvent.page(CrawlEvent.Type.RENDERED, baseUrl, url, null, null));
+                }
+            }
+
+            @Override
+            public void pageSkipped(String url, String reason) {
+                if (!subscribers.isEmpty()) {
+                    publish(CrawlEvent.page(CrawlEvent.Type.SKIPPED, baseUrl, url, null, reason));
+                }
+            }
+
+            @Override
+            public void pageCrawled(CrawlService.PageInfo page) {
+                if (!subscribers.isEmpty()) {
+                    publish(CrawlEvent.hashed(baseUrl, page));
+                }
+            }
+
+            @Override
+            public void pageFailed(String url, String error) {
+                if (!subscribers.isEmpty()) {
+                    publish(CrawlEvent.page(CrawlEvent.Type.PAGE_FAILED, baseUrl, url, null, error));
+                }
+            }
+        };
+    }
+
+    public void publishResult(String baseUrl, MonitoringResult result) {
+        publish(CrawlEvent.result(baseUrl, result));
+    }
+
+    public void publishFailure(String baseUrl, String error) {
+        publish(CrawlEvent.failed(baseUrl, error));
+    }
+
+    void publish(CrawlEvent event) {
+        for (Subscriber subscriber : subscribers) {
+            if (subscriber.accepts(event)) {
+                subscriber.offer(event);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        subscribers.clear();
+        dispatcher.shutdownNow();
+    }
+
+    private final class Subscriber implements Subscription {
+        private final String baseUrl;
+        private final Consumer<CrawlEvent> sink;
+        /** Pending {@link CrawlEvent}s and {@link #afterDelivered} actions, in order. Guarded by itself. */
+        private final Deque<Object> queue = new ArrayDeque<>();
+        private int queuedEvents;
+        private final AtomicBoolean draining = new AtomicBoolean();
+        private final AtomicLong dropped = new AtomicLong();
+
+        Subscriber(String baseUrl, Consumer<CrawlEvent> sink) {
+            this.baseUrl = baseUrl;
+            this.sink = sink;
+        }
+
+        boolean accepts(CrawlEvent event) {
+            return baseUrl == null || baseUrl.equals(event.baseUrl());
+        }
+
+        @Override
+        public void cancel() {
+            subscribers.remove(this);
+        }
+
+        @Override
+        public void afterDelivered(Runnable action) {
+            synchronized (queue) {
+                queue.add(action);
+            }
+            scheduleDrain();
+        }
+
+        void offer(CrawlEvent event) {
+            synchronized (queue) {
+                if (queuedEvents >= queueCapacity && !dropOldestPageEvent() && !event.type().isFinal()) {
+                    // Nothing but final events queued: this page event is the one to go
+                    countDropped();
+                    return;
+                }
+                queue.add(event);
+                queuedEvents++;
+            }
+            scheduleDrain();
+        }
+
+        /** Drops the oldest queued page event; false if only final events are queued. */
+        private boolean dropOldestPageEvent() {
+            for (Iterator<Object> it = queue.iterator(); it.hasNext(); ) {
+                if (it.next() instanceof CrawlEvent queued && !queued.type().isFinal()) {
+                    it.remove();
+                    queuedEvents--;
+                    countDropped();
+                    return true;
+                }
+            }
+            return false;
+        }
+
+        private void countDropped() {
+            if (dropped.getAndIncrement() == 0) {
+                log.warn("Event subscriber for {} is falling behind, dropping its oldest page events", baseUrl);
+            }
+        }
+
+        private Object poll() {
+            synchronized (queue) {
+                Object next = queue.poll();
+                if (next instanceof CrawlEvent) {
+                    queuedEvents--;
+                }
+                return next;
+            }
+        }
+
+        private boolean isEmpty() {
+            synchronized (queue) {
+                return queue.isEmpty();
+            }
+        }
+
+        private void scheduleDrain() {
+            if (draining.compareAndSet(false, true)) {
+                try {
+                    dispatcher.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    draining.set(false);
+                }
+            }
+        }
+
+        private void drain() {
+            try {
+                Object next;
+                while ((next = poll()) != null) {
+                    if (next instanceof CrawlEvent event) {
+                        sink.accept(event);
+                    } else {
+                        ((Runnable) next).run();
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.debug("Event subscriber for {} failed, unsubscribing: {}", baseUrl, e.getMessage());
+                subscribers.remove(this);
+                synchronized (queue) {
+                    queue.clear();
+                    queuedEvents = 0;
+                }
+                return;
+            } finally {
+                draining.set(false);
+            }
+            // An event offered after the last poll but before the flag was cleared
+            if (!isEmpty()) {
+                scheduleDrain();
+            }
+        }
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
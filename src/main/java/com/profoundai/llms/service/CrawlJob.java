@@ -0,0 +1,187 @@
+package com.profoundai.llms.service;
+
+import java.time.LocalDateTime;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * One asynchronous crawl submitted through {@link CrawlJobService}. The job is its own
+ * {@link CrawlListener}, so its progress counters move while the crawl runs and can be polled.
+ */
+public class CrawlJob implements CrawlListener {
+
+    public enum Status {
+        QUEUED,
+        RUNNING,
+        SUCCEEDED,
+        FAILED,
+        CANCELLED;
+
+        public boolean isFinished() {
+            return this == SUCCEEDED || this == FAILED || this == CANCELLED;
+        }
+    }
+
+    /**
+     * @param urlsQueued   distinct URLs discovered and queued for the next depth so far
+     * @param pagesFetched pages downloaded so far
+     * @param pagesCrawled pages and static assets hashed into the result so far
+     * @param pagesFailed  pages that could not be fetched or processed
+     */
+    public record Progress(int urlsQueued, int pagesFetched, int pagesCrawled, int pagesFailed) {
+    }
+
+    private final String id;
+    private final String baseUrl;
+    private final LocalDateTime submittedAt;
+    private final Consumer<CrawlJob> onFinished;
+
+    private final AtomicInteger urlsQueued = new AtomicInteger();
+    private final AtomicInteger pagesFetched = new AtomicInteger();
+    private final AtomicInteger pagesCrawled = new AtomicInteger();
+    private final AtomicInteger pagesFailed = new AtomicInteger();
+
+    private Status status = Status.QUEUED;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private MonitoringResult result;
+    private String error;
+    private Future<?> future;
+
+    CrawlJob(String id, String baseUrl, LocalDateTime submittedAt) {
+        this(id, baseUrl, submittedAt, job -> {
+        });
+    }
+
+    CrawlJob(String id, String baseUrl, LocalDateTime submittedAt, Consumer<CrawlJob> onFinished) {
+        this.id = id;
+        this.baseUrl = baseUrl;
+        this.submittedAt = submittedAt;
+        this.onFinished = onFinished;
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public synchronized Status getStatus() {
+        return status;
+    }
+
+    public LocalDateTime getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public synchronized LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public synchronized LocalDateTime getFinishedAt() {
+        return finishedAt;
+    }
+
+    public synchronized String getError() {
+        return error;
+    }
+
+    public Progress getProgress() {
+        return new Progress(urlsQueued.get(), pagesFetched.get(), pagesCrawled.get(), pagesFailed.get());
+    }
+
+    /**
+     * The crawl's diff, once the job has succeeded. Not a bean property, so the status view
+     * stays small; it is served by its own endpoint.
+     */
+    public synchronized MonitoringResult result() {
+        return result;
+    }
+
+    @Override
+    public void urlsQueued(int depth, int count) {
+        urlsQueued.addAndGet(count);
+    }
+
+    @Override
+    public void pageFetched(String url, int depth) {
+        pagesFetched.incrementAndGet();
+    }
+
+    @Override
+    public void pageCrawled(CrawlService.PageInfo page) {
+        pagesCrawled.incrementAndGet();
+    }
+
+    @Override
+    public void pageFailed(String url, String error) {
+        pagesFailed.incrementAndGet();
+    }
+
+    synchronized void setFuture(Future<?> future) {
+        this.future = future;
+        if (status == Status.CANCELLED) {
+            // Cancelled between submission and this call
+            future.cancel(true);
+        }
+    }
+
+    /** @return false if the job was cancelled before it got a worker */
+    synchronized boolean start(LocalDateTime now) {
+        if (status != Status.QUEUED) {
+            return false;
+        }
+        status = Status.RUNNING;
+        startedAt = now;
+        return true;
+    }
+
+    /** @return false if the job had already finished */
+    synchronized boolean succeed(MonitoringResult result, LocalDateTime now) {
+        if (!finish(Status.SUCCEEDED, now)) {
+            return false;
+        }
+        this.result = result;
+        return true;
+    }
+
+    /** @return false if the job had already finished */
+    synchronized boolean fail(String error, LocalDateTime now) {
+        if (!finish(Status.FAILED, now)) {
+            return false;
+        }
+        this.error = error;
+        return true;
+    }
+
+    /** @return false if the job had already finished */
+    synchronized boolean cancel(LocalDateTime now) {
+        if (!finish(Status.CANCELLED, now)) {
+            return false;
+        }
+        if (future != null) {
+            future.cancel(true);
+        }
+        return true;
+    }
+
+    /**
+     * Runs the submitter's completion callback. Called once, by whoever finished the job,
+     * outside this job's lock.
+     */
+    void notifyFinished() {
+        onFinished.accept(this);
+    }
+
+    private boolean finish(Status finalStatus, LocalDateTime now) {
+        if (status.isFinished()) {
+            return false;
+        }
+        status = finalStatus;
+        finishedAt = now;
+        return true;
+    }
+}
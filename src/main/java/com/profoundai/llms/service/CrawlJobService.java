@@ -0,0 +1,158 @@
+package com.profoundai.llms.service;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+/**
+ * Runs crawls in the background so HTTP requests only submit and poll them.
+ * <p>
+ * Jobs go through the {@link CrawlCoordinator} like every other crawl, on a bounded pool of
+ * {@code llms.jobs.parallelism} threads; page fetching still happens on the crawl service's
+ * own pool. Jobs live in memory on the node that accepted them and are forgotten
+ * {@code llms.jobs.retention-ms} after they finish.
+ */
+@Service
+public class CrawlJobService implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlJobService.class);
+
+    private final CrawlCoordinator crawlCoordinator;
+    private final Duration retention;
+    private final ExecutorService jobPool;
+
+    private final ConcurrentMap<String, CrawlJob> jobs = new ConcurrentHashMap<>();
+
+    public CrawlJobService(CrawlCoordinator crawlCoordinator,
+                           @Value("${llms.jobs.parallelism:4}") int parallelism,
+                           @Value("${llms.jobs.retention-ms:3600000}") long retentionMs) {
+        this.crawlCoordinator = crawlCoordinator;
+        this.retention = Duration.ofMillis(retentionMs);
+        this.jobPool = Executors.newFixedThreadPool(Math.max(1, parallelism), daemonThreads("llms-crawl-job-"));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CrawlMetrics.monitorPool(registry, jobPool, "llms.jobs");
+    }
+
+    /**
+     * Queues a crawl of {@code baseUrl} and returns immediately.
+     */
+    public CrawlJob submit(String baseUrl) {
+        return submit(baseUrl, job -> {
+        });
+    }
+
+    /**
+     * Queues a crawl of {@code baseUrl} and returns immediately; {@code onFinished} is called
+     * once when the job succeeds, fails or is cancelled, on whichever thread finished it.
+     */
+    public CrawlJob submit(String baseUrl, Consumer<CrawlJob> onFinished) {
+        pruneFinished();
+        CrawlJob job = new CrawlJob(UUID.randomUUID().toString(), baseUrl, LocalDateTime.now(), onFinished);
+        jobs.put(job.getId(), job);
+        job.setFuture(jobPool.submit(() -> run(job)));
+        log.info("Submitted crawl job {} for baseUrl={}", job.getId(), baseUrl);
+        return job;
+    }
+
+    public Optional<CrawlJob> find(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    /** Jobs waiting for a worker. */
+    public int queuedCount() {
+        return (int) jobs.values().stream().filter(job -> job.getStatus() == CrawlJob.Status.QUEUED).count();
+    }
+
+    /** Retained jobs, newest first. */
+    public List<CrawlJob> list() {
+        pruneFinished();
+        return jobs.values().stream()
+                .sorted(Comparator.comparing(CrawlJob::getSubmittedAt).reversed())
+                .toList();
+    }
+
+    /**
+     * Cancels a queued or running job. A running crawl is interrupted and stops after the pages
+     * it is fetching; nothing it crawled is stored. A no-op for finished jobs.
+     */
+    public Optional<CrawlJob> cancel(String id) {
+        CrawlJob job = jobs.get(id);
+        if (job != null && job.cancel(LocalDateTime.now())) {
+            log.info("Cancelled crawl job {} for baseUrl={}", id, job.getBaseUrl());
+            notifyFinished(job);
+        }
+        return Optional.ofNullable(job);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.debug("Shutting down crawl job pool");
+        jobPool.shutdownNow();
+    }
+
+    private void run(CrawlJob job) {
+        if (!job.start(LocalDateTime.now())) {
+            return;
+        }
+        try {
+            MonitoringResult result = crawlCoordinator.crawlAndUpdate(job.getBaseUrl(), job);
+            if (job.succeed(result, LocalDateTime.now())) {
+                log.info("Crawl job {} for baseUrl={} succeeded", job.getId(), job.getBaseUrl());
+                notifyFinished(job);
+            }
+        } catch (CancellationException e) {
+            if (job.cancel(LocalDateTime.now())) {
+                notifyFinished(job);
+            }
+        } catch (Exception e) {
+            log.warn("Crawl job {} for baseUrl={} failed: {}", job.getId(), job.getBaseUrl(), e.getMessage());
+            if (job.fail(e.getMessage(), LocalDateTime.now())) {
+                notifyFinished(job);
+            }
+        }
+    }
+
+    private static void notifyFinished(CrawlJob job) {
+        try {
+            job.notifyFinished();
+        } catch (RuntimeException e) {
+            log.warn("Completion callback of crawl job {} failed: {}", job.getId(), e.getMessage(), e);
+        }
+    }
+
+    private void pruneFinished() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(retention);
+        jobs.values().removeIf(job -> job.getStatus().isFinished() && job.getFinishedAt().isBefore(cutoff));
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
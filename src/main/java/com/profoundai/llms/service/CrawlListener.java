@@ -0,0 +1,35 @@
+package com.profoundai.llms.service;
+
+/**
+ * Receives progress from a running crawl. Pages are fetched concurrently, so callbacks arrive
+ * on crawl pool threads and must be thread-safe and quick.
+ */
+public interface CrawlListener {
+
+    CrawlListener NONE = new CrawlListener() {
+    };
+
+    /** {@code count} newly discovered URLs were queued for {@code depth}. */
+    default void urlsQueued(int depth, int count) {
+    }
+
+    /** The page's HTML was downloaded. */
+    default void pageFetched(String url, int depth) {
+    }
+
+    /** The page looked client-side rendered and the browser-rendered DOM was used instead. */
+    default void pageRendered(String url) {
+    }
+
+    /** A discovered URL was not crawled, e.g. because it is on another host. */
+    default void pageSkipped(String url, String reason) {
+    }
+
+    /** The page was hashed and added to the crawl result. */
+    default void pageCrawled(CrawlService.PageInfo page) {
+    }
+
+    /** The page could not be fetched or processed and is left out of the result. */
+    default void pageFailed(String url, String error) {
+    }
+}
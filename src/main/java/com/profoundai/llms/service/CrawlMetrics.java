@@ -0,0 +1,158 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.jvm.ExecutorServiceMetrics;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer meters for each stage of the crawl pipeline, published through Actuator
+ * ({@code /actuator/metrics}, {@code /actuator/prometheus}).
+ * <p>
+ * Every meter is tagged with the {@code site} (the base URL's host, as keyed by the circuit
+ * breaker) and, where a page is involved, its {@code page.type}. Durations are passed in as
+ * nanoseconds measured by the caller, so services stay free of timer plumbing.
+ */
+@Component
+public class CrawlMetrics {
+
+    /** What became of a client-side render attempt. */
+    public enum RenderOutcome {
+        /** The rendered DOM was richer and replaced the server HTML. */
+        USED,
+        /** The page rendered but added nothing, so the server HTML was kept. */
+        NOT_RICHER,
+        /** The browser could not render the page. */
+        FAILED
+    }
+
+    private final MeterRegistry registry;
+
+    public CrawlMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /** Tag value for a site: its host, plus the port if explicit. */
+    public static String siteOf(String baseUrl) {
+        return HostCircuitBreaker.hostOf(baseUrl);
+    }
+
+    /** One page or asset download, with the host it came from (assets may live on a CDN). */
+    public void recordFetch(String site, String url, PageType pageType, long nanos, long bytes) {
+        timer("llms.crawl.fetch", "Time to download a page or static asset",
+                Tags.of("site", site, "host", hostOf(url), "page.type", tag(pageType), "outcome", "success"))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("llms.crawl.fetch.bytes")
+                .description("Body size of downloaded pages and static assets")
+                .baseUnit("bytes")
+                .tags(Tags.of("site", site, "page.type", tag(pageType)))
+                .register(registry)
+                .record(bytes);
+    }
+
+    public void recordFetchFailure(String site, String url, PageType pageType, long nanos) {
+        timer("llms.crawl.fetch", "Time to download a page or static asset",
+                Tags.of("site", site, "host", hostOf(url), "page.type", tag(pageType), "outcome", "error"))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Parsing a page's HTML and extracting its title, description and text. */
+    public void recordParse(String site, long nanos) {
+        timer("llms.crawl.parse", "Time to parse a page and extract its text",
+                Tags.of("site", site, "page.type", tag(PageType.PAGE)))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Counts pages checked for client-side rendering; the {@code csr=true} share is the hit rate. */
+    public void recordCsrCheck(String site, boolean likelyCsr) {
+        Counter.builder("llms.crawl.csr.checks")
+                .description("Pages checked for client-side rendering, by verdict")
+                .tags(Tags.of("site", site, "page.type", tag(PageType.PAGE), "csr", String.valueOf(likelyCsr)))
+                .register(registry)
+                .increment();
+    }
+
+    public void recordRender(String site, RenderOutcome outcome, long nanos) {
+        timer("llms.crawl.render", "Time to render a page in the headless browser",
+                Tags.of("site", site, "page.type", tag(PageType.PAGE), "outcome", tag(outcome)))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordHash(String site, PageType pageType, long nanos) {
+        timer("llms.crawl.hash", "Time to hash a page's text or an asset's content",
+                Tags.of("site", site, "page.type", tag(pageType)))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * A whole crawl, from the base page to the last result.
+     *
+     * @param outcome {@code success}, {@code error} or {@code cancelled}
+     */
+    public void recordCrawl(String site, String outcome, long nanos, int pages) {
+        timer("llms.crawl", "Time to crawl a site", Tags.of("site", site, "outcome", outcome))
+                .record(nanos, TimeUnit.NANOSECONDS);
+        if (pages >= 0) {
+            DistributionSummary.builder("llms.crawl.pages")
+                    .description("Pages and static assets per crawl")
+                    .tags(Tags.of("site", site))
+                    .register(registry)
+                    .record(pages);
+        }
+    }
+
+    /** Storing a crawl's snapshot and page metadata. */
+    public void recordPersist(String site, long nanos) {
+        timer("llms.snapshot.persist", "Time to store a snapshot and its page metadata", Tags.of("site", site))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Comparing a crawl against the previous snapshot. */
+    public void recordDiff(String site, long nanos) {
+        timer("llms.snapshot.diff", "Time to diff a crawl against the previous snapshot", Tags.of("site", site))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /** Generating and storing a snapshot's llms.txt. */
+    public void recordGeneration(String site, long nanos) {
+        timer("llms.generation", "Time to generate and store a snapshot's llms.txt", Tags.of("site", site))
+                .record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Publishes a pool's queue depth and active workers as {@code executor.queued} and
+     * {@code executor.active}, tagged {@code name=poolName}.
+     */
+    public static void monitorPool(MeterRegistry registry, ExecutorService pool, String poolName) {
+        new ExecutorServiceMetrics(pool, poolName, Tags.empty()).bindTo(registry);
+    }
+
+    private Timer timer(String name, String description, Tags tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .register(registry);
+    }
+
+    private static String hostOf(String url) {
+        try {
+            String host = new URI(url).getHost();
+            return host != null ? host.toLowerCase(Locale.ROOT) : "unknown";
+        } catch (Exception e) {
+            return "unknown";
+        }
+    }
+
+    private static String tag(Enum<?> value) {
+        return value.name().toLowerCase(Locale.ROOT);
+    }
+}
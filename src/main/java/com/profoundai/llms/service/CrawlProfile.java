@@ -0,0 +1,19 @@
+package com.profoundai.llms.service;
+
+/**
+ * Named crawl limits a site is crawled with, chosen per site when it is submitted (see
+ * {@link CrawlProfiles}).
+ *
+ * @param maxPages pages and static assets kept per crawl
+ * @param maxDepth link hops followed from the base URL
+ */
+public record CrawlProfile(String name, int maxPages, int maxDepth) {
+
+    public static final CrawlProfile DEFAULT = new CrawlProfile("default", 100, 3);
+
+    public CrawlProfile {
+        if (maxPages < 1 || maxDepth < 0) {
+            throw new IllegalArgumentException("Crawl profile '" + name + "' needs max-pages >= 1 and max-depth >= 0");
+        }
+    }
+}
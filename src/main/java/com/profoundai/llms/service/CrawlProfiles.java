@@ -0,0 +1,82 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.MonitoredSite;
+import com.profoundai.llms.repository.MonitoredSiteRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * All crawl profiles by name: the built-in {@link CrawlProfile#DEFAULT} plus profiles configured
+ * under {@code llms.crawl.profiles.<name>.(max-pages|max-depth)}. A configured {@code default}
+ * profile replaces the built-in one; limits left out fall back to the built-in values.
+ */
+@Component
+public class CrawlProfiles {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlProfiles.class);
+
+    private final MonitoredSiteRepository siteRepository;
+    private final Map<String, CrawlProfile> profiles;
+
+    @Autowired
+    public CrawlProfiles(MonitoredSiteRepository siteRepository, Environment environment) {
+        this(siteRepository, Binder.get(environment)
+                .bind("llms.crawl.profiles", Bindable.mapOf(String.class, Limits.class))
+                .orElse(Map.of()));
+    }
+
+    CrawlProfiles(MonitoredSiteRepository siteRepository, Map<String, Limits> configured) {
+        this.siteRepository = siteRepository;
+        Map<String, CrawlProfile> byName = new LinkedHashMap<>();
+        byName.put(CrawlProfile.DEFAULT.name(), CrawlProfile.DEFAULT);
+        configured.forEach((name, limits) -> byName.put(name, new CrawlProfile(name,
+                limits.maxPages() != null ? limits.maxPages() : CrawlProfile.DEFAULT.maxPages(),
+                limits.maxDepth() != null ? limits.maxDepth() : CrawlProfile.DEFAULT.maxDepth())));
+        this.profiles = Collections.unmodifiableMap(byName);
+        log.info("Registered crawl profiles: {}", profiles.keySet());
+    }
+
+    /**
+     * @throws IllegalArgumentException if no profile has this name
+     */
+    public CrawlProfile resolve(String name) {
+        CrawlProfile profile = profiles.get(name);
+        if (profile == null) {
+            throw new IllegalArgumentException("Unknown crawl profile '" + name + "', expected one of " + profiles.keySet());
+        }
+        return profile;
+    }
+
+    /**
+     * The profile {@code baseUrl} is monitored with, or the default for sites not monitored yet.
+     * A site whose profile has since been removed from the configuration falls back to the default.
+     */
+    public CrawlProfile forSite(String baseUrl) {
+        String name = siteRepository.findByBaseUrl(baseUrl)
+                .map(MonitoredSite::getCrawlProfile)
+                .orElse(MonitoredSite.DEFAULT_PROFILE);
+        CrawlProfile profile = profiles.get(name);
+        if (profile == null) {
+            log.warn("{} uses unknown crawl profile '{}', crawling with the default", baseUrl, name);
+            return profiles.get(MonitoredSite.DEFAULT_PROFILE);
+        }
+        return profile;
+    }
+
+    public Map<String, CrawlProfile> getProfiles() {
+        return profiles;
+    }
+
+    /** Binding target for one configured profile. */
+    public record Limits(Integer maxPages, Integer maxDepth) {
+    }
+}
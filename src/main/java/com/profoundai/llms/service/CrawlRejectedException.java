@@ -0,0 +1,33 @@
+package com.profoundai.llms.service;
+
+import java.time.Duration;
+
+/**
+ * Thrown by {@link CrawlAdmissionControl} instead of starting a crawl the node should not take on now.
+ */
+public class CrawlRejectedException extends RuntimeException {
+
+    public enum Reason {
+        /** The client used up its crawl rate. */
+        RATE_LIMITED,
+        /** All crawl slots are busy and the pending queue is full, or the wait for a slot timed out. */
+        SATURATED
+    }
+
+    private final Reason reason;
+    private final Duration retryAfter;
+
+    public CrawlRejectedException(Reason reason, String message, Duration retryAfter) {
+        super(message);
+        this.reason = reason;
+        this.retryAfter = retryAfter;
+    }
+
+    public Reason getReason() {
+        return reason;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+}
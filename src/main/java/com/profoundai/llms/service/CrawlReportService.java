@@ -0,0 +1,71 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.CrawlReport;
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.repository.CrawlReportRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Stores a {@link CrawlReport} with every snapshot and answers questions about them: how one
+ * site's crawls trend over time, and which recent crawls were the most expensive.
+ */
+@Service
+public class CrawlReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlReportService.class);
+
+    private final CrawlReportRepository reportRepository;
+    private final int slowestPages;
+
+    public CrawlReportService(CrawlReportRepository reportRepository,
+                              @Value("${llms.reports.slowest-pages:10}") int slowestPages) {
+        this.reportRepository = reportRepository;
+        this.slowestPages = slowestPages;
+    }
+
+    /**
+     * Stores the report of the crawl behind {@code snapshot}; called once the snapshot and its
+     * llms.txt are stored, so the wall time covers them.
+     */
+    @Transactional
+    public CrawlReport record(CrawlSnapshot snapshot, CrawlStats stats) {
+        CrawlReport report = reportRepository.save(stats.toReport(snapshot, slowestPages));
+        log.info("Crawl report for snapshot id={}: {} ms, {} pages, {} assets, {} bytes, stopped on {}",
+                snapshot.getId(), report.getWallTimeMs(), report.getCounts().pagesFetched(),
+                report.getCounts().assetsFetched(), report.getCounts().bytesFetched(), report.getStopReason());
+        return report;
+    }
+
+    @Transactional(readOnly = true)
+    public Optional<CrawlReport> find(Long snapshotId) {
+        return reportRepository.findById(snapshotId);
+    }
+
+    /** The site's most recent reports, newest first. */
+    @Transactional(readOnly = true)
+    public List<CrawlReport> history(String baseUrl, int limit) {
+        return reportRepository.findByBaseUrlOrderByCreatedAtDesc(baseUrl, Limit.of(Math.max(1, limit)));
+    }
+
+    /** Reports created within {@code window}, slowest first. */
+    @Transactional(readOnly = true)
+    public List<CrawlReport> slowest(Duration window, int limit) {
+        return reportRepository.findByCreatedAtAfterOrderByWallTimeMsDesc(
+                LocalDateTime.now().minus(window), Limit.of(Math.max(1, limit)));
+    }
+
+    @Transactional
+    public void evict(List<Long> snapshotIds) {
+        reportRepository.deleteBySnapshotIdIn(snapshotIds);
+    }
+}
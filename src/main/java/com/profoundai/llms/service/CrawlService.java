@@ -6,8 +6,15 @@ import java.util.List;
 
 public interface CrawlService {
 
+    /** Crawls with the {@link CrawlProfile#DEFAULT default} limits. */
     CrawlResult crawl(String baseUrl);
 
+    /**
+     * Crawls within {@code profile}'s limits, reporting progress to {@code listener}. An
+     * interrupted crawl stops early with a {@link java.util.concurrent.CancellationException}.
+     */
+    CrawlResult crawl(String baseUrl, CrawlProfile profile, CrawlListener listener);
+
     class PageInfo {
         private final String url;
         private final String title;
@@ -47,10 +54,16 @@ public interface CrawlService {
     class CrawlResult {
         private final String baseUrl;
         private final List<PageInfo> pages;
+        private final CrawlStats stats;
 
         public CrawlResult(String baseUrl, List<PageInfo> pages) {
+            this(baseUrl, pages, new CrawlStats(CrawlProfile.DEFAULT.name()));
+        }
+
+        public CrawlResult(String baseUrl, List<PageInfo> pages, CrawlStats stats) {
             this.baseUrl = baseUrl;
             this.pages = pages;
+            this.stats = stats;
         }
 
         public String getBaseUrl() {
@@ -60,5 +73,10 @@ public interface CrawlService {
         public List<PageInfo> getPages() {
             return pages;
         }
+
+        /** Timings and counts for the snapshot's crawl report. */
+        public CrawlStats getStats() {
+            return stats;
+        }
     }
 }
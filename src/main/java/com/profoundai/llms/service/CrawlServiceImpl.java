@@ -1,7 +1,14 @@
 package com.profoundai.llms.service;
 
+import com.profoundai.llms.entity.CrawlReport;
 import com.profoundai.llms.entity.PageType;
-import com.profoundai.llms.util.CsrRenderer;
+import com.profoundai.llms.service.archive.CrawlArchive;
+import com.profoundai.llms.service.jfr.ContentHashEvent;
+import com.profoundai.llms.service.jfr.CsrRenderEvent;
+import com.profoundai.llms.service.jfr.DocumentParseEvent;
+import com.profoundai.llms.service.jfr.PageFetchEvent;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
 import org.jsoup.Jsoup;
 import org.jsoup.nodes.Document;
 import org.jsoup.nodes.Element;
@@ -15,47 +22,91 @@ import java.net.URI;
 import java.security.MessageDigest;
 import java.util.*;
 import java.util.concurrent.*;
+import java.util.function.BooleanSupplier;
 
 @Service
-public class CrawlServiceImpl implements CrawlService {
+public class CrawlServiceImpl implements CrawlService, MeterBinder {
 
     private static final Logger log = LoggerFactory.getLogger(CrawlServiceImpl.class);
 
-    private static final int MAX_PAGES = 100;
-    private static final int MAX_DEPTH = 3;
-    private static final int TIMEOUT_MS = 8000;
     private static final int CSR_THRESHOLD_BYTES = 3 * 1024; // 3 KB
     private static final int CONCURRENCY = 4;
 
-    private final CsrRenderer csrRenderer = new CsrRenderer();
     private final ExecutorService pool = Executors.newFixedThreadPool(CONCURRENCY);
+    private final PageContentStore contentStore;
+    private final CrawlMetrics metrics;
+    private final CrawlArchive archive;
+    private final PageFetcher liveFetcher;
+    private final PolitenessScheduler politeness;
+
+    public CrawlServiceImpl(PageContentStore contentStore, CrawlMetrics metrics, CrawlArchive archive,
+                            HttpResponseCache responseCache, PolitenessScheduler politeness) {
+        this.contentStore = contentStore;
+        this.metrics = metrics;
+        this.archive = archive;
+        // Only requests the cache cannot answer reach the host, and only those take a politeness slot
+        this.liveFetcher = responseCache.wrap(politeness.wrap(new JsoupPageFetcher()));
+        this.politeness = politeness;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CrawlMetrics.monitorPool(registry, pool, "llms.crawl.pages");
+    }
 
     @Override
     public CrawlResult crawl(String baseUrl) {
-        log.info("Starting crawl for baseUrl={}", baseUrl);
-        try {
+        return crawl(baseUrl, CrawlProfile.DEFAULT, CrawlListener.NONE);
+    }
+
+    @Override
+    public CrawlResult crawl(String baseUrl, CrawlProfile profile, CrawlListener listener) {
+        log.info("Starting crawl for baseUrl={} with profile {}", baseUrl, profile.name());
+        final int maxPages = profile.maxPages();
+        final int maxDepth = profile.maxDepth();
+        final String site = CrawlMetrics.siteOf(baseUrl);
+        final long crawlStart = System.nanoTime();
+        final CrawlStats stats = new CrawlStats(profile.name());
+        // The network, or the site's crawl archive when recording or replaying
+        try (PageFetcher fetcher = archive.open(baseUrl, liveFetcher)) {
             log.debug("Parsing base URL: {}", baseUrl);
             URI baseUri = new URI(baseUrl);
             String baseHost = baseUri.getHost();
             log.debug("Extracted base host: {}", baseHost);
+            // A replayed archive is not the site itself: no robots.txt, and throttled pages stay failed
+            boolean paced = archive.getMode() != CrawlArchive.Mode.REPLAY;
+            if (paced) {
+                try {
+                    politeness.readRobots(baseUrl, fetcher);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    throw new CancellationException("Crawl of " + baseUrl + " was cancelled");
+                }
+            }
 
             Set<String> visited = ConcurrentHashMap.newKeySet();
+            Set<String> skipped = new HashSet<>();
             List<PageInfo> pages = Collections.synchronizedList(new ArrayList<>());
 
             List<UrlDepth> currentLevel = List.of(new UrlDepth(baseUrl, 0));
             log.debug("Initialized crawl with base URL at depth 0");
 
             int processedCount = 0;
-            for (int depth = 0; depth <= MAX_DEPTH && !currentLevel.isEmpty() && pages.size() < MAX_PAGES; depth++) {
+            boolean depthLimited = false;
+            for (int depth = 0; depth <= maxDepth && !currentLevel.isEmpty() && pages.size() < maxPages; depth++) {
                 final int currentDepth = depth; // Make effectively final for lambda
+                if (Thread.currentThread().isInterrupted()) {
+                    throw new CancellationException("Crawl of " + baseUrl + " was cancelled");
+                }
                 log.debug("Processing depth level {} with {} URLs", currentDepth, currentLevel.size());
                 
-                // Submit all URLs in current level to thread pool
-                List<Future<List<UrlDepth>>> futures = new ArrayList<>();
+                // Submit all URLs in current level to thread pool, each fetched once its host has a slot due
+                List<Future<PageLinks>> futures = new ArrayList<>();
+                List<Future<PageInfo>> assets = new ArrayList<>();
                 for (UrlDepth urlDepth : currentLevel) {
-                    // Check MAX_PAGES before submitting
-                    if (pages.size() >= MAX_PAGES) {
-                        log.debug("Reached MAX_PAGES limit ({}), stopping submission", MAX_PAGES);
+                    // Check the page limit before submitting
+                    if (pages.size() >= maxPages) {
+                        log.debug("Reached page limit ({}), stopping submission", maxPages);
                         break;
                     }
                     
@@ -81,6 +132,10 @@ public class CrawlServiceImpl implements CrawlService {
                     if (currentUri.getHost() == null || !currentUri.getHost().endsWith(baseHost)) {
                         log.debug("Skipping URL with different host: {} (expected: {})", 
                                 currentUri.getHost(), baseHost);
+                        if (skipped.add(url)) {
+                            stats.skipped();
+                            listener.pageSkipped(url, "different host");
+                        }
                         continue;
                     }
                     
@@ -88,66 +143,125 @@ public class CrawlServiceImpl implements CrawlService {
                     if (visited.add(url)) {
                         processedCount++;
                         final String finalUrl = url; // Make effectively final for lambda
-                        Future<List<UrlDepth>> future = pool.submit(() -> 
-                            processPage(finalUrl, currentDepth, baseHost, visited, pages));
+                        Future<PageLinks> future = politeness.submit(finalUrl, pool, paced,
+                                () -> processPage(finalUrl, currentDepth, site, pages, maxPages, fetcher, listener, stats),
+                                e -> pageFailed(finalUrl, e, listener, stats));
                         futures.add(future);
                     }
                 }
                 
                 // Collect results and build next level
                 List<UrlDepth> nextLevel = new ArrayList<>();
-                for (Future<List<UrlDepth>> future : futures) {
-                    // Check MAX_PAGES before processing each result
-                    if (pages.size() >= MAX_PAGES) {
-                        log.debug("Reached MAX_PAGES limit ({}), stopping result collection", MAX_PAGES);
+                for (Future<PageLinks> future : futures) {
+                    // Check the page limit before processing each result
+                    if (pages.size() >= maxPages) {
+                        log.debug("Reached page limit ({}), stopping result collection", maxPages);
+                        // Pages still waiting for their host's slot would be fetched for nothing
+                        futures.forEach(f -> f.cancel(false));
                         break;
                     }
                     
                     try {
-                        List<UrlDepth> discoveredUrls = future.get();
-                        if (discoveredUrls != null) {
-                            // Add discovered links to next level
-                            for (UrlDepth urlDepth : discoveredUrls) {
-                                // Check MAX_PAGES and MAX_DEPTH before adding
-                                if (pages.size() >= MAX_PAGES) {
-                                    break;
-                                }
-                                if (urlDepth.depth > MAX_DEPTH) {
+                        PageLinks found = future.get();
+                        // Script assets are fetched as tasks of their own, in their host's queue
+                        for (String script : found.scripts()) {
+                            if (pages.size() >= maxPages) {
+                                break;
+                            }
+                            if (visited.add(script)) {
+                                assets.add(politeness.submit(script, pool, paced,
+                                        () -> processAsset(script, site, pages, maxPages, fetcher, listener, stats),
+                                        e -> assetFailed(script, e, stats)));
+                            }
+                        }
+                        // Add discovered links to next level
+                        for (UrlDepth urlDepth : found.links()) {
+                            // Check the page and depth limits before adding
+                            if (pages.size() >= maxPages) {
+                                break;
+                            }
+                            String normalized = normalizeUrl(urlDepth.url);
+                            if (normalized != null && !visited.contains(normalized) && !isStaticAsset(normalized)) {
+                                if (urlDepth.depth > maxDepth) {
+                                    depthLimited = true;
                                     continue;
                                 }
-                                String normalized = normalizeUrl(urlDepth.url);
-                                if (normalized != null && !visited.contains(normalized) && !isStaticAsset(normalized)) {
-                                    nextLevel.add(urlDepth);
-                                }
+                                nextLevel.add(urlDepth);
                             }
                         }
+                    } catch (InterruptedException e) {
+                        // Cancelled by the caller (job cancel, monitoring timeout): stop fetching
+                        futures.forEach(f -> f.cancel(true));
+                        assets.forEach(f -> f.cancel(true));
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Crawl of " + baseUrl + " was cancelled");
                     } catch (Exception e) {
                         log.debug("Error getting result from future: {}", e.getMessage());
                     }
                 }
+                for (Future<PageInfo> asset : assets) {
+                    try {
+                        asset.get();
+                    } catch (InterruptedException e) {
+                        futures.forEach(f -> f.cancel(true));
+                        assets.forEach(f -> f.cancel(true));
+                        Thread.currentThread().interrupt();
+                        throw new CancellationException("Crawl of " + baseUrl + " was cancelled");
+                    } catch (Exception e) {
+                        log.debug("Error getting result from asset future: {}", e.getMessage());
+                    }
+                }
                 
+                // An unreachable site is a failed crawl, not an empty one that would wipe its pages
+                if (currentDepth == 0 && processedCount > 0 && pages.isEmpty()) {
+                    throw new IllegalStateException("Base page " + baseUrl + " could not be fetched");
+                }
+
+                if (!nextLevel.isEmpty()) {
+                    // The same link is often found on several pages; count each URL once
+                    listener.urlsQueued(currentDepth + 1,
+                            (int) nextLevel.stream().map(u -> normalizeUrl(u.url)).distinct().count());
+                }
                 currentLevel = nextLevel;
                 log.debug("Depth {} completed, found {} URLs for next level", currentDepth, nextLevel.size());
                 
-                // Stop if we've reached MAX_PAGES
-                if (pages.size() >= MAX_PAGES) {
-                    log.debug("Reached MAX_PAGES limit ({}), stopping crawl", MAX_PAGES);
+                // Stop if we've reached the page limit
+                if (pages.size() >= maxPages) {
+                    log.debug("Reached page limit ({}), stopping crawl", maxPages);
                     break;
                 }
             }
 
-            if (pages.size() >= MAX_PAGES) {
-                log.info("Reached maximum page limit ({}), stopping crawl", MAX_PAGES);
+            if (pages.size() >= maxPages) {
+                log.info("Reached maximum page limit ({}), stopping crawl", maxPages);
+                stats.stopped(CrawlReport.StopReason.MAX_PAGES);
+                currentLevel.stream()
+                        .map(u -> normalizeUrl(u.url))
+                        .filter(u -> u != null && !visited.contains(u))
+                        .distinct()
+                        .forEach(u -> {
+                            stats.skipped();
+                            listener.pageSkipped(u, "page limit reached");
+                        });
+            } else if (depthLimited) {
+                log.debug("Reached depth limit ({}), crawl complete", maxDepth);
+                stats.stopped(CrawlReport.StopReason.MAX_DEPTH);
             } else if (currentLevel.isEmpty()) {
                 log.debug("Crawl exhausted all levels, crawl complete");
             }
 
             log.info("Crawl completed for baseUrl={}, processed {} pages, found {} valid pages", 
                     baseUrl, processedCount, pages.size());
+            metrics.recordCrawl(site, "success", System.nanoTime() - crawlStart, pages.size());
             
-            return new CrawlResult(baseUrl, pages);
+            return new CrawlResult(baseUrl, pages, stats);
+        } catch (CancellationException e) {
+            log.info("Crawl cancelled for baseUrl={}", baseUrl);
+            metrics.recordCrawl(site, "cancelled", System.nanoTime() - crawlStart, -1);
+            throw e;
         } catch (Exception e) {
             log.error("Failed to crawl baseUrl={}: {}", baseUrl, e.getMessage(), e);
+            metrics.recordCrawl(site, "error", System.nanoTime() - crawlStart, -1);
             throw new RuntimeException("Failed to crawl " + baseUrl, e);
         }
     }
@@ -159,27 +273,52 @@ public class CrawlServiceImpl implements CrawlService {
     }
 
     /**
-     * Processes a single page and returns discovered URLs as UrlDepth objects.
+     * Processes a single page and returns its links as UrlDepth objects, plus its script assets.
      * This method is called concurrently from the thread pool.
-     * All MAX_PAGES checks are done locally without synchronized blocks.
+     * All page limit checks are done locally without synchronized blocks.
+     *
+     * @throws ThrottledException if the host asked for the page to be requested again later
+     * @throws PolitenessScheduler.SlotPending if the host has no request slot due yet
      */
-    private List<UrlDepth> processPage(String url, int depth, String baseHost, 
-                                      Set<String> visited, List<PageInfo> pages) {
+    private PageLinks processPage(String url, int depth, String site, List<PageInfo> pages, int maxPages,
+                                  PageFetcher fetcher, CrawlListener listener, CrawlStats stats)
+            throws ThrottledException, PolitenessScheduler.SlotPending {
         try {
             log.debug("Fetching page: {} (depth: {})", url, depth);
-            String html = Jsoup.connect(url)
-                    .userAgent("llms-txt-crawler")
-                    .timeout(TIMEOUT_MS)
-                    .execute()
-                    .body();
+            long fetchStart = System.nanoTime();
+            String html = fetch(url, site, PageType.PAGE, fetcher, stats);
+            long fetchNanos = System.nanoTime() - fetchStart;
+            listener.pageFetched(url, depth);
+            long renderNanos = 0;
 
             // Check if page is likely CSR and render client-side if needed
-            if (isLikelyCSR(html)) {
+            boolean likelyCsr = isLikelyCSR(html);
+            metrics.recordCsrCheck(site, likelyCsr);
+            if (likelyCsr) {
                 log.debug("Page appears to be CSR, attempting client-side render: {}", url);
-                String renderedHtml = csrRenderer.renderClientSide(url);
-                if (renderedHtml != null && isRicherContent(renderedHtml, html)) {
+                CsrRenderEvent renderEvent = new CsrRenderEvent();
+                renderEvent.begin();
+                long renderStart = System.nanoTime();
+                String renderedHtml = fetcher.render(url);
+                renderNanos = System.nanoTime() - renderStart;
+                boolean richer = renderedHtml != null && isRicherContent(renderedHtml, html);
+                CrawlMetrics.RenderOutcome outcome = richer ? CrawlMetrics.RenderOutcome.USED
+                        : renderedHtml != null ? CrawlMetrics.RenderOutcome.NOT_RICHER
+                        : CrawlMetrics.RenderOutcome.FAILED;
+                renderEvent.end();
+                if (renderEvent.shouldCommit()) {
+                    renderEvent.url = url;
+                    renderEvent.outcome = outcome.name().toLowerCase(Locale.ROOT);
+                    renderEvent.serverHtmlLength = html.length();
+                    renderEvent.renderedHtmlLength = renderedHtml != null ? renderedHtml.length() : 0;
+                    renderEvent.commit();
+                }
+                stats.rendered(renderNanos, richer);
+                metrics.recordRender(site, outcome, renderNanos);
+                if (richer) {
                     log.debug("Client-side rendered DOM is richer, using rendered version for: {}", url);
                     html = renderedHtml;
+                    listener.pageRendered(url);
                 } else if (renderedHtml != null) {
                     log.debug("Client-side rendered DOM not richer, using SSR version for: {}", url);
                 } else {
@@ -187,6 +326,9 @@ public class CrawlServiceImpl implements CrawlService {
                 }
             }
 
+            DocumentParseEvent parseEvent = new DocumentParseEvent();
+            parseEvent.begin();
+            long parseStart = System.nanoTime();
             Document doc = Jsoup.parse(html, url);
 
             String title = doc.title();
@@ -195,89 +337,193 @@ public class CrawlServiceImpl implements CrawlService {
                     .orElse(null);
 
             String textContent = doc.body() != null ? doc.body().text() : "";
-            String hash = sha256(textContent);
-
-            // Add page info - check MAX_PAGES locally without synchronized block
+            long parseNanos = System.nanoTime() - parseStart;
+            parseEvent.end();
+            if (parseEvent.shouldCommit()) {
+                parseEvent.url = url;
+                parseEvent.htmlLength = html.length();
+                parseEvent.textLength = textContent.length();
+                parseEvent.commit();
+            }
+            metrics.recordParse(site, parseNanos);
+            stats.parsed(parseNanos);
+            long hashStart = System.nanoTime();
+            String hash = hash(url, PageType.PAGE, textContent);
+            long hashNanos = System.nanoTime() - hashStart;
+            metrics.recordHash(site, PageType.PAGE, hashNanos);
+            stats.hashed(hashNanos);
+            stats.timed(url, PageType.PAGE, fetchNanos, renderNanos);
+            // Keep the extracted text (content-addressed on disk) for llms-full.txt
+            contentStore.store(hash, textContent);
+
+            // Add page info - check the page limit locally without synchronized block
             // The synchronized list handles thread-safety, we just check size
-            if (pages.size() < MAX_PAGES) {
-                pages.add(new PageInfo(url, title, description, hash, PageType.PAGE));
+            if (pages.size() < maxPages) {
+                PageInfo page = new PageInfo(url, title, description, hash, PageType.PAGE);
+                pages.add(page);
+                listener.pageCrawled(page);
                 log.debug("Successfully processed page: {} (title: {}, hash: {})", url, title, hash);
             }
 
             // Collect discovered links as UrlDepth objects
-            List<UrlDepth> discoveredUrls = new ArrayList<>();
-            Elements links = doc.select("a[href]");
-            int linksAdded = 0;
-            int staticAssetsSkipped = 0;
-            for (Element link : links) {
-                // Check MAX_PAGES locally
-                if (pages.size() >= MAX_PAGES) {
-                    break;
-                }
-                String href = link.absUrl("href");
-                String normalized = normalizeUrl(href);
-                
-                // Filter: Skip static assets (.js, .css, .map) - they should only be processed as assets, not BFS-crawled
-                if (normalized != null && isStaticAsset(normalized)) {
-                    log.trace("Skipping static asset from BFS queue: {}", normalized);
-                    staticAssetsSkipped++;
-                    continue;
-                }
-                
+            List<UrlDepth> discoveredUrls = discoverLinks(doc, depth, () -> pages.size() >= maxPages);
+
+            // Collect <script src="..."> tags as static assets, fetched and hashed once each by the crawl
+            // Note: We do NOT parse or follow any links within script contents
+            List<String> scripts = new ArrayList<>();
+            for (Element script : doc.select("script[src]")) {
+                String normalized = normalizeUrl(script.absUrl("src"));
                 if (normalized != null) {
-                    discoveredUrls.add(new UrlDepth(normalized, depth + 1));
-                    linksAdded++;
+                    scripts.add(normalized);
                 }
             }
-            log.debug("Found {} links on page {}, discovered {} new URLs, skipped {} static assets", 
-                    links.size(), url, linksAdded, staticAssetsSkipped);
-
-            // Process <script src="..."> tags as static assets
-            // For each external JS script: normalize URL, fetch contents, compute hash, add as STATIC_ASSET
-            // Note: We do NOT parse or follow any links within script contents - only fetch and hash
-            if (pages.size() < MAX_PAGES) {
-                Elements scripts = doc.select("script[src]");
-                int scriptsProcessed = 0;
-                for (Element script : scripts) {
-                    if (pages.size() >= MAX_PAGES) {
-                        break;
-                    }
-                    String src = script.absUrl("src");
-                    String normalized = normalizeUrl(src);
-                    if (normalized != null && visited.add(normalized)) {
-                        try {
-                            log.debug("Fetching script asset: {}", normalized);
-                            // Fetch raw file contents (do not parse or follow links within script)
-                            String scriptContent = Jsoup.connect(normalized)
-                                    .userAgent("llms-txt-crawler")
-                                    .timeout(TIMEOUT_MS)
-                                    .ignoreContentType(true)
-                                    .execute()
-                                    .body();
-                            // Compute SHA-256 hash of the script content
-                            String scriptHash = sha256(scriptContent);
-                            // Add as STATIC_ASSET - no BFS enqueuing, just track as asset
-                            pages.add(new PageInfo(normalized, null, null, scriptHash, PageType.STATIC_ASSET));
-                            scriptsProcessed++;
-                            log.debug("Successfully processed script asset: {} (hash: {})", normalized, scriptHash);
-                        } catch (Exception e) {
-                            log.debug("Error processing script asset {}: {}", normalized, e.getMessage());
-                            // ignore per-script errors
-                        }
-                    }
-                }
-                log.debug("Found {} script sources on page {}, processed {} script assets", 
-                        scripts.size(), url, scriptsProcessed);
+            log.debug("Found {} script sources on page {}", scripts.size(), url);
+
+            return new PageLinks(discoveredUrls, scripts);
+        } catch (ThrottledException | PolitenessScheduler.SlotPending e) {
+            throw e;
+        } catch (Exception e) {
+            return pageFailed(url, e, listener, stats);
+        }
+    }
+
+    private PageLinks pageFailed(String url, Exception e, CrawlListener listener, CrawlStats stats) {
+        log.debug("Error processing page {}: {}", url, e.getMessage());
+        stats.failed();
+        listener.pageFailed(url, e.getMessage());
+        return PageLinks.NONE;
+    }
+
+    /**
+     * Fetches a script asset and hashes its raw contents; links within it are not followed.
+     *
+     * @return the asset, or null if it failed or the crawl already has enough pages
+     * @throws ThrottledException if the host asked for the asset to be requested again later
+     * @throws PolitenessScheduler.SlotPending if the host has no request slot due yet
+     */
+    private PageInfo processAsset(String url, String site, List<PageInfo> pages, int maxPages,
+                                  PageFetcher fetcher, CrawlListener listener, CrawlStats stats)
+            throws ThrottledException, PolitenessScheduler.SlotPending {
+        if (pages.size() >= maxPages) {
+            return null;
+        }
+        try {
+            log.debug("Fetching script asset: {}", url);
+            long fetchStart = System.nanoTime();
+            String scriptContent = fetch(url, site, PageType.STATIC_ASSET, fetcher, stats);
+            stats.timed(url, PageType.STATIC_ASSET, System.nanoTime() - fetchStart, 0);
+            // Compute SHA-256 hash of the script content
+            long hashStart = System.nanoTime();
+            String scriptHash = hash(url, PageType.STATIC_ASSET, scriptContent);
+            long hashNanos = System.nanoTime() - hashStart;
+            metrics.recordHash(site, PageType.STATIC_ASSET, hashNanos);
+            stats.hashed(hashNanos);
+            // Add as STATIC_ASSET - no BFS enqueuing, just track as asset
+            PageInfo asset = new PageInfo(url, null, null, scriptHash, PageType.STATIC_ASSET);
+            pages.add(asset);
+            listener.pageCrawled(asset);
+            log.debug("Successfully processed script asset: {} (hash: {})", url, scriptHash);
+            return asset;
+        } catch (ThrottledException | PolitenessScheduler.SlotPending e) {
+            throw e;
+        } catch (Exception e) {
+            // ignore per-script errors
+            return assetFailed(url, e, stats);
+        }
+    }
+
+    private PageInfo assetFailed(String url, Exception e, CrawlStats stats) {
+        log.debug("Error processing script asset {}: {}", url, e.getMessage());
+        stats.failed();
+        return null;
+    }
+
+    /**
+     * Returns the page's links as candidates for the next level, normalized and without static
+     * assets (those are only processed as assets, not BFS-crawled). Stops early once
+     * {@code limitReached} says the crawl has enough pages.
+     */
+    List<UrlDepth> discoverLinks(Document doc, int depth, BooleanSupplier limitReached) {
+        List<UrlDepth> discoveredUrls = new ArrayList<>();
+        Elements links = doc.select("a[href]");
+        int staticAssetsSkipped = 0;
+        for (Element link : links) {
+            // Check the page limit locally
+            if (limitReached.getAsBoolean()) {
+                break;
+            }
+            String href = link.absUrl("href");
+            String normalized = normalizeUrl(href);
+
+            if (normalized != null && isStaticAsset(normalized)) {
+                log.trace("Skipping static asset from BFS queue: {}", normalized);
+                staticAssetsSkipped++;
+                continue;
+            }
+
+            if (normalized != null) {
+                discoveredUrls.add(new UrlDepth(normalized, depth + 1));
             }
+        }
+        log.debug("Found {} links on page {}, discovered {} new URLs, skipped {} static assets",
+                links.size(), doc.location(), discoveredUrls.size(), staticAssetsSkipped);
+        return discoveredUrls;
+    }
 
-            return discoveredUrls;
+    /**
+     * Downloads {@code url}'s body, recording latency and size. A fetch that found no request slot
+     * due is not a fetch at all and is not recorded.
+     */
+    private String fetch(String url, String site, PageType pageType, PageFetcher fetcher,
+                         CrawlStats stats) throws Exception {
+        PageFetchEvent event = new PageFetchEvent();
+        event.begin();
+        long start = System.nanoTime();
+        boolean sent = true;
+        try {
+            PageFetcher.Response response = fetcher.fetch(url, pageType);
+            String body = response.text();
+            long nanos = System.nanoTime() - start;
+            int bytes = response.body().length;
+            metrics.recordFetch(site, url, pageType, nanos, bytes);
+            stats.fetched(pageType, nanos, bytes);
+            event.bytes = bytes;
+            event.succeeded = true;
+            return body;
+        } catch (PolitenessScheduler.SlotPending e) {
+            sent = false;
+            throw e;
         } catch (Exception e) {
-            log.debug("Error processing page {}: {}", url, e.getMessage());
-            return Collections.emptyList();
+            metrics.recordFetchFailure(site, url, pageType, System.nanoTime() - start);
+            throw e;
+        } finally {
+            event.end();
+            if (sent && event.shouldCommit()) {
+                event.url = url;
+                event.pageType = pageType.name();
+                event.commit();
+            }
         }
     }
 
-    private String normalizeUrl(String url) {
+    /**
+     * SHA-256 of {@code content}, emitted as a {@link ContentHashEvent}.
+     */
+    private String hash(String url, PageType pageType, String content) throws Exception {
+        ContentHashEvent event = new ContentHashEvent();
+        event.begin();
+        String hash = sha256(content);
+        event.end();
+        if (event.shouldCommit()) {
+            event.url = url;
+            event.pageType = pageType.name();
+            event.contentLength = content.length();
+            event.commit();
+        }
+        return hash;
+    }
+
+    String normalizeUrl(String url) {
         try {
             if (url == null || url.isBlank()) {
                 log.trace("Normalizing null or blank URL, returning null");
@@ -297,7 +543,7 @@ public class CrawlServiceImpl implements CrawlService {
         }
     }
 
-    private boolean isStaticAsset(String url) {
+    boolean isStaticAsset(String url) {
         if (url == null) {
             return false;
         }
@@ -311,7 +557,7 @@ public class CrawlServiceImpl implements CrawlService {
      * @param html The HTML content to check
      * @return true if the page appears to be CSR, false otherwise
      */
-    private boolean isLikelyCSR(String html) {
+    boolean isLikelyCSR(String html) {
         if (html == null || html.isEmpty()) {
             return false;
         }
@@ -341,7 +587,7 @@ public class CrawlServiceImpl implements CrawlService {
      * @param ssrHtml The server-side rendered HTML
      * @return true if rendered HTML is richer, false otherwise
      */
-    private boolean isRicherContent(String renderedHtml, String ssrHtml) {
+    boolean isRicherContent(String renderedHtml, String ssrHtml) {
         if (renderedHtml == null) {
             return false;
         }
@@ -378,7 +624,7 @@ public class CrawlServiceImpl implements CrawlService {
         return false;
     }
 
-    private String sha256(String text) throws Exception {
+    String sha256(String text) throws Exception {
         log.trace("Computing SHA-256 hash for text of length: {}", text != null ? text.length() : 0);
         MessageDigest md = MessageDigest.getInstance("SHA-256");
         byte[] bytes = md.digest(text.getBytes());
@@ -391,7 +637,12 @@ public class CrawlServiceImpl implements CrawlService {
         return hash;
     }
 
-    private static class UrlDepth {
+    /** What a processed page leads to: links for the next level, and script assets to fetch. */
+    record PageLinks(List<UrlDepth> links, List<String> scripts) {
+        static final PageLinks NONE = new PageLinks(List.of(), List.of());
+    }
+
+    static class UrlDepth {
         final String url;
         final int depth;
 
@@ -0,0 +1,134 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.CrawlReport;
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.PageType;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Timings and counts of one crawl, turned into its snapshot's {@link CrawlReport}. The crawl's
+ * workers fill it concurrently; the monitoring service then adds the time it took to store the
+ * snapshot and generate its llms.txt.
+ */
+public class CrawlStats {
+
+    private final String profile;
+    private final long startNanos = System.nanoTime();
+
+    private final LongAdder fetchNanos = new LongAdder();
+    private final LongAdder renderNanos = new LongAdder();
+    private final LongAdder parseNanos = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final LongAdder persistNanos = new LongAdder();
+    private final LongAdder diffNanos = new LongAdder();
+    private final LongAdder generationNanos = new LongAdder();
+    private final LongAdder bytesFetched = new LongAdder();
+    private final AtomicInteger pagesFetched = new AtomicInteger();
+    private final AtomicInteger assetsFetched = new AtomicInteger();
+    private final AtomicInteger renders = new AtomicInteger();
+    private final AtomicInteger rendersUsed = new AtomicInteger();
+    private final AtomicInteger skipped = new AtomicInteger();
+    private final AtomicInteger errors = new AtomicInteger();
+    private final Queue<Timing> timings = new ConcurrentLinkedQueue<>();
+    private volatile CrawlReport.StopReason stopReason = CrawlReport.StopReason.COMPLETED;
+
+    public CrawlStats(String profile) {
+        this.profile = profile;
+    }
+
+    public String getProfile() {
+        return profile;
+    }
+
+    public CrawlReport.StopReason getStopReason() {
+        return stopReason;
+    }
+
+    void stopped(CrawlReport.StopReason reason) {
+        this.stopReason = reason;
+    }
+
+    void fetched(PageType pageType, long nanos, long bytes) {
+        fetchNanos.add(nanos);
+        bytesFetched.add(bytes);
+        (pageType == PageType.STATIC_ASSET ? assetsFetched : pagesFetched).incrementAndGet();
+    }
+
+    void rendered(long nanos, boolean used) {
+        renderNanos.add(nanos);
+        renders.incrementAndGet();
+        if (used) {
+            rendersUsed.incrementAndGet();
+        }
+    }
+
+    void parsed(long nanos) {
+        parseNanos.add(nanos);
+    }
+
+    void hashed(long nanos) {
+        hashNanos.add(nanos);
+    }
+
+    /** Fetch and render time of one page or asset, for the report's slowest pages. */
+    void timed(String url, PageType pageType, long fetchNanos, long renderNanos) {
+        timings.add(new Timing(url, pageType, fetchNanos, renderNanos));
+    }
+
+    void skipped() {
+        skipped.incrementAndGet();
+    }
+
+    void failed() {
+        errors.incrementAndGet();
+    }
+
+    public void persisted(long nanos) {
+        persistNanos.add(nanos);
+    }
+
+    public void diffed(long nanos) {
+        diffNanos.add(nanos);
+    }
+
+    public void generated(long nanos) {
+        generationNanos.add(nanos);
+    }
+
+    /**
+     * Builds the report for {@code snapshot}, with wall time measured up to now.
+     *
+     * @param slowestPages how many of the slowest pages to keep
+     */
+    public CrawlReport toReport(CrawlSnapshot snapshot, int slowestPages) {
+        CrawlReport.Stages stages = new CrawlReport.Stages(ms(fetchNanos.sum()), ms(renderNanos.sum()),
+                ms(parseNanos.sum()), ms(hashNanos.sum()), ms(persistNanos.sum()), ms(diffNanos.sum()),
+                ms(generationNanos.sum()));
+        CrawlReport.Counts counts = new CrawlReport.Counts(bytesFetched.sum(), pagesFetched.get(),
+                assetsFetched.get(), renders.get(), rendersUsed.get(), skipped.get(), errors.get());
+        List<CrawlReport.PageTiming> slowest = timings.stream()
+                .sorted(Comparator.comparingLong(Timing::totalNanos).reversed())
+                .limit(Math.max(0, slowestPages))
+                .map(t -> new CrawlReport.PageTiming(t.url(), t.pageType(), ms(t.fetchNanos()), ms(t.renderNanos())))
+                .toList();
+        return new CrawlReport(snapshot.getId(), snapshot.getBaseUrl(), snapshot.getCreatedAt(), profile,
+                stopReason, ms(System.nanoTime() - startNanos), stages, counts, slowest);
+    }
+
+    private static long ms(long nanos) {
+        return TimeUnit.NANOSECONDS.toMillis(nanos);
+    }
+
+    private record Timing(String url, PageType pageType, long fetchNanos, long renderNanos) {
+        long totalNanos() {
+            return fetchNanos + renderNanos;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+package com.profoundai.llms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Per-host circuit breaker for crawls.
+ * <p>
+ * After {@code llms.breaker.failure-threshold} consecutive failed crawls of a host the circuit
+ * opens and crawls of that host are refused with a {@link CircuitOpenException} instead of
+ * waiting out page timeouts. Once the backoff has passed, a single probe crawl is let through
+ * (half-open): success closes the circuit, failure opens it again for twice as long, up to
+ * {@code llms.breaker.max-backoff-ms}.
+ */
+@Component
+public class HostCircuitBreaker {
+
+    private static final Logger log = LoggerFactory.getLogger(HostCircuitBreaker.class);
+
+    public enum State {
+        CLOSED,
+        OPEN,
+        HALF_OPEN
+    }
+
+    /**
+     * Snapshot of one host's breaker, as exposed by the API.
+     *
+     * @param retryAt when the next probe is allowed, or {@code null} unless the circuit is open
+     */
+    public record HostState(String host, State state, int consecutiveFailures, int openCount,
+                            LocalDateTime openedAt, LocalDateTime retryAt) {
+    }
+
+    private final int failureThreshold;
+    private final long baseBackoffMs;
+    private final long maxBackoffMs;
+    private final Clock clock;
+
+    private final ConcurrentMap<String, Breaker> breakers = new ConcurrentHashMap<>();
+
+    @Autowired
+    public HostCircuitBreaker(@Value("${llms.breaker.failure-threshold:3}") int failureThreshold,
+                              @Value("${llms.breaker.base-backoff-ms:60000}") long baseBackoffMs,
+                              @Value("${llms.breaker.max-backoff-ms:3600000}") long maxBackoffMs) {
+        this(failureThreshold, baseBackoffMs, maxBackoffMs, Clock.systemDefaultZone());
+    }
+
+    HostCircuitBreaker(int failureThreshold, long baseBackoffMs, long maxBackoffMs, Clock clock) {
+        if (failureThreshold < 1 || baseBackoffMs <= 0 || maxBackoffMs < baseBackoffMs) {
+            throw new IllegalArgumentException("Invalid circuit breaker settings: threshold=" + failureThreshold
+                    + ", base=" + baseBackoffMs + " ms, max=" + maxBackoffMs + " ms");
+        }
+        this.failureThreshold = failureThreshold;
+        this.baseBackoffMs = baseBackoffMs;
+        this.maxBackoffMs = maxBackoffMs;
+        this.clock = clock;
+    }
+
+    /**
+     * Lets a crawl of {@code baseUrl}'s host through, or refuses it while the circuit is open.
+     * When the backoff has passed the caller becomes the half-open probe; every other caller is
+     * refused until that probe is recorded.
+     *
+     * @throws CircuitOpenException if the host's circuit is open or a probe is already running
+     */
+    public void acquire(String baseUrl) {
+        String host = hostOf(baseUrl);
+        Breaker breaker = breakers.get(host);
+        if (breaker == null) {
+            return;
+        }
+        synchronized (breaker) {
+            LocalDateTime now = LocalDateTime.now(clock);
+            switch (breaker.state) {
+                case CLOSED -> {
+                }
+                case OPEN -> {
+                    if (now.isBefore(breaker.retryAt)) {
+                        throw new CircuitOpenException(host, breaker.retryAt);
+                    }
+                    log.info("Circuit for {} is half-open, letting a probe crawl through", host);
+                    breaker.state = State.HALF_OPEN;
+                }
+                case HALF_OPEN -> throw new CircuitOpenException(host, breaker.retryAt);
+            }
+        }
+    }
+
+    public void recordSuccess(String baseUrl) {
+        String host = hostOf(baseUrl);
+        Breaker breaker = breakers.get(host);
+        if (breaker == null) {
+            return;
+        }
+        synchronized (breaker) {
+            if (breaker.state != State.CLOSED) {
+                log.info("Circuit for {} closed after a successful crawl", host);
+            }
+            breaker.state = State.CLOSED;
+            breaker.consecutiveFailures = 0;
+            breaker.openCount = 0;
+            breaker.openedAt = null;
+            breaker.retryAt = null;
+        }
+    }
+
+    public void recordFailure(String baseUrl) {
+        String host = hostOf(baseUrl);
+        Breaker breaker = breakers.computeIfAbsent(host, h -> new Breaker());
+        synchronized (breaker) {
+            breaker.consecutiveFailures++;
+            if (breaker.state == State.HALF_OPEN
+                    || (breaker.state == State.CLOSED && breaker.consecutiveFailures >= failureThreshold)) {
+                LocalDateTime now = LocalDateTime.now(clock);
+                long backoffMs = backoffMs(breaker.openCount);
+                breaker.state = State.OPEN;
+                breaker.openCount++;
+                breaker.openedAt = now;
+                breaker.retryAt = now.plus(Duration.ofMillis(backoffMs));
+                log.warn("Circuit for {} opened after {} consecutive failures, next probe in {} ms",
+                        host, breaker.consecutiveFailures, backoffMs);
+            }
+        }
+    }
+
+    /**
+     * A crawl let through by {@link #acquire} was cancelled before it could tell whether the host
+     * is healthy. A cancelled probe puts the circuit back to open with its previous retry time, so
+     * the next crawl becomes the probe instead of being refused for good.
+     */
+    public void recordCancelled(String baseUrl) {
+        String host = hostOf(baseUrl);
+        Breaker breaker = breakers.get(host);
+        if (breaker == null) {
+            return;
+        }
+        synchronized (breaker) {
+            if (breaker.state == State.HALF_OPEN) {
+                log.info("Probe crawl of {} was cancelled, circuit is open again", host);
+                breaker.state = State.OPEN;
+            }
+        }
+    }
+
+    /**
+     * When the host's circuit next lets a probe through, if it is currently refusing crawls.
+     */
+    public Optional<LocalDateTime> openUntil(String baseUrl) {
+        Breaker breaker = breakers.get(hostOf(baseUrl));
+        if (breaker == null) {
+            return Optional.empty();
+        }
+        synchronized (breaker) {
+            if (breaker.state == State.OPEN && LocalDateTime.now(clock).isBefore(breaker.retryAt)) {
+                return Optional.of(breaker.retryAt);
+            }
+            return Optional.empty();
+        }
+    }
+
+    public State state(String baseUrl) {
+        Breaker breaker = breakers.get(hostOf(baseUrl));
+        if (breaker == null) {
+            return State.CLOSED;
+        }
+        synchronized (breaker) {
+            return breaker.state;
+        }
+    }
+
+    /** Every host that has failed since it was last healthy, open circuits first. */
+    public List<HostState> states() {
+        return breakers.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .filter(state -> state.consecutiveFailures() > 0)
+                .sorted(Comparator.comparing((HostState state) -> state.state() == State.CLOSED)
+                        .thenComparing(HostState::host))
+                .toList();
+    }
+
+    private long backoffMs(int openCount) {
+        long backoff = baseBackoffMs;
+        for (int i = 0; i < openCount && backoff < maxBackoffMs; i++) {
+            backoff *= 2;
+        }
+        return Math.min(backoff, maxBackoffMs);
+    }
+
+    static String hostOf(String baseUrl) {
+        try {
+            URI uri = new URI(baseUrl);
+            if (uri.getHost() != null) {
+                String host = uri.getHost().toLowerCase(Locale.ROOT);
+                return uri.getPort() == -1 ? host : host + ":" + uri.getPort();
+            }
+        } catch (Exception e) {
+            log.trace("Could not parse host from {}: {}", baseUrl, e.getMessage());
+        }
+        return String.valueOf(baseUrl);
+    }
+
+    private static final class Breaker {
+        private State state = State.CLOSED;
+        private int consecutiveFailures;
+        private int openCount;
+        private LocalDateTime openedAt;
+        private LocalDateTime retryAt;
+
+        synchronized HostState snapshot(String host) {
+            return new HostState(host, state, consecutiveFailures, openCount, openedAt,
+                    state == State.CLOSED ? null : retryAt);
+        }
+    }
+}
@@ -0,0 +1,460 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Shared HTTP cache under the crawler's network fetches, following RFC 9111 for a shared cache:
+ * responses are stored unless {@code no-store}, {@code private} or {@code Vary: *}, are fresh for
+ * {@code s-maxage}, {@code max-age}, {@code Expires} or, for static assets, 10% of their
+ * {@code Last-Modified} age, and once stale are revalidated with {@code If-None-Match} / {@code If-Modified-Since}.
+ * {@code no-cache} responses are revalidated on every use.
+ * <p>
+ * A crawler wants to notice changes, so no response is trusted fresh for longer than
+ * {@code llms.http-cache.max-ttl-ms}, except {@code immutable} ones (RFC 8246), which keep their
+ * full lifetime. Entries live under {@code llms.http-cache.dir}, one gzip-compressed file each, so
+ * they are shared by all crawls and sites and survive restarts; the least recently used are
+ * evicted once they take more than {@code llms.http-cache.max-bytes} on disk.
+ */
+@Component
+public class HttpResponseCache implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(HttpResponseCache.class);
+
+    /** Statuses cacheable by default (RFC 9110 section 15.1), the others are never stored. */
+    private static final Set<Integer> CACHEABLE_STATUSES = Set.of(200, 203, 204, 300, 301, 308, 404, 405, 410, 414, 501);
+    /** Headers of a 304 that must not replace the stored response's (RFC 9111 section 3.2). */
+    private static final Set<String> UNUPDATED_HEADERS = Set.of("content-length", "content-encoding", "transfer-encoding");
+    private static final String SUFFIX = ".entry";
+    private static final int FORMAT = 1;
+
+    /**
+     * A stored response with the times its age is computed from (RFC 9111 section 4.2.3).
+     *
+     * @param requestTime  when the request that got the response was sent
+     * @param responseTime when the response was received
+     */
+    record Entry(String url, PageFetcher.Response response, long requestTime, long responseTime) {
+    }
+
+    enum Outcome {
+        /** Served fresh from the cache. */
+        HIT,
+        /** Stale, and confirmed unchanged by a conditional request. */
+        REVALIDATED,
+        /** Fetched in full. */
+        MISS
+    }
+
+    private final boolean enabled;
+    private final Path dir;
+    private final long maxBytes;
+    private final long maxTtlMs;
+    private final Clock clock;
+
+    /** Entry sizes on disk by key, least recently used first. */
+    private final LinkedHashMap<String, Long> index = new LinkedHashMap<>(256, 0.75f, true);
+    private long totalBytes;
+    private final Map<Outcome, AtomicLong> outcomes = new EnumMap<>(Outcome.class);
+    private final AtomicLong evictions = new AtomicLong();
+
+    @Autowired
+    public HttpResponseCache(@Value("${llms.http-cache.enabled:true}") boolean enabled,
+                             @Value("${llms.http-cache.dir:${java.io.tmpdir}/llms-http-cache}") String dir,
+                             @Value("${llms.http-cache.max-bytes:268435456}") long maxBytes,
+                             @Value("${llms.http-cache.max-ttl-ms:3600000}") long maxTtlMs) {
+        this(enabled, Paths.get(dir), maxBytes, maxTtlMs, Clock.systemUTC());
+    }
+
+    HttpResponseCache(boolean enabled, Path dir, long maxBytes, long maxTtlMs, Clock clock) {
+        if (maxBytes < 1 || maxTtlMs < 0) {
+            throw new IllegalArgumentException("Invalid HTTP cache settings: max-bytes=" + maxBytes
+                    + ", max-ttl-ms=" + maxTtlMs);
+        }
+        this.enabled = enabled;
+        this.dir = dir;
+        this.maxBytes = maxBytes;
+        this.maxTtlMs = maxTtlMs;
+        this.clock = clock;
+        for (Outcome outcome : Outcome.values()) {
+            outcomes.put(outcome, new AtomicLong());
+        }
+        if (enabled) {
+            load();
+        }
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        outcomes.forEach((outcome, count) -> FunctionCounter.builder("llms.http.cache.requests", count, AtomicLong::get)
+                .description("Network fetches by how the HTTP cache served them")
+                .tag("result", outcome.name().toLowerCase(Locale.ROOT))
+                .register(registry));
+        FunctionCounter.builder("llms.http.cache.evictions", evictions, AtomicLong::get)
+                .description("HTTP cache entries evicted to stay within max-bytes")
+                .register(registry);
+        Gauge.builder("llms.http.cache.size", this, HttpResponseCache::size)
+                .description("Bytes the HTTP cache takes on disk")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * {@code network} behind this cache, or {@code network} itself when the cache is disabled.
+     */
+    public PageFetcher wrap(PageFetcher network) {
+        return enabled ? new CachingPageFetcher(network, this) : network;
+    }
+
+    public synchronized long size() {
+        return totalBytes;
+    }
+
+    public synchronized int entries() {
+        return index.size();
+    }
+
+    long now() {
+        return clock.millis();
+    }
+
+    void record(Outcome outcome) {
+        outcomes.get(outcome).incrementAndGet();
+    }
+
+    long count(Outcome outcome) {
+        return outcomes.get(outcome).get();
+    }
+
+    /** The stored response for {@code url}, fresh or not, or null. */
+    Entry get(String url) {
+        String key = keyOf(url);
+        synchronized (this) {
+            if (index.get(key) == null) {
+                return null;
+            }
+        }
+        Path file = fileOf(key);
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != FORMAT || !url.equals(readString(in))) {
+                return null;
+            }
+            int status = in.readInt();
+            String statusMessage = readString(in);
+            int headerCount = in.readInt();
+            Map<String, List<String>> headers = new LinkedHashMap<>();
+            for (int i = 0; i < headerCount; i++) {
+                headers.computeIfAbsent(readString(in), k -> new ArrayList<>()).add(readString(in));
+            }
+            long requestTime = in.readLong();
+            long responseTime = in.readLong();
+            byte[] body = in.readNBytes(in.readInt());
+            // Keeps the recency order across restarts
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entry(url, new PageFetcher.Response(status, statusMessage, headers, body), requestTime, responseTime);
+        } catch (NoSuchFileException e) {
+            forget(key);
+            return null;
+        } catch (IOException e) {
+            log.debug("Dropping unreadable HTTP cache entry for {}: {}", url, e.getMessage());
+            remove(key);
+            return null;
+        }
+    }
+
+    /**
+     * Stores {@code response} if it may be, replacing what was stored for {@code url}. A response
+     * that cannot be stored, such as a {@code 503} or an oversized body, leaves the stored one and
+     * its validators alone.
+     */
+    void put(String url, PageFetcher.Response response, long requestTime, long responseTime) {
+        if (!isStorable(response) || response.body().length > maxBytes / 16) {
+            return;
+        }
+        String key = keyOf(url);
+        Path file = fileOf(key);
+        Path tmp = null;
+        try {
+            Files.createDirectories(file.getParent());
+            tmp = Files.createTempFile(file.getParent(), key, ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(Files.newOutputStream(tmp)))) {
+                out.writeInt(FORMAT);
+                writeString(out, url);
+                out.writeInt(response.status());
+                writeString(out, response.statusMessage() != null ? response.statusMessage() : "");
+                List<Map.Entry<String, String>> headers = new ArrayList<>();
+                response.headers().forEach((name, values) -> {
+                    if (name != null) {
+                        values.forEach(value -> headers.add(Map.entry(name, value)));
+                    }
+                });
+                out.writeInt(headers.size());
+                for (Map.Entry<String, String> header : headers) {
+                    writeString(out, header.getKey());
+                    writeString(out, header.getValue());
+                }
+                out.writeLong(requestTime);
+                out.writeLong(responseTime);
+                out.writeInt(response.body().length);
+                out.write(response.body());
+            }
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            tmp = null;
+            long size = Files.size(file);
+            synchronized (this) {
+                Long previous = index.put(key, size);
+                totalBytes += size - (previous != null ? previous : 0);
+                evictOverflow();
+            }
+        } catch (IOException e) {
+            log.warn("Failed to cache response for {}: {}", url, e.getMessage());
+        } finally {
+            if (tmp != null) {
+                try {
+                    Files.deleteIfExists(tmp);
+                } catch (IOException e) {
+                    log.debug("Failed to delete {}: {}", tmp, e.getMessage());
+                }
+            }
+        }
+    }
+
+    /** Whether {@code entry}, fetched as {@code pageType}, may be served without asking the origin. */
+    boolean isFresh(Entry entry, PageType pageType) {
+        return freshnessLifetimeMs(entry.response(), entry.responseTime(), pageType) > currentAgeMs(entry);
+    }
+
+    /** Whether a shared cache may store the response at all (RFC 9111 section 3). */
+    static boolean isStorable(PageFetcher.Response response) {
+        Map<String, String> cacheControl = cacheControl(response);
+        if (cacheControl.containsKey("no-store") || cacheControl.containsKey("private")
+                || !CACHEABLE_STATUSES.contains(response.status())) {
+            return false;
+        }
+        String vary = response.header("Vary");
+        if (vary != null && vary.trim().equals("*")) {
+            return false;
+        }
+        // Worth keeping only if it can be served fresh or revalidated
+        return cacheControl.containsKey("max-age") || cacheControl.containsKey("s-maxage")
+                || response.header("Expires") != null || response.header("ETag") != null
+                || response.header("Last-Modified") != null;
+    }
+
+    /**
+     * RFC 9111 section 4.2.1, capped at max-ttl-ms unless immutable. Pages are never fresh:
+     * they are what the monitor recrawls to notice changes, so every fetch of a page asks the
+     * origin, conditionally when the stored response has validators.
+     */
+    long freshnessLifetimeMs(PageFetcher.Response response, long responseTime, PageType pageType) {
+        Map<String, String> cacheControl = cacheControl(response);
+        if (pageType != PageType.STATIC_ASSET || cacheControl.containsKey("no-cache")) {
+            return 0;
+        }
+        long lifetimeMs;
+        Long sMaxAge = seconds(cacheControl.get("s-maxage"));
+        Long maxAge = seconds(cacheControl.get("max-age"));
+        long date = dateHeader(response, "Date", responseTime);
+        if (sMaxAge != null) {
+            lifetimeMs = TimeUnit.SECONDS.toMillis(sMaxAge);
+        } else if (maxAge != null) {
+            lifetimeMs = TimeUnit.SECONDS.toMillis(maxAge);
+        } else if (response.header("Expires") != null) {
+            // An invalid Expires means already expired
+            lifetimeMs = Math.max(0, dateHeader(response, "Expires", date) - date);
+        } else if (response.header("Last-Modified") != null) {
+            // Heuristic freshness, section 4.2.2
+            lifetimeMs = Math.max(0, (date - dateHeader(response, "Last-Modified", date)) / 10);
+        } else {
+            lifetimeMs = 0;
+        }
+        return cacheControl.containsKey("immutable") ? lifetimeMs : Math.min(lifetimeMs, maxTtlMs);
+    }
+
+    /** RFC 9111 section 4.2.3. */
+    long currentAgeMs(Entry entry) {
+        PageFetcher.Response response = entry.response();
+        long apparentAge = Math.max(0, entry.responseTime() - dateHeader(response, "Date", entry.responseTime()));
+        Long ageValue = seconds(response.header("Age"));
+        long correctedAgeValue = (ageValue != null ? TimeUnit.SECONDS.toMillis(ageValue) : 0)
+                + (entry.responseTime() - entry.requestTime());
+        long correctedInitialAge = Math.max(apparentAge, correctedAgeValue);
+        return correctedInitialAge + (now() - entry.responseTime());
+    }
+
+    /**
+     * The stored response with the headers of the 304 that confirmed it (RFC 9111 section 4.3.4).
+     */
+    static PageFetcher.Response freshen(PageFetcher.Response stored, PageFetcher.Response notModified) {
+        Map<String, List<String>> headers = new LinkedHashMap<>(stored.headers());
+        notModified.headers().forEach((name, values) -> {
+            if (name != null && !UNUPDATED_HEADERS.contains(name.toLowerCase(Locale.ROOT))) {
+                headers.keySet().removeIf(existing -> existing != null && existing.equalsIgnoreCase(name));
+                headers.put(name, values);
+            }
+        });
+        return new PageFetcher.Response(stored.status(), stored.statusMessage(), headers, stored.body());
+    }
+
+    private static Map<String, String> cacheControl(PageFetcher.Response response) {
+        Map<String, String> directives = new HashMap<>();
+        response.headers().forEach((name, values) -> {
+            if (name != null && name.equalsIgnoreCase("Cache-Control")) {
+                for (String value : values) {
+                    for (String directive : value.split(",")) {
+                        String d = directive.trim();
+                        if (d.isEmpty()) {
+                            continue;
+                        }
+                        int eq = d.indexOf('=');
+                        directives.put((eq < 0 ? d : d.substring(0, eq)).trim().toLowerCase(Locale.ROOT),
+                                eq < 0 ? "" : d.substring(eq + 1).trim().replace("\"", ""));
+                    }
+                }
+            }
+        });
+        return directives;
+    }
+
+    private static Long seconds(String value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Math.max(0, Long.parseLong(value.trim()));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /** An HTTP-date header in epoch millis, {@code fallback} if missing; invalid dates are in the past. */
+    private static long dateHeader(PageFetcher.Response response, String name, long fallback) {
+        String value = response.header(name);
+        if (value == null) {
+            return fallback;
+        }
+        try {
+            return ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli();
+        } catch (DateTimeParseException e) {
+            return 0;
+        }
+    }
+
+    private void load() {
+        if (!Files.isDirectory(dir)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(dir, 2)) {
+            List<Path> entries = files.filter(f -> f.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparing(HttpResponseCache::lastModified))
+                    .toList();
+            synchronized (this) {
+                for (Path file : entries) {
+                    long size = Files.size(file);
+                    String name = file.getFileName().toString();
+                    index.put(name.substring(0, name.length() - SUFFIX.length()), size);
+                    totalBytes += size;
+                }
+                evictOverflow();
+            }
+            log.info("HTTP cache in {} holds {} responses, {} bytes", dir, index.size(), totalBytes);
+        } catch (IOException e) {
+            log.warn("Failed to load HTTP cache from {}, starting empty: {}", dir, e.getMessage());
+        }
+    }
+
+    private static FileTime lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file);
+        } catch (IOException e) {
+            return FileTime.fromMillis(0);
+        }
+    }
+
+    private void evictOverflow() {
+        Iterator<Map.Entry<String, Long>> eldest = index.entrySet().iterator();
+        while (totalBytes > maxBytes && eldest.hasNext()) {
+            Map.Entry<String, Long> entry = eldest.next();
+            eldest.remove();
+            totalBytes -= entry.getValue();
+            evictions.incrementAndGet();
+            delete(entry.getKey());
+        }
+    }
+
+    private void remove(String key) {
+        synchronized (this) {
+            Long size = index.remove(key);
+            if (size == null) {
+                return;
+            }
+            totalBytes -= size;
+        }
+        delete(key);
+    }
+
+    private synchronized void forget(String key) {
+        Long size = index.remove(key);
+        if (size != null) {
+            totalBytes -= size;
+        }
+    }
+
+    private void delete(String key) {
+        try {
+            Files.deleteIfExists(fileOf(key));
+        } catch (IOException e) {
+            log.debug("Failed to delete HTTP cache entry {}: {}", key, e.getMessage());
+        }
+    }
+
+    private Path fileOf(String key) {
+        return dir.resolve(key.substring(0, 2)).resolve(key + SUFFIX);
+    }
+
+    private static String keyOf(String url) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256")
+                    .digest(url.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(DataInputStream in) throws IOException {
+        return new String(in.readNBytes(in.readInt()), StandardCharsets.UTF_8);
+    }
+}
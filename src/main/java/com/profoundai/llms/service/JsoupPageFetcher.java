@@ -0,0 +1,46 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import com.profoundai.llms.util.CsrRenderer;
+import org.jsoup.Connection;
+import org.jsoup.Jsoup;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Fetches over the network with Jsoup and renders with a headless browser. Pages must be HTML;
+ * static assets may be any content type.
+ */
+public class JsoupPageFetcher implements PageFetcher {
+
+    /** Also the product token looked up in robots.txt. */
+    static final String USER_AGENT = "llms-txt-crawler";
+
+    private static final int TIMEOUT_MS = 8000;
+
+    private final CsrRenderer csrRenderer = new CsrRenderer();
+
+    @Override
+    public Response exchange(String url, PageType pageType) throws IOException {
+        return exchange(url, pageType, Map.of());
+    }
+
+    @Override
+    public Response exchange(String url, PageType pageType, Map<String, String> requestHeaders) throws IOException {
+        Connection.Response response = Jsoup.connect(url)
+                .headers(requestHeaders)
+                .userAgent(USER_AGENT)
+                .timeout(TIMEOUT_MS)
+                .ignoreContentType(pageType == PageType.STATIC_ASSET)
+                .ignoreHttpErrors(true)
+                .execute();
+        return new Response(response.statusCode(), response.statusMessage(), response.multiHeaders(),
+                response.bodyAsBytes());
+    }
+
+    @Override
+    public String render(String url) {
+        return csrRenderer.renderClientSide(url);
+    }
+}
@@ -1,78 +1,244 @@
 package com.profoundai.llms.service;
 
-import com.profoundai.llms.repository.CrawlSnapshotRepository;
+import com.profoundai.llms.entity.SiteStatus;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
 
 @Component
-public class LlmsAutoUpdateScheduler {
+public class LlmsAutoUpdateScheduler implements MeterBinder {
 
     private static final Logger log = LoggerFactory.getLogger(LlmsAutoUpdateScheduler.class);
 
-    @Autowired
-    private final LlmsTxtMonitoringService monitoringService;
-    private final CrawlSnapshotRepository snapshotRepository;
+    private final CrawlCoordinator crawlCoordinator;
+    private final AdaptiveRecrawlSchedule recrawlSchedule;
+    private final HostCircuitBreaker circuitBreaker;
+    private final long siteTimeoutMs;
+    private final int batchSize;
 
-    public LlmsAutoUpdateScheduler(LlmsTxtMonitoringService monitoringService,
-                                   CrawlSnapshotRepository snapshotRepository) {
-        this.monitoringService = monitoringService;
-        this.snapshotRepository = snapshotRepository;
+    /** Runs site crawls; bounded so a cycle never crawls more than {@code parallelism} sites at once. */
+    private final ExecutorService monitorPool;
+
+    /** Cancels site crawls that outlive {@link #siteTimeoutMs}, measured from when the crawl starts. */
+    private final ScheduledExecutorService watchdog;
+
+    public LlmsAutoUpdateScheduler(CrawlCoordinator crawlCoordinator,
+                                   AdaptiveRecrawlSchedule recrawlSchedule,
+                                   HostCircuitBreaker circuitBreaker,
+                                   @Value("${llms.monitor.parallelism:4}") int parallelism,
+                                   @Value("${llms.monitor.site-timeout-ms:300000}") long siteTimeoutMs,
+                                   @Value("${llms.monitor.batch-size:100}") int batchSize) {
+        this.crawlCoordinator = crawlCoordinator;
+        this.recrawlSchedule = recrawlSchedule;
+        this.circuitBreaker = circuitBreaker;
+        this.siteTimeoutMs = siteTimeoutMs;
+        this.batchSize = batchSize;
+        this.monitorPool = Executors.newFixedThreadPool(Math.max(1, parallelism), daemonThreads("llms-monitor-"));
+        this.watchdog = Executors.newSingleThreadScheduledExecutor(daemonThreads("llms-monitor-watchdog-"));
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        CrawlMetrics.monitorPool(registry, monitorPool, "llms.monitor");
     }
 
     @Scheduled(fixedDelayString = "${llms.monitor.interval-ms:30000}")
     public void runMonitoring() {
+        runCycle();
+    }
+
+    /**
+     * Crawls every monitored site that is due according to the {@link AdaptiveRecrawlSchedule}
+     * on the bounded monitor pool and waits for all of them, then reschedules each one.
+     * Sites claimed by another node in the meantime are skipped and left out of the report.
+     * A failing or slow site only affects its own entry in the report; a site whose host
+     * circuit is open is not given a worker at all and is pushed back until its next probe.
+     */
+    public MonitoringCycleReport runCycle() {
         log.debug("Scheduled monitoring task started");
-        
-        log.debug("Retrieving list of monitored base URLs from repository");
-        List<String> monitoredSites = snapshotRepository.findAllBaseUrls();
-        log.info("runMonitoring triggered, monitoredSites={}", monitoredSites);
-        log.debug("Retrieved {} monitored site(s)", monitoredSites.size());
-
-        if (monitoredSites.isEmpty()) {
-            log.debug("No monitored sites found, skipping monitoring cycle");
-            return;
+
+        log.debug("Retrieving monitored sites due for a crawl");
+        List<String> dueSites = recrawlSchedule.findDue(LocalDateTime.now(), batchSize);
+        log.info("runMonitoring triggered, dueSites={}", dueSites);
+
+        if (dueSites.isEmpty()) {
+            log.debug("No monitored sites due, skipping monitoring cycle");
+            return new MonitoringCycleReport(List.of(), 0);
         }
 
-        log.debug("Starting monitoring cycle for {} site(s)", monitoredSites.size());
-        int successCount = 0;
-        int failureCount = 0;
-        
-        for (String baseUrl : monitoredSites) {
-            try {
-                log.debug("Processing monitoring for baseUrl: {}", baseUrl);
-                log.info("Scheduled monitoring for {}", baseUrl);
-                
-                log.debug("Invoking crawlAndUpdate for baseUrl: {}", baseUrl);
-                MonitoringResult result = monitoringService.crawlAndUpdate(baseUrl);
-                log.debug("CrawlAndUpdate completed successfully for baseUrl: {}", baseUrl);
-                
-                log.info("Result for {} -> added={}, removed={}, modified={}",
-                        baseUrl,
-                        result.getAddedUrls().size(),
-                        result.getRemovedUrls().size(),
-                        result.getModifiedUrls().size());
-                
-                log.debug("Monitoring completed successfully for baseUrl: {}, added={}, removed={}, modified={}",
-                        baseUrl,
-                        result.getAddedUrls().size(),
-                        result.getRemovedUrls().size(),
-                        result.getModifiedUrls().size());
-                successCount++;
-            } catch (Exception e) {
-                log.error("Monitoring failed for {}: {}", baseUrl, e.getMessage(), e);
-                log.debug("Exception details for baseUrl {}: exception type={}, message={}",
-                        baseUrl, e.getClass().getSimpleName(), e.getMessage());
-                failureCount++;
+        log.debug("Starting monitoring cycle for {} site(s)", dueSites.size());
+        long cycleStart = System.nanoTime();
+
+        Map<String, FutureTask<MonitoringCycleReport.SiteRun>> tasks = new LinkedHashMap<>();
+        for (String baseUrl : dueSites) {
+            Optional<LocalDateTime> openUntil = circuitBreaker.openUntil(baseUrl);
+            if (openUntil.isPresent()) {
+                // Settled on this thread: a dead host should not hold a worker healthy sites need
+                FutureTask<MonitoringCycleReport.SiteRun> task = circuitOpenTask(baseUrl, openUntil.get());
+                tasks.put(baseUrl, task);
+                task.run();
+                continue;
             }
+            FutureTask<MonitoringCycleReport.SiteRun> task = siteTask(baseUrl);
+            tasks.put(baseUrl, task);
+            monitorPool.execute(task);
         }
-        
-        log.info("Monitoring cycle completed: {} succeeded, {} failed out of {} total sites",
-                successCount, failureCount, monitoredSites.size());
+
+        List<MonitoringCycleReport.SiteRun> runs = new ArrayList<>(tasks.size());
+        for (Map.Entry<String, FutureTask<MonitoringCycleReport.SiteRun>> entry : tasks.entrySet()) {
+            MonitoringCycleReport.SiteRun run = await(entry.getKey(), entry.getValue());
+            if (run == null) {
+                log.debug("Skipping {}, claimed by another node", entry.getKey());
+                continue;
+            }
+            if (run.status() == SiteStatus.SUCCEEDED) {
+                // The crawl recorded itself when it stored its snapshot
+                recrawlSchedule.releaseAfterCrawl(run.baseUrl(), LocalDateTime.now());
+            } else {
+                if (run.status() == SiteStatus.TIMED_OUT) {
+                    // The cancelled crawl never reports back to the coordinator, so count it here
+                    circuitBreaker.recordFailure(run.baseUrl());
+                }
+                recrawlSchedule.recordFailure(run.baseUrl(), run.status(), LocalDateTime.now(),
+                        circuitBreaker.openUntil(run.baseUrl()).orElse(null));
+            }
+            runs.add(run);
+        }
+
+        MonitoringCycleReport report = new MonitoringCycleReport(runs, elapsedMs(cycleStart));
+        for (MonitoringCycleReport.SiteRun run : runs) {
+            log.info("Monitoring {} {} in {} ms", run.baseUrl(), run.status(), run.durationMs());
+        }
+        log.info("Monitoring cycle completed in {} ms: {} succeeded, {} failed, {} timed out, {} circuit open out of {} due sites",
+                report.getDurationMs(),
+                report.count(SiteStatus.SUCCEEDED),
+                report.count(SiteStatus.FAILED),
+                report.count(SiteStatus.TIMED_OUT),
+                report.count(SiteStatus.CIRCUIT_OPEN),
+                dueSites.size());
         log.debug("Scheduled monitoring task finished");
+        return report;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        log.debug("Shutting down monitor pool");
+        monitorPool.shutdownNow();
+        watchdog.shutdownNow();
+    }
+
+    private FutureTask<MonitoringCycleReport.SiteRun> siteTask(String baseUrl) {
+        AtomicReference<FutureTask<MonitoringCycleReport.SiteRun>> self = new AtomicReference<>();
+        FutureTask<MonitoringCycleReport.SiteRun> task = new FutureTask<>(() -> {
+            // Claim only once a worker is free, so other nodes can take the sites this one has no capacity for
+            if (!recrawlSchedule.tryClaim(baseUrl, LocalDateTime.now())) {
+                return null;
+            }
+            // The timeout starts when the crawl does, not while it waits for a free worker
+            ScheduledFuture<?> timeout = watchdog.schedule(
+                    () -> self.get().cancel(true), siteTimeoutMs, TimeUnit.MILLISECONDS);
+            try {
+                return crawlSite(baseUrl);
+            } finally {
+                timeout.cancel(false);
+            }
+        });
+        self.set(task);
+        return task;
+    }
+
+    private FutureTask<MonitoringCycleReport.SiteRun> circuitOpenTask(String baseUrl, LocalDateTime retryAt) {
+        return new FutureTask<>(() -> {
+            // Still claimed, so no other node reschedules the site at the same time
+            if (!recrawlSchedule.tryClaim(baseUrl, LocalDateTime.now())) {
+                return null;
+            }
+            return new MonitoringCycleReport.SiteRun(baseUrl, SiteStatus.CIRCUIT_OPEN, 0, null,
+                    "Circuit open until " + retryAt);
+        });
+    }
+
+    private MonitoringCycleReport.SiteRun crawlSite(String baseUrl) {
+        long start = System.nanoTime();
+        try {
+            log.debug("Processing monitoring for baseUrl: {}", baseUrl);
+            log.info("Scheduled monitoring for {}", baseUrl);
+
+            MonitoringResult result = crawlCoordinator.crawlAndUpdate(baseUrl);
+            log.debug("CrawlAndUpdate completed successfully for baseUrl: {}", baseUrl);
+
+            log.info("Result for {} -> added={}, removed={}, modified={}",
+                    baseUrl,
+                    result.getAddedUrls().size(),
+                    result.getRemovedUrls().size(),
+                    result.getModifiedUrls().size());
+            return new MonitoringCycleReport.SiteRun(
+                    baseUrl, SiteStatus.SUCCEEDED, elapsedMs(start), result, null);
+        } catch (CircuitOpenException e) {
+            // Opened by another crawl of the same host since the cycle started
+            log.info("Skipping {}: {}", baseUrl, e.getMessage());
+            return new MonitoringCycleReport.SiteRun(
+                    baseUrl, SiteStatus.CIRCUIT_OPEN, elapsedMs(start), null, e.getMessage());
+        } catch (Exception e) {
+            log.error("Monitoring failed for {}: {}", baseUrl, e.getMessage(), e);
+            return new MonitoringCycleReport.SiteRun(
+                    baseUrl, SiteStatus.FAILED, elapsedMs(start), null, e.getMessage());
+        }
+    }
+
+    private MonitoringCycleReport.SiteRun await(String baseUrl, FutureTask<MonitoringCycleReport.SiteRun> task) {
+        try {
+            return task.get();
+        } catch (CancellationException e) {
+            log.warn("Monitoring for {} exceeded {} ms and was cancelled", baseUrl, siteTimeoutMs);
+            return new MonitoringCycleReport.SiteRun(baseUrl, SiteStatus.TIMED_OUT,
+                    siteTimeoutMs, null, "Timed out after " + siteTimeoutMs + " ms");
+        } catch (ExecutionException e) {
+            // crawlSite catches everything, so this only covers errors
+            log.error("Monitoring failed for {}: {}", baseUrl, e.getCause().getMessage(), e.getCause());
+            return new MonitoringCycleReport.SiteRun(baseUrl, SiteStatus.FAILED,
+                    0, null, e.getCause().getMessage());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            task.cancel(true);
+            return new MonitoringCycleReport.SiteRun(baseUrl, SiteStatus.FAILED,
+                    0, null, "Monitoring cycle interrupted");
+        }
+    }
+
+    private static long elapsedMs(long startNanos) {
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos);
+    }
+
+    private static ThreadFactory daemonThreads(String prefix) {
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
     }
 }
@@ -0,0 +1,93 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.LlmsTxtDocument;
+import com.profoundai.llms.service.format.LlmsTxtFormat;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * In-memory LRU of materialized llms.txt documents keyed by snapshot id and output format,
+ * bounded by the total number of characters (plus compressed bytes) held.
+ */
+@Component
+public class LlmsTxtDocumentCache {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmsTxtDocumentCache.class);
+
+    private final long maxChars;
+    private final LinkedHashMap<Key, LlmsTxtDocument> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long currentChars;
+
+    public LlmsTxtDocumentCache(@Value("${llms.txt.cache.max-chars:33554432}") long maxChars) {
+        this.maxChars = maxChars;
+    }
+
+    public LlmsTxtDocument get(Long snapshotId) {
+        return get(snapshotId, LlmsTxtFormat.CLASSIC);
+    }
+
+    public synchronized LlmsTxtDocument get(Long snapshotId, String format) {
+        return entries.get(new Key(snapshotId, format));
+    }
+
+    public void put(LlmsTxtDocument document) {
+        put(LlmsTxtFormat.CLASSIC, document);
+    }
+
+    public synchronized void put(String format, LlmsTxtDocument document) {
+        long size = weight(document);
+        if (size > maxChars) {
+            log.debug("Document for snapshot id={} in format {} ({} chars) exceeds cache capacity, not caching",
+                    document.getSnapshotId(), format, size);
+            return;
+        }
+
+        LlmsTxtDocument previous = entries.put(new Key(document.getSnapshotId(), format), document);
+        if (previous != null) {
+            currentChars -= weight(previous);
+        }
+        currentChars += size;
+
+        Iterator<Map.Entry<Key, LlmsTxtDocument>> it = entries.entrySet().iterator();
+        while (currentChars > maxChars && it.hasNext()) {
+            Map.Entry<Key, LlmsTxtDocument> eldest = it.next();
+            currentChars -= weight(eldest.getValue());
+            it.remove();
+            log.debug("Evicted llms.txt for snapshot id={} in format {} from cache",
+                    eldest.getKey().snapshotId(), eldest.getKey().format());
+        }
+    }
+
+    /**
+     * Drops every format cached for the snapshot.
+     */
+    public synchronized void evict(Long snapshotId) {
+        Iterator<Map.Entry<Key, LlmsTxtDocument>> it = entries.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<Key, LlmsTxtDocument> entry = it.next();
+            if (entry.getKey().snapshotId().equals(snapshotId)) {
+                currentChars -= weight(entry.getValue());
+                it.remove();
+            }
+        }
+    }
+
+    public synchronized int size() {
+        return entries.size();
+    }
+
+    private static long weight(LlmsTxtDocument document) {
+        long chars = document.getContent() != null ? document.getContent().length() : 0;
+        long gzipBytes = document.getGzipContent() != null ? document.getGzipContent().length : 0;
+        return chars + gzipBytes;
+    }
+
+    private record Key(Long snapshotId, String format) {
+    }
+}
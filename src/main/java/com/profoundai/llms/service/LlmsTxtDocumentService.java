@@ -0,0 +1,409 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.LlmsTxtDocument;
+import com.profoundai.llms.entity.LlmsTxtDocumentSegment;
+import com.profoundai.llms.entity.LlmsTxtSegment;
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.repository.LlmsTxtDocumentRepository;
+import com.profoundai.llms.repository.LlmsTxtDocumentSegmentRepository;
+import com.profoundai.llms.repository.LlmsTxtSegmentRepository;
+import com.profoundai.llms.repository.PageMetaRepository;
+import com.profoundai.llms.service.LlmsTxtSegmentIndex.Segment;
+import com.profoundai.llms.service.format.LlmsTxtFormat;
+import com.profoundai.llms.service.jfr.LlmsTxtGenerateEvent;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Materializes llms.txt once per snapshot and serves it from memory, then storage,
+ * and only regenerates it when neither holds the snapshot's document.
+ * <p>
+ * Documents are stored as content-addressed segments of consecutive entries (see
+ * {@link LlmsTxtSegmentIndex}) that snapshots share, plus each snapshot's list of segments. A new
+ * snapshot renders, compresses, hashes and writes only the segments its changes fall into; the
+ * rest of its cost is one row per segment of the list. Each segment is stored deflated on its own,
+ * so serving concatenates them into one gzip member without compressing, and the ETag is a hash
+ * over the segment hashes. The text and gzip bytes are assembled when the document is first read.
+ */
+@Service
+public class LlmsTxtDocumentService {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmsTxtDocumentService.class);
+
+    private static final int DEFAULT_SEGMENT_ENTRIES = 64;
+
+    /** Gzip member header: deflate, no flags, no mtime, unknown OS. */
+    private static final byte[] GZIP_HEADER = {0x1f, (byte) 0x8b, 8, 0, 0, 0, 0, 0, 0, (byte) 0xff};
+
+    /** An empty final fixed-Huffman block, closing a deflate stream made of sync-flushed parts. */
+    private static final byte[] DEFLATE_END = {0x03, 0x00};
+
+    private final LlmsTxtDocumentRepository documentRepository;
+    private final LlmsTxtSegmentRepository segmentRepository;
+    private final LlmsTxtDocumentSegmentRepository documentSegmentRepository;
+    private final PageMetaRepository pageMetaRepository;
+    private final LlmsTxtGeneratorService llmsTxtGeneratorService;
+    private final LlmsTxtDocumentCache cache;
+    private final PageContentStore contentStore;
+    private final LlmsTxtSegmentIndex segmentIndex;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    public LlmsTxtDocumentService(LlmsTxtDocumentRepository documentRepository,
+                                  LlmsTxtSegmentRepository segmentRepository,
+                                  LlmsTxtDocumentSegmentRepository documentSegmentRepository,
+                                  PageMetaRepository pageMetaRepository,
+                                  LlmsTxtGeneratorService llmsTxtGeneratorService,
+                                  LlmsTxtDocumentCache cache,
+                                  PageContentStore contentStore) {
+        this(documentRepository, segmentRepository, documentSegmentRepository, pageMetaRepository,
+                llmsTxtGeneratorService, cache, contentStore, DEFAULT_SEGMENT_ENTRIES);
+    }
+
+    @Autowired
+    public LlmsTxtDocumentService(LlmsTxtDocumentRepository documentRepository,
+                                  LlmsTxtSegmentRepository segmentRepository,
+                                  LlmsTxtDocumentSegmentRepository documentSegmentRepository,
+                                  PageMetaRepository pageMetaRepository,
+                                  LlmsTxtGeneratorService llmsTxtGeneratorService,
+                                  LlmsTxtDocumentCache cache,
+                                  PageContentStore contentStore,
+                                  @Value("${llms.txt.segment-entries:64}") int segmentEntries) {
+        this.documentRepository = documentRepository;
+        this.segmentRepository = segmentRepository;
+        this.documentSegmentRepository = documentSegmentRepository;
+        this.pageMetaRepository = pageMetaRepository;
+        this.llmsTxtGeneratorService = llmsTxtGeneratorService;
+        this.cache = cache;
+        this.contentStore = contentStore;
+        this.segmentIndex = new LlmsTxtSegmentIndex(llmsTxtGeneratorService, segmentEntries);
+    }
+
+    /**
+     * Generates and stores the document for a snapshot that was just written,
+     * using the pages already in memory.
+     */
+    @Transactional
+    public void materialize(CrawlSnapshot snapshot, List<PageMeta> pages) {
+        LlmsTxtGenerateEvent event = new LlmsTxtGenerateEvent();
+        event.begin();
+        List<Segment> segments = segmentIndex.split(pages);
+        List<LlmsTxtSegment> stored = store(snapshot, segments);
+        cache.put(assemble(documentRepository.save(document(snapshot, segments)), stored));
+        commit(event, "full", snapshot, stored);
+    }
+
+    /**
+     * Produces the document for a new snapshot by patching the previous snapshot's segments:
+     * only the segments removed and changed pages fall into are rendered and stored again.
+     * Falls back to a full build when the previous snapshot's document is not stored as segments.
+     *
+     * @param pages        all pages of the new snapshot
+     * @param removedUrls  URLs present in the previous snapshot but not in the new one
+     * @param changedPages new snapshot pages that were added or whose entry changed
+     */
+    @Transactional
+    public void materializeIncremental(Long previousSnapshotId, CrawlSnapshot snapshot, List<PageMeta> pages,
+                                       Set<String> removedUrls, Collection<PageMeta> changedPages) {
+        LlmsTxtGenerateEvent event = new LlmsTxtGenerateEvent();
+        event.begin();
+        List<Segment> previous = documentSegmentRepository.findBySnapshotIdOrderBySegmentOrder(previousSnapshotId)
+                .stream()
+                .filter(ref -> ref.getSegmentOrder() > 0)
+                .map(ref -> new Segment(ref.getSegmentHash(), ref.getFirstUrl(), null))
+                .toList();
+        if (previous.isEmpty()) {
+            log.debug("No stored segments for previous snapshot id={} of baseUrl={}, building from {} pages",
+                    previousSnapshotId, snapshot.getBaseUrl(), pages.size());
+        } else {
+            log.debug("Patching {} segments for baseUrl={}: {} removed, {} changed",
+                    previous.size(), snapshot.getBaseUrl(), removedUrls.size(), changedPages.size());
+        }
+        List<Segment> segments = segmentIndex.patch(previous, pages, removedUrls, changedPages);
+        List<LlmsTxtSegment> stored = store(snapshot, segments);
+        documentRepository.save(document(snapshot, segments));
+        commit(event, previous.isEmpty() ? "full" : "incremental", snapshot, stored);
+    }
+
+    @Transactional
+    public LlmsTxtDocument documentFor(CrawlSnapshot snapshot) {
+        LlmsTxtDocument cached = cache.get(snapshot.getId());
+        if (cached != null) {
+            log.debug("llms.txt cache hit for snapshot id={}", snapshot.getId());
+            return cached;
+        }
+
+        LlmsTxtDocument stored = documentRepository.findById(snapshot.getId()).orElse(null);
+        if (stored != null && stored.getContent() == null) {
+            LlmsTxtDocument assembled = assemble(stored);
+            if (assembled != null) {
+                log.debug("Assembled stored llms.txt segments for snapshot id={}", snapshot.getId());
+                cache.put(assembled);
+                return assembled;
+            }
+            log.warn("Stored llms.txt segments of snapshot id={} are incomplete, generating", snapshot.getId());
+            documentSegmentRepository.deleteBySnapshotIdIn(List.of(snapshot.getId()));
+        } else if (stored != null && stored.getGzipContent() == null) {
+            log.debug("Stored llms.txt for snapshot id={} predates compressed variants, compressing", snapshot.getId());
+            return storeWhole(stored.getSnapshotId(), stored.getBaseUrl(), stored.getContent(), stored.getGeneratedAt());
+        } else if (stored != null) {
+            log.debug("Loaded stored llms.txt for snapshot id={}", snapshot.getId());
+            cache.put(stored);
+            return stored;
+        }
+
+        log.debug("No materialized llms.txt for snapshot id={}, generating", snapshot.getId());
+        LlmsTxtGenerateEvent event = new LlmsTxtGenerateEvent();
+        event.begin();
+        List<Segment> segments = segmentIndex.split(pageMetaRepository.findBySnapshotId(snapshot.getId()));
+        List<LlmsTxtSegment> storedSegments = store(snapshot, segments);
+        LlmsTxtDocument document = assemble(documentRepository.save(document(snapshot, segments)), storedSegments);
+        cache.put(document);
+        commit(event, "on-demand", snapshot, storedSegments);
+        return document;
+    }
+
+    /**
+     * Returns the snapshot rendered in {@code format}. The classic format is the materialized
+     * document; other formats are rendered once from the snapshot's pages and then served from
+     * the cache, so serving several formats costs one render per snapshot and format.
+     */
+    @Transactional
+    public LlmsTxtDocument documentFor(CrawlSnapshot snapshot, LlmsTxtFormat format) {
+        if (LlmsTxtFormat.CLASSIC.equals(format.name())) {
+            return documentFor(snapshot);
+        }
+
+        LlmsTxtDocument cached = cache.get(snapshot.getId(), format.name());
+        if (cached != null) {
+            log.debug("{} cache hit for snapshot id={}", format.name(), snapshot.getId());
+            return cached;
+        }
+
+        log.debug("Rendering snapshot id={} as {}", snapshot.getId(), format.name());
+        List<PageMeta> pages = new ArrayList<>(pageMetaRepository.findBySnapshotId(snapshot.getId()));
+        pages.sort(LlmsTxtGeneratorService.URL_ORDER);
+        StringBuilder content = new StringBuilder();
+        try {
+            format.render(snapshot.getBaseUrl(), snapshot.getCreatedAt(), pages, content);
+        } catch (IOException e) {
+            // StringBuilder never throws
+            throw new UncheckedIOException(e);
+        }
+        String text = content.toString();
+        LlmsTxtDocument document = new LlmsTxtDocument(
+                snapshot.getId(), snapshot.getBaseUrl(), text, gzip(text), LlmsTxtSegmentIndex.sha256(text),
+                snapshot.getCreatedAt());
+        cache.put(format.name(), document);
+        return document;
+    }
+
+    /**
+     * Streams llms.txt for a snapshot straight from a database cursor to the output.
+     * Each page is detached once written, so memory stays flat regardless of site size.
+     */
+    @Transactional(readOnly = true)
+    public void streamLlmsTxt(CrawlSnapshot snapshot, OutputStream out) throws IOException {
+        log.info("Streaming LLMS txt for snapshot id={}, baseUrl={}", snapshot.getId(), snapshot.getBaseUrl());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        try (Stream<PageMeta> pages = pageMetaRepository.streamBySnapshotId(snapshot.getId())) {
+            Iterator<PageMeta> detaching = pages.peek(entityManager::detach).iterator();
+            llmsTxtGeneratorService.generate(detaching, snapshot.getBaseUrl(), snapshot.getCreatedAt(), writer);
+        }
+        writer.flush();
+    }
+
+    /**
+     * Streams llms-full.txt for a snapshot: page metadata from a database cursor, page bodies
+     * from the on-disk content store, so memory stays flat and cost is linear in site size.
+     */
+    @Transactional(readOnly = true)
+    public void streamLlmsFullTxt(CrawlSnapshot snapshot, OutputStream out) throws IOException {
+        log.info("Streaming LLMS full txt for snapshot id={}, baseUrl={}", snapshot.getId(), snapshot.getBaseUrl());
+        OutputStream buffered = new BufferedOutputStream(out);
+        try (Stream<PageMeta> pages = pageMetaRepository.streamBySnapshotId(snapshot.getId())) {
+            Iterator<PageMeta> detaching = pages.peek(entityManager::detach).iterator();
+            llmsTxtGeneratorService.generateFull(detaching, snapshot.getBaseUrl(), snapshot.getCreatedAt(), buffered, contentStore);
+        }
+        buffered.flush();
+    }
+
+    public void evict(List<Long> snapshotIds) {
+        snapshotIds.forEach(cache::evict);
+        Set<String> hashes = documentSegmentRepository.deleteBySnapshotIdIn(snapshotIds).stream()
+                .map(LlmsTxtDocumentSegment::getSegmentHash)
+                .collect(Collectors.toSet());
+        documentRepository.deleteBySnapshotIdIn(snapshotIds);
+        if (!hashes.isEmpty()) {
+            int deleted = segmentRepository.deleteUnreferenced(hashes);
+            log.debug("Deleted {} llms.txt segments no snapshot uses any more", deleted);
+        }
+    }
+
+    /** The header segment followed by the entry segments, each stored unless it is carried over. */
+    private List<LlmsTxtSegment> store(CrawlSnapshot snapshot, List<Segment> entrySegments) {
+        List<Segment> segments = new ArrayList<>(entrySegments.size() + 1);
+        segments.add(Segment.of(null, llmsTxtGeneratorService.header(snapshot.getBaseUrl(), snapshot.getCreatedAt())));
+        segments.addAll(entrySegments);
+
+        List<LlmsTxtSegment> rendered = segments.stream()
+                .filter(segment -> segment.content() != null)
+                .map(segment -> new LlmsTxtSegment(segment.hash(), segment.content(), deflate(segment.content())))
+                .toList();
+        // Segments are content-addressed: saving one that is already stored changes nothing
+        segmentRepository.saveAll(rendered);
+
+        List<LlmsTxtDocumentSegment> refs = new ArrayList<>(segments.size());
+        for (int i = 0; i < segments.size(); i++) {
+            refs.add(new LlmsTxtDocumentSegment(snapshot.getId(), i, segments.get(i).hash(), segments.get(i).firstUrl()));
+        }
+        documentSegmentRepository.saveAll(refs);
+        log.debug("Stored llms.txt for snapshot id={} as {} segments, {} of them rendered",
+                snapshot.getId(), segments.size(), rendered.size());
+        return rendered;
+    }
+
+    /** The document row of a segmented llms.txt: no content of its own, ETag over the segment hashes. */
+    private LlmsTxtDocument document(CrawlSnapshot snapshot, List<Segment> entrySegments) {
+        StringBuilder hashes = new StringBuilder(llmsTxtGeneratorService.header(snapshot.getBaseUrl(), snapshot.getCreatedAt()));
+        entrySegments.forEach(segment -> hashes.append('\n').append(segment.hash()));
+        return new LlmsTxtDocument(snapshot.getId(), snapshot.getBaseUrl(), null, null,
+                LlmsTxtSegmentIndex.sha256(hashes.toString()), snapshot.getCreatedAt());
+    }
+
+    /** Loads and assembles a segmented document, or returns null if any of its segments is missing. */
+    private LlmsTxtDocument assemble(LlmsTxtDocument stored) {
+        List<LlmsTxtDocumentSegment> refs = documentSegmentRepository.findBySnapshotIdOrderBySegmentOrder(stored.getSnapshotId());
+        Map<String, LlmsTxtSegment> byHash = segmentRepository.findAllById(
+                        refs.stream().map(LlmsTxtDocumentSegment::getSegmentHash).collect(Collectors.toSet()))
+                .stream()
+                .collect(Collectors.toMap(LlmsTxtSegment::getHash, segment -> segment));
+        List<LlmsTxtSegment> segments = new ArrayList<>(refs.size());
+        for (LlmsTxtDocumentSegment ref : refs) {
+            LlmsTxtSegment segment = byHash.get(ref.getSegmentHash());
+            if (segment == null) {
+                return null;
+            }
+            segments.add(segment);
+        }
+        return refs.isEmpty() ? null : assemble(stored, segments);
+    }
+
+    /**
+     * Concatenates segments, header first, into the served text and a single gzip member:
+     * the segments' sync-flushed deflate output followed by a final empty block and the trailer.
+     */
+    private static LlmsTxtDocument assemble(LlmsTxtDocument stored, List<LlmsTxtSegment> segments) {
+        StringBuilder text = new StringBuilder();
+        ByteArrayOutputStream gzip = new ByteArrayOutputStream();
+        gzip.writeBytes(GZIP_HEADER);
+        CRC32 crc = new CRC32();
+        long size = 0;
+        for (LlmsTxtSegment segment : segments) {
+            byte[] utf8 = segment.getContent().getBytes(StandardCharsets.UTF_8);
+            text.append(segment.getContent());
+            crc.update(utf8);
+            size += utf8.length;
+            gzip.writeBytes(segment.getDeflated());
+        }
+        gzip.writeBytes(DEFLATE_END);
+        writeIntLe(gzip, crc.getValue());
+        writeIntLe(gzip, size);
+        return new LlmsTxtDocument(stored.getSnapshotId(), stored.getBaseUrl(), text.toString(), gzip.toByteArray(),
+                stored.getEtag(), stored.getGeneratedAt());
+    }
+
+    private static void writeIntLe(ByteArrayOutputStream out, long value) {
+        for (int i = 0; i < 4; i++) {
+            out.write((int) (value >>> (8 * i)) & 0xff);
+        }
+    }
+
+    /** Raw deflate ending in a sync flush, so the output can be followed by another segment's. */
+    private static byte[] deflate(String content) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(content.getBytes(StandardCharsets.UTF_8));
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int n;
+            do {
+                n = deflater.deflate(buffer, 0, buffer.length, Deflater.SYNC_FLUSH);
+                out.write(buffer, 0, n);
+            } while (n == buffer.length);
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static void commit(LlmsTxtGenerateEvent event, String mode, CrawlSnapshot snapshot,
+                               List<LlmsTxtSegment> rendered) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.baseUrl = snapshot.getBaseUrl();
+            event.snapshotId = snapshot.getId() != null ? snapshot.getId() : -1;
+            event.mode = mode;
+            event.bytes = rendered.stream()
+                    .mapToLong(segment -> segment.getContent().getBytes(StandardCharsets.UTF_8).length)
+                    .sum();
+            event.commit();
+        }
+    }
+
+    /** Stores a document generated as a whole, for documents stored before segments existed. */
+    private LlmsTxtDocument storeWhole(Long snapshotId, String baseUrl, String content, LocalDateTime generatedAt) {
+        byte[] gzip = gzip(content);
+        LlmsTxtDocument document = new LlmsTxtDocument(
+                snapshotId, baseUrl, content, gzip, LlmsTxtSegmentIndex.sha256(content), generatedAt);
+        documentRepository.save(document);
+        cache.put(document);
+        log.debug("Materialized llms.txt for snapshot id={} ({} chars, {} bytes gzipped, etag={})",
+                snapshotId, content.length(), gzip.length, document.getEtag());
+        return document;
+    }
+
+    private static byte[] gzip(String content) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes) {
+            {
+                def.setLevel(Deflater.BEST_COMPRESSION);
+            }
+        }) {
+            gzip.write(content.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to compress llms.txt", e);
+        }
+        return bytes.toByteArray();
+    }
+}
@@ -1,11 +1,19 @@
 package com.profoundai.llms.service;
 
 import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 
 @Service
@@ -13,7 +21,23 @@ public class LlmsTxtGeneratorService {
 
     private static final Logger log = LoggerFactory.getLogger(LlmsTxtGeneratorService.class);
 
+    /**
+     * Canonical entry order: by URL, compared as Java strings, which is also how the database
+     * orders {@code PageMetaRepository.streamBySnapshotId}. Crawl order varies run to run, so every
+     * way of producing a snapshot's document must use this order to produce the same bytes.
+     */
+    public static final Comparator<PageMeta> URL_ORDER = Comparator.comparing(PageMeta::getUrl);
+
     public String generate(List<PageMeta> pages, String baseUrl) {
+        return generate(pages, baseUrl, LocalDateTime.now());
+    }
+
+    /**
+     * Generates llms.txt with a fixed generation timestamp, so the same snapshot always
+     * produces byte-identical output. Pages are written in {@link #URL_ORDER} whatever their
+     * order in the list.
+     */
+    public String generate(List<PageMeta> pages, String baseUrl, LocalDateTime generationTime) {
         log.info("Starting LLMS txt generation for baseUrl={} with {} pages", baseUrl, pages != null ? pages.size() : 0);
         
         if (pages == null) {
@@ -27,51 +51,126 @@ public class LlmsTxtGeneratorService {
         
         log.debug("Initializing StringBuilder for LLMS txt generation");
         StringBuilder sb = new StringBuilder();
-        
-        LocalDateTime generationTime = LocalDateTime.now();
-        log.debug("Setting generation timestamp: {}", generationTime);
-        
-        sb.append("# llms.txt generated for ").append(baseUrl).append("\n");
-        sb.append("# Generated at ").append(generationTime).append("\n\n");
-        log.debug("Added header to LLMS txt for baseUrl={}", baseUrl);
+        write(pages.stream().sorted(URL_ORDER).iterator(), baseUrl, generationTime, sb);
 
-        int pagesWithTitle = 0;
-        int pagesWithDescription = 0;
-        int pagesProcessed = 0;
-        
-        log.debug("Processing {} pages for baseUrl={}", pages.size(), baseUrl);
-        for (PageMeta page : pages) {
-            pagesProcessed++;
-            log.trace("Processing page {} of {}: url={}", pagesProcessed, pages.size(), page.getUrl());
-            
-            sb.append("URL: ").append(page.getUrl()).append("\n");
-            
-            if (page.getTitle() != null) {
-                sb.append("TITLE: ").append(page.getTitle()).append("\n");
-                pagesWithTitle++;
-                log.trace("Added title for page: {}", page.getUrl());
-            } else {
-                log.trace("No title found for page: {}", page.getUrl());
-            }
-            
-            if (page.getDescription() != null) {
-                sb.append("DESCRIPTION: ").append(page.getDescription()).append("\n");
-                pagesWithDescription++;
-                log.trace("Added description for page: {}", page.getUrl());
-            } else {
-                log.trace("No description found for page: {}", page.getUrl());
-            }
-            
-            sb.append("\n");
-        }
-        
         String result = sb.toString();
-        int resultLength = result.length();
-        
-        log.debug("LLMS txt generation completed for baseUrl={}: processed {} pages, {} with title, {} with description, result length={}",
-                baseUrl, pagesProcessed, pagesWithTitle, pagesWithDescription, resultLength);
-        log.info("Successfully generated LLMS txt for baseUrl={}, result length={} characters", baseUrl, resultLength);
+        log.info("Successfully generated LLMS txt for baseUrl={}, result length={} characters", baseUrl, result.length());
 
         return result;
     }
+
+    /**
+     * Streaming variant: writes llms.txt for pages as they are pulled from the iterator,
+     * without holding the page list or the document in memory. The iterator must already
+     * be in {@link #URL_ORDER}.
+     */
+    public void generate(Iterator<PageMeta> pages, String baseUrl, LocalDateTime generationTime, Appendable out) {
+        log.info("Starting streaming LLMS txt generation for baseUrl={}", baseUrl);
+        write(pages, baseUrl, generationTime, out);
+    }
+
+    /**
+     * Writes llms-full.txt: the llms.txt entry for each page followed by its extracted text,
+     * copied from the content store one page at a time. Static assets are skipped.
+     */
+    public void generateFull(Iterator<PageMeta> pages, String baseUrl, LocalDateTime generationTime,
+                             OutputStream out, PageContentStore contentStore) {
+        log.info("Starting streaming LLMS full txt generation for baseUrl={}", baseUrl);
+        try {
+            writeUtf8(out, "# llms-full.txt generated for " + baseUrl + "\n");
+            writeUtf8(out, "# Generated at " + stamp(generationTime) + "\n\n");
+
+            int pagesProcessed = 0;
+            int pagesWithContent = 0;
+            while (pages.hasNext()) {
+                PageMeta page = pages.next();
+                if (page.getPageType() == PageType.STATIC_ASSET) {
+                    continue;
+                }
+                pagesProcessed++;
+
+                writeUtf8(out, entry(page));
+
+                if (contentStore.copyTo(page.getContentHash(), out)) {
+                    pagesWithContent++;
+                    writeUtf8(out, "\n");
+                } else {
+                    log.trace("No stored content for page: {}", page.getUrl());
+                }
+                writeUtf8(out, "\n---\n\n");
+            }
+
+            log.debug("LLMS full txt generation completed for baseUrl={}: processed {} pages, {} with content",
+                    baseUrl, pagesProcessed, pagesWithContent);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write llms-full.txt for " + baseUrl, e);
+        }
+    }
+
+    private static void writeUtf8(OutputStream out, String text) throws IOException {
+        out.write(text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The llms.txt header block for a site, ending with the blank separator line.
+     */
+    public String header(String baseUrl, LocalDateTime generationTime) {
+        return "# llms.txt generated for " + baseUrl + "\n"
+                + "# Generated at " + stamp(generationTime) + "\n\n";
+    }
+
+    /**
+     * One page's llms.txt entry, ending with the blank separator line. Entries are
+     * independent of each other, which is what lets them be patched individually.
+     */
+    public String entry(PageMeta page) {
+        StringBuilder sb = new StringBuilder();
+        sb.append("URL: ").append(page.getUrl()).append("\n");
+        if (page.getTitle() != null) {
+            sb.append("TITLE: ").append(page.getTitle()).append("\n");
+        }
+        if (page.getDescription() != null) {
+            sb.append("DESCRIPTION: ").append(page.getDescription()).append("\n");
+        }
+        sb.append("\n");
+        return sb.toString();
+    }
+
+    private static LocalDateTime stamp(LocalDateTime generationTime) {
+        // Second precision keeps output identical whether the timestamp comes from memory or storage
+        return generationTime != null ? generationTime.truncatedTo(ChronoUnit.SECONDS) : null;
+    }
+
+    private void write(Iterator<PageMeta> pages, String baseUrl, LocalDateTime generationTime, Appendable out) {
+        try {
+            log.debug("Setting generation timestamp: {}", generationTime);
+
+            out.append(header(baseUrl, generationTime));
+            log.debug("Added header to LLMS txt for baseUrl={}", baseUrl);
+
+            int pagesWithTitle = 0;
+            int pagesWithDescription = 0;
+            int pagesProcessed = 0;
+
+            log.debug("Processing pages for baseUrl={}", baseUrl);
+            while (pages.hasNext()) {
+                PageMeta page = pages.next();
+                pagesProcessed++;
+                log.trace("Processing page {}: url={}", pagesProcessed, page.getUrl());
+
+                out.append(entry(page));
+                if (page.getTitle() != null) {
+                    pagesWithTitle++;
+                }
+                if (page.getDescription() != null) {
+                    pagesWithDescription++;
+                }
+            }
+
+            log.debug("LLMS txt generation completed for baseUrl={}: processed {} pages, {} with title, {} with description",
+                    baseUrl, pagesProcessed, pagesWithTitle, pagesWithDescription);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to write llms.txt for " + baseUrl, e);
+        }
+    }
 }
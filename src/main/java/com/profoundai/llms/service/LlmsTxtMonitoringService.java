@@ -1,16 +1,25 @@
 package com.profoundai.llms.service;
 
 import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.LlmsTxtDocument;
 import com.profoundai.llms.entity.PageMeta;
 import com.profoundai.llms.repository.CrawlSnapshotRepository;
 import com.profoundai.llms.repository.PageMetaRepository;
+import com.profoundai.llms.service.format.LlmsTxtFormat;
+import com.profoundai.llms.service.jfr.SnapshotPersistEvent;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 @Service
@@ -21,21 +30,53 @@ public class LlmsTxtMonitoringService {
     private final CrawlService crawlService;
     private final CrawlSnapshotRepository snapshotRepository;
     private final PageMetaRepository pageMetaRepository;
-    private final LlmsTxtGeneratorService llmsTxtGeneratorService;
+    private final LlmsTxtDocumentService documentService;
+    private final AdaptiveRecrawlSchedule recrawlSchedule;
+    private final CrawlProfiles crawlProfiles;
+    private final CrawlMetrics metrics;
+    private final CrawlReportService reportService;
+    private final PageContentStore contentStore;
+
+    /**
+     * Crawls run outside any transaction, so a crawl holds no pooled connection while it fetches;
+     * only storing its result is transactional.
+     */
+    private final TransactionTemplate transactions;
 
     public LlmsTxtMonitoringService(CrawlService crawlService,
                                     CrawlSnapshotRepository snapshotRepository,
                                     PageMetaRepository pageMetaRepository,
-                                    LlmsTxtGeneratorService llmsTxtGeneratorService) {
+                                    LlmsTxtDocumentService documentService,
+                                    AdaptiveRecrawlSchedule recrawlSchedule,
+                                    CrawlProfiles crawlProfiles,
+                                    CrawlMetrics metrics,
+                                    CrawlReportService reportService,
+                                    PageContentStore contentStore,
+                                    PlatformTransactionManager transactionManager) {
         this.crawlService = crawlService;
         this.snapshotRepository = snapshotRepository;
         this.pageMetaRepository = pageMetaRepository;
-        this.llmsTxtGeneratorService = llmsTxtGeneratorService;
+        this.documentService = documentService;
+        this.recrawlSchedule = recrawlSchedule;
+        this.crawlProfiles = crawlProfiles;
+        this.metrics = metrics;
+        this.reportService = reportService;
+        this.contentStore = contentStore;
+        this.transactions = new TransactionTemplate(transactionManager);
     }
 
-    @Transactional
     public MonitoringResult crawlAndUpdate(String baseUrl) {
+        return crawlAndUpdate(baseUrl, CrawlListener.NONE);
+    }
+
+    /**
+     * Crawls {@code baseUrl} with its crawl profile, stores a new snapshot and returns its diff
+     * against the previous one, reporting crawl progress to {@code listener}.
+     */
+    public MonitoringResult crawlAndUpdate(String baseUrl, CrawlListener listener) {
         log.info("crawlAndUpdate called for baseUrl={}", baseUrl);
+        CrawlProfile profile = crawlProfiles.forSite(baseUrl);
+        String site = CrawlMetrics.siteOf(baseUrl);
 
         // Get latest previous snapshot (if any)
         Optional<CrawlSnapshot> previousOpt =
@@ -46,23 +87,11 @@ public class LlmsTxtMonitoringService {
         // =========================================================
         if (previousOpt.isEmpty()) {
                 // Do crawl but DO NOT hide results
-                CrawlService.CrawlResult result = crawlService.crawl(baseUrl);
-
-                // Convert to PageMeta and store
-                CrawlSnapshot snapshot = new CrawlSnapshot(baseUrl);
-                snapshotRepository.save(snapshot);
-
-                List<PageMeta> newPages = result.getPages().stream()
-                        .map(p -> new PageMeta(
-                                snapshot.getId(),
-                                p.getUrl(),
-                                p.getTitle(),
-                                p.getDescription(),
-                                p.getContentHash(),
-                                p.getPageType()))
-                        .toList();
+                CrawlService.CrawlResult result = crawlService.crawl(baseUrl, profile, listener);
 
-                pageMetaRepository.saveAll(newPages);
+                CrawlSnapshot snapshot = transactions.execute(
+                        status -> storeSnapshot(baseUrl, result, documentService::materialize));
+                recordCrawl(baseUrl, snapshot.getCreatedAt(), true);
 
                 // Treat ALL as "added"
                 Set<String> added = result.getPages().stream()
@@ -80,53 +109,55 @@ public class LlmsTxtMonitoringService {
         log.info("Previous snapshot exists (id={}). Performing diff crawl.", previous.getId());
 
         // Perform full crawl
-        CrawlService.CrawlResult result = crawlService.crawl(baseUrl);
-
-        // Compute diffs against previous snapshot
-        List<PageMeta> oldPages = pageMetaRepository.findBySnapshotId(previous.getId());
-        Map<String, String> oldHashes = oldPages.stream()
-                .collect(Collectors.toMap(PageMeta::getUrl, PageMeta::getContentHash));
-
-        Map<String, String> newHashes = result.getPages().stream()
-                .collect(Collectors.toMap(
-                        CrawlService.PageInfo::getUrl,
-                        CrawlService.PageInfo::getContentHash
-                ));
-
-        // Identify additions, removals, modifications
-        Set<String> added = newHashes.keySet().stream()
-                .filter(url -> !oldHashes.containsKey(url))
-                .collect(Collectors.toSet());
-
-        Set<String> removed = oldHashes.keySet().stream()
-                .filter(url -> !newHashes.containsKey(url))
-                .collect(Collectors.toSet());
-
-        Set<String> modified = newHashes.entrySet().stream()
-                .filter(e -> oldHashes.containsKey(e.getKey())
-                        && !Objects.equals(e.getValue(), oldHashes.get(e.getKey())))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toSet());
-
-        // Save new snapshot
-        saveSnapshotWithPages(baseUrl, result);
-
-        log.info("Diff crawl complete: added={}, removed={}, modified={}",
-                added.size(), removed.size(), modified.size());
+        CrawlService.CrawlResult result = crawlService.crawl(baseUrl, profile, listener);
+
+        MonitoringResult monitoringResult = transactions.execute(status -> {
+            // Compute diffs against previous snapshot
+            long diffStart = System.nanoTime();
+            List<PageMeta> oldPages = pageMetaRepository.findBySnapshotId(previous.getId());
+            SnapshotDiff diff = SnapshotDiff.compute(oldPages, result.getPages());
+            long diffNanos = System.nanoTime() - diffStart;
+            metrics.recordDiff(site, diffNanos);
+            result.getStats().diffed(diffNanos);
+
+            // Save new snapshot
+            saveSnapshotWithPages(baseUrl, result, previous.getId(), diff.removed(), diff.changed());
+
+            log.info("Diff crawl complete: added={}, removed={}, modified={}",
+                    diff.added().size(), diff.removed().size(), diff.modified().size());
+
+            return new MonitoringResult(diff.added(), diff.removed(), diff.modified());
+        });
+        recordCrawl(baseUrl, LocalDateTime.now(), monitoringResult.hasChanges());
+        return monitoringResult;
+    }
 
-        return new MonitoringResult(added, removed, modified);
+    protected CrawlSnapshot saveSnapshotWithPages(String baseUrl, CrawlService.CrawlResult result,
+                                                  Long previousSnapshotId, Set<String> removedUrls,
+                                                  Set<String> changedUrls) {
+        return storeSnapshot(baseUrl, result, (snapshot, newPages) -> {
+            List<PageMeta> changedPages = newPages.stream()
+                    .filter(p -> changedUrls.contains(p.getUrl()))
+                    .toList();
+            documentService.materializeIncremental(previousSnapshotId, snapshot, newPages, removedUrls, changedPages);
+        });
     }
 
-    @Transactional
-    protected CrawlSnapshot saveSnapshotWithPages(String baseUrl, CrawlService.CrawlResult result) {
-        log.debug("Creating new crawl snapshot for baseUrl={}", baseUrl);
-        CrawlSnapshot snapshot = snapshotRepository.save(
-                new CrawlSnapshot(baseUrl, LocalDateTime.now())
-        );
-        log.debug("Crawl snapshot created with id={} for baseUrl={}", snapshot.getId(), baseUrl);
-
-        log.debug("Processing {} pages for snapshot id={}", result.getPages().size(), snapshot.getId());
-        List<PageMeta> newPages = result.getPages().stream()
+    /**
+     * Saves {@code result} as a new snapshot of {@code baseUrl} with its pages, has
+     * {@code materializer} generate its llms.txt, and records the crawl's report. Persisting and
+     * generating are timed into the crawl's stats and metrics.
+     */
+    private CrawlSnapshot storeSnapshot(String baseUrl, CrawlService.CrawlResult result,
+                                        BiConsumer<CrawlSnapshot, List<PageMeta>> materializer) {
+        String site = CrawlMetrics.siteOf(baseUrl);
+        SnapshotPersistEvent persistEvent = new SnapshotPersistEvent();
+        persistEvent.begin();
+        long persistStart = System.nanoTime();
+        CrawlSnapshot snapshot = snapshotRepository.save(new CrawlSnapshot(baseUrl, LocalDateTime.now()));
+        log.debug("Saved snapshot id={} for baseUrl={}", snapshot.getId(), baseUrl);
+
+        List<PageMeta> pages = result.getPages().stream()
                 .map(p -> new PageMeta(
                         snapshot.getId(),
                         p.getUrl(),
@@ -136,18 +167,76 @@ public class LlmsTxtMonitoringService {
                         p.getPageType()
                 ))
                 .toList();
+        pageMetaRepository.saveAll(pages);
+        log.debug("Saved {} PageMeta rows for snapshot id={}", pages.size(), snapshot.getId());
+        commit(persistEvent, snapshot, pages.size());
+        long persistNanos = System.nanoTime() - persistStart;
+        metrics.recordPersist(site, persistNanos);
+        result.getStats().persisted(persistNanos);
+
+        long generationStart = System.nanoTime();
+        materializer.accept(snapshot, pages);
+        long generationNanos = System.nanoTime() - generationStart;
+        metrics.recordGeneration(site, generationNanos);
+        result.getStats().generated(generationNanos);
+        reportService.record(snapshot, result.getStats());
+        return snapshot;
+    }
 
-        log.debug("Saving {} page metadata records to database", newPages.size());
-        pageMetaRepository.saveAll(newPages);
-        log.debug("Successfully saved {} page metadata records", newPages.size());
+    private static void commit(SnapshotPersistEvent event, CrawlSnapshot snapshot, int pages) {
+        event.end();
+        if (event.shouldCommit()) {
+            event.baseUrl = snapshot.getBaseUrl();
+            event.snapshotId = snapshot.getId() != null ? snapshot.getId() : -1;
+            event.pages = pages;
+            event.commit();
+        }
+    }
 
-        return snapshot;
+    /**
+     * Feeds a crawl that stored a snapshot into the site's recrawl schedule, whoever ran it, and
+     * starts monitoring a site crawled for the first time. Crawls that store nothing (skipped as
+     * fresh, failed) are not observations of the site.
+     */
+    private void recordCrawl(String baseUrl, LocalDateTime crawledAt, boolean changed) {
+        try {
+            if (recrawlSchedule.recordCrawl(baseUrl, changed, crawledAt) < 0) {
+                recrawlSchedule.register(baseUrl, crawledAt);
+            }
+        } catch (DataIntegrityViolationException e) {
+            log.debug("{} was registered for monitoring concurrently by another node", baseUrl);
+        }
     }
 
-    @Transactional(readOnly = true)
+    /** Whether {@code result} differs from {@code previous}, the snapshot it is about to replace. */
+    private boolean changedSince(Optional<CrawlSnapshot> previous, CrawlService.CrawlResult result) {
+        return previous.isEmpty() || SnapshotDiff.compute(
+                pageMetaRepository.findBySnapshotId(previous.get().getId()), result.getPages()).hasChanges();
+    }
+
+    @Transactional
     public String getLatestLlmsTxt(String baseUrl) {
+        return getLatestDocument(baseUrl).getContent();
+    }
+
+    /**
+     * Returns the materialized llms.txt of the latest snapshot, generating and storing it
+     * only if this snapshot has never been served before.
+     */
+    @Transactional
+    public LlmsTxtDocument getLatestDocument(String baseUrl) {
         log.info("Retrieving latest LLMS txt for baseUrl={}", baseUrl);
+        return documentService.documentFor(getLatestSnapshot(baseUrl));
+    }
 
+    @Transactional
+    public LlmsTxtDocument getLatestDocument(String baseUrl, LlmsTxtFormat format) {
+        log.info("Retrieving latest {} output for baseUrl={}", format.name(), baseUrl);
+        return documentService.documentFor(getLatestSnapshot(baseUrl), format);
+    }
+
+    @Transactional(readOnly = true)
+    public CrawlSnapshot getLatestSnapshot(String baseUrl) {
         log.debug("Looking up latest snapshot for baseUrl={}", baseUrl);
         CrawlSnapshot snapshot = snapshotRepository
                 .findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl)
@@ -156,60 +245,73 @@ public class LlmsTxtMonitoringService {
                     return new IllegalStateException("No snapshot found for baseUrl=" + baseUrl);
                 });
         log.debug("Found snapshot with id={} for baseUrl={}, created at {}", snapshot.getId(), baseUrl, snapshot.getCreatedAt());
-
-        log.debug("Retrieving page metadata for snapshot id={}", snapshot.getId());
-        List<PageMeta> pages = pageMetaRepository.findBySnapshotId(snapshot.getId());
-        return llmsTxtGeneratorService.generate(pages, baseUrl);
+        return snapshot;
     }
 
-    @Transactional
     public CrawlSnapshot crawlAndStore(String baseUrl) {
         log.info("Starting manual fresh crawl for baseUrl={}", baseUrl);
 
         // Run the crawl
-        CrawlService.CrawlResult result = crawlService.crawl(baseUrl);
+        CrawlService.CrawlResult result = crawlService.crawl(baseUrl, crawlProfiles.forSite(baseUrl), CrawlListener.NONE);
         log.debug("Crawl completed for baseUrl={}, pages={}", baseUrl, result.getPages().size());
 
-        // Create and save new snapshot
-        CrawlSnapshot snapshot = snapshotRepository.save(
-                new CrawlSnapshot(baseUrl, LocalDateTime.now())
-        );
-        log.debug("Saved snapshot id={} for baseUrl={}", snapshot.getId(), baseUrl);
-
-        // Map and save PageMeta
-        List<PageMeta> pages = result.getPages().stream()
-                .map(p -> new PageMeta(
-                        snapshot.getId(),
-                        p.getUrl(),
-                        p.getTitle(),
-                        p.getDescription(),
-                        p.getContentHash(),
-                        p.getPageType()
-                ))
-                .toList();
-
-        pageMetaRepository.saveAll(pages);
-        log.info("Saved {} PageMeta rows for snapshot id={}", pages.size(), snapshot.getId());
+        boolean changed = changedSince(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl), result);
+        CrawlSnapshot snapshot = transactions.execute(
+                status -> storeSnapshot(baseUrl, result, documentService::materialize));
+        recordCrawl(baseUrl, snapshot.getCreatedAt(), changed);
 
         return snapshot;
     }
 
-    @Transactional
+    /**
+     * Crawls {@code baseUrl} again from scratch and replaces all of its snapshots with the result.
+     * The old snapshots are deleted in the transaction that stores the new one, so the site is
+     * never left without a snapshot.
+     */
     public CrawlSnapshot recrawlFresh(String baseUrl) {
         log.info("Hard recrawl requested for baseUrl={}", baseUrl);
 
-        List<CrawlSnapshot> oldSnapshots = snapshotRepository.findByBaseUrl(baseUrl);
-        if (!oldSnapshots.isEmpty()) {
-            List<Long> snapshotIds = oldSnapshots.stream()
-                    .map(CrawlSnapshot::getId)
-                    .toList();
+        CrawlService.CrawlResult result = crawlService.crawl(baseUrl, crawlProfiles.forSite(baseUrl), CrawlListener.NONE);
+        log.debug("Crawl completed for baseUrl={}, pages={}", baseUrl, result.getPages().size());
 
-            log.debug("Deleting {} old snapshots and their pages for baseUrl={}", oldSnapshots.size(), baseUrl);
-            pageMetaRepository.deleteBySnapshotIdIn(snapshotIds);
-            snapshotRepository.deleteAll(oldSnapshots);
-        }
+        boolean changed = changedSince(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl), result);
+        CrawlSnapshot snapshot = transactions.execute(status -> {
+            List<CrawlSnapshot> oldSnapshots = snapshotRepository.findByBaseUrl(baseUrl);
+            if (!oldSnapshots.isEmpty()) {
+                List<Long> snapshotIds = oldSnapshots.stream()
+                        .map(CrawlSnapshot::getId)
+                        .toList();
 
-        return crawlAndStore(baseUrl);
+                log.debug("Deleting {} old snapshots and their pages for baseUrl={}", oldSnapshots.size(), baseUrl);
+                documentService.evict(snapshotIds);
+                reportService.evict(snapshotIds);
+                pageMetaRepository.deleteBySnapshotIdIn(snapshotIds);
+                snapshotRepository.deleteAll(oldSnapshots);
+            }
+
+            CrawlSnapshot stored = storeSnapshot(baseUrl, result, documentService::materialize);
+            if (!oldSnapshots.isEmpty()) {
+                // Page bodies are shared across snapshots and sites: only those nothing references go
+                afterCommit(() -> contentStore.sweep(pageMetaRepository::findReferencedContentHashesIn));
+            }
+            return stored;
+        });
+        recordCrawl(baseUrl, snapshot.getCreatedAt(), changed);
+        return snapshot;
+    }
+
+    /** Runs {@code action} once the current transaction has committed, or now if there is none. */
+    private static void afterCommit(Runnable action) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            action.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                action.run();
+            }
+        });
     }
 
 //    @Transactional
@@ -0,0 +1,157 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageMeta;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Splits a snapshot's llms.txt entries into segments, and patches the previous snapshot's
+ * segments into the next snapshot's. Entries are in {@link LlmsTxtGeneratorService#URL_ORDER};
+ * a segment starts at the first entry and at every URL whose hash marks a boundary, about one
+ * URL in {@code entriesPerSegment}. Boundaries depend only on the URL, so a change touches the
+ * segment it falls into (and the one before, when a segment's first URL goes and its entries
+ * join that one) and a patched segment list is the same as a fresh split of the new snapshot.
+ */
+class LlmsTxtSegmentIndex {
+
+    /**
+     * A segment identified by the SHA-256 of its content. {@code content} is null for a
+     * segment carried over unchanged from the previous snapshot, which is already stored.
+     */
+    record Segment(String hash, String firstUrl, String content) {
+
+        static Segment of(String firstUrl, String content) {
+            return new Segment(sha256(content), firstUrl, content);
+        }
+    }
+
+    private final LlmsTxtGeneratorService generator;
+    private final int boundaryMask;
+
+    LlmsTxtSegmentIndex(LlmsTxtGeneratorService generator, int entriesPerSegment) {
+        if (entriesPerSegment < 1 || Integer.bitCount(entriesPerSegment) != 1) {
+            throw new IllegalArgumentException("entriesPerSegment must be a power of two: " + entriesPerSegment);
+        }
+        this.generator = generator;
+        this.boundaryMask = entriesPerSegment - 1;
+    }
+
+    /** Renders every page into segments. */
+    List<Segment> split(Collection<PageMeta> pages) {
+        List<PageMeta> sorted = new ArrayList<>(pages);
+        sorted.sort(LlmsTxtGeneratorService.URL_ORDER);
+        List<Segment> segments = new ArrayList<>();
+        String firstUrl = null;
+        StringBuilder content = new StringBuilder();
+        for (PageMeta page : sorted) {
+            if (content.length() > 0 && startsSegment(page.getUrl())) {
+                segments.add(Segment.of(firstUrl, content.toString()));
+                content.setLength(0);
+            }
+            if (content.length() == 0) {
+                firstUrl = page.getUrl();
+            }
+            content.append(generator.entry(page));
+        }
+        if (content.length() > 0) {
+            segments.add(Segment.of(firstUrl, content.toString()));
+        }
+        return segments;
+    }
+
+    /**
+     * Produces the new snapshot's segments from the previous snapshot's: segments no removed or
+     * changed URL falls into are carried over as they are, the others are rendered again from
+     * {@code pages}. Only the pages of those segments are formatted.
+     *
+     * @param previous     the previous snapshot's entry segments in order, without the header
+     * @param pages        all pages of the new snapshot
+     * @param removedUrls  URLs present in the previous snapshot but not in the new one
+     * @param changedPages new snapshot pages that were added or whose entry changed
+     */
+    List<Segment> patch(List<Segment> previous, Collection<PageMeta> pages,
+                        Set<String> removedUrls, Collection<PageMeta> changedPages) {
+        if (previous.isEmpty()) {
+            return split(pages);
+        }
+        String[] firstUrls = previous.stream().map(Segment::firstUrl).toArray(String[]::new);
+        int count = firstUrls.length;
+        boolean[] affected = new boolean[count];
+        removedUrls.forEach(url -> affected[segmentOf(firstUrls, url)] = true);
+        changedPages.forEach(page -> affected[segmentOf(firstUrls, page.getUrl())] = true);
+
+        // Pages of the affected segments, and of the segments before those that lost their first URL
+        List<List<PageMeta>> pagesOf = new ArrayList<>(Collections.nCopies(count, null));
+        for (int i = 0; i < count; i++) {
+            if (affected[i] || i + 1 < count && affected[i + 1] && removedUrls.contains(firstUrls[i + 1])) {
+                pagesOf.set(i, new ArrayList<>());
+            }
+        }
+        for (PageMeta page : pages) {
+            List<PageMeta> bucket = pagesOf.get(segmentOf(firstUrls, page.getUrl()));
+            if (bucket != null) {
+                bucket.add(page);
+            }
+        }
+
+        // A segment that lost its first URL still starts a segment if its new first URL is a boundary;
+        // otherwise its entries (and whatever merged into it) join the segment before
+        boolean[] mergesBack = new boolean[count];
+        String[] runFirstUrl = new String[count];
+        for (int i = count - 1; i > 0; i--) {
+            if (!affected[i] || !removedUrls.contains(firstUrls[i])) {
+                continue;
+            }
+            String first = pagesOf.get(i).stream().map(PageMeta::getUrl).min(String::compareTo)
+                    .orElse(i + 1 < count && mergesBack[i + 1] ? runFirstUrl[i + 1] : null);
+            runFirstUrl[i] = first;
+            if (first != null && !startsSegment(first)) {
+                mergesBack[i] = true;
+                affected[i - 1] = true;
+            }
+        }
+
+        // Consecutive affected segments are rendered again together, since entries can move between them
+        List<Segment> patched = new ArrayList<>(count);
+        List<PageMeta> run = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            if (affected[i]) {
+                run.addAll(pagesOf.get(i));
+            } else {
+                patched.addAll(split(run));
+                run.clear();
+                patched.add(previous.get(i));
+            }
+        }
+        patched.addAll(split(run));
+        return patched;
+    }
+
+    private boolean startsSegment(String url) {
+        return (url.hashCode() * 0x9E3779B9 >>> 20 & boundaryMask) == 0;
+    }
+
+    /** Index of the segment {@code url} falls into: the last one starting at or before it. */
+    private static int segmentOf(String[] firstUrls, String url) {
+        int i = Arrays.binarySearch(firstUrls, url);
+        return i >= 0 ? i : Math.max(0, -i - 2);
+    }
+
+    static String sha256(String content) {
+        try {
+            MessageDigest md = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(md.digest(content.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
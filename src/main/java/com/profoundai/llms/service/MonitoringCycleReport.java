@@ -0,0 +1,38 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.SiteStatus;
+
+import java.util.List;
+
+/**
+ * Outcome of one scheduled monitoring cycle: how each site went and how long it took.
+ */
+public class MonitoringCycleReport {
+
+    /**
+     * @param result the crawl's diff, or {@code null} unless the site succeeded
+     * @param error  failure message, or {@code null} if the site succeeded
+     */
+    public record SiteRun(String baseUrl, SiteStatus status, long durationMs, MonitoringResult result, String error) {
+    }
+
+    private final List<SiteRun> sites;
+    private final long durationMs;
+
+    public MonitoringCycleReport(List<SiteRun> sites, long durationMs) {
+        this.sites = List.copyOf(sites);
+        this.durationMs = durationMs;
+    }
+
+    public List<SiteRun> getSites() {
+        return sites;
+    }
+
+    public long getDurationMs() {
+        return durationMs;
+    }
+
+    public long count(SiteStatus status) {
+        return sites.stream().filter(s -> s.status() == status).count();
+    }
+}
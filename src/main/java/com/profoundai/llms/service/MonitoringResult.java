@@ -43,5 +43,12 @@ public class MonitoringResult {
         log.trace("Accessing getModifiedUrls, returning {} URLs", modifiedUrls != null ? modifiedUrls.size() : 0);
         return modifiedUrls;
     }
-}
 
+    public boolean hasChanges() {
+        return !isEmpty(addedUrls) || !isEmpty(removedUrls) || !isEmpty(modifiedUrls);
+    }
+
+    private static boolean isEmpty(Set<String> urls) {
+        return urls == null || urls.isEmpty();
+    }
+}
@@ -0,0 +1,49 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Takes a slot of its host from the {@link PolitenessScheduler} for every request, and fails with
+ * a {@link PolitenessScheduler.SlotPending} while none is due. Rendering waits for its slot instead:
+ * it follows a fetch of the same page, which re-queueing would repeat.
+ */
+class PacedPageFetcher implements PageFetcher {
+
+    private final PageFetcher network;
+    private final PolitenessScheduler scheduler;
+
+    PacedPageFetcher(PageFetcher network, PolitenessScheduler scheduler) {
+        this.network = network;
+        this.scheduler = scheduler;
+    }
+
+    @Override
+    public Response exchange(String url, PageType pageType) throws IOException {
+        return exchange(url, pageType, Map.of());
+    }
+
+    @Override
+    public Response exchange(String url, PageType pageType, Map<String, String> requestHeaders) throws IOException {
+        scheduler.acquire(url);
+        return network.exchange(url, pageType, requestHeaders);
+    }
+
+    @Override
+    public String render(String url) {
+        try {
+            scheduler.acquireWhenDue(url);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+        return network.render(url);
+    }
+
+    @Override
+    public void close() {
+        network.close();
+    }
+}
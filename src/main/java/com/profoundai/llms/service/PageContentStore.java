@@ -0,0 +1,202 @@
+package com.profoundai.llms.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Content-addressed, gzip-compressed store for extracted page text, keyed by the page's
+ * SHA-256 content hash. Bodies live on disk rather than in the database so that llms-full.txt
+ * can be streamed page by page without loading large text columns through JPA.
+ * Identical content across pages, snapshots and sites is stored once.
+ * <p>
+ * Bodies are shared, so deleting a snapshot does not delete them; {@link #sweep(Function)} removes
+ * the ones no page references any more. Until it runs, bodies of deleted snapshots stay on disk.
+ */
+@Component
+public class PageContentStore {
+
+    private static final Logger log = LoggerFactory.getLogger(PageContentStore.class);
+
+    private static final long DEFAULT_SWEEP_GRACE_MS = 3_600_000;
+
+    /** Sweep candidates checked against the database per query. */
+    private static final int SWEEP_BATCH = 500;
+
+    private final Path root;
+    private final long sweepGraceMs;
+
+    public PageContentStore(String root) {
+        this(root, DEFAULT_SWEEP_GRACE_MS);
+    }
+
+    @Autowired
+    public PageContentStore(@Value("${llms.content.dir:${java.io.tmpdir}/llms-content}") String root,
+                            @Value("${llms.content.sweep-grace-ms:3600000}") long sweepGraceMs) {
+        this.root = Paths.get(root);
+        this.sweepGraceMs = sweepGraceMs;
+    }
+
+    public void store(String contentHash, String text) {
+        if (contentHash == null || text == null) {
+            return;
+        }
+        Path target = pathFor(contentHash);
+        if (Files.exists(target)) {
+            log.trace("Content {} already stored", contentHash);
+            // A crawl in progress uses it again: keep a sweep from taking it before its pages are saved
+            touch(target);
+            return;
+        }
+        Path tmp = null;
+        try {
+            Files.createDirectories(target.getParent());
+            tmp = Files.createTempFile(target.getParent(), contentHash, ".tmp");
+            try (OutputStream out = new GZIPOutputStream(Files.newOutputStream(tmp))) {
+                out.write(text.getBytes(StandardCharsets.UTF_8));
+            }
+            try {
+                Files.move(tmp, target, StandardCopyOption.ATOMIC_MOVE);
+                tmp = null;
+            } catch (FileAlreadyExistsException e) {
+                // Another crawl stored the same content concurrently
+            }
+            log.trace("Stored content {} ({} chars)", contentHash, text.length());
+        } catch (IOException e) {
+            log.warn("Failed to store content {}: {}", contentHash, e.getMessage());
+        } finally {
+            deleteQuietly(tmp);
+        }
+    }
+
+    public boolean contains(String contentHash) {
+        return contentHash != null && Files.exists(pathFor(contentHash));
+    }
+
+    /**
+     * Copies the decompressed UTF-8 text for a hash to {@code out} through a fixed-size buffer.
+     *
+     * @return false if no content is stored for the hash
+     */
+    public boolean copyTo(String contentHash, OutputStream out) {
+        if (!contains(contentHash)) {
+            return false;
+        }
+        try (InputStream in = new GZIPInputStream(Files.newInputStream(pathFor(contentHash)))) {
+            in.transferTo(out);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to read content " + contentHash, e);
+        }
+    }
+
+    /**
+     * Deletes every stored body that no crawl has stored or reused within
+     * {@code llms.content.sweep-grace-ms} (so that bodies of crawls whose pages are not saved yet
+     * survive) and that no page references. The store is walked once; candidates are checked in
+     * batches, {@code referencedAmong} answering which of them some page still references.
+     *
+     * @return bodies deleted
+     */
+    public int sweep(Function<Collection<String>, Set<String>> referencedAmong) {
+        if (!Files.isDirectory(root)) {
+            return 0;
+        }
+        long cutoff = System.currentTimeMillis() - sweepGraceMs;
+        Map<String, Path> candidates = new HashMap<>();
+        int deleted = 0;
+        try (Stream<Path> files = Files.walk(root, 2)) {
+            for (Path file : (Iterable<Path>) files::iterator) {
+                String name = file.getFileName().toString();
+                if (!name.endsWith(".txt.gz") || !olderThan(file, cutoff)) {
+                    continue;
+                }
+                candidates.put(name.substring(0, name.length() - 7), file);
+                if (candidates.size() >= SWEEP_BATCH) {
+                    deleted += deleteUnreferenced(candidates, referencedAmong);
+                }
+            }
+            deleted += deleteUnreferenced(candidates, referencedAmong);
+        } catch (IOException | UncheckedIOException e) {
+            log.warn("Content sweep of {} stopped early: {}", root, e.getMessage());
+        }
+        log.info("Swept {} unreferenced page bodies from {}", deleted, root);
+        return deleted;
+    }
+
+    private static int deleteUnreferenced(Map<String, Path> candidates,
+                                          Function<Collection<String>, Set<String>> referencedAmong) {
+        if (candidates.isEmpty()) {
+            return 0;
+        }
+        Set<String> referenced = referencedAmong.apply(candidates.keySet());
+        int deleted = 0;
+        for (Map.Entry<String, Path> candidate : candidates.entrySet()) {
+            if (referenced.contains(candidate.getKey())) {
+                continue;
+            }
+            try {
+                if (Files.deleteIfExists(candidate.getValue())) {
+                    deleted++;
+                }
+            } catch (IOException e) {
+                log.debug("Failed to sweep content {}: {}", candidate.getValue(), e.getMessage());
+            }
+        }
+        candidates.clear();
+        return deleted;
+    }
+
+    private static boolean olderThan(Path file, long cutoff) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis() < cutoff;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    private static void deleteQuietly(Path file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.debug("Failed to delete {}: {}", file, e.getMessage());
+        }
+    }
+
+    private static void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+        } catch (IOException e) {
+            log.trace("Failed to touch {}: {}", file, e.getMessage());
+        }
+    }
+
+    private Path pathFor(String contentHash) {
+        // Two-level fan-out keeps directory sizes reasonable on large sites
+        String prefix = contentHash.length() > 2 ? contentHash.substring(0, 2) : "_";
+        return root.resolve(prefix).resolve(contentHash + ".txt.gz");
+    }
+}
@@ -0,0 +1,99 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import org.jsoup.HttpStatusException;
+
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Where a crawl's pages and rendered DOMs come from: the network ({@link JsoupPageFetcher}), or
+ * an archive recorded by an earlier crawl (see {@link com.profoundai.llms.service.archive.CrawlArchive}).
+ * A fetcher is used by one crawl at a time and closed when the crawl ends; it must be thread-safe,
+ * as the crawl's workers share it.
+ */
+public interface PageFetcher extends AutoCloseable {
+
+    /**
+     * A raw HTTP exchange's response, with the body as received after any transfer or content
+     * encoding has been undone.
+     */
+    record Response(int status, String statusMessage, Map<String, List<String>> headers, byte[] body) {
+
+        /** The first value of header {@code name}, compared case-insensitively. */
+        public String header(String name) {
+            return headers.entrySet().stream()
+                    .filter(e -> e.getKey() != null && e.getKey().equalsIgnoreCase(name) && !e.getValue().isEmpty())
+                    .map(e -> e.getValue().get(0))
+                    .findFirst()
+                    .orElse(null);
+        }
+
+        /** The body decoded with the Content-Type's charset, UTF-8 if it names none or an unknown one. */
+        public String text() {
+            return new String(body, charset());
+        }
+
+        private Charset charset() {
+            String contentType = header("Content-Type");
+            if (contentType != null) {
+                for (String param : contentType.split(";")) {
+                    String p = param.trim();
+                    if (p.toLowerCase(Locale.ROOT).startsWith("charset=")) {
+                        try {
+                            return Charset.forName(p.substring(8).replace("\"", "").trim());
+                        } catch (IllegalArgumentException e) {
+                            return StandardCharsets.UTF_8;
+                        }
+                    }
+                }
+            }
+            return StandardCharsets.UTF_8;
+        }
+    }
+
+    /**
+     * Requests {@code url}, whatever status it answers with.
+     *
+     * @throws IOException if no response was received, or a page turned out not to be HTML
+     */
+    Response exchange(String url, PageType pageType) throws IOException;
+
+    /**
+     * Like {@link #exchange(String, PageType)}, with extra request headers such as the validators of
+     * a conditional request. Fetchers that do not talk to a server ignore them.
+     */
+    default Response exchange(String url, PageType pageType, Map<String, String> requestHeaders) throws IOException {
+        return exchange(url, pageType);
+    }
+
+    /**
+     * @return the DOM after client-side rendering, or null if rendering failed
+     */
+    String render(String url);
+
+    /**
+     * Like {@link #exchange}, but error statuses fail as they would with a plain Jsoup fetch.
+     *
+     * @throws ThrottledException if {@code url} answered with a 429 or 503, asking to be retried later
+     * @throws HttpStatusException if {@code url} answered with any other 4xx or 5xx status
+     */
+    default Response fetch(String url, PageType pageType) throws IOException {
+        Response response = exchange(url, pageType);
+        if (response.status() == 429 || response.status() == 503) {
+            throw new ThrottledException(url, response.status(), response.header("Retry-After"));
+        }
+        if (response.status() >= 400) {
+            throw new HttpStatusException("HTTP error fetching URL", response.status(), url);
+        }
+        return response;
+    }
+
+    @Override
+    default void close() {
+    }
+}
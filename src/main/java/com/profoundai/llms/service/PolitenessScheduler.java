@@ -0,0 +1,490 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.Clock;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.Locale;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Paces crawl requests per host, and re-queues the ones a host turns away instead of losing them.
+ * <p>
+ * Every host has a token bucket refilled at {@code llms.politeness.rate-per-second} and holding at
+ * most {@code llms.politeness.burst}. A {@code Crawl-delay} in the site's robots.txt, for our user
+ * agent or else for {@code *}, slows its host to one request per delay (at most
+ * {@code llms.politeness.max-crawl-delay-ms}). Buckets are shared by all crawls, so concurrent
+ * crawls of one host share its rate.
+ * <p>
+ * Slots are taken by the network fetcher ({@link #wrap}), below the HTTP cache, so responses served
+ * from the cache or an archive never wait for one. A slot is only taken when it is due: a request
+ * that finds none fails its fetch with a {@link SlotPending}, and goes back to the timer until one
+ * is. It holds neither a worker nor a slot meanwhile, so cancelled requests leave nothing behind.
+ * <p>
+ * A {@link ThrottledException} (429 or 503) pauses the host for its {@code Retry-After}, or for an
+ * exponential backoff from {@code llms.politeness.retry-backoff-ms} when it sends none, and puts
+ * the URL back in the host's queue, up to {@code llms.politeness.max-retries} times. A host asking
+ * for a pause longer than {@code llms.politeness.max-retry-after-ms} fails the URL instead.
+ */
+@Component
+public class PolitenessScheduler implements MeterBinder {
+
+    private static final Logger log = LoggerFactory.getLogger(PolitenessScheduler.class);
+
+    /** Hosts are pruned once there are this many; idle ones have no recent slot or pause left. */
+    private static final int PRUNE_THRESHOLD = 10_000;
+
+    private final double ratePerSecond;
+    private final int burst;
+    private final boolean robots;
+    private final long maxCrawlDelayMs;
+    private final int maxRetries;
+    private final long retryBackoffMs;
+    private final long maxRetryAfterMs;
+    private final Clock clock;
+
+    private final ConcurrentMap<String, Host> hosts = new ConcurrentHashMap<>();
+    private final AtomicLong requeued = new AtomicLong();
+    private final AtomicLong gaveUp = new AtomicLong();
+    private final ScheduledExecutorService timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "crawl-politeness");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    @Autowired
+    public PolitenessScheduler(@Value("${llms.politeness.rate-per-second:5}") double ratePerSecond,
+                               @Value("${llms.politeness.burst:5}") int burst,
+                               @Value("${llms.politeness.robots:true}") boolean robots,
+                               @Value("${llms.politeness.max-crawl-delay-ms:30000}") long maxCrawlDelayMs,
+                               @Value("${llms.politeness.max-retries:5}") int maxRetries,
+                               @Value("${llms.politeness.retry-backoff-ms:1000}") long retryBackoffMs,
+                               @Value("${llms.politeness.max-retry-after-ms:120000}") long maxRetryAfterMs) {
+        this(ratePerSecond, burst, robots, maxCrawlDelayMs, maxRetries, retryBackoffMs, maxRetryAfterMs,
+                Clock.systemDefaultZone());
+    }
+
+    PolitenessScheduler(double ratePerSecond, int burst, boolean robots, long maxCrawlDelayMs, int maxRetries,
+                        long retryBackoffMs, long maxRetryAfterMs, Clock clock) {
+        if (burst < 1 || maxCrawlDelayMs < 0 || maxRetries < 0 || retryBackoffMs <= 0 || maxRetryAfterMs < 0) {
+            throw new IllegalArgumentException("Invalid politeness settings: burst=" + burst
+                    + ", max-crawl-delay-ms=" + maxCrawlDelayMs + ", max-retries=" + maxRetries
+                    + ", retry-backoff-ms=" + retryBackoffMs + ", max-retry-after-ms=" + maxRetryAfterMs);
+        }
+        this.ratePerSecond = ratePerSecond;
+        this.burst = burst;
+        this.robots = robots;
+        this.maxCrawlDelayMs = maxCrawlDelayMs;
+        this.maxRetries = maxRetries;
+        this.retryBackoffMs = retryBackoffMs;
+        this.maxRetryAfterMs = maxRetryAfterMs;
+        this.clock = clock;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("llms.politeness.throttled", requeued, AtomicLong::get)
+                .description("Requests a host answered with 429 or 503, by what became of the URL")
+                .tag("outcome", "requeued")
+                .register(registry);
+        FunctionCounter.builder("llms.politeness.throttled", gaveUp, AtomicLong::get)
+                .description("Requests a host answered with 429 or 503, by what became of the URL")
+                .tag("outcome", "failed")
+                .register(registry);
+        Gauge.builder("llms.politeness.paused.hosts", this, PolitenessScheduler::pausedHosts)
+                .description("Hosts waiting out a Retry-After or backoff")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        timer.shutdownNow();
+    }
+
+    /**
+     * Runs {@code task} on {@code workers} once {@code url}'s host is not paused. When the task throws
+     * a {@link SlotPending} it runs again once the host's slot is due. When it throws a
+     * {@link ThrottledException} the host is paused and the task re-queued; once it may not be
+     * retried any more, the future completes with {@code onThrottled}'s result.
+     *
+     * @param paced false to run at once and never retry, e.g. when replaying an archive
+     */
+    public <T> Future<T> submit(String url, ExecutorService workers, boolean paced, Callable<T> task,
+                                Function<ThrottledException, T> onThrottled) {
+        Request<T> request = new Request<>(url, workers, paced, task, onThrottled);
+        request.schedule();
+        return request;
+    }
+
+    /**
+     * {@code network} with every request taking a slot of its host first. Wrap the fetcher that
+     * talks to the host, so that only requests actually sent to it are paced.
+     */
+    public PageFetcher wrap(PageFetcher network) {
+        return new PacedPageFetcher(network, this);
+    }
+
+    /**
+     * Reads the {@code Crawl-delay} for {@code baseUrl}'s host from its robots.txt, fetched through
+     * {@code fetcher}. A missing or unreadable robots.txt clears the delay.
+     *
+     * @throws InterruptedException if interrupted while waiting for the host's slot
+     */
+    public void readRobots(String baseUrl, PageFetcher fetcher) throws InterruptedException {
+        if (!robots) {
+            return;
+        }
+        String robotsUrl;
+        try {
+            robotsUrl = new URI(baseUrl).resolve("/robots.txt").toString();
+        } catch (Exception e) {
+            return;
+        }
+        String hostName = HostCircuitBreaker.hostOf(baseUrl);
+        long delayMs = 0;
+        try {
+            PageFetcher.Response response = exchangeWhenDue(fetcher, robotsUrl);
+            if (response.status() == 200) {
+                delayMs = crawlDelayMs(response.text(), JsoupPageFetcher.USER_AGENT);
+            }
+        } catch (InterruptedException e) {
+            throw e;
+        } catch (Exception e) {
+            log.debug("Could not read {}: {}", robotsUrl, e.getMessage());
+        }
+        if (delayMs > maxCrawlDelayMs) {
+            log.info("{} asks for a crawl delay of {} ms, using {} ms", hostName, delayMs, maxCrawlDelayMs);
+            delayMs = maxCrawlDelayMs;
+        } else if (delayMs > 0) {
+            log.debug("{} asks for a crawl delay of {} ms", hostName, delayMs);
+        }
+        Host host = host(hostName);
+        synchronized (host) {
+            host.crawlDelayMs = delayMs;
+        }
+    }
+
+    private static PageFetcher.Response exchangeWhenDue(PageFetcher fetcher, String url)
+            throws IOException, InterruptedException {
+        while (true) {
+            try {
+                return fetcher.exchange(url, PageType.STATIC_ASSET);
+            } catch (SlotPending e) {
+                Thread.sleep(e.getWaitMs());
+            }
+        }
+    }
+
+    /**
+     * Takes a request slot of {@code url}'s host for a request about to be sent.
+     *
+     * @throws SlotPending if the host is paused or its next slot is not due yet
+     */
+    void acquire(String url) throws SlotPending {
+        long waitMs = tryAcquire(HostCircuitBreaker.hostOf(url), clock.millis());
+        if (waitMs > 0) {
+            throw new SlotPending(url, waitMs);
+        }
+    }
+
+    /**
+     * Takes a request slot of {@code url}'s host, waiting until one is due. For work that cannot be
+     * re-queued cheaply, like rendering a page whose response is already in hand.
+     */
+    void acquireWhenDue(String url) throws InterruptedException {
+        String hostName = HostCircuitBreaker.hostOf(url);
+        long waitMs;
+        while ((waitMs = tryAcquire(hostName, clock.millis())) > 0) {
+            Thread.sleep(waitMs);
+        }
+    }
+
+    /**
+     * Takes a request slot of {@code hostName} if one is due at {@code now}. Nothing is reserved
+     * otherwise, so a request that stops waiting holds up no other.
+     *
+     * @return 0 if the slot was taken, else milliseconds from {@code now} until one is due
+     */
+    long tryAcquire(String hostName, long now) {
+        Host host = host(hostName);
+        synchronized (host) {
+            if (host.pausedUntil > now) {
+                return host.pausedUntil - now;
+            }
+            double intervalMs = Math.max(ratePerSecond > 0 ? 1000.0 / ratePerSecond : 0, host.crawlDelayMs);
+            if (intervalMs <= 0) {
+                return 0;
+            }
+            // A crawl delay spaces every request; otherwise up to burst requests may go at once
+            double toleranceMs = host.crawlDelayMs > 0 ? 0 : (burst - 1) * intervalMs;
+            double due = host.nextSlot - toleranceMs;
+            if (due > now) {
+                return (long) Math.ceil(due - now);
+            }
+            host.nextSlot = Math.max(host.nextSlot, now) + intervalMs;
+            return 0;
+        }
+    }
+
+    /** Milliseconds {@code hostName} is still paused for, 0 if it is not. */
+    long pausedFor(String hostName, long now) {
+        Host host = hosts.get(hostName);
+        if (host == null) {
+            return 0;
+        }
+        synchronized (host) {
+            return Math.max(0, host.pausedUntil - now);
+        }
+    }
+
+    /**
+     * Pauses {@code hostName} after it throttled the {@code attempt}-th request for a URL.
+     *
+     * @return the pause in milliseconds, or -1 if it exceeds {@code max-retry-after-ms}
+     */
+    long pause(String hostName, ThrottledException e, int attempt, long now) {
+        long pauseMs = retryAfterMs(e.getRetryAfter(), now);
+        if (pauseMs < 0) {
+            pauseMs = retryBackoffMs << Math.min(attempt - 1, 20);
+        }
+        boolean tooLong = pauseMs > maxRetryAfterMs;
+        pauseMs = Math.min(pauseMs, maxRetryAfterMs);
+        Host host = host(hostName);
+        synchronized (host) {
+            host.pausedUntil = Math.max(host.pausedUntil, now + pauseMs);
+        }
+        return tooLong ? -1 : pauseMs;
+    }
+
+    int pausedHosts() {
+        long now = clock.millis();
+        return (int) hosts.keySet().stream().filter(host -> pausedFor(host, now) > 0).count();
+    }
+
+    /**
+     * The {@code Crawl-delay} of the robots.txt group for {@code userAgent}, or of the {@code *}
+     * group if there is none for it, in milliseconds; 0 if the group has none.
+     */
+    static long crawlDelayMs(String robotsTxt, String userAgent) {
+        boolean inAgentGroup = false;
+        boolean inAnyGroup = false;
+        boolean agentGroupSeen = false;
+        boolean lastWasUserAgent = false;
+        long agentDelay = 0;
+        long anyDelay = 0;
+        for (String rawLine : robotsTxt.split("\\R")) {
+            int comment = rawLine.indexOf('#');
+            String line = (comment >= 0 ? rawLine.substring(0, comment) : rawLine).trim();
+            int colon = line.indexOf(':');
+            if (colon < 0) {
+                continue;
+            }
+            String field = line.substring(0, colon).trim().toLowerCase(Locale.ROOT);
+            String value = line.substring(colon + 1).trim();
+            if (field.equals("user-agent")) {
+                // Consecutive user-agent lines share the group that follows them
+                if (!lastWasUserAgent) {
+                    inAgentGroup = false;
+                    inAnyGroup = false;
+                }
+                if (value.equalsIgnoreCase(userAgent)) {
+                    inAgentGroup = true;
+                    agentGroupSeen = true;
+                }
+                inAnyGroup |= value.equals("*");
+                lastWasUserAgent = true;
+                continue;
+            }
+            lastWasUserAgent = false;
+            if (field.equals("crawl-delay")) {
+                long delayMs;
+                try {
+                    delayMs = Math.round(Double.parseDouble(value) * 1000);
+                } catch (NumberFormatException e) {
+                    continue;
+                }
+                if (delayMs < 0) {
+                    continue;
+                }
+                if (inAgentGroup && agentDelay == 0) {
+                    agentDelay = delayMs;
+                }
+                if (inAnyGroup && anyDelay == 0) {
+                    anyDelay = delayMs;
+                }
+            }
+        }
+        return agentGroupSeen ? agentDelay : anyDelay;
+    }
+
+    /** A {@code Retry-After} value, delay-seconds or an HTTP-date, in milliseconds from {@code now}; -1 if unusable. */
+    static long retryAfterMs(String retryAfter, long now) {
+        if (retryAfter == null || retryAfter.isBlank()) {
+            return -1;
+        }
+        String value = retryAfter.trim();
+        if (value.chars().allMatch(Character::isDigit)) {
+            return value.length() > 9 ? Long.MAX_VALUE : Long.parseLong(value) * 1000;
+        }
+        try {
+            return Math.max(0, ZonedDateTime.parse(value, DateTimeFormatter.RFC_1123_DATE_TIME).toInstant().toEpochMilli() - now);
+        } catch (DateTimeParseException e) {
+            return -1;
+        }
+    }
+
+    private Host host(String hostName) {
+        if (hosts.size() >= PRUNE_THRESHOLD) {
+            long now = clock.millis();
+            hosts.values().removeIf(host -> host.isIdle(now));
+        }
+        return hosts.computeIfAbsent(hostName, h -> new Host());
+    }
+
+    /**
+     * A paced fetch found no slot of its host due; the request should be made again in
+     * {@link #getWaitMs()} milliseconds.
+     */
+    static final class SlotPending extends IOException {
+
+        private final long waitMs;
+
+        SlotPending(String url, long waitMs) {
+            super("No request slot due for " + url + " for " + waitMs + " ms");
+            this.waitMs = waitMs;
+        }
+
+        long getWaitMs() {
+            return waitMs;
+        }
+    }
+
+    private static final class Host {
+        /** When the next request may go once the burst is spent, in epoch milliseconds. */
+        private double nextSlot;
+        private long pausedUntil;
+        private long crawlDelayMs;
+
+        synchronized boolean isIdle(long now) {
+            return nextSlot < now && pausedUntil < now;
+        }
+    }
+
+    /**
+     * One URL's task: runs on the crawl's workers, and goes back to waiting on the timer when its
+     * host has no slot due or throttles it. Cancelling it cancels whichever of those it is in.
+     */
+    private final class Request<T> extends CompletableFuture<T> {
+        private final String url;
+        private final String hostName;
+        private final ExecutorService workers;
+        private final boolean paced;
+        private final Callable<T> task;
+        private final Function<ThrottledException, T> onThrottled;
+        private int attempts;
+        private volatile Future<?> pending;
+
+        Request(String url, ExecutorService workers, boolean paced, Callable<T> task,
+                Function<ThrottledException, T> onThrottled) {
+            this.url = url;
+            this.hostName = HostCircuitBreaker.hostOf(url);
+            this.workers = workers;
+            this.paced = paced;
+            this.task = task;
+            this.onThrottled = onThrottled;
+        }
+
+        void schedule() {
+            schedule(paced ? pausedFor(hostName, clock.millis()) : 0);
+        }
+
+        private void schedule(long waitMs) {
+            if (waitMs <= 0) {
+                dispatch();
+                return;
+            }
+            try {
+                pending = timer.schedule(this::dispatch, waitMs, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                completeExceptionally(e);
+            }
+        }
+
+        private void dispatch() {
+            if (isDone()) {
+                return;
+            }
+            try {
+                pending = workers.submit(this::run);
+            } catch (RejectedExecutionException e) {
+                completeExceptionally(e);
+            }
+        }
+
+        private void run() {
+            if (isDone()) {
+                return;
+            }
+            try {
+                complete(task.call());
+            } catch (SlotPending e) {
+                schedule(e.getWaitMs());
+            } catch (ThrottledException e) {
+                attempts++;
+                long pauseMs = paced ? pause(hostName, e, attempts, clock.millis()) : -1;
+                if (pauseMs >= 0 && attempts <= maxRetries) {
+                    requeued.incrementAndGet();
+                    log.debug("{} answered {}, retrying {} in {} ms (attempt {} of {})", hostName, e.getStatusCode(),
+                            url, pauseMs, attempts, maxRetries);
+                    schedule();
+                } else {
+                    gaveUp.incrementAndGet();
+                    log.debug("{} answered {} for {}, giving up after {} attempts", hostName, e.getStatusCode(),
+                            url, attempts);
+                    try {
+                        complete(onThrottled.apply(e));
+                    } catch (RuntimeException failure) {
+                        completeExceptionally(failure);
+                    }
+                }
+            } catch (Throwable e) {
+                completeExceptionally(e);
+            }
+        }
+
+        @Override
+        public boolean cancel(boolean mayInterruptIfRunning) {
+            boolean cancelled = super.cancel(mayInterruptIfRunning);
+            Future<?> current = pending;
+            if (current != null) {
+                current.cancel(mayInterruptIfRunning);
+            }
+            return cancelled;
+        }
+    }
+}
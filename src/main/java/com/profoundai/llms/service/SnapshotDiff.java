@@ -0,0 +1,67 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageMeta;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * What changed between a site's previous snapshot and a new crawl of it.
+ *
+ * @param added    URLs only in the new crawl
+ * @param removed  URLs only in the previous snapshot
+ * @param modified URLs in both whose content hash changed
+ * @param changed  URLs whose llms.txt entry must be re-rendered: added or modified pages, plus
+ *                 pages whose title/description changed without a body change (the content hash
+ *                 only covers body text)
+ */
+record SnapshotDiff(Set<String> added, Set<String> removed, Set<String> modified, Set<String> changed) {
+
+    static SnapshotDiff compute(List<PageMeta> oldPages, List<CrawlService.PageInfo> newPages) {
+        Map<String, String> oldHashes = oldPages.stream()
+                .collect(Collectors.toMap(PageMeta::getUrl, PageMeta::getContentHash));
+
+        Map<String, String> newHashes = newPages.stream()
+                .collect(Collectors.toMap(
+                        CrawlService.PageInfo::getUrl,
+                        CrawlService.PageInfo::getContentHash
+                ));
+
+        // Identify additions, removals, modifications
+        Set<String> added = newHashes.keySet().stream()
+                .filter(url -> !oldHashes.containsKey(url))
+                .collect(Collectors.toSet());
+
+        Set<String> removed = oldHashes.keySet().stream()
+                .filter(url -> !newHashes.containsKey(url))
+                .collect(Collectors.toSet());
+
+        Set<String> modified = newHashes.entrySet().stream()
+                .filter(e -> oldHashes.containsKey(e.getKey())
+                        && !Objects.equals(e.getValue(), oldHashes.get(e.getKey())))
+                .map(Map.Entry::getKey)
+                .collect(Collectors.toSet());
+
+        Map<String, PageMeta> oldByUrl = oldPages.stream()
+                .collect(Collectors.toMap(PageMeta::getUrl, p -> p, (a, b) -> a));
+        Set<String> changed = new HashSet<>(added);
+        changed.addAll(modified);
+        for (CrawlService.PageInfo page : newPages) {
+            PageMeta old = oldByUrl.get(page.getUrl());
+            if (old != null && (!Objects.equals(old.getTitle(), page.getTitle())
+                    || !Objects.equals(old.getDescription(), page.getDescription()))) {
+                changed.add(page.getUrl());
+            }
+        }
+        return new SnapshotDiff(added, removed, modified, changed);
+    }
+
+    /** Whether any page was added, removed or modified. */
+    boolean hasChanges() {
+        return !added.isEmpty() || !removed.isEmpty() || !modified.isEmpty();
+    }
+}
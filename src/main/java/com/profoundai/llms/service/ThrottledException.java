@@ -0,0 +1,22 @@
+package com.profoundai.llms.service;
+
+import org.jsoup.HttpStatusException;
+
+/**
+ * A host answered {@code 429 Too Many Requests} or {@code 503 Service Unavailable}: it wants fewer
+ * requests, and the URL is worth asking for again later. See {@link PolitenessScheduler}.
+ */
+public class ThrottledException extends HttpStatusException {
+
+    private final String retryAfter;
+
+    public ThrottledException(String url, int status, String retryAfter) {
+        super("HTTP error fetching URL", status, url);
+        this.retryAfter = retryAfter;
+    }
+
+    /** The response's {@code Retry-After}, delay-seconds or an HTTP-date, or null if it sent none. */
+    public String getRetryAfter() {
+        return retryAfter;
+    }
+}
@@ -0,0 +1,130 @@
+package com.profoundai.llms.service.archive;
+
+import com.profoundai.llms.service.PageFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Records crawls into, or replays them from, one append-only WARC archive per site under
+ * {@code llms.archive.dir}, as chosen by {@code llms.archive.mode}:
+ * <ul>
+ *   <li>{@code off}: crawls fetch from the network and nothing is recorded;</li>
+ *   <li>{@code record}: crawls fetch from the network, and every response and rendered DOM is
+ *       appended to the site's archive;</li>
+ *   <li>{@code replay}: crawls are served from the site's archive without touching the network, the
+ *       latest record of a URL winning. URLs that were never recorded fail like unreachable pages.</li>
+ * </ul>
+ * Replay runs extraction, hashing and generation over recorded sites at CPU speed, and gives the
+ * same input every time, which makes it suited to performance regression runs.
+ */
+@Component
+public class CrawlArchive {
+
+    private static final Logger log = LoggerFactory.getLogger(CrawlArchive.class);
+
+    public enum Mode {
+        OFF, RECORD, REPLAY
+    }
+
+    private final Mode mode;
+    private final Path dir;
+
+    public CrawlArchive(@Value("${llms.archive.mode:off}") String mode,
+                        @Value("${llms.archive.dir:${java.io.tmpdir}/llms-archive}") String dir) {
+        try {
+            this.mode = Mode.valueOf(mode.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid llms.archive.mode '" + mode + "', expected off, record or replay");
+        }
+        this.dir = Paths.get(dir);
+        if (this.mode != Mode.OFF) {
+            log.info("Crawl archive mode {} in {}", this.mode, this.dir.toAbsolutePath());
+        }
+    }
+
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * The fetcher one crawl of {@code baseUrl} should use: {@code live} itself, {@code live}
+     * recording into the site's archive, or the site's archive alone. Close it when the crawl ends.
+     */
+    public PageFetcher open(String baseUrl, PageFetcher live) {
+        return switch (mode) {
+            case OFF -> live;
+            case RECORD -> record(baseUrl, live);
+            case REPLAY -> replay(baseUrl);
+        };
+    }
+
+    /** The site's archive file: host and port, plus a hash that tells apart sites on the same host. */
+    public Path fileFor(String baseUrl) {
+        String host;
+        try {
+            URI uri = URI.create(baseUrl);
+            host = uri.getHost() != null ? uri.getHost() + (uri.getPort() > 0 ? "_" + uri.getPort() : "") : "site";
+        } catch (IllegalArgumentException e) {
+            host = "site";
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(baseUrl.getBytes(StandardCharsets.UTF_8));
+            return dir.resolve(host.replaceAll("[^A-Za-z0-9._-]", "_") + "-"
+                    + HexFormat.of().formatHex(digest, 0, 6) + ".warc.gz");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private PageFetcher record(String baseUrl, PageFetcher live) {
+        Path file = fileFor(baseUrl);
+        try {
+            return new RecordingPageFetcher(live, new WarcWriter(file));
+        } catch (IOException e) {
+            // An archive that cannot be written must not stop the crawl itself
+            log.warn("Cannot record crawl of {} into {}, crawling without recording: {}", baseUrl, file, e.getMessage());
+            return live;
+        }
+    }
+
+    private PageFetcher replay(String baseUrl) {
+        Path file = fileFor(baseUrl);
+        Map<String, WarcRecord> responses = new ConcurrentHashMap<>();
+        Map<String, String> renders = new ConcurrentHashMap<>();
+        if (!Files.exists(file)) {
+            log.warn("No archive for {} at {}, nothing to replay", baseUrl, file);
+        } else {
+            long start = System.nanoTime();
+            try {
+                WarcReader.read(file, record -> {
+                    if (WarcRecord.RESPONSE.equals(record.type())) {
+                        responses.put(record.targetUri(), record);
+                    } else {
+                        renders.put(record.targetUri(), new String(record.body(), StandardCharsets.UTF_8));
+                    }
+                });
+            } catch (IOException e) {
+                log.warn("Failed to read archive {}, replaying {} records read so far: {}", file, responses.size(),
+                        e.getMessage());
+            }
+            log.info("Replaying {} from {}: {} responses, {} rendered pages, read in {} ms", baseUrl, file,
+                    responses.size(), renders.size(), (System.nanoTime() - start) / 1_000_000);
+        }
+        return new ReplayPageFetcher(responses, renders);
+    }
+}
@@ -0,0 +1,65 @@
+package com.profoundai.llms.service.archive;
+
+import com.profoundai.llms.entity.PageType;
+import com.profoundai.llms.service.PageFetcher;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Fetches with another fetcher and appends every response, whatever its status, and every
+ * rendered DOM to an archive. Requests that got no response are not recorded.
+ */
+class RecordingPageFetcher implements PageFetcher {
+
+    private static final Logger log = LoggerFactory.getLogger(RecordingPageFetcher.class);
+
+    private final PageFetcher delegate;
+    private final WarcWriter writer;
+
+    RecordingPageFetcher(PageFetcher delegate, WarcWriter writer) {
+        this.delegate = delegate;
+        this.writer = writer;
+    }
+
+    @Override
+    public Response exchange(String url, PageType pageType) throws IOException {
+        Response response = delegate.exchange(url, pageType);
+        write(new WarcRecord(WarcRecord.RESPONSE, url, Instant.now(), response.status(), response.statusMessage(),
+                response.headers(), response.body()));
+        return response;
+    }
+
+    @Override
+    public String render(String url) {
+        String rendered = delegate.render(url);
+        if (rendered != null) {
+            write(new WarcRecord(WarcRecord.CONVERSION, url, Instant.now(), 0, null,
+                    Map.of("Content-Type", List.of("text/html; charset=utf-8")), rendered.getBytes(StandardCharsets.UTF_8)));
+        }
+        return rendered;
+    }
+
+    private void write(WarcRecord record) {
+        try {
+            writer.write(record);
+        } catch (IOException e) {
+            log.warn("Failed to record {} of {}: {}", record.type(), record.targetUri(), e.getMessage());
+        }
+    }
+
+    @Override
+    public void close() {
+        try {
+            writer.close();
+        } catch (IOException e) {
+            log.warn("Failed to close crawl archive: {}", e.getMessage());
+        }
+        delegate.close();
+    }
+}
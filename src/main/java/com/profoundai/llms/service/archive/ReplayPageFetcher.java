@@ -0,0 +1,38 @@
+package com.profoundai.llms.service.archive;
+
+import com.profoundai.llms.entity.PageType;
+import com.profoundai.llms.service.PageFetcher;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serves a crawl from recorded responses and rendered DOMs, without touching the network. A URL
+ * with no recorded response fails like an unreachable one; a page with no recorded render is
+ * treated as a failed render.
+ */
+class ReplayPageFetcher implements PageFetcher {
+
+    private final Map<String, WarcRecord> responses;
+    private final Map<String, String> renders;
+
+    ReplayPageFetcher(Map<String, WarcRecord> responses, Map<String, String> renders) {
+        this.responses = responses;
+        this.renders = renders;
+    }
+
+    @Override
+    public Response exchange(String url, PageType pageType) throws IOException {
+        WarcRecord record = responses.get(url);
+        if (record == null) {
+            throw new FileNotFoundException("Not in archive: " + url);
+        }
+        return new Response(record.status(), record.statusMessage(), record.headers(), record.body());
+    }
+
+    @Override
+    public String render(String url) {
+        return renders.get(url);
+    }
+}
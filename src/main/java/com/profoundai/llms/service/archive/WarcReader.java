@@ -0,0 +1,125 @@
+package com.profoundai.llms.service.archive;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.ZipException;
+
+/**
+ * Reads the response and conversion records of a file written by {@link WarcWriter}; other
+ * record types are skipped. A record cut short at the end of the file (a crash while recording)
+ * ends the read with a warning rather than an error.
+ */
+public final class WarcReader {
+
+    private static final Logger log = LoggerFactory.getLogger(WarcReader.class);
+
+    private WarcReader() {
+    }
+
+    public static void read(Path file, Consumer<WarcRecord> consumer) throws IOException {
+        try (InputStream in = new BufferedInputStream(new GZIPInputStream(Files.newInputStream(file), 64 * 1024))) {
+            String version;
+            while ((version = readLine(in)) != null) {
+                if (version.isEmpty()) {
+                    continue;
+                }
+                if (!version.startsWith("WARC/")) {
+                    throw new IOException("Not a WARC record in " + file + ": " + version);
+                }
+                Map<String, String> fields = new LinkedHashMap<>();
+                String line;
+                while ((line = readLine(in)) != null && !line.isEmpty()) {
+                    int colon = line.indexOf(':');
+                    if (colon > 0) {
+                        fields.put(line.substring(0, colon).trim(), line.substring(colon + 1).trim());
+                    }
+                }
+                int length = Integer.parseInt(fields.getOrDefault("Content-Length", "0"));
+                byte[] block = in.readNBytes(length);
+                if (line == null || block.length < length) {
+                    throw new EOFException("Record cut short");
+                }
+                String type = fields.get("WARC-Type");
+                if (WarcRecord.RESPONSE.equals(type) || WarcRecord.CONVERSION.equals(type)) {
+                    consumer.accept(toRecord(type, fields, block));
+                }
+            }
+        } catch (EOFException | ZipException e) {
+            log.warn("Archive {} ends with an incomplete record, ignoring it: {}", file, e.getMessage());
+        }
+    }
+
+    private static WarcRecord toRecord(String type, Map<String, String> fields, byte[] block) throws IOException {
+        String targetUri = fields.get("WARC-Target-URI");
+        Instant date = fields.containsKey("WARC-Date") ? Instant.parse(fields.get("WARC-Date")) : null;
+        if (WarcRecord.CONVERSION.equals(type)) {
+            return new WarcRecord(type, targetUri, date, 0, null,
+                    Map.of("Content-Type", List.of(fields.getOrDefault("Content-Type", "text/html"))), block);
+        }
+        int headerEnd = indexOf(block, new byte[]{'\r', '\n', '\r', '\n'});
+        if (headerEnd < 0) {
+            throw new IOException("Response record for " + targetUri + " has no HTTP header block");
+        }
+        String[] lines = new String(block, 0, headerEnd, StandardCharsets.UTF_8).split("\r\n");
+        String[] statusLine = lines[0].split(" ", 3);
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        for (int i = 1; i < lines.length; i++) {
+            int colon = lines[i].indexOf(':');
+            if (colon > 0) {
+                headers.computeIfAbsent(lines[i].substring(0, colon).trim(), k -> new ArrayList<>())
+                        .add(lines[i].substring(colon + 1).trim());
+            }
+        }
+        byte[] body = new byte[block.length - headerEnd - 4];
+        System.arraycopy(block, headerEnd + 4, body, 0, body.length);
+        return new WarcRecord(type, targetUri, date, Integer.parseInt(statusLine[1]),
+                statusLine.length > 2 ? statusLine[2] : "", headers, body);
+    }
+
+    /** A CRLF-terminated line, or null at the end of the stream. */
+    private static String readLine(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream(128);
+        int b;
+        while ((b = in.read()) != -1) {
+            if (b == '\n') {
+                byte[] bytes = line.toByteArray();
+                int length = bytes.length > 0 && bytes[bytes.length - 1] == '\r' ? bytes.length - 1 : bytes.length;
+                return new String(bytes, 0, length, StandardCharsets.UTF_8);
+            }
+            line.write(b);
+        }
+        if (line.size() > 0) {
+            throw new EOFException("Line cut short");
+        }
+        return null;
+    }
+
+    private static int indexOf(byte[] data, byte[] pattern) {
+        outer:
+        for (int i = 0; i <= data.length - pattern.length; i++) {
+            for (int j = 0; j < pattern.length; j++) {
+                if (data[i + j] != pattern[j]) {
+                    continue outer;
+                }
+            }
+            return i;
+        }
+        return -1;
+    }
+}
@@ -0,0 +1,20 @@
+package com.profoundai.llms.service.archive;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One record of a crawl archive: an HTTP response ({@link #RESPONSE}), or the DOM a page rendered
+ * to in a headless browser ({@link #CONVERSION}, an alternative form of the page's response).
+ *
+ * @param status  HTTP status of a response, 0 for a conversion
+ * @param headers HTTP headers of a response; a conversion's Content-Type
+ * @param body    the response body as received, or the rendered DOM
+ */
+public record WarcRecord(String type, String targetUri, Instant date, int status, String statusMessage,
+                         Map<String, List<String>> headers, byte[] body) {
+
+    public static final String RESPONSE = "response";
+    public static final String CONVERSION = "conversion";
+}
@@ -0,0 +1,96 @@
+package com.profoundai.llms.service.archive;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Appends records to a WARC 1.1 file, each compressed as its own gzip member the way
+ * {@code .warc.gz} files are, so a record cut short by a crash loses only that record and the
+ * file stays readable by standard WARC tools. A new file starts with a {@code warcinfo} record.
+ * Thread-safe; records are appended whole.
+ */
+public class WarcWriter implements AutoCloseable {
+
+    private static final String VERSION = "WARC/1.1";
+    private static final String CRLF = "\r\n";
+
+    /** Hop-by-hop and encoding headers that no longer describe the body as recorded. */
+    private static final List<String> DROPPED_HEADERS = List.of("content-length", "content-encoding", "transfer-encoding");
+
+    private final OutputStream out;
+
+    public WarcWriter(Path file) throws IOException {
+        Files.createDirectories(file.toAbsolutePath().getParent());
+        boolean isNew = !Files.exists(file) || Files.size(file) == 0;
+        this.out = Files.newOutputStream(file, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        if (isNew) {
+            byte[] info = ("software: llms-txt-generator" + CRLF + "format: WARC File Format 1.1" + CRLF)
+                    .getBytes(StandardCharsets.UTF_8);
+            append("warcinfo", null, Instant.now(), "application/warc-fields", info);
+        }
+    }
+
+    public void write(WarcRecord record) throws IOException {
+        if (WarcRecord.RESPONSE.equals(record.type())) {
+            StringBuilder http = new StringBuilder("HTTP/1.1 ").append(record.status());
+            if (record.statusMessage() != null && !record.statusMessage().isBlank()) {
+                http.append(' ').append(record.statusMessage());
+            }
+            http.append(CRLF);
+            for (Map.Entry<String, List<String>> header : record.headers().entrySet()) {
+                if (header.getKey() == null || DROPPED_HEADERS.contains(header.getKey().toLowerCase(Locale.ROOT))) {
+                    continue;
+                }
+                for (String value : header.getValue()) {
+                    http.append(header.getKey()).append(": ").append(value).append(CRLF);
+                }
+            }
+            http.append("Content-Length: ").append(record.body().length).append(CRLF).append(CRLF);
+            ByteArrayOutputStream block = new ByteArrayOutputStream(http.length() + record.body().length);
+            block.write(http.toString().getBytes(StandardCharsets.UTF_8));
+            block.write(record.body());
+            append(record.type(), record.targetUri(), record.date(), "application/http;msgtype=response", block.toByteArray());
+        } else {
+            String contentType = record.headers().getOrDefault("Content-Type", List.of("text/html")).get(0);
+            append(record.type(), record.targetUri(), record.date(), contentType, record.body());
+        }
+    }
+
+    private synchronized void append(String type, String targetUri, Instant date, String contentType, byte[] block) throws IOException {
+        StringBuilder header = new StringBuilder(VERSION).append(CRLF)
+                .append("WARC-Type: ").append(type).append(CRLF)
+                .append("WARC-Record-ID: <urn:uuid:").append(UUID.randomUUID()).append('>').append(CRLF)
+                .append("WARC-Date: ").append(date.truncatedTo(ChronoUnit.SECONDS)).append(CRLF);
+        if (targetUri != null) {
+            header.append("WARC-Target-URI: ").append(targetUri).append(CRLF);
+        }
+        header.append("Content-Type: ").append(contentType).append(CRLF)
+                .append("Content-Length: ").append(block.length).append(CRLF)
+                .append(CRLF);
+        ByteArrayOutputStream member = new ByteArrayOutputStream(block.length / 4 + 256);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(member)) {
+            gzip.write(header.toString().getBytes(StandardCharsets.UTF_8));
+            gzip.write(block);
+            gzip.write((CRLF + CRLF).getBytes(StandardCharsets.UTF_8));
+        }
+        out.write(member.toByteArray());
+        out.flush();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        out.close();
+    }
+}
@@ -0,0 +1,37 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.service.LlmsTxtGeneratorService;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * The original URL/TITLE/DESCRIPTION layout, rendered by {@link LlmsTxtGeneratorService}.
+ */
+@Component
+public class ClassicLlmsTxtFormat implements LlmsTxtFormat {
+
+    private final LlmsTxtGeneratorService generator;
+
+    public ClassicLlmsTxtFormat(LlmsTxtGeneratorService generator) {
+        this.generator = generator;
+    }
+
+    @Override
+    public String name() {
+        return CLASSIC;
+    }
+
+    @Override
+    public String contentType() {
+        return "text/plain;charset=UTF-8";
+    }
+
+    @Override
+    public void render(String baseUrl, LocalDateTime generatedAt, List<PageMeta> pages, Appendable out) throws IOException {
+        generator.generate(pages.iterator(), baseUrl, generatedAt, out);
+    }
+}
@@ -0,0 +1,83 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+/**
+ * JSON export of a snapshot. Written directly rather than through an object mapper so
+ * rendering involves no reflection or intermediate tree.
+ */
+@Component
+public class JsonLlmsTxtFormat implements LlmsTxtFormat {
+
+    @Override
+    public String name() {
+        return "json";
+    }
+
+    @Override
+    public String contentType() {
+        return "application/json";
+    }
+
+    @Override
+    public void render(String baseUrl, LocalDateTime generatedAt, List<PageMeta> pages, Appendable out) throws IOException {
+        out.append("{\"baseUrl\":");
+        string(out, baseUrl);
+        out.append(",\"generatedAt\":");
+        string(out, generatedAt != null ? generatedAt.truncatedTo(ChronoUnit.SECONDS).toString() : null);
+        out.append(",\"pages\":[");
+        boolean first = true;
+        for (PageMeta page : pages) {
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+            out.append("{\"url\":");
+            string(out, page.getUrl());
+            out.append(",\"title\":");
+            string(out, page.getTitle());
+            out.append(",\"description\":");
+            string(out, page.getDescription());
+            out.append(",\"type\":");
+            string(out, page.getPageType() != null ? page.getPageType().name() : null);
+            out.append(",\"contentHash\":");
+            string(out, page.getContentHash());
+            out.append('}');
+        }
+        out.append("]}");
+    }
+
+    static void string(Appendable out, String value) throws IOException {
+        if (value == null) {
+            out.append("null");
+            return;
+        }
+        out.append('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            switch (c) {
+                case '"' -> out.append("\\\"");
+                case '\\' -> out.append("\\\\");
+                case '\n' -> out.append("\\n");
+                case '\r' -> out.append("\\r");
+                case '\t' -> out.append("\\t");
+                case '\b' -> out.append("\\b");
+                case '\f' -> out.append("\\f");
+                default -> {
+                    if (c < 0x20) {
+                        out.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        out.append(c);
+                    }
+                }
+            }
+        }
+        out.append('"');
+    }
+}
@@ -0,0 +1,24 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Output format for a snapshot's pages. Implementations are stateless and thread-safe;
+ * anything expensive (template parsing, lookups) is done once when the format is created.
+ */
+public interface LlmsTxtFormat {
+
+    String CLASSIC = "classic";
+
+    /** Name used in the {@code format} request parameter. */
+    String name();
+
+    /** Value for the Content-Type header, including charset where relevant. */
+    String contentType();
+
+    void render(String baseUrl, LocalDateTime generatedAt, List<PageMeta> pages, Appendable out) throws IOException;
+}
@@ -0,0 +1,70 @@
+package com.profoundai.llms.service.format;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.bind.Bindable;
+import org.springframework.boot.context.properties.bind.Binder;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * All output formats by name: the built-in {@link LlmsTxtFormat} beans plus customer templates
+ * configured under {@code llms.formats.templates.<name>.(header|entry|footer|content-type)},
+ * compiled once at startup.
+ */
+@Component
+public class LlmsTxtFormatRegistry {
+
+    private static final Logger log = LoggerFactory.getLogger(LlmsTxtFormatRegistry.class);
+
+    private final Map<String, LlmsTxtFormat> formats;
+
+    @Autowired
+    public LlmsTxtFormatRegistry(List<LlmsTxtFormat> builtIn, Environment environment) {
+        this(builtIn, Binder.get(environment)
+                .bind("llms.formats.templates", Bindable.mapOf(String.class, Template.class))
+                .orElse(Map.of()));
+    }
+
+    LlmsTxtFormatRegistry(List<LlmsTxtFormat> builtIn, Map<String, Template> templates) {
+        Map<String, LlmsTxtFormat> byName = new LinkedHashMap<>();
+        for (LlmsTxtFormat format : builtIn) {
+            register(byName, format);
+        }
+        templates.forEach((name, template) -> register(byName, TemplateLlmsTxtFormat.compile(
+                name, template.contentType(), template.header(), template.entry(), template.footer())));
+        this.formats = Collections.unmodifiableMap(byName);
+        log.info("Registered llms.txt formats: {}", formats.keySet());
+    }
+
+    /**
+     * @throws IllegalArgumentException if no format has this name
+     */
+    public LlmsTxtFormat resolve(String name) {
+        LlmsTxtFormat format = formats.get(name);
+        if (format == null) {
+            throw new IllegalArgumentException("Unknown format '" + name + "', expected one of " + formats.keySet());
+        }
+        return format;
+    }
+
+    public Map<String, LlmsTxtFormat> getFormats() {
+        return formats;
+    }
+
+    private static void register(Map<String, LlmsTxtFormat> byName, LlmsTxtFormat format) {
+        if (byName.putIfAbsent(format.name(), format) != null) {
+            throw new IllegalStateException("Duplicate llms.txt format name: " + format.name());
+        }
+    }
+
+    /** Binding target for one configured template. */
+    public record Template(String header, String entry, String footer, String contentType) {
+    }
+}
@@ -0,0 +1,118 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The llmstxt.org layout: an H1 with the site name, a blockquote summary, then one H2
+ * section of markdown links per top-level path segment. Static assets are left out.
+ */
+@Component
+public class SpecLlmsTxtFormat implements LlmsTxtFormat {
+
+    private static final String ROOT_SECTION = "Pages";
+
+    @Override
+    public String name() {
+        return "spec";
+    }
+
+    @Override
+    public String contentType() {
+        return "text/markdown;charset=UTF-8";
+    }
+
+    @Override
+    public void render(String baseUrl, LocalDateTime generatedAt, List<PageMeta> pages, Appendable out) throws IOException {
+        PageMeta home = null;
+        Map<String, List<PageMeta>> sections = new LinkedHashMap<>();
+        sections.put(ROOT_SECTION, new ArrayList<>());
+        for (PageMeta page : pages) {
+            if (page.getPageType() == PageType.STATIC_ASSET) {
+                continue;
+            }
+            if (home == null && isHome(page.getUrl(), baseUrl)) {
+                home = page;
+            }
+            sections.computeIfAbsent(sectionOf(page.getUrl()), k -> new ArrayList<>()).add(page);
+        }
+
+        String siteName = home != null && notBlank(home.getTitle()) ? home.getTitle() : hostOf(baseUrl);
+        out.append("# ").append(siteName).append("\n\n");
+        if (home != null && notBlank(home.getDescription())) {
+            out.append("> ").append(home.getDescription()).append("\n\n");
+        }
+
+        for (Map.Entry<String, List<PageMeta>> section : sections.entrySet()) {
+            if (section.getValue().isEmpty()) {
+                continue;
+            }
+            out.append("## ").append(section.getKey()).append("\n\n");
+            for (PageMeta page : section.getValue()) {
+                String title = notBlank(page.getTitle()) ? page.getTitle() : page.getUrl();
+                out.append("- [").append(escapeLinkText(title)).append("](").append(page.getUrl()).append(")");
+                if (notBlank(page.getDescription())) {
+                    out.append(": ").append(page.getDescription());
+                }
+                out.append("\n");
+            }
+            out.append("\n");
+        }
+    }
+
+    private static boolean isHome(String url, String baseUrl) {
+        return stripTrailingSlash(url).equals(stripTrailingSlash(baseUrl));
+    }
+
+    private static String sectionOf(String url) {
+        try {
+            String path = URI.create(url).getPath();
+            if (path == null) {
+                return ROOT_SECTION;
+            }
+            int start = path.startsWith("/") ? 1 : 0;
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                // Single-segment paths (e.g. /about) are top-level pages
+                return ROOT_SECTION;
+            }
+            String segment = path.substring(start, end);
+            if (segment.isEmpty()) {
+                return ROOT_SECTION;
+            }
+            return Character.toUpperCase(segment.charAt(0)) + segment.substring(1).replace('-', ' ').replace('_', ' ');
+        } catch (IllegalArgumentException e) {
+            return ROOT_SECTION;
+        }
+    }
+
+    private static String hostOf(String baseUrl) {
+        try {
+            String host = URI.create(baseUrl).getHost();
+            return host != null ? host : baseUrl;
+        } catch (IllegalArgumentException e) {
+            return baseUrl;
+        }
+    }
+
+    private static String stripTrailingSlash(String url) {
+        return url != null && url.endsWith("/") ? url.substring(0, url.length() - 1) : String.valueOf(url);
+    }
+
+    private static String escapeLinkText(String text) {
+        return text.replace("[", "\\[").replace("]", "\\]");
+    }
+
+    private static boolean notBlank(String value) {
+        return value != null && !value.isBlank();
+    }
+}
@@ -0,0 +1,141 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+
+import java.io.IOException;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Customer-defined format built from header, entry and footer templates with
+ * {@code {{placeholder}}} substitution. Templates are parsed once, when the format is
+ * compiled, into a flat array of parts; rendering only walks that array.
+ *
+ * <p>Site placeholders: {@code baseUrl}, {@code generatedAt}, {@code pageCount}.
+ * Entry templates may also use {@code url}, {@code title}, {@code description},
+ * {@code type} and {@code contentHash}. Missing values render as empty strings.
+ */
+public final class TemplateLlmsTxtFormat implements LlmsTxtFormat {
+
+    private static final Set<String> SITE_PLACEHOLDERS = Set.of("baseUrl", "generatedAt", "pageCount");
+    private static final Set<String> PAGE_PLACEHOLDERS = Set.of("url", "title", "description", "type", "contentHash");
+
+    private final String name;
+    private final String contentType;
+    private final Part[] header;
+    private final Part[] entry;
+    private final Part[] footer;
+
+    private TemplateLlmsTxtFormat(String name, String contentType, Part[] header, Part[] entry, Part[] footer) {
+        this.name = name;
+        this.contentType = contentType;
+        this.header = header;
+        this.entry = entry;
+        this.footer = footer;
+    }
+
+    /**
+     * Parses the templates. Fails with {@link IllegalArgumentException} on unknown or unterminated
+     * placeholders, so a bad template is reported at startup rather than on first request.
+     */
+    public static TemplateLlmsTxtFormat compile(String name, String contentType,
+                                                String header, String entry, String footer) {
+        return new TemplateLlmsTxtFormat(
+                name,
+                contentType != null && !contentType.isBlank() ? contentType : "text/plain;charset=UTF-8",
+                parse(name, header, false),
+                parse(name, entry, true),
+                parse(name, footer, false));
+    }
+
+    @Override
+    public String name() {
+        return name;
+    }
+
+    @Override
+    public String contentType() {
+        return contentType;
+    }
+
+    @Override
+    public void render(String baseUrl, LocalDateTime generatedAt, List<PageMeta> pages, Appendable out) throws IOException {
+        Site site = new Site(baseUrl,
+                generatedAt != null ? generatedAt.truncatedTo(ChronoUnit.SECONDS).toString() : "",
+                String.valueOf(pages.size()));
+        write(header, site, null, out);
+        for (PageMeta page : pages) {
+            write(entry, site, page, out);
+        }
+        write(footer, site, null, out);
+    }
+
+    private static void write(Part[] parts, Site site, PageMeta page, Appendable out) throws IOException {
+        for (Part part : parts) {
+            part.write(site, page, out);
+        }
+    }
+
+    private static Part[] parse(String formatName, String template, boolean pageScope) {
+        if (template == null || template.isEmpty()) {
+            return new Part[0];
+        }
+        List<Part> parts = new ArrayList<>();
+        int pos = 0;
+        while (pos < template.length()) {
+            int open = template.indexOf("{{", pos);
+            if (open < 0) {
+                parts.add(literal(template.substring(pos)));
+                break;
+            }
+            if (open > pos) {
+                parts.add(literal(template.substring(pos, open)));
+            }
+            int close = template.indexOf("}}", open + 2);
+            if (close < 0) {
+                throw new IllegalArgumentException(
+                        "Unterminated placeholder in template '" + formatName + "' at offset " + open);
+            }
+            parts.add(placeholder(formatName, template.substring(open + 2, close).trim(), pageScope));
+            pos = close + 2;
+        }
+        return parts.toArray(new Part[0]);
+    }
+
+    private static Part literal(String text) {
+        return (site, page, out) -> out.append(text);
+    }
+
+    private static Part placeholder(String formatName, String key, boolean pageScope) {
+        if (!SITE_PLACEHOLDERS.contains(key) && !(pageScope && PAGE_PLACEHOLDERS.contains(key))) {
+            throw new IllegalArgumentException("Unknown placeholder {{" + key + "}} in template '" + formatName + "'"
+                    + (PAGE_PLACEHOLDERS.contains(key) ? " (only allowed in the entry template)" : ""));
+        }
+        return switch (key) {
+            case "baseUrl" -> (site, page, out) -> out.append(site.baseUrl());
+            case "generatedAt" -> (site, page, out) -> out.append(site.generatedAt());
+            case "pageCount" -> (site, page, out) -> out.append(site.pageCount());
+            case "url" -> (site, page, out) -> out.append(orEmpty(page.getUrl()));
+            case "title" -> (site, page, out) -> out.append(orEmpty(page.getTitle()));
+            case "description" -> (site, page, out) -> out.append(orEmpty(page.getDescription()));
+            case "type" -> (site, page, out) -> out.append(page.getPageType() != null ? page.getPageType().name() : "");
+            case "contentHash" -> (site, page, out) -> out.append(orEmpty(page.getContentHash()));
+            default -> throw new IllegalStateException("Unhandled placeholder " + key);
+        };
+    }
+
+    private static String orEmpty(String value) {
+        return value != null ? value : "";
+    }
+
+    private record Site(String baseUrl, String generatedAt, String pageCount) {
+    }
+
+    @FunctionalInterface
+    private interface Part {
+        void write(Site site, PageMeta page, Appendable out) throws IOException;
+    }
+}
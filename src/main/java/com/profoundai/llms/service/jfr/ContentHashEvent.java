@@ -0,0 +1,29 @@
+package com.profoundai.llms.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * SHA-256 of a page's text or a static asset's content.
+ */
+@Name("com.profoundai.llms.ContentHash")
+@Label("Content Hash")
+@Category({"llms.txt", "Crawler"})
+@Description("SHA-256 of a page's text or a static asset's content")
+@StackTrace(false)
+public class ContentHashEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Page Type")
+    public String pageType;
+
+    @Label("Content Length")
+    @Description("Characters hashed")
+    public long contentLength;
+}
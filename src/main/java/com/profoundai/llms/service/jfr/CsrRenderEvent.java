@@ -0,0 +1,34 @@
+package com.profoundai.llms.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Client-side render of a page in the headless browser.
+ */
+@Name("com.profoundai.llms.CsrRender")
+@Label("CSR Render")
+@Category({"llms.txt", "Crawler"})
+@Description("Client-side render of a page in the headless browser")
+@StackTrace(false)
+public class CsrRenderEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Outcome")
+    @Description("used, not_richer or failed")
+    public String outcome;
+
+    @Label("Server HTML Length")
+    @Description("Characters of HTML served by the site")
+    public long serverHtmlLength;
+
+    @Label("Rendered HTML Length")
+    @Description("Characters of the rendered DOM, 0 if rendering failed")
+    public long renderedHtmlLength;
+}
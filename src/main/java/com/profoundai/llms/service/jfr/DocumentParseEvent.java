@@ -0,0 +1,30 @@
+package com.profoundai.llms.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Parsing a page's HTML and extracting its title, description and text.
+ */
+@Name("com.profoundai.llms.DocumentParse")
+@Label("Document Parse")
+@Category({"llms.txt", "Crawler"})
+@Description("HTML parsing and text extraction of a page")
+@StackTrace(false)
+public class DocumentParseEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("HTML Length")
+    @Description("Characters of HTML parsed")
+    public long htmlLength;
+
+    @Label("Text Length")
+    @Description("Characters of body text extracted")
+    public long textLength;
+}
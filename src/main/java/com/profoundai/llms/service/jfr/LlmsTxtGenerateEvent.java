@@ -0,0 +1,35 @@
+package com.profoundai.llms.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Generating and storing a snapshot's llms.txt.
+ */
+@Name("com.profoundai.llms.LlmsTxtGenerate")
+@Label("llms.txt Generate")
+@Category({"llms.txt", "Storage"})
+@Description("Generating and storing a snapshot's llms.txt")
+@StackTrace(false)
+public class LlmsTxtGenerateEvent extends Event {
+
+    @Label("Base URL")
+    public String baseUrl;
+
+    @Label("Snapshot Id")
+    public long snapshotId;
+
+    @Label("Mode")
+    @Description("full, incremental or on-demand")
+    public String mode;
+
+    @Label("Bytes")
+    @Description("UTF-8 size of the llms.txt segments rendered; for incremental, only the patched ones")
+    @DataAmount
+    public long bytes;
+}
@@ -0,0 +1,33 @@
+package com.profoundai.llms.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Download of one page or static asset, from request to the body in memory.
+ */
+@Name("com.profoundai.llms.PageFetch")
+@Label("Page Fetch")
+@Category({"llms.txt", "Crawler"})
+@Description("Download of a page or static asset")
+@StackTrace(false)
+public class PageFetchEvent extends Event {
+
+    @Label("URL")
+    public String url;
+
+    @Label("Page Type")
+    public String pageType;
+
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    @Label("Succeeded")
+    public boolean succeeded;
+}
@@ -0,0 +1,28 @@
+package com.profoundai.llms.service.jfr;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Storing a crawl's snapshot row and its page metadata.
+ */
+@Name("com.profoundai.llms.SnapshotPersist")
+@Label("Snapshot Persist")
+@Category({"llms.txt", "Storage"})
+@Description("Storing a snapshot and its page metadata")
+@StackTrace(false)
+public class SnapshotPersistEvent extends Event {
+
+    @Label("Base URL")
+    public String baseUrl;
+
+    @Label("Snapshot Id")
+    public long snapshotId;
+
+    @Label("Pages")
+    public int pages;
+}
@@ -0,0 +1,23 @@
+-- Baseline schema for crawl snapshots and their page metadata.
+
+create table crawl_snapshot (
+    id         bigint generated by default as identity primary key,
+    base_url   varchar(255),
+    created_at timestamp(6)
+);
+
+-- Serves findFirstByBaseUrlOrderByCreatedAtDesc, findByBaseUrl and the distinct base URL scan
+create index idx_crawl_snapshot_base_url_created_at on crawl_snapshot (base_url, created_at);
+
+create table page_meta (
+    id           bigint generated by default as identity primary key,
+    snapshot_id  bigint,
+    url          varchar(1000),
+    title        varchar(500),
+    description  varchar(2000),
+    content_hash varchar(64),
+    page_type    varchar(32)
+);
+
+-- Serves findBySnapshotId and deleteBySnapshotIdIn
+create index idx_page_meta_snapshot_id on page_meta (snapshot_id);
@@ -0,0 +1,9 @@
+-- Materialized llms.txt per snapshot, served with a strong ETag.
+
+create table llms_txt_document (
+    snapshot_id  bigint primary key,
+    base_url     varchar(255),
+    content      clob,
+    etag         varchar(64),
+    generated_at timestamp(6)
+);
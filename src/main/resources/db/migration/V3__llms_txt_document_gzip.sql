@@ -0,0 +1,4 @@
+-- Pre-compressed gzip variant of each materialized llms.txt.
+-- Spelled "binary large object" because H2 rejects the BLOB alias in PostgreSQL mode (persistent profile).
+
+alter table llms_txt_document add column gzip_content binary large object;
@@ -0,0 +1,23 @@
+-- Registry of monitored sites with their per-site recrawl schedule and last outcome.
+
+create table monitored_site (
+    id              bigint generated by default as identity primary key,
+    base_url        varchar(255) not null,
+    interval_ms     bigint       not null,
+    next_due_at     timestamp(6) not null,
+    last_crawled_at timestamp(6),
+    last_status     varchar(32),
+    failure_count   integer      not null default 0,
+    crawl_profile   varchar(64)  not null default 'default',
+    change_history  varchar(512),
+    constraint uk_monitored_site_base_url unique (base_url)
+);
+
+-- Serves the scheduler's "due now" query
+create index idx_monitored_site_next_due_at on monitored_site (next_due_at);
+
+-- Every site crawled so far was monitored implicitly; register them all as due now
+insert into monitored_site (base_url, interval_ms, next_due_at, failure_count, crawl_profile)
+select distinct base_url, 30000, current_timestamp, 0, 'default'
+from crawl_snapshot
+where base_url is not null;
@@ -0,0 +1,4 @@
+-- Row leases so that only one node crawls a given site at a time.
+
+alter table monitored_site add column lease_owner varchar(128);
+alter table monitored_site add column lease_expires_at timestamp(6);
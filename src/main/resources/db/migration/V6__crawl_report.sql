@@ -0,0 +1,37 @@
+-- Performance report of the crawl behind each snapshot, with its slowest pages.
+
+create table crawl_report (
+    snapshot_id     bigint primary key,
+    base_url        varchar(255),
+    created_at      timestamp(6),
+    crawl_profile   varchar(64),
+    stop_reason     varchar(16),
+    wall_time_ms    bigint  not null,
+    fetch_ms        bigint  not null,
+    render_ms       bigint  not null,
+    parse_ms        bigint  not null,
+    hash_ms         bigint  not null,
+    persist_ms      bigint  not null,
+    diff_ms         bigint  not null,
+    generation_ms   bigint  not null,
+    bytes_fetched   bigint  not null,
+    pages_fetched   integer not null,
+    assets_fetched  integer not null,
+    renders         integer not null,
+    renders_used    integer not null,
+    skipped         integer not null,
+    errors          integer not null
+);
+
+-- Serves the per-site report history, newest first
+create index idx_crawl_report_base_url_created_at on crawl_report (base_url, created_at);
+
+create table crawl_report_page (
+    snapshot_id bigint  not null,
+    page_order  integer not null,
+    url         varchar(1000),
+    page_type   varchar(32),
+    fetch_ms    bigint  not null,
+    render_ms   bigint  not null,
+    primary key (snapshot_id, page_order)
+);
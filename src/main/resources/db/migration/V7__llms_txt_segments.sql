@@ -0,0 +1,26 @@
+-- llms.txt stored as content-addressed segments shared across snapshots, so a new snapshot writes
+-- only the segments its changes touched plus the list of segments it is made of.
+
+create table llms_txt_segment (
+    hash     varchar(64) primary key,
+    content  clob,
+    -- Raw deflate ending in a sync flush, so segments concatenate into one gzip member
+    deflated binary large object
+);
+
+create table llms_txt_document_segment (
+    id            bigint generated by default as identity primary key,
+    snapshot_id   bigint       not null,
+    segment_order integer      not null,
+    segment_hash  varchar(64)  not null,
+    first_url     varchar(1000)
+);
+
+-- Serves findBySnapshotIdOrderBySegmentOrder and deleteBySnapshotIdIn
+create index idx_llms_txt_document_segment_snapshot on llms_txt_document_segment (snapshot_id, segment_order);
+
+-- Serves the unreferenced segment check when snapshots are deleted
+create index idx_llms_txt_document_segment_hash on llms_txt_document_segment (segment_hash);
+
+-- Serves streamBySnapshotId in canonical (URL) order without a sort
+create index idx_page_meta_snapshot_id_url on page_meta (snapshot_id, url);
@@ -0,0 +1,3 @@
+-- Lets the content store sweep check its bodies against page_meta in batches.
+
+create index idx_page_meta_content_hash on page_meta (content_hash);
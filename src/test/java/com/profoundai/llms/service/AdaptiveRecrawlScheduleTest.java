@@ -0,0 +1,337 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.MonitoredSite;
+import com.profoundai.llms.entity.SiteStatus;
+import com.profoundai.llms.repository.MonitoredSiteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.Field;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AdaptiveRecrawlScheduleTest {
+
+    private static final long MIN = 60_000;
+    private static final long MAX = 3_600_000;
+    private static final long LEASE = 600_000;
+
+    @Mock
+    private MonitoredSiteRepository siteRepository;
+
+    private AdaptiveRecrawlSchedule schedule;
+
+    private final String baseUrl = "https://a.com";
+    private final LocalDateTime start = LocalDateTime.of(2025, 11, 30, 12, 0);
+
+    @BeforeEach
+    void setUp() {
+        schedule = new AdaptiveRecrawlSchedule(siteRepository, MIN, MAX, LEASE, "node-a");
+    }
+
+    private MonitoredSite registeredSite() {
+        when(siteRepository.findByBaseUrl(baseUrl)).thenReturn(Optional.empty());
+        when(siteRepository.save(any(MonitoredSite.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        MonitoredSite site = schedule.register(baseUrl, start);
+        lenient().when(siteRepository.findByBaseUrl(baseUrl)).thenReturn(Optional.of(site));
+        return site;
+    }
+
+    @Test
+    void testRegister_FirstRecrawlAfterMinInterval() {
+        // Act
+        MonitoredSite site = registeredSite();
+
+        // Assert
+        assertEquals(MIN, site.getIntervalMs());
+        assertEquals(start.plusMinutes(1), site.getNextDueAt());
+        assertEquals(start, site.getLastCrawledAt());
+        assertEquals(SiteStatus.SUCCEEDED, site.getLastStatus());
+        assertEquals(MonitoredSite.DEFAULT_PROFILE, site.getCrawlProfile());
+    }
+
+    @Test
+    void testRegister_KnownSiteIsUnchanged() {
+        // Arrange
+        MonitoredSite existing = new MonitoredSite(baseUrl, MAX, start);
+        existing.setLastCrawledAt(start.minusHours(1));
+        when(siteRepository.findByBaseUrl(baseUrl)).thenReturn(Optional.of(existing));
+
+        // Act
+        MonitoredSite site = schedule.register(baseUrl, start.plusHours(1));
+
+        // Assert
+        assertSame(existing, site);
+        assertEquals(MAX, site.getIntervalMs());
+        assertEquals(start, site.getNextDueAt());
+        verify(siteRepository, never()).save(any());
+    }
+
+    @Test
+    void testEnroll_NewSiteWaitsForItsFirstCrawl() {
+        // Arrange
+        when(siteRepository.findByBaseUrl(baseUrl)).thenReturn(Optional.empty());
+        when(siteRepository.save(any(MonitoredSite.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        MonitoredSite site = schedule.enroll(baseUrl, "shallow", start);
+
+        // Assert
+        assertEquals("shallow", site.getCrawlProfile());
+        assertEquals(start.plusMinutes(1), site.getNextDueAt());
+        assertNull(site.getLastCrawledAt());
+        assertNull(site.getLastStatus());
+    }
+
+    @Test
+    void testRegister_RecordsFirstCrawlOfEnrolledSite() {
+        // Arrange
+        MonitoredSite enrolled = new MonitoredSite(baseUrl, MIN, start.plusMinutes(1));
+        enrolled.setCrawlProfile("shallow");
+        when(siteRepository.findByBaseUrl(baseUrl)).thenReturn(Optional.of(enrolled));
+
+        // Act
+        MonitoredSite site = schedule.register(baseUrl, start.plusSeconds(20));
+
+        // Assert
+        assertSame(enrolled, site);
+        assertEquals(start.plusSeconds(20), site.getLastCrawledAt());
+        assertEquals(SiteStatus.SUCCEEDED, site.getLastStatus());
+        assertEquals(start.plusSeconds(80), site.getNextDueAt());
+        assertEquals("shallow", site.getCrawlProfile());
+    }
+
+    @Test
+    void testFindDue_QueriesIndexWithLimit() {
+        // Arrange
+        when(siteRepository.findDue(eq(start), any(Pageable.class)))
+                .thenReturn(List.of(new MonitoredSite("https://b.com", MIN, start.minusMinutes(5)),
+                        new MonitoredSite("https://c.com", MIN, start)));
+
+        // Act
+        List<String> due = schedule.findDue(start, 10);
+
+        // Assert
+        assertEquals(List.of("https://b.com", "https://c.com"), due);
+        verify(siteRepository).findDue(start, Pageable.ofSize(10));
+    }
+
+    @Test
+    void testRecordCrawl_UnchangedSiteBacksOffUpToMax() {
+        // Arrange
+        MonitoredSite site = registeredSite();
+
+        // Act: keep crawling when due, never observing a change
+        LocalDateTime now = start;
+        long interval = MIN;
+        for (int i = 0; i < 20; i++) {
+            now = now.plusNanos(interval * 1_000_000);
+            interval = schedule.recordCrawl(baseUrl, false, now);
+        }
+
+        // Assert
+        assertEquals(MAX, interval);
+        assertEquals(now.plusHours(1), site.getNextDueAt());
+        assertEquals(AdaptiveRecrawlSchedule.HISTORY_SIZE,
+                AdaptiveRecrawlSchedule.decode(site.getChangeHistory()).size());
+    }
+
+    @Test
+    void testRecordCrawl_FrequentlyChangingSiteStaysAtMin() {
+        // Arrange
+        registeredSite();
+
+        // Act
+        long interval = 0;
+        LocalDateTime now = start;
+        for (int i = 0; i < 5; i++) {
+            now = now.plusMinutes(1);
+            interval = schedule.recordCrawl(baseUrl, true, now);
+        }
+
+        // Assert
+        assertEquals(MIN, interval);
+    }
+
+    @Test
+    void testRecordCrawl_IntervalTracksObservedChangeRate() {
+        // Arrange: ten crawls ten minutes apart, two of which saw a change
+        registeredSite();
+
+        // Act
+        long interval = 0;
+        LocalDateTime now = start;
+        for (int i = 0; i < AdaptiveRecrawlSchedule.HISTORY_SIZE; i++) {
+            now = now.plusMinutes(10);
+            interval = schedule.recordCrawl(baseUrl, i == 3 || i == 7, now);
+        }
+
+        // Assert: 100 minutes covered, 2 changes -> every 50 minutes
+        assertEquals(50 * 60_000, interval);
+    }
+
+    @Test
+    void testRecordFailure_KeepsIntervalAndCountsFailures() {
+        // Arrange
+        MonitoredSite site = registeredSite();
+        LocalDateTime now = start.plusMinutes(1);
+
+        // Act
+        schedule.recordFailure(baseUrl, SiteStatus.TIMED_OUT, now);
+        schedule.recordFailure(baseUrl, SiteStatus.FAILED, now);
+
+        // Assert
+        assertEquals(2, site.getFailureCount());
+        assertEquals(SiteStatus.FAILED, site.getLastStatus());
+        assertEquals(MIN, site.getIntervalMs());
+        assertEquals(now.plusMinutes(1), site.getNextDueAt());
+
+        // A later success resets the failure count
+        schedule.recordCrawl(baseUrl, true, now.plusMinutes(1));
+        assertEquals(0, site.getFailureCount());
+        assertEquals(SiteStatus.SUCCEEDED, site.getLastStatus());
+    }
+
+    @Test
+    void testRecordCrawl_UnknownSiteIsIgnored() {
+        // Arrange
+        when(siteRepository.findByBaseUrl(baseUrl)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertEquals(-1, schedule.recordCrawl(baseUrl, true, start));
+        verify(siteRepository, never()).save(any());
+    }
+
+    @Test
+    void testHistoryEncoding_RoundTripsAndSkipsMalformedEntries() {
+        // Arrange
+        List<AdaptiveRecrawlSchedule.Observation> history = List.of(
+                new AdaptiveRecrawlSchedule.Observation(true, 1000),
+                new AdaptiveRecrawlSchedule.Observation(false, 2000));
+
+        // Act
+        String encoded = AdaptiveRecrawlSchedule.encode(history);
+
+        // Assert
+        assertEquals("1:1000,0:2000", encoded);
+        assertEquals(history, AdaptiveRecrawlSchedule.decode(encoded));
+        assertEquals(history, AdaptiveRecrawlSchedule.decode(encoded + ",junk,0:x"));
+        assertTrue(AdaptiveRecrawlSchedule.decode(null).isEmpty());
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidBounds() {
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveRecrawlSchedule(siteRepository, 0, 10, LEASE, "node-a"));
+        assertThrows(IllegalArgumentException.class, () -> new AdaptiveRecrawlSchedule(siteRepository, 10, 5, LEASE, "node-a"));
+    }
+
+    @Test
+    void testTryClaim_LeasesSiteToThisNode() {
+        // Arrange
+        when(siteRepository.claim(baseUrl, "node-a", start, start.plusMinutes(10))).thenReturn(1);
+
+        // Act & Assert
+        assertTrue(schedule.tryClaim(baseUrl, start));
+    }
+
+    @Test
+    void testTryClaim_FailsWhenAnotherNodeHoldsLease() {
+        // Arrange
+        when(siteRepository.claim(eq(baseUrl), eq("node-a"), eq(start), any(LocalDateTime.class))).thenReturn(0);
+
+        // Act & Assert
+        assertFalse(schedule.tryClaim(baseUrl, start));
+    }
+
+    @Test
+    void testRecordCrawl_ReleasesOwnLease() throws Exception {
+        // Arrange
+        MonitoredSite site = registeredSite();
+        lease(site, "node-a");
+
+        // Act
+        schedule.recordCrawl(baseUrl, false, start.plusMinutes(1));
+
+        // Assert
+        assertNull(site.getLeaseOwner());
+        assertNull(site.getLeaseExpiresAt());
+    }
+
+    @Test
+    void testReleaseAfterCrawl_DefersUnrecordedCrawlWithoutObservation() throws Exception {
+        // Arrange: claimed, then the crawl was skipped as fresh and stored nothing
+        MonitoredSite site = registeredSite();
+        lease(site, "node-a");
+        String history = site.getChangeHistory();
+
+        // Act
+        schedule.releaseAfterCrawl(baseUrl, start.plusMinutes(1));
+
+        // Assert
+        assertNull(site.getLeaseOwner());
+        assertEquals(history, site.getChangeHistory());
+        assertEquals(start.plusMinutes(1).plus(Duration.ofMillis(site.getIntervalMs())), site.getNextDueAt());
+    }
+
+    @Test
+    void testReleaseAfterCrawl_LeavesRecordedCrawlAlone() {
+        // Arrange: the crawl recorded itself, which released the lease
+        MonitoredSite site = registeredSite();
+        schedule.recordCrawl(baseUrl, true, start.plusMinutes(1));
+        LocalDateTime nextDueAt = site.getNextDueAt();
+        String history = site.getChangeHistory();
+
+        // Act
+        schedule.releaseAfterCrawl(baseUrl, start.plusMinutes(2));
+
+        // Assert
+        assertEquals(nextDueAt, site.getNextDueAt());
+        assertEquals(history, site.getChangeHistory());
+    }
+
+    @Test
+    void testRecordFailure_KeepsLeaseReclaimedByAnotherNode() throws Exception {
+        // Arrange
+        MonitoredSite site = registeredSite();
+        lease(site, "node-b");
+
+        // Act
+        schedule.recordFailure(baseUrl, SiteStatus.TIMED_OUT, start.plusMinutes(1));
+
+        // Assert
+        assertEquals("node-b", site.getLeaseOwner());
+        assertEquals(1, site.getFailureCount());
+    }
+
+    @Test
+    void testConstructor_GeneratesNodeIdWhenBlank() {
+        // Act
+        AdaptiveRecrawlSchedule a = new AdaptiveRecrawlSchedule(siteRepository, MIN, MAX, LEASE, "");
+        AdaptiveRecrawlSchedule b = new AdaptiveRecrawlSchedule(siteRepository, MIN, MAX, LEASE, null);
+
+        // Assert
+        assertFalse(a.getNodeId().isBlank());
+        assertNotEquals(a.getNodeId(), b.getNodeId());
+    }
+
+    private void lease(MonitoredSite site, String owner) throws Exception {
+        Field ownerField = MonitoredSite.class.getDeclaredField("leaseOwner");
+        ownerField.setAccessible(true);
+        ownerField.set(site, owner);
+        Field expiresField = MonitoredSite.class.getDeclaredField("leaseExpiresAt");
+        expiresField.setAccessible(true);
+        expiresField.set(site, start.plusMinutes(10));
+    }
+}
@@ -0,0 +1,215 @@
+package com.profoundai.llms.service;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CrawlAdmissionControlTest {
+
+    @Mock
+    private CrawlJobService jobService;
+
+    @Mock
+    private CrawlBatchService batchService;
+
+    private MutableClock clock;
+    private CrawlAdmissionControl admission;
+    private final ExecutorService callers = Executors.newCachedThreadPool();
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-11-30T12:00:00Z"));
+        // 1 slot, 1 waiter, 500 ms queue timeout, 2 queued jobs, 1 running batch, 6 crawls per minute
+        // with a burst of 2
+        admission = new CrawlAdmissionControl(jobService, batchService, 1, 1, 500, 2, 1, 6, 2, clock);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    void testCheckRate_RefusesClientOverItsBurstUntilRefilled() {
+        // Arrange
+        admission.checkRate("10.0.0.1");
+        admission.checkRate("10.0.0.1");
+
+        // Act
+        CrawlRejectedException ex = assertThrows(CrawlRejectedException.class, () -> admission.checkRate("10.0.0.1"));
+
+        // Assert: one token every 10 s; other clients are unaffected
+        assertEquals(CrawlRejectedException.Reason.RATE_LIMITED, ex.getReason());
+        assertEquals(Duration.ofSeconds(10), ex.getRetryAfter());
+        assertDoesNotThrow(() -> admission.checkRate("10.0.0.2"));
+
+        clock.advance(Duration.ofSeconds(10));
+        assertDoesNotThrow(() -> admission.checkRate("10.0.0.1"));
+        assertThrows(CrawlRejectedException.class, () -> admission.checkRate("10.0.0.1"));
+    }
+
+    @Test
+    void testCheckRate_DisabledWithZeroRate() {
+        // Arrange
+        admission = new CrawlAdmissionControl(jobService, batchService, 1, 1, 500, 2, 1, 0, 1, clock);
+
+        // Act & Assert
+        for (int i = 0; i < 100; i++) {
+            admission.checkRate("10.0.0.1");
+        }
+        assertEquals(0, admission.load().clients());
+    }
+
+    @Test
+    void testRunCrawl_WaiterGetsSlotAndOverflowIsRefusedAtOnce() throws Exception {
+        // Arrange: one crawl holds the only slot
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<String> first = callers.submit(() -> admission.runCrawl(() -> {
+            running.countDown();
+            await(release);
+            return "first";
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+        Future<String> waiter = callers.submit(() -> admission.runCrawl(() -> "waiter"));
+        awaitPending(1);
+
+        // Act: the queue of one is full, so a third caller is refused without waiting
+        long start = System.nanoTime();
+        CrawlRejectedException ex = assertThrows(CrawlRejectedException.class, () -> admission.runCrawl(() -> "third"));
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert
+        assertEquals(CrawlRejectedException.Reason.SATURATED, ex.getReason());
+        assertTrue(elapsedMs < 250, "refusal took " + elapsedMs + " ms");
+        assertEquals("first", first.get(5, TimeUnit.SECONDS));
+        assertEquals("waiter", waiter.get(5, TimeUnit.SECONDS));
+        assertEquals(new CrawlAdmissionControl.Load(0, 0, 0, 0, 0), admission.load());
+    }
+
+    @Test
+    void testRunCrawl_WaiterGivesUpAfterQueueTimeout() throws Exception {
+        // Arrange
+        CountDownLatch running = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        callers.submit(() -> admission.runCrawl(() -> {
+            running.countDown();
+            await(release);
+            return null;
+        }));
+        assertTrue(running.await(5, TimeUnit.SECONDS));
+
+        // Act
+        CrawlRejectedException ex = assertThrows(CrawlRejectedException.class, () -> admission.runCrawl(() -> "late"));
+        release.countDown();
+
+        // Assert
+        assertEquals(CrawlRejectedException.Reason.SATURATED, ex.getReason());
+        assertEquals(Duration.ofSeconds(1), ex.getRetryAfter());
+    }
+
+    @Test
+    void testClientOf_IgnoresEntriesLeftOfTrustedProxies() {
+        // A client spoofing "1.1.1.1" is still identified by the address our proxy saw
+        assertEquals("203.0.113.7", CrawlAdmissionControl.clientOf("1.1.1.1, 203.0.113.7", 1, "10.0.0.2"));
+        assertEquals("203.0.113.7", CrawlAdmissionControl.clientOf("1.1.1.1, 203.0.113.7, 10.0.0.5", 2, "10.0.0.2"));
+        assertEquals("203.0.113.7", CrawlAdmissionControl.clientOf("203.0.113.7", 3, "10.0.0.2"));
+        assertEquals("10.0.0.2", CrawlAdmissionControl.clientOf(null, 1, "10.0.0.2"));
+        assertEquals("10.0.0.2", CrawlAdmissionControl.clientOf("203.0.113.7", 0, "10.0.0.2"));
+    }
+
+    @Test
+    void testRunCrawl_ReleasesSlotWhenCrawlFails() {
+        // Act
+        assertThrows(IllegalStateException.class, () -> admission.runCrawl(() -> {
+            throw new IllegalStateException("Failed to crawl");
+        }));
+
+        // Assert
+        assertEquals("next", admission.runCrawl(() -> "next"));
+    }
+
+    @Test
+    void testCheckJobCapacity_RefusesWhenBacklogIsFull() {
+        // Arrange
+        when(jobService.queuedCount()).thenReturn(1, 2);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> admission.checkJobCapacity());
+        CrawlRejectedException ex = assertThrows(CrawlRejectedException.class, () -> admission.checkJobCapacity());
+        assertEquals(CrawlRejectedException.Reason.SATURATED, ex.getReason());
+    }
+
+    @Test
+    void testCheckBatchCapacity_RefusesWhileBatchesRun() {
+        // Arrange
+        when(batchService.runningCount()).thenReturn(0, 1);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> admission.checkBatchCapacity());
+        CrawlRejectedException ex = assertThrows(CrawlRejectedException.class, () -> admission.checkBatchCapacity());
+        assertEquals(CrawlRejectedException.Reason.SATURATED, ex.getReason());
+    }
+
+    private void awaitPending(int pending) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (admission.load().pendingCrawls() < pending && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+        }
+        assertEquals(pending, admission.load().pendingCrawls());
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.profoundai.llms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CrawlBatchServiceTest {
+
+    @Mock
+    private CrawlJobService jobService;
+
+    @Mock
+    private AdaptiveRecrawlSchedule recrawlSchedule;
+
+    @Mock
+    private CrawlProfiles crawlProfiles;
+
+    private CrawlBatchService batchService;
+
+    /** Jobs the batch started, in dispatch order. */
+    private final List<CrawlJob> started = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        batchService = new CrawlBatchService(jobService, recrawlSchedule, crawlProfiles, 2, 1, 100, 3_600_000);
+        lenient().when(jobService.submit(anyString(), any())).thenAnswer(invocation -> {
+            Consumer<CrawlJob> onFinished = invocation.getArgument(1);
+            CrawlJob job = new CrawlJob("job-" + started.size(), invocation.getArgument(0), LocalDateTime.now(),
+                    onFinished);
+            job.start(LocalDateTime.now());
+            started.add(job);
+            return job;
+        });
+    }
+
+    @Test
+    void testSubmit_DispatchesRoundRobinByHost() {
+        // Arrange: three sites on one host, then two single-site hosts
+        List<CrawlBatchService.SiteRequest> sites = List.of(
+                site("https://a.com/1"), site("https://a.com/2"), site("https://a.com/3"),
+                site("https://b.com"), site("https://c.com"));
+
+        // Act
+        CrawlBatch batch = batchService.submit(sites);
+        finish(0);
+        finish(1);
+        finish(2);
+        finish(3);
+        finish(4);
+
+        // Assert: the other hosts are not stuck behind a.com, and a.com is never crawled twice at once
+        assertEquals(List.of("https://a.com/1", "https://b.com", "https://c.com", "https://a.com/2", "https://a.com/3"),
+                started.stream().map(CrawlJob::getBaseUrl).toList());
+        assertEquals(CrawlBatch.Status.FINISHED, batch.getStatus());
+        assertEquals(new CrawlBatch.Progress(5, 0, 0, 5, 0, 0, 0), batch.getProgress());
+        assertNotNull(batch.getFinishedAt());
+    }
+
+    @Test
+    void testSubmit_LimitsRunningCrawlsAndReportsProgress() {
+        // Arrange
+        List<CrawlBatchService.SiteRequest> sites = List.of(
+                site("https://a.com"), site("https://b.com"), site("https://c.com"));
+
+        // Act
+        CrawlBatch batch = batchService.submit(sites);
+        started.get(0).fail("Failed to crawl https://a.com", LocalDateTime.now());
+        started.get(0).notifyFinished();
+
+        // Assert
+        assertEquals(3, started.size());
+        assertEquals(new CrawlBatch.Progress(3, 0, 2, 0, 1, 0, 0), batch.getProgress());
+        CrawlBatch.Site failed = batch.getSites().get(0);
+        assertEquals(CrawlJob.Status.FAILED, failed.status());
+        assertEquals("Failed to crawl https://a.com", failed.error());
+        assertEquals(CrawlBatch.Status.RUNNING, batch.getStatus());
+    }
+
+    @Test
+    void testSubmit_EnrollsEachSiteOnceWithItsProfile() {
+        // Arrange
+        when(crawlProfiles.resolve("shallow")).thenReturn(new CrawlProfile("shallow", 10, 1));
+        when(crawlProfiles.resolve("default")).thenReturn(CrawlProfile.DEFAULT);
+
+        // Act
+        CrawlBatch batch = batchService.submit(List.of(
+                new CrawlBatchService.SiteRequest(" https://a.com ", "shallow"),
+                new CrawlBatchService.SiteRequest("https://b.com", null),
+                new CrawlBatchService.SiteRequest("https://a.com", "default")));
+
+        // Assert
+        verify(recrawlSchedule).enroll(eq("https://a.com"), eq("shallow"), any(LocalDateTime.class));
+        verify(recrawlSchedule).enroll(eq("https://b.com"), eq("default"), any(LocalDateTime.class));
+        verifyNoMoreInteractions(recrawlSchedule);
+        assertEquals(List.of("shallow", "default"), batch.getSites().stream().map(CrawlBatch.Site::profile).toList());
+        assertSame(batch, batchService.find(batch.getId()).orElseThrow());
+    }
+
+    @Test
+    void testSubmit_RejectsInvalidSitesBeforeEnrollingAny() {
+        // Arrange
+        when(crawlProfiles.resolve("huge")).thenThrow(new IllegalArgumentException("Unknown crawl profile 'huge'"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> batchService.submit(List.of()));
+        assertThrows(IllegalArgumentException.class,
+                () -> batchService.submit(List.of(site("https://a.com"), site("not a url"))));
+        assertThrows(IllegalArgumentException.class,
+                () -> batchService.submit(List.of(site("https://a.com"), site("ftp://b.com"))));
+        assertThrows(IllegalArgumentException.class, () -> batchService.submit(List.of(
+                site("https://a.com"), new CrawlBatchService.SiteRequest("https://b.com", "huge"))));
+        verifyNoInteractions(recrawlSchedule, jobService);
+        assertTrue(batchService.list().isEmpty());
+    }
+
+    @Test
+    void testCancel_DropsWaitingSitesAndCancelsRunningCrawls() {
+        // Arrange
+        when(jobService.cancel(anyString())).thenAnswer(invocation -> {
+            CrawlJob job = started.stream()
+                    .filter(j -> j.getId().equals(invocation.getArgument(0)))
+                    .findFirst().orElseThrow();
+            if (job.cancel(LocalDateTime.now())) {
+                job.notifyFinished();
+            }
+            return Optional.of(job);
+        });
+        CrawlBatch batch = batchService.submit(List.of(
+                site("https://a.com"), site("https://b.com"), site("https://c.com"), site("https://d.com")));
+        assertEquals(1, batchService.runningCount());
+
+        // Act
+        batchService.cancel(batch.getId());
+
+        // Assert
+        assertEquals(2, started.size());
+        assertEquals(CrawlBatch.Status.CANCELLED, batch.getStatus());
+        assertEquals(new CrawlBatch.Progress(4, 0, 0, 0, 0, 4, 0), batch.getProgress());
+        assertNotNull(batch.getFinishedAt());
+        assertEquals(0, batchService.runningCount());
+        assertEquals(Set.of("job-0", "job-1"), Set.copyOf(batch.getSites().stream()
+                .map(CrawlBatch.Site::jobId).filter(id -> id != null).toList()));
+        assertTrue(batchService.cancel("unknown").isEmpty());
+    }
+
+    private void finish(int index) {
+        CrawlJob job = started.get(index);
+        job.succeed(new MonitoringResult(Set.of(), Set.of(), Set.of()), LocalDateTime.now());
+        job.notifyFinished();
+    }
+
+    private static CrawlBatchService.SiteRequest site(String baseUrl) {
+        return new CrawlBatchService.SiteRequest(baseUrl, null);
+    }
+}
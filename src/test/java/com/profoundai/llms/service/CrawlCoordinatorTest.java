@@ -0,0 +1,378 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.repository.CrawlSnapshotRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CrawlCoordinatorTest {
+
+    @Mock
+    private LlmsTxtMonitoringService monitoringService;
+
+    @Mock
+    private CrawlSnapshotRepository snapshotRepository;
+
+    private HostCircuitBreaker circuitBreaker;
+
+    private CrawlEventHub eventHub;
+
+    private CrawlCoordinator coordinator;
+
+    private String baseUrl;
+    private MonitoringResult result;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreaker = new HostCircuitBreaker(2, 60_000, 3_600_000);
+        eventHub = new CrawlEventHub(100);
+        coordinator = new CrawlCoordinator(monitoringService, snapshotRepository, circuitBreaker, eventHub, 0);
+        baseUrl = "https://example.com";
+        result = new MonitoringResult(new HashSet<>(Set.of("https://example.com/page1")), Set.of(), Set.of());
+    }
+
+    @Test
+    void testCrawlAndUpdate_DelegatesToMonitoringService() {
+        // Arrange
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenReturn(result);
+
+        // Act
+        MonitoringResult actual = coordinator.crawlAndUpdate(baseUrl);
+
+        // Assert
+        assertSame(result, actual);
+        assertFalse(coordinator.isCrawling(baseUrl));
+        verify(monitoringService).crawlAndUpdate(eq(baseUrl), any(CrawlListener.class));
+        verifyNoInteractions(snapshotRepository);
+    }
+
+    @Test
+    void testCrawlAndUpdate_ConcurrentCallersShareSingleCrawl() throws Exception {
+        // Arrange
+        CountDownLatch crawlStarted = new CountDownLatch(1);
+        CountDownLatch releaseCrawl = new CountDownLatch(1);
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            crawlStarted.countDown();
+            releaseCrawl.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            // Act
+            Future<MonitoringResult> leader = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl));
+            assertTrue(crawlStarted.await(5, TimeUnit.SECONDS));
+            assertTrue(coordinator.isCrawling(baseUrl));
+
+            List<FutureTask<MonitoringResult>> followers = List.of(
+                    new FutureTask<>(() -> coordinator.crawlAndUpdate(baseUrl)),
+                    new FutureTask<>(() -> coordinator.crawlAndUpdate(baseUrl)));
+            List<Thread> followerThreads = followers.stream().map(Thread::new).toList();
+            followerThreads.forEach(Thread::start);
+            // Followers park in join() on the leader's future before the crawl is released
+            for (Thread thread : followerThreads) {
+                long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+                while (thread.getState() != Thread.State.WAITING && System.nanoTime() < deadline) {
+                    Thread.onSpinWait();
+                }
+            }
+            releaseCrawl.countDown();
+
+            // Assert
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            for (FutureTask<MonitoringResult> follower : followers) {
+                assertSame(result, follower.get(5, TimeUnit.SECONDS));
+            }
+            verify(monitoringService, times(1)).crawlAndUpdate(eq(baseUrl), any(CrawlListener.class));
+            assertFalse(coordinator.isCrawling(baseUrl));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrawlAndUpdate_FailureIsNotCached() {
+        // Arrange
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class)))
+                .thenThrow(new RuntimeException("Crawl failed"))
+                .thenReturn(result);
+
+        // Act & Assert
+        RuntimeException exception = assertThrows(RuntimeException.class, () -> coordinator.crawlAndUpdate(baseUrl));
+        assertEquals("Crawl failed", exception.getMessage());
+        assertSame(result, coordinator.crawlAndUpdate(baseUrl));
+        verify(monitoringService, times(2)).crawlAndUpdate(eq(baseUrl), any(CrawlListener.class));
+    }
+
+    @Test
+    void testCrawlAndUpdate_FreshSnapshotSkipsCrawl() {
+        // Arrange
+        coordinator = new CrawlCoordinator(monitoringService, snapshotRepository, circuitBreaker, eventHub, 60_000);
+        when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
+                .thenReturn(Optional.of(new CrawlSnapshot(baseUrl, LocalDateTime.now().minusSeconds(10))));
+
+        // Act
+        MonitoringResult actual = coordinator.crawlAndUpdate(baseUrl);
+
+        // Assert
+        assertTrue(actual.getAddedUrls().isEmpty());
+        assertTrue(actual.getRemovedUrls().isEmpty());
+        assertTrue(actual.getModifiedUrls().isEmpty());
+        verify(monitoringService, never()).crawlAndUpdate(anyString(), any(CrawlListener.class));
+    }
+
+    @Test
+    void testCrawlAndUpdate_StaleSnapshotIsCrawled() {
+        // Arrange
+        coordinator = new CrawlCoordinator(monitoringService, snapshotRepository, circuitBreaker, eventHub, 60_000);
+        when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
+                .thenReturn(Optional.of(new CrawlSnapshot(baseUrl, LocalDateTime.now().minusMinutes(5))));
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenReturn(result);
+
+        // Act
+        MonitoringResult actual = coordinator.crawlAndUpdate(baseUrl);
+
+        // Assert
+        assertSame(result, actual);
+        verify(monitoringService).crawlAndUpdate(eq(baseUrl), any(CrawlListener.class));
+    }
+
+    @Test
+    void testCrawlAndUpdate_RepeatedFailuresOpenCircuit() {
+        // Arrange
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenThrow(new RuntimeException("down"));
+        assertThrows(RuntimeException.class, () -> coordinator.crawlAndUpdate(baseUrl));
+        assertThrows(RuntimeException.class, () -> coordinator.crawlAndUpdate(baseUrl));
+
+        // Act
+        CircuitOpenException ex = assertThrows(CircuitOpenException.class, () -> coordinator.crawlAndUpdate(baseUrl));
+
+        // Assert: the third call is refused without crawling
+        assertEquals("example.com", ex.getHost());
+        assertEquals(HostCircuitBreaker.State.OPEN, circuitBreaker.state(baseUrl));
+        verify(monitoringService, times(2)).crawlAndUpdate(eq(baseUrl), any(CrawlListener.class));
+        assertFalse(coordinator.isCrawling(baseUrl));
+    }
+
+    @Test
+    void testCrawlAndUpdate_SuccessResetsFailureCount() {
+        // Arrange
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class)))
+                .thenThrow(new RuntimeException("blip"))
+                .thenReturn(result)
+                .thenThrow(new RuntimeException("blip"));
+
+        // Act
+        assertThrows(RuntimeException.class, () -> coordinator.crawlAndUpdate(baseUrl));
+        coordinator.crawlAndUpdate(baseUrl);
+        assertThrows(RuntimeException.class, () -> coordinator.crawlAndUpdate(baseUrl));
+
+        // Assert: failures were not consecutive, so the circuit stays closed
+        assertEquals(HostCircuitBreaker.State.CLOSED, circuitBreaker.state(baseUrl));
+    }
+
+    @Test
+    void testCrawlAndUpdate_JoinerReceivesLeadersProgress() throws Exception {
+        // Arrange
+        CountDownLatch joined = new CountDownLatch(1);
+        CountDownLatch releaseCrawl = new CountDownLatch(1);
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            CrawlListener listener = invocation.getArgument(1);
+            joined.await(5, TimeUnit.SECONDS);
+            listener.pageFetched(baseUrl, 0);
+            releaseCrawl.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+        List<String> leaderEvents = new CopyOnWriteArrayList<>();
+        List<String> joinerEvents = new CopyOnWriteArrayList<>();
+        CrawlListener throwing = new CrawlListener() {
+            @Override
+            public void pageFetched(String url, int depth) {
+                throw new IllegalStateException("listener bug");
+            }
+        };
+
+        ExecutorService callers = Executors.newFixedThreadPool(3);
+        try {
+            // Act
+            Future<MonitoringResult> leader = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl, recording(leaderEvents)));
+            while (!coordinator.isCrawling(baseUrl)) {
+                Thread.onSpinWait();
+            }
+            Future<MonitoringResult> joiner = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl, recording(joinerEvents)));
+            Future<MonitoringResult> broken = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl, throwing));
+            Thread.sleep(100);
+            joined.countDown();
+            releaseCrawl.countDown();
+
+            // Assert
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            assertSame(result, joiner.get(5, TimeUnit.SECONDS));
+            assertSame(result, broken.get(5, TimeUnit.SECONDS));
+            assertEquals(List.of("fetched " + baseUrl), leaderEvents);
+            assertEquals(List.of("fetched " + baseUrl), joinerEvents);
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrawlAndUpdate_InterruptedJoinerStopsWaitingWithoutCancellingCrawl() throws Exception {
+        // Arrange
+        CountDownLatch releaseCrawl = new CountDownLatch(1);
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            releaseCrawl.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<MonitoringResult> leader = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl));
+            while (!coordinator.isCrawling(baseUrl)) {
+                Thread.onSpinWait();
+            }
+            Future<MonitoringResult> joiner = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl));
+            Thread.sleep(100);
+
+            // Act
+            joiner.cancel(true);
+            releaseCrawl.countDown();
+
+            // Assert
+            assertSame(result, leader.get(5, TimeUnit.SECONDS));
+            assertTrue(joiner.isCancelled());
+            assertEquals(HostCircuitBreaker.State.CLOSED, circuitBreaker.state(baseUrl));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrawlAndUpdate_CancelledLeaderLeavesCrawlToJoiner() throws Exception {
+        // Arrange
+        CountDownLatch releaseCrawl = new CountDownLatch(1);
+        AtomicBoolean crawlInterrupted = new AtomicBoolean();
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            try {
+                releaseCrawl.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                crawlInterrupted.set(true);
+                throw new CancellationException("cancelled");
+            }
+            return result;
+        });
+        ExecutorService callers = Executors.newFixedThreadPool(2);
+        try {
+            Future<MonitoringResult> leader = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl));
+            while (!coordinator.isCrawling(baseUrl)) {
+                Thread.onSpinWait();
+            }
+            Future<MonitoringResult> joiner = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl));
+            Thread.sleep(100);
+
+            // Act
+            leader.cancel(true);
+            Thread.sleep(100);
+            releaseCrawl.countDown();
+
+            // Assert
+            assertSame(result, joiner.get(5, TimeUnit.SECONDS));
+            assertTrue(leader.isCancelled());
+            assertFalse(crawlInterrupted.get());
+            verify(monitoringService, times(1)).crawlAndUpdate(eq(baseUrl), any(CrawlListener.class));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrawlAndUpdate_CancelledProbeReopensCircuit() throws Exception {
+        // Arrange: the circuit has opened and its 1 ms backoff has passed
+        circuitBreaker = new HostCircuitBreaker(1, 1, 1);
+        coordinator = new CrawlCoordinator(monitoringService, snapshotRepository, circuitBreaker, eventHub, 0);
+        circuitBreaker.recordFailure(baseUrl);
+        Thread.sleep(10);
+        CountDownLatch probeStarted = new CountDownLatch(1);
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            probeStarted.countDown();
+            try {
+                new CountDownLatch(1).await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                throw new CancellationException("cancelled");
+            }
+            return result;
+        });
+        ExecutorService callers = Executors.newSingleThreadExecutor();
+        try {
+            Future<MonitoringResult> probe = callers.submit(() -> coordinator.crawlAndUpdate(baseUrl));
+            assertTrue(probeStarted.await(5, TimeUnit.SECONDS));
+            assertEquals(HostCircuitBreaker.State.HALF_OPEN, circuitBreaker.state(baseUrl));
+
+            // Act: its only caller gives up, which cancels the crawl
+            probe.cancel(true);
+
+            // Assert
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (coordinator.isCrawling(baseUrl) || circuitBreaker.state(baseUrl) == HostCircuitBreaker.State.HALF_OPEN) {
+                assertTrue(System.nanoTime() < deadline, "probe was never recorded");
+                Thread.sleep(10);
+            }
+            assertEquals(HostCircuitBreaker.State.OPEN, circuitBreaker.state(baseUrl));
+            assertTrue(circuitBreaker.openUntil(baseUrl).isEmpty());
+            assertDoesNotThrow(() -> circuitBreaker.acquire(baseUrl));
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    @Test
+    void testCrawlAndUpdate_PublishesOneOutcomePerCrawl() throws Exception {
+        // Arrange
+        List<CrawlEvent> events = new CopyOnWriteArrayList<>();
+        eventHub.subscribe(baseUrl, events::add);
+        when(monitoringService.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class)))
+                .thenAnswer(invocation -> {
+                    CrawlListener listener = invocation.getArgument(1);
+                    listener.pageFetched(baseUrl, 0);
+                    return result;
+                })
+                .thenThrow(new RuntimeException("down"));
+
+        // Act
+        coordinator.crawlAndUpdate(baseUrl);
+        assertThrows(RuntimeException.class, () -> coordinator.crawlAndUpdate(baseUrl));
+
+        // Assert
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(List.of(CrawlEvent.Type.FETCHED, CrawlEvent.Type.RESULT, CrawlEvent.Type.CRAWL_FAILED),
+                events.stream().map(CrawlEvent::type).toList());
+        assertSame(result, events.get(1).result());
+        assertEquals("down", events.get(2).detail());
+    }
+
+    private static CrawlListener recording(List<String> events) {
+        return new CrawlListener() {
+            @Override
+            public void pageFetched(String url, int depth) {
+                events.add("fetched " + url);
+            }
+        };
+    }
+}
@@ -0,0 +1,175 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlEventHubTest {
+
+    private CrawlEventHub hub;
+
+    private final String baseUrl = "https://example.com";
+
+    @BeforeEach
+    void setUp() {
+        hub = new CrawlEventHub(100);
+    }
+
+    @AfterEach
+    void tearDown() {
+        hub.shutdown();
+    }
+
+    @Test
+    void testListenerFor_PublishesPageEventsInOrder() throws Exception {
+        // Arrange
+        List<CrawlEvent> events = new CopyOnWriteArrayList<>();
+        hub.subscribe(baseUrl, events::add);
+        CrawlListener listener = hub.listenerFor(baseUrl);
+        MonitoringResult result = new MonitoringResult(Set.of(baseUrl), Set.of(), Set.of());
+
+        // Act
+        listener.pageFetched(baseUrl, 0);
+        listener.pageRendered(baseUrl);
+        listener.pageCrawled(new CrawlService.PageInfo(baseUrl, "Home", null, "h1", PageType.PAGE));
+        listener.urlsQueued(1, 2);
+        listener.pageSkipped("https://other.com", "different host");
+        listener.pageFailed("https://example.com/broken", "404");
+        hub.publishResult(baseUrl, result);
+
+        // Assert
+        awaitSize(events, 7);
+        assertEquals(List.of(CrawlEvent.Type.FETCHED, CrawlEvent.Type.RENDERED, CrawlEvent.Type.HASHED,
+                        CrawlEvent.Type.QUEUED, CrawlEvent.Type.SKIPPED, CrawlEvent.Type.PAGE_FAILED,
+                        CrawlEvent.Type.RESULT),
+                events.stream().map(CrawlEvent::type).toList());
+        assertEquals("h1", events.get(2).contentHash());
+        assertEquals(2, events.get(3).count());
+        assertEquals("different host", events.get(4).detail());
+        assertSame(result, events.get(6).result());
+        assertEquals("page-failed", CrawlEvent.Type.PAGE_FAILED.eventName());
+    }
+
+    @Test
+    void testSubscribe_FiltersBySite() throws Exception {
+        // Arrange
+        List<CrawlEvent> mine = new CopyOnWriteArrayList<>();
+        List<CrawlEvent> all = new CopyOnWriteArrayList<>();
+        hub.subscribe(baseUrl, mine::add);
+        hub.subscribe(null, all::add);
+
+        // Act
+        hub.publishFailure("https://other.com", "down");
+        hub.publishFailure(baseUrl, "down");
+
+        // Assert
+        awaitSize(all, 2);
+        awaitSize(mine, 1);
+        assertEquals(baseUrl, mine.get(0).baseUrl());
+        assertEquals(CrawlEvent.Type.CRAWL_FAILED, mine.get(0).type());
+    }
+
+    @Test
+    void testSubscription_CancelAndFailingSinkStopDelivery() throws Exception {
+        // Arrange
+        List<CrawlEvent> events = new CopyOnWriteArrayList<>();
+        CrawlEventHub.Subscription subscription = hub.subscribe(null, events::add);
+        hub.subscribe(null, event -> {
+            throw new IllegalStateException("client gone");
+        });
+
+        // Act
+        hub.publishFailure(baseUrl, "first");
+        awaitSize(events, 1);
+        subscription.cancel();
+        hub.publishFailure(baseUrl, "second");
+
+        // Assert
+        Thread.sleep(100);
+        assertEquals(1, events.size());
+        assertEquals(0, hub.subscriberCount());
+    }
+
+    @Test
+    void testPublish_SlowSubscriberDoesNotBlockCrawl() throws Exception {
+        // Arrange: a subscriber stuck on its first event, with room for 100 more
+        CountDownLatch release = new CountDownLatch(1);
+        List<CrawlEvent> events = new CopyOnWriteArrayList<>();
+        hub.subscribe(null, event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        });
+        CrawlListener listener = hub.listenerFor(baseUrl);
+
+        // Act
+        long start = System.nanoTime();
+        for (int i = 0; i < 1_000; i++) {
+            listener.pageFetched(baseUrl + "/" + i, 1);
+        }
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        release.countDown();
+
+        // Assert: overflow is dropped instead of waited for, oldest first
+        assertTrue(elapsedMs < 1_000, "publishing took " + elapsedMs + " ms");
+        Thread.sleep(200);
+        assertTrue(events.size() <= 101, "delivered " + events.size());
+        assertEquals(baseUrl + "/999", events.get(events.size() - 1).url());
+    }
+
+    @Test
+    void testPublish_OverflowDropsOldestPageEventsButNeverResults() throws Exception {
+        // Arrange: a subscriber stuck on its first event, with room for 3 more
+        hub = new CrawlEventHub(3);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CrawlEvent> events = new CopyOnWriteArrayList<>();
+        CrawlEventHub.Subscription subscription = hub.subscribe(null, event -> {
+            try {
+                release.await(5, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            events.add(event);
+        });
+        CrawlListener listener = hub.listenerFor(baseUrl);
+        MonitoringResult result = new MonitoringResult(Set.of(), Set.of(), Set.of());
+        CountDownLatch delivered = new CountDownLatch(1);
+
+        // Act
+        listener.pageFetched(baseUrl + "/0", 1);
+        Thread.sleep(50);
+        for (int i = 1; i <= 5; i++) {
+            listener.pageFetched(baseUrl + "/" + i, 1);
+        }
+        hub.publishResult(baseUrl, result);
+        hub.publishFailure(baseUrl, "down");
+        listener.pageFetched(baseUrl + "/6", 1);
+        subscription.afterDelivered(delivered::countDown);
+        release.countDown();
+
+        // Assert: the first event was already out, the queue kept the finals and the newest pages
+        assertTrue(delivered.await(5, TimeUnit.SECONDS));
+        assertEquals(List.of(baseUrl + "/0", "result", "crawl-failed", baseUrl + "/6"),
+                events.stream().map(e -> e.url() != null ? e.url() : e.type().eventName()).toList());
+    }
+
+    private static void awaitSize(List<CrawlEvent> events, int size) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (events.size() < size && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(size, events.size());
+    }
+}
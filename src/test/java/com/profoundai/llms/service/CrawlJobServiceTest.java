@@ -0,0 +1,202 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CrawlJobServiceTest {
+
+    @Mock
+    private CrawlCoordinator crawlCoordinator;
+
+    private CrawlJobService jobService;
+
+    private final String baseUrl = "https://example.com";
+    private final MonitoringResult result =
+            new MonitoringResult(Set.of("https://example.com/page1"), Set.of(), Set.of());
+
+    @BeforeEach
+    void setUp() {
+        jobService = new CrawlJobService(crawlCoordinator, 2, 3_600_000);
+    }
+
+    @AfterEach
+    void tearDown() {
+        jobService.shutdown();
+    }
+
+    @Test
+    void testSubmit_ReturnsBeforeCrawlFinishesAndReportsProgress() throws Exception {
+        // Arrange
+        CountDownLatch release = new CountDownLatch(1);
+        when(crawlCoordinator.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            CrawlListener listener = invocation.getArgument(1);
+            listener.pageFetched(baseUrl, 0);
+            listener.pageCrawled(new CrawlService.PageInfo(baseUrl, "Home", null, "h1", PageType.PAGE));
+            listener.urlsQueued(1, 3);
+            listener.pageFailed("https://example.com/broken", "404");
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+
+        // Act
+        CrawlJob job = jobService.submit(baseUrl);
+
+        // Assert: running with live progress, then done with the result
+        awaitProgress(job, 1);
+        assertEquals(CrawlJob.Status.RUNNING, job.getStatus());
+        assertEquals(new CrawlJob.Progress(3, 1, 1, 1), job.getProgress());
+        assertNull(job.result());
+
+        release.countDown();
+        awaitFinished(job);
+        assertEquals(CrawlJob.Status.SUCCEEDED, job.getStatus());
+        assertSame(result, job.result());
+        assertNotNull(job.getFinishedAt());
+        assertSame(job, jobService.find(job.getId()).orElseThrow());
+    }
+
+    @Test
+    void testSubmit_FailedCrawlKeepsError() throws Exception {
+        // Arrange
+        when(crawlCoordinator.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class)))
+                .thenThrow(new RuntimeException("Failed to crawl " + baseUrl));
+
+        // Act
+        CrawlJob job = jobService.submit(baseUrl);
+        awaitFinished(job);
+
+        // Assert
+        assertEquals(CrawlJob.Status.FAILED, job.getStatus());
+        assertEquals("Failed to crawl " + baseUrl, job.getError());
+        assertNull(job.result());
+    }
+
+    @Test
+    void testCancel_InterruptsRunningCrawl() throws Exception {
+        // Arrange
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+        when(crawlCoordinator.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            started.countDown();
+            try {
+                Thread.sleep(10_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+                throw new CancellationException("cancelled");
+            }
+            return result;
+        });
+        CrawlJob job = jobService.submit(baseUrl);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        // Act
+        CrawlJob cancelled = jobService.cancel(job.getId()).orElseThrow();
+
+        // Assert
+        assertSame(job, cancelled);
+        assertEquals(CrawlJob.Status.CANCELLED, job.getStatus());
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertNull(job.result());
+    }
+
+    @Test
+    void testCancel_QueuedJobNeverRuns() throws Exception {
+        // Arrange: one worker, busy with the first job
+        jobService.shutdown();
+        jobService = new CrawlJobService(crawlCoordinator, 1, 3_600_000);
+        CountDownLatch release = new CountDownLatch(1);
+        when(crawlCoordinator.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return result;
+        });
+        CrawlJob first = jobService.submit(baseUrl);
+        CrawlJob queued = jobService.submit("https://other.com");
+
+        // Act
+        jobService.cancel(queued.getId());
+        release.countDown();
+        awaitFinished(first);
+
+        // Assert
+        assertEquals(CrawlJob.Status.CANCELLED, queued.getStatus());
+        assertNull(queued.getStartedAt());
+        verify(crawlCoordinator, never()).crawlAndUpdate(eq("https://other.com"), any(CrawlListener.class));
+    }
+
+    @Test
+    void testCancel_FinishedJobIsUnchanged() throws Exception {
+        // Arrange
+        when(crawlCoordinator.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenReturn(result);
+        CrawlJob job = jobService.submit(baseUrl);
+        awaitFinished(job);
+
+        // Act
+        jobService.cancel(job.getId());
+
+        // Assert
+        assertEquals(CrawlJob.Status.SUCCEEDED, job.getStatus());
+        assertTrue(jobService.cancel("unknown").isEmpty());
+    }
+
+    @Test
+    void testSubmit_CallsCompletionCallbackOnce() throws Exception {
+        // Arrange
+        when(crawlCoordinator.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenReturn(result);
+        List<CrawlJob> finished = new CopyOnWriteArrayList<>();
+
+        // Act
+        CrawlJob job = jobService.submit(baseUrl, finished::add);
+        awaitFinished(job);
+        jobService.cancel(job.getId());
+
+        // Assert
+        Thread.sleep(50);
+        assertEquals(List.of(job), finished);
+    }
+
+    @Test
+    void testList_ForgetsJobsAfterRetention() throws Exception {
+        // Arrange
+        jobService.shutdown();
+        jobService = new CrawlJobService(crawlCoordinator, 1, 0);
+        when(crawlCoordinator.crawlAndUpdate(eq(baseUrl), any(CrawlListener.class))).thenReturn(result);
+        CrawlJob job = jobService.submit(baseUrl);
+        awaitFinished(job);
+        Thread.sleep(5);
+
+        // Act & Assert
+        assertTrue(jobService.list().isEmpty());
+        assertTrue(jobService.find(job.getId()).isEmpty());
+    }
+
+    private static void awaitFinished(CrawlJob job) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (!job.getStatus().isFinished() && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertTrue(job.getStatus().isFinished(), "job did not finish: " + job.getStatus());
+    }
+
+    private static void awaitProgress(CrawlJob job, int pagesFailed) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (job.getProgress().pagesFailed() < pagesFailed && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlMetricsTest {
+
+    private SimpleMeterRegistry registry;
+    private CrawlMetrics metrics;
+
+    @BeforeEach
+    void setUp() {
+        registry = new SimpleMeterRegistry();
+        metrics = new CrawlMetrics(registry);
+    }
+
+    @Test
+    void testRecordFetch_TagsBySiteHostAndPageType() {
+        // Arrange
+        String site = CrawlMetrics.siteOf("https://Example.com/docs");
+
+        // Act
+        metrics.recordFetch(site, "https://example.com/a", PageType.PAGE, TimeUnit.MILLISECONDS.toNanos(40), 2_000);
+        metrics.recordFetch(site, "https://cdn.example.net/app.js", PageType.STATIC_ASSET,
+                TimeUnit.MILLISECONDS.toNanos(10), 500);
+        metrics.recordFetchFailure(site, "https://example.com/b", PageType.PAGE, TimeUnit.MILLISECONDS.toNanos(5));
+
+        // Assert
+        Timer pages = registry.get("llms.crawl.fetch")
+                .tags("site", "example.com", "host", "example.com", "page.type", "page", "outcome", "success")
+                .timer();
+        assertEquals(1, pages.count());
+        assertEquals(40, pages.totalTime(TimeUnit.MILLISECONDS), 0.001);
+        assertEquals(1, registry.get("llms.crawl.fetch")
+                .tags("host", "cdn.example.net", "page.type", "static_asset").timer().count());
+        assertEquals(1, registry.get("llms.crawl.fetch").tags("outcome", "error").timer().count());
+        assertEquals(2_500, registry.get("llms.crawl.fetch.bytes").tags("site", "example.com")
+                .summaries().stream().mapToDouble(summary -> summary.totalAmount()).sum(), 0.001);
+    }
+
+    @Test
+    void testRecordCsrCheckAndRender_ExposeHitRateAndOutcome() {
+        // Act
+        metrics.recordCsrCheck("example.com", true);
+        metrics.recordCsrCheck("example.com", false);
+        metrics.recordCsrCheck("example.com", false);
+        metrics.recordRender("example.com", CrawlMetrics.RenderOutcome.NOT_RICHER, TimeUnit.SECONDS.toNanos(2));
+
+        // Assert
+        assertEquals(1, registry.get("llms.crawl.csr.checks").tags("csr", "true").counter().count());
+        assertEquals(2, registry.get("llms.crawl.csr.checks").tags("csr", "false").counter().count());
+        assertEquals(1, registry.get("llms.crawl.render").tags("outcome", "not_richer").timer().count());
+    }
+
+    @Test
+    void testRecordCrawl_SkipsPageCountWhenCrawlDidNotFinish() {
+        // Act
+        metrics.recordCrawl("example.com", "success", TimeUnit.SECONDS.toNanos(3), 12);
+        metrics.recordCrawl("example.com", "cancelled", TimeUnit.SECONDS.toNanos(1), -1);
+
+        // Assert
+        assertEquals(1, registry.get("llms.crawl").tags("outcome", "success").timer().count());
+        assertEquals(1, registry.get("llms.crawl").tags("outcome", "cancelled").timer().count());
+        assertEquals(1, registry.get("llms.crawl.pages").summary().count());
+        assertEquals(12, registry.get("llms.crawl.pages").summary().totalAmount(), 0.001);
+    }
+
+    @Test
+    void testMonitorPool_PublishesQueueDepthAndActiveWorkers() {
+        // Arrange
+        ExecutorService pool = Executors.newFixedThreadPool(2);
+
+        try {
+            // Act
+            CrawlMetrics.monitorPool(registry, pool, "llms.jobs");
+
+            // Assert
+            assertEquals(0, registry.get("executor.queued").tags("name", "llms.jobs").gauge().value());
+            assertEquals(0, registry.get("executor.active").tags("name", "llms.jobs").gauge().value());
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
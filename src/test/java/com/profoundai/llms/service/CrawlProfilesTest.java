@@ -0,0 +1,58 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.MonitoredSite;
+import com.profoundai.llms.repository.MonitoredSiteRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class CrawlProfilesTest {
+
+    @Mock
+    private MonitoredSiteRepository siteRepository;
+
+    private CrawlProfiles profiles;
+
+    @BeforeEach
+    void setUp() {
+        profiles = new CrawlProfiles(siteRepository, Map.of(
+                "shallow", new CrawlProfiles.Limits(10, 1),
+                "deep", new CrawlProfiles.Limits(null, 6)));
+    }
+
+    @Test
+    void testResolve_ConfiguredProfilesFallBackToDefaultLimits() {
+        // Act & Assert
+        assertSame(CrawlProfile.DEFAULT, profiles.resolve("default"));
+        assertEquals(new CrawlProfile("shallow", 10, 1), profiles.resolve("shallow"));
+        assertEquals(new CrawlProfile("deep", 100, 6), profiles.resolve("deep"));
+        assertThrows(IllegalArgumentException.class, () -> profiles.resolve("huge"));
+    }
+
+    @Test
+    void testForSite_UsesMonitoredSiteProfile() {
+        // Arrange
+        MonitoredSite shallowSite = new MonitoredSite("https://a.com", 60_000, LocalDateTime.now());
+        shallowSite.setCrawlProfile("shallow");
+        MonitoredSite removedProfileSite = new MonitoredSite("https://b.com", 60_000, LocalDateTime.now());
+        removedProfileSite.setCrawlProfile("retired");
+        when(siteRepository.findByBaseUrl("https://a.com")).thenReturn(Optional.of(shallowSite));
+        when(siteRepository.findByBaseUrl("https://b.com")).thenReturn(Optional.of(removedProfileSite));
+        when(siteRepository.findByBaseUrl("https://new.com")).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertEquals("shallow", profiles.forSite("https://a.com").name());
+        assertSame(CrawlProfile.DEFAULT, profiles.forSite("https://b.com"));
+        assertSame(CrawlProfile.DEFAULT, profiles.forSite("https://new.com"));
+    }
+}
@@ -1,18 +1,41 @@
 package com.profoundai.llms.service;
 
+import com.profoundai.llms.entity.CrawlReport;
 import com.profoundai.llms.entity.PageType;
+import com.profoundai.llms.service.archive.CrawlArchive;
+import org.jsoup.Jsoup;
+import org.jsoup.nodes.Document;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.lang.reflect.Method;
+import java.time.Clock;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.*;
 
 @ExtendWith(MockitoExtension.class)
 class CrawlServiceImplTest {
 
+    @Mock
+    private PageContentStore contentStore;
+
+    @Mock
+    private CrawlMetrics metrics;
+
+    @Spy
+    private CrawlArchive archive = new CrawlArchive("off", "unused");
+
+    @Spy
+    private HttpResponseCache responseCache = new HttpResponseCache(false, "unused", 1, 0);
+
+    @Spy
+    private PolitenessScheduler politeness = new PolitenessScheduler(0, 1, true, 30_000, 5, 100, 60_000, Clock.systemUTC());
+
     @InjectMocks
     private CrawlServiceImpl crawlService;
 
@@ -230,16 +253,102 @@ class CrawlServiceImplTest {
         assertNull(result); // Invalid URI format, so normalization returns null
     }
 
-    // Note: Testing the actual crawl() method with real HTTP connections would require:
-    // 1. A mock HTTP server (like WireMock) - would need to add dependency
-    // 2. Or actual internet access and real URLs (integration test)
-    // 3. Or refactoring to inject a connection factory for better testability
-    
-    // For now, we test:
-    // - URL normalization logic (all edge cases)
-    // - SHA-256 hash calculation (consistency and correctness)
-    // - Data structure validation (CrawlResult, PageInfo)
-    // - Error handling for invalid URLs
-    // - Integration tests with real URLs would be in a separate test class
-}
+    @Test
+    void testDiscoverLinks_ResolvesAndSkipsStaticAssets() {
+        // Arrange
+        Document doc = Jsoup.parse("<a href=\"/guide#intro\">Guide</a><a href=\"app.js\">JS</a>"
+                + "<a href=\"https://other.com/x\">Other</a>", "https://example.com/docs/");
+
+        // Act
+        List<CrawlServiceImpl.UrlDepth> links = crawlService.discoverLinks(doc, 1, () -> false);
+
+        // Assert
+        assertEquals(List.of("https://example.com/guide", "https://other.com/x"),
+                links.stream().map(link -> link.url).toList());
+        assertTrue(links.stream().allMatch(link -> link.depth == 2));
+    }
+
+    @Test
+    void testDiscoverLinks_StopsOnceLimitReached() {
+        // Arrange
+        Document doc = Jsoup.parse("<a href=\"/a\">A</a><a href=\"/b\">B</a>", "https://example.com/");
+
+        // Act & Assert
+        assertTrue(crawlService.discoverLinks(doc, 0, () -> true).isEmpty());
+    }
 
+    @Test
+    void testCrawl_SyntheticSiteCrawledCompletely() throws Exception {
+        // Arrange: 1 + 3 + 9 + 27 pages sharing two script assets
+        try (SyntheticSite site = SyntheticSite.start(
+                new SyntheticSite.Spec(40, 3, 3, 8 * 1024, 0, 0, 0, 0, 1, 2, 0, 7))) {
+
+            // Act
+            CrawlService.CrawlResult result = crawlService.crawl(site.baseUrl(),
+                    new CrawlProfile("test", 1000, 3), CrawlListener.NONE);
+
+            // Assert
+            assertEquals(40, result.getPages().stream().filter(p -> p.getPageType() == PageType.PAGE).count());
+            assertEquals(2, result.getPages().stream().filter(p -> p.getPageType() == PageType.STATIC_ASSET).count());
+            assertEquals(42, result.getPages().stream().map(CrawlService.PageInfo::getUrl).distinct().count());
+            assertEquals(CrawlReport.StopReason.COMPLETED, result.getStats().getStopReason());
+        }
+    }
+
+    @Test
+    void testCrawl_SyntheticSiteStopsAtPageLimit() throws Exception {
+        // Arrange
+        try (SyntheticSite site = SyntheticSite.start(
+                new SyntheticSite.Spec(200, 5, 3, 8 * 1024, 0, 0, 0, 0, 0, 1, 0, 7))) {
+
+            // Act
+            CrawlService.CrawlResult result = crawlService.crawl(site.baseUrl(),
+                    new CrawlProfile("test", 20, 3), CrawlListener.NONE);
+
+            // Assert
+            assertEquals(20, result.getPages().size());
+            assertEquals(CrawlReport.StopReason.MAX_PAGES, result.getStats().getStopReason());
+        }
+    }
+
+    @Test
+    void testCrawl_PageLimitLeavesNoSlotsTaken() throws Exception {
+        // Arrange: 20 requests a second, one at a time, and 20 links on the home page
+        PolitenessScheduler paced = new PolitenessScheduler(20, 1, false, 30_000, 5, 100, 60_000, Clock.systemUTC());
+        CrawlServiceImpl service = new CrawlServiceImpl(contentStore, metrics, archive, responseCache, paced);
+        try (SyntheticSite site = SyntheticSite.start(
+                new SyntheticSite.Spec(200, 20, 2, 8 * 1024, 0, 0, 0, 0, 0, 1, 0, 7))) {
+
+            // Act
+            CrawlService.CrawlResult result = service.crawl(site.baseUrl(), new CrawlProfile("test", 5, 2),
+                    CrawlListener.NONE);
+            long nextWaitMs = paced.tryAcquire(HostCircuitBreaker.hostOf(site.baseUrl()), System.currentTimeMillis());
+
+            // Assert: the 15 pages left unfetched hold no slots, so the next request waits one interval at most
+            assertEquals(5, result.getPages().size());
+            assertTrue(nextWaitMs <= 50, "next request waits " + nextWaitMs + " ms");
+        } finally {
+            service.shutdown();
+            paced.shutdown();
+        }
+    }
+
+    @Test
+    void testCrawl_ThrottledPagesAreRequeuedUntilCrawled() throws Exception {
+        // Arrange: a site that answers 429 with Retry-After beyond 15 requests a second
+        try (SyntheticSite site = SyntheticSite.start(
+                new SyntheticSite.Spec(40, 3, 3, 8 * 1024, 0, 0, 0, 0, 1, 2, 0, 7))) {
+            site.limitRate(15);
+
+            // Act
+            CrawlService.CrawlResult result = crawlService.crawl(site.baseUrl(),
+                    new CrawlProfile("test", 1000, 3), CrawlListener.NONE);
+
+            // Assert: every page and asset made it despite the throttling
+            assertTrue(site.throttledRequests() > 0);
+            assertEquals(40, result.getPages().stream().filter(p -> p.getPageType() == PageType.PAGE).count());
+            assertEquals(2, result.getPages().stream().filter(p -> p.getPageType() == PageType.STATIC_ASSET).count());
+            assertEquals(CrawlReport.StopReason.COMPLETED, result.getStats().getStopReason());
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.CrawlReport;
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CrawlStatsTest {
+
+    @Test
+    void testToReport_KeepsSlowestPagesByFetchPlusRenderTime() {
+        // Arrange
+        CrawlStats stats = new CrawlStats("shallow");
+        stats.timed("https://example.com/", PageType.PAGE, ms(100), 0);
+        stats.timed("https://example.com/app", PageType.PAGE, ms(50), ms(900));
+        stats.timed("https://example.com/main.js", PageType.STATIC_ASSET, ms(300), 0);
+        stats.timed("https://example.com/fast", PageType.PAGE, ms(5), 0);
+
+        // Act
+        CrawlReport report = stats.toReport(snapshot(), 3);
+
+        // Assert
+        assertEquals(List.of(
+                        new CrawlReport.PageTiming("https://example.com/app", PageType.PAGE, 50, 900),
+                        new CrawlReport.PageTiming("https://example.com/main.js", PageType.STATIC_ASSET, 300, 0),
+                        new CrawlReport.PageTiming("https://example.com/", PageType.PAGE, 100, 0)),
+                report.getSlowestPages());
+        assertEquals("shallow", report.getCrawlProfile());
+        assertEquals(7L, report.getSnapshotId());
+    }
+
+    @Test
+    void testToReport_SumsStagesAndCounts() {
+        // Arrange
+        CrawlStats stats = new CrawlStats("default");
+        stats.fetched(PageType.PAGE, ms(40), 2_000);
+        stats.fetched(PageType.PAGE, ms(60), 3_000);
+        stats.fetched(PageType.STATIC_ASSET, ms(10), 500);
+        stats.rendered(ms(800), true);
+        stats.rendered(ms(700), false);
+        stats.parsed(ms(4));
+        stats.hashed(ms(1));
+        stats.skipped();
+        stats.skipped();
+        stats.failed();
+        stats.persisted(ms(12));
+        stats.diffed(ms(3));
+        stats.generated(ms(20));
+        stats.stopped(CrawlReport.StopReason.MAX_PAGES);
+
+        // Act
+        CrawlReport report = stats.toReport(snapshot(), 10);
+
+        // Assert
+        assertEquals(new CrawlReport.Stages(110, 1_500, 4, 1, 12, 3, 20), report.getStages());
+        assertEquals(new CrawlReport.Counts(5_500, 2, 1, 2, 1, 2, 1), report.getCounts());
+        assertEquals(CrawlReport.StopReason.MAX_PAGES, report.getStopReason());
+        assertTrue(report.getWallTimeMs() >= 0);
+    }
+
+    private static CrawlSnapshot snapshot() {
+        CrawlSnapshot snapshot = new CrawlSnapshot("https://example.com", LocalDateTime.now());
+        try {
+            var idField = CrawlSnapshot.class.getDeclaredField("id");
+            idField.setAccessible(true);
+            idField.set(snapshot, 7L);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException(e);
+        }
+        return snapshot;
+    }
+
+    private static long ms(long millis) {
+        return TimeUnit.MILLISECONDS.toNanos(millis);
+    }
+}
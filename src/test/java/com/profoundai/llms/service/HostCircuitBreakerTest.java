@@ -0,0 +1,180 @@
+package com.profoundai.llms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HostCircuitBreakerTest {
+
+    private static final long BASE = 60_000;
+    private static final long MAX = 240_000;
+
+    private MutableClock clock;
+    private HostCircuitBreaker breaker;
+
+    private final String baseUrl = "https://Down.example.com/docs";
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-11-30T12:00:00Z"));
+        breaker = new HostCircuitBreaker(3, BASE, MAX, clock);
+    }
+
+    @Test
+    void testAcquire_UnknownHostIsAllowed() {
+        assertDoesNotThrow(() -> breaker.acquire(baseUrl));
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.state(baseUrl));
+        assertTrue(breaker.states().isEmpty());
+    }
+
+    @Test
+    void testRecordFailure_OpensAfterThreshold() {
+        // Arrange
+        breaker.recordFailure(baseUrl);
+        breaker.recordFailure(baseUrl);
+        assertDoesNotThrow(() -> breaker.acquire(baseUrl));
+
+        // Act
+        breaker.recordFailure(baseUrl);
+
+        // Assert
+        CircuitOpenException ex = assertThrows(CircuitOpenException.class, () -> breaker.acquire(baseUrl));
+        assertEquals("down.example.com", ex.getHost());
+        assertEquals(now().plusMinutes(1), ex.getRetryAt());
+        assertEquals(now().plusMinutes(1), breaker.openUntil(baseUrl).orElseThrow());
+    }
+
+    @Test
+    void testBreaker_IsSharedByAllUrlsOfAHost() {
+        // Act
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure("https://down.example.com/");
+        }
+
+        // Assert
+        assertThrows(CircuitOpenException.class, () -> breaker.acquire(baseUrl));
+        assertDoesNotThrow(() -> breaker.acquire("https://up.example.com"));
+    }
+
+    @Test
+    void testAcquire_AllowsSingleProbeAfterBackoff() {
+        // Arrange
+        open();
+        clock.advance(Duration.ofMillis(BASE));
+
+        // Act & Assert: the first caller probes, others are refused until it is recorded
+        assertDoesNotThrow(() -> breaker.acquire(baseUrl));
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, breaker.state(baseUrl));
+        assertThrows(CircuitOpenException.class, () -> breaker.acquire(baseUrl));
+
+        breaker.recordSuccess(baseUrl);
+        assertEquals(HostCircuitBreaker.State.CLOSED, breaker.state(baseUrl));
+        assertDoesNotThrow(() -> breaker.acquire(baseUrl));
+        assertTrue(breaker.states().isEmpty());
+    }
+
+    @Test
+    void testCancelledProbe_ReopensWithoutNewBackoff() {
+        // Arrange
+        open();
+        clock.advance(Duration.ofMillis(BASE));
+        breaker.acquire(baseUrl);
+
+        // Act
+        breaker.recordCancelled(baseUrl);
+
+        // Assert: open again, but the next crawl may probe straight away
+        assertEquals(HostCircuitBreaker.State.OPEN, breaker.state(baseUrl));
+        assertTrue(breaker.openUntil(baseUrl).isEmpty());
+        assertDoesNotThrow(() -> breaker.acquire(baseUrl));
+        assertEquals(HostCircuitBreaker.State.HALF_OPEN, breaker.state(baseUrl));
+    }
+
+    @Test
+    void testFailedProbe_DoublesBackoffUpToMax() {
+        // Arrange
+        open();
+
+        // Act & Assert: 1, 2, 4 minutes, then capped at 4
+        long[] expected = {BASE * 2, BASE * 4, MAX, MAX};
+        for (long backoff : expected) {
+            clock.advance(Duration.ofMillis(MAX));
+            breaker.acquire(baseUrl);
+            breaker.recordFailure(baseUrl);
+            assertEquals(now().plus(Duration.ofMillis(backoff)), breaker.openUntil(baseUrl).orElseThrow());
+        }
+    }
+
+    @Test
+    void testStates_ListsOpenCircuitsFirst() {
+        // Arrange
+        open();
+        breaker.recordFailure("https://flaky.example.com");
+
+        // Act
+        List<HostCircuitBreaker.HostState> states = breaker.states();
+
+        // Assert
+        assertEquals(2, states.size());
+        assertEquals("down.example.com", states.get(0).host());
+        assertEquals(HostCircuitBreaker.State.OPEN, states.get(0).state());
+        assertEquals(3, states.get(0).consecutiveFailures());
+        assertEquals(1, states.get(0).openCount());
+        assertEquals(now(), states.get(0).openedAt());
+        assertEquals(now().plusMinutes(1), states.get(0).retryAt());
+        assertEquals(HostCircuitBreaker.State.CLOSED, states.get(1).state());
+        assertNull(states.get(1).retryAt());
+    }
+
+    @Test
+    void testConstructor_RejectsInvalidSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new HostCircuitBreaker(0, BASE, MAX, clock));
+        assertThrows(IllegalArgumentException.class, () -> new HostCircuitBreaker(3, BASE, BASE - 1, clock));
+    }
+
+    private void open() {
+        for (int i = 0; i < 3; i++) {
+            breaker.recordFailure(baseUrl);
+        }
+    }
+
+    private LocalDateTime now() {
+        return LocalDateTime.now(clock);
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
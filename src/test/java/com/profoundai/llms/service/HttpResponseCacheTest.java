@@ -0,0 +1,230 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class HttpResponseCacheTest {
+
+    private static final String URL = "https://example.com/docs";
+
+    @TempDir
+    Path dir;
+
+    private MutableClock clock;
+    private StubNetwork network;
+
+    @BeforeEach
+    void setUp() {
+        clock = new MutableClock(Instant.parse("2025-11-30T12:00:00Z"));
+        network = new StubNetwork();
+    }
+
+    @Test
+    void testExchange_ServesFreshResponseThenRevalidatesStaleOne() throws Exception {
+        // Arrange
+        HttpResponseCache cache = new HttpResponseCache(true, dir, 1 << 20, 3_600_000, clock);
+        PageFetcher fetcher = cache.wrap(network);
+        network.next = response(200, "max-age=60", "\"v1\"", "cached body");
+
+        // Act
+        fetcher.exchange(URL, PageType.STATIC_ASSET);
+        PageFetcher.Response hit = fetcher.exchange(URL, PageType.STATIC_ASSET);
+        clock.advance(Duration.ofSeconds(61));
+        network.next = response(304, "max-age=60", "\"v1\"", "");
+        PageFetcher.Response revalidated = fetcher.exchange(URL, PageType.STATIC_ASSET);
+        fetcher.exchange(URL, PageType.STATIC_ASSET);
+
+        // Assert: two requests reached the network, the second one conditional
+        assertEquals(2, network.requests.size());
+        assertEquals(Map.of(), network.requests.get(0));
+        assertEquals("\"v1\"", network.requests.get(1).get("If-None-Match"));
+        assertEquals("cached body", hit.text());
+        assertEquals(200, revalidated.status());
+        assertEquals("cached body", revalidated.text());
+        assertEquals(2, cache.count(HttpResponseCache.Outcome.HIT));
+        assertEquals(1, cache.count(HttpResponseCache.Outcome.REVALIDATED));
+        assertEquals(1, cache.count(HttpResponseCache.Outcome.MISS));
+    }
+
+    @Test
+    void testExchange_RevalidatesPagesWhateverTheirLifetime() throws Exception {
+        // Arrange
+        HttpResponseCache cache = new HttpResponseCache(true, dir, 1 << 20, 3_600_000, clock);
+        PageFetcher fetcher = cache.wrap(network);
+        network.next = response(200, "max-age=86400", "\"v1\"", "page body");
+        fetcher.exchange(URL, PageType.PAGE);
+        clock.advance(Duration.ofSeconds(30));
+
+        // Act
+        network.next = response(304, "max-age=86400", "\"v1\"", "");
+        PageFetcher.Response revalidated = fetcher.exchange(URL, PageType.PAGE);
+
+        // Assert: well within max-age, the recrawl still asked the origin
+        assertEquals(2, network.requests.size());
+        assertEquals("\"v1\"", network.requests.get(1).get("If-None-Match"));
+        assertEquals("page body", revalidated.text());
+        assertEquals(0, cache.count(HttpResponseCache.Outcome.HIT));
+    }
+
+    @Test
+    void testPut_HonoursNoStoreAndCapsLifetimeUnlessImmutable() {
+        // Arrange
+        HttpResponseCache cache = new HttpResponseCache(true, dir, 1 << 20, 3_600_000, clock);
+        long now = clock.millis();
+
+        // Act
+        cache.put(URL + "/private", response(200, "no-store", null, "secret"), now, now);
+        cache.put(URL + "/page", response(200, "max-age=86400", null, "page"), now, now);
+        cache.put(URL + "/app.js", response(200, "max-age=86400, immutable", null, "asset"), now, now);
+        clock.advance(Duration.ofHours(2));
+
+        // Assert: a day-long max-age is capped at max-ttl, an immutable one is not
+        assertNull(cache.get(URL + "/private"));
+        assertFalse(cache.isFresh(cache.get(URL + "/page"), PageType.PAGE));
+        assertTrue(cache.isFresh(cache.get(URL + "/app.js"), PageType.STATIC_ASSET));
+    }
+
+    @Test
+    void testExchange_ThrottledResponseKeepsStoredEntry() throws Exception {
+        // Arrange
+        HttpResponseCache cache = new HttpResponseCache(true, dir, 1 << 20, 3_600_000, clock);
+        PageFetcher fetcher = cache.wrap(network);
+        network.next = response(200, "max-age=60", "\"v1\"", "cached body");
+        fetcher.exchange(URL, PageType.PAGE);
+        clock.advance(Duration.ofSeconds(61));
+
+        // Act
+        network.next = response(503, "no-store", null, "");
+        PageFetcher.Response throttled = fetcher.exchange(URL, PageType.PAGE);
+        network.next = response(304, "max-age=60", "\"v1\"", "");
+        PageFetcher.Response revalidated = fetcher.exchange(URL, PageType.PAGE);
+
+        // Assert: the 503 went through, and the next request could still be conditional
+        assertEquals(503, throttled.status());
+        assertEquals("\"v1\"", network.requests.get(2).get("If-None-Match"));
+        assertEquals("cached body", revalidated.text());
+        assertEquals(1, cache.count(HttpResponseCache.Outcome.REVALIDATED));
+    }
+
+    @Test
+    void testIsFresh_HeuristicLifetimeOnlyForStaticAssets() {
+        // Arrange: last modified ten days ago, no explicit lifetime
+        HttpResponseCache cache = new HttpResponseCache(true, dir, 1 << 20, 3_600_000, clock);
+        long now = clock.millis();
+        for (String path : List.of("/guide", "/logo.png")) {
+            PageFetcher.Response response = response(200, "public", "\"v1\"", "body");
+            response.headers().put("Last-Modified", List.of(DateTimeFormatter.RFC_1123_DATE_TIME.format(
+                    ZonedDateTime.ofInstant(clock.instant().minus(Duration.ofDays(10)), ZoneOffset.UTC))));
+            cache.put(URL + path, response, now, now);
+        }
+
+        // Act
+        clock.advance(Duration.ofSeconds(30));
+
+        // Assert: the page is revalidated on the next recrawl, the asset is served for up to max-ttl
+        assertFalse(cache.isFresh(cache.get(URL + "/guide"), PageType.PAGE));
+        assertTrue(cache.isFresh(cache.get(URL + "/logo.png"), PageType.STATIC_ASSET));
+    }
+
+    @Test
+    void testPut_EvictsLeastRecentlyUsedAndKeepsEntriesAcrossRestarts() {
+        // Arrange: room for three entries
+        HttpResponseCache probe = new HttpResponseCache(true, dir.resolve("probe"), 1 << 20, 3_600_000, clock);
+        long now = clock.millis();
+        probe.put(URL + "/0", response(200, "max-age=60", null, "cached body"), now, now);
+        long maxBytes = probe.size() * 3 + probe.size() / 2;
+        HttpResponseCache cache = new HttpResponseCache(true, dir.resolve("cache"), maxBytes, 3_600_000, clock);
+        for (String page : List.of("/a", "/b", "/c")) {
+            cache.put(URL + page, response(200, "max-age=60", null, "cached body"), now, now);
+        }
+
+        // Act
+        cache.get(URL + "/a");
+        cache.put(URL + "/d", response(200, "max-age=60", null, "cached body"), now, now);
+        HttpResponseCache restarted = new HttpResponseCache(true, dir.resolve("cache"), maxBytes, 3_600_000, clock);
+
+        // Assert
+        assertNull(cache.get(URL + "/b"));
+        assertEquals(3, restarted.entries());
+        assertEquals("cached body", restarted.get(URL + "/a").response().text());
+        assertNotNull(restarted.get(URL + "/c"));
+        assertNotNull(restarted.get(URL + "/d"));
+    }
+
+    private PageFetcher.Response response(int status, String cacheControl, String etag, String body) {
+        Map<String, List<String>> headers = new LinkedHashMap<>();
+        headers.put("Date", List.of(DateTimeFormatter.RFC_1123_DATE_TIME.format(ZonedDateTime.ofInstant(clock.instant(), ZoneOffset.UTC))));
+        headers.put("Cache-Control", List.of(cacheControl));
+        if (etag != null) {
+            headers.put("ETag", List.of(etag));
+        }
+        return new PageFetcher.Response(status, status == 200 ? "OK" : "Not Modified", headers,
+                body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static final class StubNetwork implements PageFetcher {
+        private final List<Map<String, String>> requests = new ArrayList<>();
+        private Response next;
+
+        @Override
+        public Response exchange(String url, PageType pageType) {
+            return exchange(url, pageType, Map.of());
+        }
+
+        @Override
+        public Response exchange(String url, PageType pageType, Map<String, String> requestHeaders) {
+            requests.add(requestHeaders);
+            return next;
+        }
+
+        @Override
+        public String render(String url) {
+            return null;
+        }
+    }
+
+    private static final class MutableClock extends Clock {
+        private Instant instant;
+
+        MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        void advance(Duration duration) {
+            instant = instant.plus(duration);
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
@@ -1,28 +1,32 @@
 package com.profoundai.llms.service;
 
-import com.profoundai.llms.repository.CrawlSnapshotRepository;
+import com.profoundai.llms.entity.SiteStatus;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
 
-import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class LlmsAutoUpdateSchedulerTest {
 
     @Mock
-    private LlmsTxtMonitoringService monitoringService;
+    private CrawlCoordinator crawlCoordinator;
 
     @Mock
-    private CrawlSnapshotRepository snapshotRepository;
+    private AdaptiveRecrawlSchedule recrawlSchedule;
+
+    private HostCircuitBreaker circuitBreaker;
 
-    @InjectMocks
     private LlmsAutoUpdateScheduler scheduler;
 
     private String baseUrl1;
@@ -31,6 +35,9 @@ class LlmsAutoUpdateSchedulerTest {
 
     @BeforeEach
     void setUp() {
+        circuitBreaker = new HostCircuitBreaker(3, 60_000, 3_600_000);
+        scheduler = new LlmsAutoUpdateScheduler(crawlCoordinator, recrawlSchedule, circuitBreaker, 2, 5000, 100);
+        lenient().when(recrawlSchedule.tryClaim(anyString(), any(LocalDateTime.class))).thenReturn(true);
         baseUrl1 = "https://example.com";
         baseUrl2 = "https://test.com";
         
@@ -41,33 +48,38 @@ class LlmsAutoUpdateSchedulerTest {
         );
     }
 
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
     @Test
     void testRunMonitoring_EmptyMonitoredSites() {
         // Arrange
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(Collections.emptyList());
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(Collections.emptyList());
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService, never()).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator, never()).crawlAndUpdate(anyString());
     }
 
     @Test
     void testRunMonitoring_SingleSiteSuccess() {
         // Arrange
         List<String> monitoredSites = Arrays.asList(baseUrl1);
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
-        verify(monitoringService, times(1)).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
+        verify(crawlCoordinator, times(1)).crawlAndUpdate(anyString());
     }
 
     @Test
@@ -80,18 +92,18 @@ class LlmsAutoUpdateSchedulerTest {
                 new HashSet<>(Arrays.asList("https://test.com/modified"))
         );
 
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
-        when(monitoringService.crawlAndUpdate(baseUrl2)).thenReturn(result2);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenReturn(result2);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
-        verify(monitoringService).crawlAndUpdate(baseUrl2);
-        verify(monitoringService, times(2)).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl2);
+        verify(crawlCoordinator, times(2)).crawlAndUpdate(anyString());
     }
 
     @Test
@@ -100,16 +112,16 @@ class LlmsAutoUpdateSchedulerTest {
         List<String> monitoredSites = Arrays.asList(baseUrl1);
         RuntimeException exception = new RuntimeException("Crawl failed");
         
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenThrow(exception);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenThrow(exception);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
-        verify(monitoringService, times(1)).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
+        verify(crawlCoordinator, times(1)).crawlAndUpdate(anyString());
     }
 
     @Test
@@ -118,18 +130,18 @@ class LlmsAutoUpdateSchedulerTest {
         List<String> monitoredSites = Arrays.asList(baseUrl1, baseUrl2);
         RuntimeException exception = new RuntimeException("Crawl failed for site 2");
         
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
-        when(monitoringService.crawlAndUpdate(baseUrl2)).thenThrow(exception);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenThrow(exception);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
-        verify(monitoringService).crawlAndUpdate(baseUrl2);
-        verify(monitoringService, times(2)).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl2);
+        verify(crawlCoordinator, times(2)).crawlAndUpdate(anyString());
     }
 
     @Test
@@ -139,18 +151,18 @@ class LlmsAutoUpdateSchedulerTest {
         RuntimeException exception1 = new RuntimeException("Crawl failed for site 1");
         RuntimeException exception2 = new RuntimeException("Crawl failed for site 2");
         
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenThrow(exception1);
-        when(monitoringService.crawlAndUpdate(baseUrl2)).thenThrow(exception2);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenThrow(exception1);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenThrow(exception2);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
-        verify(monitoringService).crawlAndUpdate(baseUrl2);
-        verify(monitoringService, times(2)).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl2);
+        verify(crawlCoordinator, times(2)).crawlAndUpdate(anyString());
     }
 
     @Test
@@ -163,15 +175,15 @@ class LlmsAutoUpdateSchedulerTest {
                 Collections.emptySet()
         );
         
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenReturn(nullResult);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(nullResult);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
     }
 
     @Test
@@ -190,22 +202,22 @@ class LlmsAutoUpdateSchedulerTest {
         
         MonitoringResult largeResult = new MonitoringResult(largeAddedSet, largeRemovedSet, largeModifiedSet);
         
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenReturn(largeResult);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(largeResult);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
     }
 
     @Test
     void testRunMonitoring_RepositoryThrowsException() {
         // Arrange
         RuntimeException repositoryException = new RuntimeException("Database error");
-        when(snapshotRepository.findAllBaseUrls()).thenThrow(repositoryException);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenThrow(repositoryException);
 
         // Act & Assert
         RuntimeException exception = org.junit.jupiter.api.Assertions.assertThrows(
@@ -214,8 +226,8 @@ class LlmsAutoUpdateSchedulerTest {
         );
 
         assertEquals("Database error", exception.getMessage());
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService, never()).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator, never()).crawlAndUpdate(anyString());
     }
 
     @Test
@@ -236,20 +248,164 @@ class LlmsAutoUpdateSchedulerTest {
         );
         RuntimeException exception = new RuntimeException("Site 2 failed");
         
-        when(snapshotRepository.findAllBaseUrls()).thenReturn(monitoredSites);
-        when(monitoringService.crawlAndUpdate(baseUrl1)).thenReturn(result1);
-        when(monitoringService.crawlAndUpdate(baseUrl2)).thenThrow(exception);
-        when(monitoringService.crawlAndUpdate(baseUrl3)).thenReturn(result3);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(monitoredSites);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(result1);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenThrow(exception);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl3)).thenReturn(result3);
 
         // Act
         scheduler.runMonitoring();
 
         // Assert
-        verify(snapshotRepository).findAllBaseUrls();
-        verify(monitoringService).crawlAndUpdate(baseUrl1);
-        verify(monitoringService).crawlAndUpdate(baseUrl2);
-        verify(monitoringService).crawlAndUpdate(baseUrl3);
-        verify(monitoringService, times(3)).crawlAndUpdate(anyString());
+        verify(recrawlSchedule).findDue(any(LocalDateTime.class), eq(100));
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl1);
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl2);
+        verify(crawlCoordinator).crawlAndUpdate(baseUrl3);
+        verify(crawlCoordinator, times(3)).crawlAndUpdate(anyString());
     }
-}
 
+    @Test
+    void testRunCycle_ReportsPerSiteOutcome() {
+        // Arrange
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(Arrays.asList(baseUrl1, baseUrl2));
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenThrow(new RuntimeException("boom"));
+
+        // Act
+        MonitoringCycleReport report = scheduler.runCycle();
+
+        // Assert
+        assertEquals(2, report.getSites().size());
+        MonitoringCycleReport.SiteRun first = report.getSites().get(0);
+        assertEquals(baseUrl1, first.baseUrl());
+        assertEquals(SiteStatus.SUCCEEDED, first.status());
+        assertSame(successResult, first.result());
+        assertTrue(first.durationMs() >= 0);
+        MonitoringCycleReport.SiteRun second = report.getSites().get(1);
+        assertEquals(SiteStatus.FAILED, second.status());
+        assertEquals("boom", second.error());
+        assertNull(second.result());
+    }
+
+    @Test
+    void testRunCycle_CrawlsSitesInParallel() {
+        // Arrange: both crawls block until the other has started, which only works if they overlap
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(Arrays.asList(baseUrl1, baseUrl2));
+        when(crawlCoordinator.crawlAndUpdate(anyString())).thenAnswer(invocation -> {
+            bothStarted.countDown();
+            assertTrue(bothStarted.await(5, TimeUnit.SECONDS));
+            return successResult;
+        });
+
+        // Act
+        MonitoringCycleReport report = scheduler.runCycle();
+
+        // Assert
+        assertEquals(2, report.count(SiteStatus.SUCCEEDED));
+    }
+
+    @Test
+    void testRunCycle_SlowSiteTimesOutWithoutBlockingOthers() {
+        // Arrange
+        scheduler.shutdown();
+        scheduler = new LlmsAutoUpdateScheduler(crawlCoordinator, recrawlSchedule, circuitBreaker, 2, 200, 100);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(Arrays.asList(baseUrl1, baseUrl2));
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return successResult;
+        });
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenReturn(successResult);
+
+        // Act
+        MonitoringCycleReport report = scheduler.runCycle();
+
+        // Assert
+        assertEquals(SiteStatus.TIMED_OUT, report.getSites().get(0).status());
+        assertEquals(200, report.getSites().get(0).durationMs());
+        assertEquals(SiteStatus.SUCCEEDED, report.getSites().get(1).status());
+        assertTrue(report.getDurationMs() < 5_000);
+    }
+
+    @Test
+    void testRunCycle_ReschedulesEachSiteFromItsOutcome() {
+        // Arrange
+        MonitoringResult unchanged = new MonitoringResult(Set.of(), Set.of(), Set.of());
+        String baseUrl3 = "https://third.com";
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt()))
+                .thenReturn(Arrays.asList(baseUrl1, baseUrl2, baseUrl3));
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenReturn(successResult);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenReturn(unchanged);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl3)).thenThrow(new RuntimeException("down"));
+
+        // Act
+        scheduler.runCycle();
+
+        // Assert
+        // Successful crawls recorded themselves when storing their snapshot; the scheduler only settles them
+        verify(recrawlSchedule).releaseAfterCrawl(eq(baseUrl1), any(LocalDateTime.class));
+        verify(recrawlSchedule).releaseAfterCrawl(eq(baseUrl2), any(LocalDateTime.class));
+        verify(recrawlSchedule, never()).recordCrawl(anyString(), anyBoolean(), any(LocalDateTime.class));
+        verify(recrawlSchedule).recordFailure(eq(baseUrl3), eq(SiteStatus.FAILED), any(LocalDateTime.class), isNull());
+    }
+
+    @Test
+    void testRunCycle_SkipsSitesClaimedByAnotherNode() {
+        // Arrange
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(Arrays.asList(baseUrl1, baseUrl2));
+        when(recrawlSchedule.tryClaim(eq(baseUrl1), any(LocalDateTime.class))).thenReturn(false);
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenReturn(successResult);
+
+        // Act
+        MonitoringCycleReport report = scheduler.runCycle();
+
+        // Assert
+        assertEquals(1, report.getSites().size());
+        assertEquals(baseUrl2, report.getSites().get(0).baseUrl());
+        verify(crawlCoordinator, never()).crawlAndUpdate(baseUrl1);
+        verify(recrawlSchedule, never()).releaseAfterCrawl(eq(baseUrl1), any(LocalDateTime.class));
+        verify(recrawlSchedule, never()).recordFailure(eq(baseUrl1), any(), any(LocalDateTime.class), any());
+    }
+
+    @Test
+    void testRunCycle_OpenCircuitSkipsCrawlAndDefersSite() {
+        // Arrange: the first host has failed often enough to open its circuit
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.recordFailure(baseUrl1);
+        }
+        LocalDateTime retryAt = circuitBreaker.openUntil(baseUrl1).orElseThrow();
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(Arrays.asList(baseUrl1, baseUrl2));
+        when(crawlCoordinator.crawlAndUpdate(baseUrl2)).thenReturn(successResult);
+
+        // Act
+        MonitoringCycleReport report = scheduler.runCycle();
+
+        // Assert
+        assertEquals(SiteStatus.CIRCUIT_OPEN, report.getSites().get(0).status());
+        assertEquals(SiteStatus.SUCCEEDED, report.getSites().get(1).status());
+        verify(crawlCoordinator, never()).crawlAndUpdate(baseUrl1);
+        verify(recrawlSchedule).recordFailure(eq(baseUrl1), eq(SiteStatus.CIRCUIT_OPEN), any(LocalDateTime.class), eq(retryAt));
+    }
+
+    @Test
+    void testRunCycle_TimeoutsCountAgainstCircuit() {
+        // Arrange
+        scheduler.shutdown();
+        circuitBreaker = new HostCircuitBreaker(1, 60_000, 3_600_000);
+        scheduler = new LlmsAutoUpdateScheduler(crawlCoordinator, recrawlSchedule, circuitBreaker, 2, 100, 100);
+        when(recrawlSchedule.findDue(any(LocalDateTime.class), anyInt())).thenReturn(List.of(baseUrl1));
+        when(crawlCoordinator.crawlAndUpdate(baseUrl1)).thenAnswer(invocation -> {
+            Thread.sleep(10_000);
+            return successResult;
+        });
+
+        // Act
+        MonitoringCycleReport report = scheduler.runCycle();
+
+        // Assert
+        assertEquals(SiteStatus.TIMED_OUT, report.getSites().get(0).status());
+        assertEquals(HostCircuitBreaker.State.OPEN, circuitBreaker.state(baseUrl1));
+        verify(recrawlSchedule).recordFailure(eq(baseUrl1), eq(SiteStatus.TIMED_OUT), any(LocalDateTime.class),
+                eq(circuitBreaker.openUntil(baseUrl1).orElseThrow()));
+    }
+}
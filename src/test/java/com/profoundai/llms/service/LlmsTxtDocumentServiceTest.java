@@ -0,0 +1,480 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.LlmsTxtDocument;
+import com.profoundai.llms.entity.LlmsTxtDocumentSegment;
+import com.profoundai.llms.entity.LlmsTxtSegment;
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
+import com.profoundai.llms.repository.LlmsTxtDocumentRepository;
+import com.profoundai.llms.repository.LlmsTxtDocumentSegmentRepository;
+import com.profoundai.llms.repository.LlmsTxtSegmentRepository;
+import com.profoundai.llms.repository.PageMetaRepository;
+import com.profoundai.llms.service.format.JsonLlmsTxtFormat;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Field;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class LlmsTxtDocumentServiceTest {
+
+    @Mock
+    private LlmsTxtDocumentRepository documentRepository;
+
+    @Mock
+    private LlmsTxtSegmentRepository segmentRepository;
+
+    @Mock
+    private LlmsTxtDocumentSegmentRepository documentSegmentRepository;
+
+    @Mock
+    private PageMetaRepository pageMetaRepository;
+
+    /** What the mocked repositories hold: documents, segments by hash and segment lists. */
+    private final Map<Long, LlmsTxtDocument> storedDocuments = new HashMap<>();
+    private final Map<String, LlmsTxtSegment> storedSegments = new HashMap<>();
+    private final List<LlmsTxtDocumentSegment> storedRefs = new ArrayList<>();
+
+    @TempDir
+    Path tempDir;
+
+    private LlmsTxtDocumentCache cache;
+    private LlmsTxtDocumentService documentService;
+
+    private String baseUrl;
+    private CrawlSnapshot snapshot;
+    private List<PageMeta> pages;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        cache = new LlmsTxtDocumentCache(1024 * 1024);
+        documentService = service(new LlmsTxtGeneratorService(), 64);
+        backRepositoriesWithMaps();
+
+        baseUrl = "https://example.com";
+        snapshot = new CrawlSnapshot(baseUrl, LocalDateTime.of(2025, 11, 30, 12, 34, 56));
+        Field idField = CrawlSnapshot.class.getDeclaredField("id");
+        idField.setAccessible(true);
+        idField.set(snapshot, 7L);
+
+        pages = List.of(new PageMeta(7L, "https://example.com/page1", "Page 1", "Desc 1", "hash1", PageType.PAGE));
+    }
+
+    @Test
+    void testMaterialize_IsByteStableForSameSnapshot() {
+        // Arrange
+        List<PageMeta> many = pages(7L, 40);
+        List<PageMeta> reversed = new ArrayList<>(many);
+        Collections.reverse(reversed);
+        documentService = service(new LlmsTxtGeneratorService(), 4);
+
+        // Act
+        documentService.materialize(snapshot, many);
+        LlmsTxtDocument first = documentService.documentFor(snapshot);
+        documentService.evict(List.of(7L));
+        documentService.materialize(snapshot, reversed);
+        LlmsTxtDocument second = documentService.documentFor(snapshot);
+
+        // Assert
+        assertEquals(first.getContent(), second.getContent());
+        assertEquals(first.getEtag(), second.getEtag());
+        assertEquals(64, first.getEtag().length());
+        assertTrue(first.getContent().contains("# Generated at 2025-11-30T12:34:56"));
+        assertEquals(new LlmsTxtGeneratorService().generate(many, baseUrl, snapshot.getCreatedAt()), first.getContent());
+        assertEquals(snapshot.getCreatedAt(), first.getGeneratedAt());
+        verify(documentRepository, times(2)).save(any(LlmsTxtDocument.class));
+    }
+
+    @Test
+    void testMaterialize_ProducesGzipVariant() throws Exception {
+        // Arrange
+        documentService = service(new LlmsTxtGeneratorService(), 4);
+        documentService.materialize(snapshot, pages(7L, 40));
+
+        // Act
+        LlmsTxtDocument materialized = documentService.documentFor(snapshot);
+        cache.evict(7L);
+        LlmsTxtDocument assembled = documentService.documentFor(snapshot);
+
+        // Assert
+        assertEquals(materialized.getContent(), gunzip(materialized.getGzipContent()));
+        assertEquals(materialized.getContent(), assembled.getContent());
+        assertArrayEquals(materialized.getGzipContent(), assembled.getGzipContent());
+        assertTrue(storedRefs.size() > 2);
+    }
+
+    @Test
+    void testMaterialize_EmitsFlightRecorderEvent() throws Exception {
+        // Arrange
+        Path file = tempDir.resolve("generate.jfr");
+
+        // Act
+        try (Recording recording = new Recording()) {
+            recording.enable("com.profoundai.llms.LlmsTxtGenerate").withoutThreshold();
+            recording.start();
+            documentService.materialize(snapshot, pages);
+            recording.stop();
+            recording.dump(file);
+        }
+        LlmsTxtDocument document = documentService.documentFor(snapshot);
+
+        // Assert
+        List<RecordedEvent> events = RecordingFile.readAllEvents(file);
+        assertEquals(1, events.size());
+        RecordedEvent event = events.get(0);
+        assertEquals(baseUrl, event.getString("baseUrl"));
+        assertEquals(7L, event.getLong("snapshotId"));
+        assertEquals("full", event.getString("mode"));
+        assertEquals(document.getContent().getBytes(StandardCharsets.UTF_8).length, event.getLong("bytes"));
+    }
+
+    @Test
+    void testDocumentFor_CompressesStoredDocumentWithoutGzipVariant() {
+        // Arrange
+        LlmsTxtDocument stored = new LlmsTxtDocument(7L, baseUrl, "stored", "etag", snapshot.getCreatedAt());
+        when(documentRepository.findById(7L)).thenReturn(Optional.of(stored));
+
+        // Act
+        LlmsTxtDocument result = documentService.documentFor(snapshot);
+
+        // Assert
+        assertEquals("stored", result.getContent());
+        assertNotNull(result.getGzipContent());
+        verify(documentRepository).save(result);
+        verify(pageMetaRepository, never()).findBySnapshotId(any());
+    }
+
+    @Test
+    void testDocumentFor_ServesFromCacheWithoutStorageOrRegeneration() {
+        // Arrange
+        documentService.materialize(snapshot, pages);
+        LlmsTxtDocument materialized = cache.get(7L);
+        clearInvocations(documentRepository, segmentRepository, documentSegmentRepository);
+
+        // Act
+        LlmsTxtDocument result = documentService.documentFor(snapshot);
+
+        // Assert
+        assertSame(materialized, result);
+        verifyNoInteractions(documentRepository, segmentRepository, documentSegmentRepository, pageMetaRepository);
+    }
+
+    @Test
+    void testDocumentFor_LoadsStoredDocumentOnCacheMiss() {
+        // Arrange
+        LlmsTxtDocument stored = new LlmsTxtDocument(7L, baseUrl, "stored", new byte[]{1}, "etag", snapshot.getCreatedAt());
+        when(documentRepository.findById(7L)).thenReturn(Optional.of(stored));
+
+        // Act
+        LlmsTxtDocument result = documentService.documentFor(snapshot);
+
+        // Assert
+        assertSame(stored, result);
+        assertSame(stored, cache.get(7L));
+        verify(pageMetaRepository, never()).findBySnapshotId(any());
+    }
+
+    @Test
+    void testDocumentFor_GeneratesWhenNotMaterialized() {
+        // Arrange
+        when(pageMetaRepository.findBySnapshotId(7L)).thenReturn(pages);
+
+        // Act
+        LlmsTxtDocument result = documentService.documentFor(snapshot);
+
+        // Assert
+        assertTrue(result.getContent().contains("URL: https://example.com/page1"));
+        verify(documentRepository).save(any(LlmsTxtDocument.class));
+        assertEquals(result.getEtag(), storedDocuments.get(7L).getEtag());
+        assertSame(result, cache.get(7L));
+    }
+
+    @Test
+    void testCache_EvictsLeastRecentlyUsedWhenOverCapacity() {
+        // Arrange
+        LlmsTxtDocumentCache smallCache = new LlmsTxtDocumentCache(10);
+        LlmsTxtDocument a = new LlmsTxtDocument(1L, baseUrl, "aaaa", "a", null);
+        LlmsTxtDocument b = new LlmsTxtDocument(2L, baseUrl, "bbbb", "b", null);
+        LlmsTxtDocument c = new LlmsTxtDocument(3L, baseUrl, "cccc", "c", null);
+
+        // Act
+        smallCache.put(a);
+        smallCache.put(b);
+        smallCache.get(1L);
+        smallCache.put(c);
+
+        // Assert
+        assertSame(a, smallCache.get(1L));
+        assertNull(smallCache.get(2L));
+        assertSame(c, smallCache.get(3L));
+        assertEquals(2, smallCache.size());
+    }
+
+    @Test
+    void testMaterializeIncremental_PatchesOnlyChangedEntries() throws Exception {
+        // Arrange: one entry per segment
+        PageMeta a = new PageMeta(7L, "https://example.com/a", "A", "Desc A", "ha", PageType.PAGE);
+        PageMeta b = new PageMeta(7L, "https://example.com/b", "B", "Desc B", "hb", PageType.PAGE);
+        PageMeta c = new PageMeta(7L, "https://example.com/c", "C", "Desc C", "hc", PageType.PAGE);
+
+        CrawlSnapshot next = snapshotWithId(8L, snapshot.getCreatedAt().plusHours(1));
+        PageMeta a2 = new PageMeta(8L, "https://example.com/a", "A", "Desc A", "ha", PageType.PAGE);
+        PageMeta c2 = new PageMeta(8L, "https://example.com/c", "C updated", "Desc C", "hc2", PageType.PAGE);
+        PageMeta d2 = new PageMeta(8L, "https://example.com/d", "D", null, "hd", PageType.PAGE);
+        LlmsTxtGeneratorService generator = spy(new LlmsTxtGeneratorService());
+        documentService = service(generator, 1);
+        documentService.materialize(snapshot, List.of(a, b, c));
+        clearInvocations(generator);
+
+        // Act
+        documentService.materializeIncremental(
+                7L, next, List.of(d2, c2, a2), Set.of("https://example.com/b"), List.of(c2, d2));
+        LlmsTxtDocument result = documentService.documentFor(next);
+
+        // Assert
+        String expected = new LlmsTxtGeneratorService().generate(List.of(a2, c2, d2), baseUrl, next.getCreatedAt());
+        assertEquals(expected, result.getContent());
+        assertEquals(expected, gunzip(result.getGzipContent()));
+        verify(generator, times(2)).entry(any(PageMeta.class));
+        verify(generator, never()).entry(a2);
+    }
+
+    @Test
+    void testMaterializeIncremental_MatchesFullRebuildOfSameSnapshot() throws Exception {
+        // Arrange
+        Random random = new Random(42);
+        documentService = service(new LlmsTxtGeneratorService(), 4);
+        List<PageMeta> current = pages(7L, 300);
+        documentService.materialize(snapshot, current);
+        Long previousId = 7L;
+
+        for (long id = 8; id <= 12; id++) {
+            CrawlSnapshot next = snapshotWithId(id, snapshot.getCreatedAt().plusHours(id));
+            Map<String, PageMeta> nextPages = new HashMap<>();
+            Set<String> removed = new HashSet<>();
+            List<PageMeta> changed = new ArrayList<>();
+            for (PageMeta page : current) {
+                int roll = random.nextInt(50);
+                if (roll == 0) {
+                    removed.add(page.getUrl());
+                } else if (roll == 1) {
+                    PageMeta modified = new PageMeta(id, page.getUrl(), "Changed in " + id, null, "m" + id, PageType.PAGE);
+                    nextPages.put(page.getUrl(), modified);
+                    changed.add(modified);
+                } else {
+                    nextPages.put(page.getUrl(), new PageMeta(id, page.getUrl(), page.getTitle(),
+                            page.getDescription(), page.getContentHash(), page.getPageType()));
+                }
+            }
+            for (int i = 0; i < 5; i++) {
+                PageMeta added = new PageMeta(id, baseUrl + "/new-" + id + "-" + random.nextInt(1000), "New", null,
+                        "n", PageType.PAGE);
+                if (nextPages.putIfAbsent(added.getUrl(), added) == null) {
+                    changed.add(added);
+                }
+            }
+            List<PageMeta> shuffled = new ArrayList<>(nextPages.values());
+            Collections.shuffle(shuffled, random);
+            int segmentsBefore = storedSegments.size();
+
+            // Act
+            documentService.materializeIncremental(previousId, next, shuffled, removed, changed);
+            LlmsTxtDocument incremental = documentService.documentFor(next);
+            int rendered = storedSegments.size() - segmentsBefore;
+            LlmsTxtDocumentService fullService = new LlmsTxtDocumentService(
+                    documentRepository, segmentRepository, documentSegmentRepository, pageMetaRepository,
+                    new LlmsTxtGeneratorService(), new LlmsTxtDocumentCache(1024 * 1024),
+                    new PageContentStore(tempDir.toString()), 4);
+            CrawlSnapshot rebuilt = snapshotWithId(1000 + next.getId(), next.getCreatedAt());
+            fullService.materialize(rebuilt, shuffled);
+            LlmsTxtDocument full = fullService.documentFor(rebuilt);
+
+            // Assert
+            assertEquals(full.getContent(), incremental.getContent());
+            assertEquals(full.getEtag(), incremental.getEtag());
+            assertEquals(full.getContent(), gunzip(incremental.getGzipContent()));
+            assertTrue(rendered < refsOf(next.getId()).size() / 2,
+                    "rendered " + rendered + " of " + refsOf(next.getId()).size() + " segments");
+
+            current = List.copyOf(nextPages.values());
+            previousId = next.getId();
+        }
+    }
+
+    @Test
+    void testMaterializeIncremental_FallsBackToFullBuildWithoutStoredSegments() throws Exception {
+        // Arrange
+        CrawlSnapshot next = snapshotWithId(8L, snapshot.getCreatedAt().plusHours(1));
+        PageMeta a2 = new PageMeta(8L, "https://example.com/a", "A", "Desc A", "ha", PageType.PAGE);
+        PageMeta d2 = new PageMeta(8L, "https://example.com/d", "D", null, "hd", PageType.PAGE);
+
+        // Act
+        documentService.materializeIncremental(7L, next, List.of(d2, a2), Set.of(), List.of(d2));
+        LlmsTxtDocument result = documentService.documentFor(next);
+
+        // Assert
+        String expected = new LlmsTxtGeneratorService().generate(List.of(a2, d2), baseUrl, next.getCreatedAt());
+        assertEquals(expected, result.getContent());
+    }
+
+    @Test
+    void testEvict_DeletesSegmentsNoSnapshotUsesAnyMore() throws Exception {
+        // Arrange
+        documentService.materialize(snapshot, pages);
+        Set<String> hashes = refsOf(7L).stream()
+                .map(LlmsTxtDocumentSegment::getSegmentHash)
+                .collect(Collectors.toSet());
+
+        // Act
+        documentService.evict(List.of(7L));
+
+        // Assert
+        assertTrue(refsOf(7L).isEmpty());
+        assertFalse(storedDocuments.containsKey(7L));
+        verify(segmentRepository).deleteUnreferenced(hashes);
+        assertNull(cache.get(7L));
+    }
+
+    private CrawlSnapshot snapshotWithId(Long id, LocalDateTime createdAt) throws Exception {
+        CrawlSnapshot created = new CrawlSnapshot(baseUrl, createdAt);
+        Field idField = CrawlSnapshot.class.getDeclaredField("id");
+        idField.setAccessible(true);
+        idField.set(created, id);
+        return created;
+    }
+
+    private LlmsTxtDocumentService service(LlmsTxtGeneratorService generator, int segmentEntries) {
+        return new LlmsTxtDocumentService(documentRepository, segmentRepository, documentSegmentRepository,
+                pageMetaRepository, generator, cache, new PageContentStore(tempDir.toString()), segmentEntries);
+    }
+
+    private List<PageMeta> pages(Long snapshotId, int count) {
+        List<PageMeta> created = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            created.add(new PageMeta(snapshotId, baseUrl + "/page-" + i, "Page " + i,
+                    i % 3 == 0 ? null : "Desc " + i, "h" + i, PageType.PAGE));
+        }
+        return created;
+    }
+
+    private List<LlmsTxtDocumentSegment> refsOf(Long snapshotId) {
+        return storedRefs.stream()
+                .filter(ref -> ref.getSnapshotId().equals(snapshotId))
+                .sorted(Comparator.comparingInt(LlmsTxtDocumentSegment::getSegmentOrder))
+                .toList();
+    }
+
+    private static String gunzip(byte[] gzip) throws Exception {
+        try (GZIPInputStream in = new GZIPInputStream(new ByteArrayInputStream(gzip))) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private void backRepositoriesWithMaps() {
+        lenient().when(documentRepository.save(any(LlmsTxtDocument.class))).thenAnswer(call -> {
+            LlmsTxtDocument document = call.getArgument(0);
+            storedDocuments.put(document.getSnapshotId(), document);
+            return document;
+        });
+        lenient().when(documentRepository.findById(any())).thenAnswer(
+                call -> Optional.ofNullable(storedDocuments.get(call.<Long>getArgument(0))));
+        lenient().doAnswer(call -> {
+            call.<List<Long>>getArgument(0).forEach(storedDocuments::remove);
+            return null;
+        }).when(documentRepository).deleteBySnapshotIdIn(any());
+        lenient().when(segmentRepository.saveAll(any())).thenAnswer(call -> {
+            List<LlmsTxtSegment> saved = new ArrayList<>();
+            call.<Iterable<LlmsTxtSegment>>getArgument(0).forEach(saved::add);
+            saved.forEach(segment -> storedSegments.putIfAbsent(segment.getHash(), segment));
+            return saved;
+        });
+        lenient().when(segmentRepository.findAllById(any())).thenAnswer(call -> {
+            List<LlmsTxtSegment> found = new ArrayList<>();
+            call.<Iterable<String>>getArgument(0).forEach(hash -> {
+                if (storedSegments.containsKey(hash)) {
+                    found.add(storedSegments.get(hash));
+                }
+            });
+            return found;
+        });
+        lenient().when(documentSegmentRepository.saveAll(any())).thenAnswer(call -> {
+            List<LlmsTxtDocumentSegment> saved = new ArrayList<>();
+            call.<Iterable<LlmsTxtDocumentSegment>>getArgument(0).forEach(saved::add);
+            storedRefs.addAll(saved);
+            return saved;
+        });
+        lenient().when(documentSegmentRepository.findBySnapshotIdOrderBySegmentOrder(any()))
+                .thenAnswer(call -> refsOf(call.getArgument(0)));
+        lenient().when(documentSegmentRepository.deleteBySnapshotIdIn(any())).thenAnswer(call -> {
+            Collection<Long> ids = call.getArgument(0);
+            List<LlmsTxtDocumentSegment> deleted = storedRefs.stream()
+                    .filter(ref -> ids.contains(ref.getSnapshotId()))
+                    .toList();
+            storedRefs.removeAll(deleted);
+            return deleted;
+        });
+    }
+
+    @Test
+    void testDocumentForFormat_RendersOnceThenServesFromCache() {
+        // Arrange
+        when(pageMetaRepository.findBySnapshotId(7L)).thenReturn(pages);
+        JsonLlmsTxtFormat json = new JsonLlmsTxtFormat();
+
+        // Act
+        LlmsTxtDocument first = documentService.documentFor(snapshot, json);
+        LlmsTxtDocument second = documentService.documentFor(snapshot, json);
+
+        // Assert
+        assertSame(first, second);
+        assertTrue(first.getContent().startsWith("{\"baseUrl\":\"https://example.com\""));
+        assertNotNull(first.getGzipContent());
+        verify(pageMetaRepository, times(1)).findBySnapshotId(7L);
+        verify(documentRepository, never()).save(any(LlmsTxtDocument.class));
+    }
+
+    @Test
+    void testDocumentForFormat_EvictDropsAllFormats() {
+        // Arrange
+        when(pageMetaRepository.findBySnapshotId(7L)).thenReturn(pages);
+        documentService.materialize(snapshot, pages);
+        documentService.documentFor(snapshot, new JsonLlmsTxtFormat());
+        assertEquals(2, cache.size());
+
+        // Act
+        documentService.evict(List.of(7L));
+
+        // Assert
+        assertEquals(0, cache.size());
+    }
+}
@@ -5,9 +5,15 @@ import com.profoundai.llms.entity.PageType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
 import org.mockito.InjectMocks;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
@@ -284,5 +290,61 @@ class LlmsTxtGeneratorServiceTest {
             }
         }
     }
-}
 
+    @Test
+    void testGenerate_StreamingMatchesInMemoryOutput() {
+        // Arrange
+        LocalDateTime generatedAt = LocalDateTime.of(2025, 11, 30, 12, 34, 56);
+        List<PageMeta> pages = Arrays.asList(
+                new PageMeta(snapshotId, "https://example.com/page1", "Page 1", "Desc 1", "hash1", PageType.PAGE),
+                new PageMeta(snapshotId, "https://example.com/page2", null, "Desc 2", "hash2", PageType.PAGE),
+                new PageMeta(snapshotId, "https://example.com/app.js", null, null, "hash3", PageType.STATIC_ASSET)
+        );
+        StringWriter out = new StringWriter();
+
+        // Act
+        String inMemory = generatorService.generate(pages, baseUrl, generatedAt);
+        generatorService.generate(pages.stream().sorted(LlmsTxtGeneratorService.URL_ORDER).iterator(),
+                baseUrl, generatedAt, out);
+
+        // Assert
+        assertEquals(inMemory, out.toString());
+        assertTrue(inMemory.indexOf("URL: https://example.com/app.js") < inMemory.indexOf("URL: https://example.com/page1"));
+        assertTrue(inMemory.startsWith("# llms.txt generated for " + baseUrl + "\n# Generated at 2025-11-30T12:34:56\n\n"));
+    }
+
+    @Test
+    void testGenerate_StreamingEmptyIterator() {
+        // Arrange
+        StringWriter out = new StringWriter();
+
+        // Act
+        generatorService.generate(Collections.<PageMeta>emptyIterator(), baseUrl, LocalDateTime.of(2025, 1, 1, 0, 0), out);
+
+        // Assert
+        assertEquals("# llms.txt generated for " + baseUrl + "\n# Generated at 2025-01-01T00:00\n\n", out.toString());
+    }
+
+    @Test
+    void testGenerateFull_IncludesStoredContentAndSkipsAssets(@TempDir Path tempDir) {
+        // Arrange
+        PageContentStore contentStore = new PageContentStore(tempDir.toString());
+        contentStore.store("hash1", "Body text of page one");
+        List<PageMeta> pages = Arrays.asList(
+                new PageMeta(snapshotId, "https://example.com/page1", "Page 1", "Desc 1", "hash1", PageType.PAGE),
+                new PageMeta(snapshotId, "https://example.com/page2", "Page 2", null, "missing", PageType.PAGE),
+                new PageMeta(snapshotId, "https://example.com/app.js", null, null, "hash3", PageType.STATIC_ASSET)
+        );
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // Act
+        generatorService.generateFull(pages.iterator(), baseUrl, LocalDateTime.of(2025, 1, 1, 0, 0), out, contentStore);
+
+        // Assert
+        String result = out.toString(StandardCharsets.UTF_8);
+        assertTrue(result.startsWith("# llms-full.txt generated for " + baseUrl + "\n"));
+        assertTrue(result.contains("URL: https://example.com/page1\nTITLE: Page 1\nDESCRIPTION: Desc 1\n\nBody text of page one\n"));
+        assertTrue(result.contains("URL: https://example.com/page2\nTITLE: Page 2\n\n\n---"));
+        assertFalse(result.contains("app.js"));
+    }
+}
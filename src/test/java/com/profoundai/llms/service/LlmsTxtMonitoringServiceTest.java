@@ -1,6 +1,7 @@
 package com.profoundai.llms.service;
 
 import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.LlmsTxtDocument;
 import com.profoundai.llms.entity.PageMeta;
 import com.profoundai.llms.entity.PageType;
 import com.profoundai.llms.repository.CrawlSnapshotRepository;
@@ -8,9 +9,11 @@ import com.profoundai.llms.repository.PageMetaRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
 
 import java.lang.reflect.Field;
 import java.time.LocalDateTime;
@@ -18,7 +21,10 @@ import java.util.*;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,7 +40,25 @@ class LlmsTxtMonitoringServiceTest {
     private PageMetaRepository pageMetaRepository;
 
     @Mock
-    private LlmsTxtGeneratorService llmsTxtGeneratorService;
+    private LlmsTxtDocumentService documentService;
+
+    @Mock
+    private AdaptiveRecrawlSchedule recrawlSchedule;
+
+    @Mock
+    private CrawlProfiles crawlProfiles;
+
+    @Mock
+    private CrawlMetrics metrics;
+
+    @Mock
+    private CrawlReportService reportService;
+
+    @Mock
+    private PageContentStore contentStore;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     @InjectMocks
     private LlmsTxtMonitoringService monitoringService;
@@ -47,6 +71,7 @@ class LlmsTxtMonitoringServiceTest {
     void setUp() {
         baseUrl = "https://example.com";
         pageInfos = new ArrayList<>();
+        lenient().when(crawlProfiles.forSite(baseUrl)).thenReturn(CrawlProfile.DEFAULT);
     }
 
     private CrawlSnapshot createSnapshotWithId(String baseUrl, LocalDateTime createdAt, Long id) {
@@ -82,13 +107,14 @@ class LlmsTxtMonitoringServiceTest {
 
         when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
                 .thenReturn(Optional.empty());
-        when(crawlService.crawl(baseUrl)).thenReturn(crawlResult);
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
         when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
             CrawlSnapshot snapshot = invocation.getArgument(0);
             // Simulate ID generation by returning a snapshot with ID = 2L
             return createSnapshotWithId(snapshot.getBaseUrl(), snapshot.getCreatedAt(), 2L);
         });
         when(pageMetaRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(recrawlSchedule.recordCrawl(eq(baseUrl), anyBoolean(), any(LocalDateTime.class))).thenReturn(-1L);
 
         // Act
         MonitoringResult result = monitoringService.crawlAndUpdate(baseUrl);
@@ -102,9 +128,10 @@ class LlmsTxtMonitoringServiceTest {
         assertEquals(0, result.getModifiedUrls().size());
 
         verify(snapshotRepository).findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl);
-        verify(crawlService).crawl(baseUrl);
+        verify(crawlService).crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class));
         verify(snapshotRepository).save(any(CrawlSnapshot.class));
         verify(pageMetaRepository).saveAll(anyList());
+        verify(recrawlSchedule).register(eq(baseUrl), any(LocalDateTime.class));
     }
 
     @Test
@@ -136,7 +163,7 @@ class LlmsTxtMonitoringServiceTest {
         when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
                 .thenReturn(Optional.of(previousSnapshot));
         when(pageMetaRepository.findBySnapshotId(previousSnapshotId)).thenReturn(previousPages);
-        when(crawlService.crawl(baseUrl)).thenReturn(crawlResult);
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
         when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
             CrawlSnapshot snapshot = invocation.getArgument(0);
             // Simulate ID generation by returning a snapshot with ID = 2L
@@ -153,6 +180,9 @@ class LlmsTxtMonitoringServiceTest {
         assertTrue(result.getAddedUrls().contains("https://example.com/page2"));
         assertEquals(0, result.getRemovedUrls().size());
         assertEquals(0, result.getModifiedUrls().size());
+        // Recorded here whoever asked for the crawl, so the scheduler does not record it again
+        verify(recrawlSchedule).recordCrawl(eq(baseUrl), eq(true), any(LocalDateTime.class));
+        verify(recrawlSchedule, never()).register(anyString(), any(LocalDateTime.class));
     }
 
     @Test
@@ -178,7 +208,7 @@ class LlmsTxtMonitoringServiceTest {
         when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
                 .thenReturn(Optional.of(previousSnapshot));
         when(pageMetaRepository.findBySnapshotId(previousSnapshotId)).thenReturn(previousPages);
-        when(crawlService.crawl(baseUrl)).thenReturn(crawlResult);
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
         when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
             CrawlSnapshot snapshot = invocation.getArgument(0);
             // Simulate ID generation by returning a snapshot with ID = 2L
@@ -219,7 +249,7 @@ class LlmsTxtMonitoringServiceTest {
         when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
                 .thenReturn(Optional.of(previousSnapshot));
         when(pageMetaRepository.findBySnapshotId(previousSnapshotId)).thenReturn(previousPages);
-        when(crawlService.crawl(baseUrl)).thenReturn(crawlResult);
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
         when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
             CrawlSnapshot snapshot = invocation.getArgument(0);
             // Simulate ID generation by returning a snapshot with ID = 2L
@@ -276,7 +306,7 @@ class LlmsTxtMonitoringServiceTest {
         when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
                 .thenReturn(Optional.of(previousSnapshot));
         when(pageMetaRepository.findBySnapshotId(previousSnapshotId)).thenReturn(previousPages);
-        when(crawlService.crawl(baseUrl)).thenReturn(crawlResult);
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
         when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
             CrawlSnapshot snapshot = invocation.getArgument(0);
             // Simulate ID generation by returning a snapshot with ID = 2L
@@ -297,23 +327,59 @@ class LlmsTxtMonitoringServiceTest {
         assertTrue(result.getModifiedUrls().contains("https://example.com/page2"));
     }
 
+    @Test
+    void testCrawlAndUpdate_IncrementalRegenerationReceivesDelta() {
+        // Arrange
+        Long previousSnapshotId = 1L;
+        CrawlSnapshot previousSnapshot = createSnapshotWithId(baseUrl, LocalDateTime.now().minusDays(1), previousSnapshotId);
+
+        List<PageMeta> previousPages = Arrays.asList(
+                new PageMeta(previousSnapshotId, "https://example.com/same", "Same", "Desc", "hash1", PageType.PAGE),
+                new PageMeta(previousSnapshotId, "https://example.com/retitled", "Old title", "Desc", "hash2", PageType.PAGE),
+                new PageMeta(previousSnapshotId, "https://example.com/gone", "Gone", "Desc", "hash3", PageType.PAGE)
+        );
+
+        pageInfos.add(new CrawlService.PageInfo("https://example.com/same", "Same", "Desc", "hash1", PageType.PAGE));
+        pageInfos.add(new CrawlService.PageInfo("https://example.com/retitled", "New title", "Desc", "hash2", PageType.PAGE));
+        pageInfos.add(new CrawlService.PageInfo("https://example.com/new", "New", "Desc", "hash4", PageType.PAGE));
+        crawlResult = new CrawlService.CrawlResult(baseUrl, pageInfos);
+
+        when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
+                .thenReturn(Optional.of(previousSnapshot));
+        when(pageMetaRepository.findBySnapshotId(previousSnapshotId)).thenReturn(previousPages);
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
+        when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
+            CrawlSnapshot snapshot = invocation.getArgument(0);
+            return createSnapshotWithId(snapshot.getBaseUrl(), snapshot.getCreatedAt(), 2L);
+        });
+        when(pageMetaRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        MonitoringResult result = monitoringService.crawlAndUpdate(baseUrl);
+
+        // Assert
+        assertTrue(result.getModifiedUrls().isEmpty());
+        verify(documentService).materializeIncremental(
+                eq(previousSnapshotId),
+                any(CrawlSnapshot.class),
+                argThat(pages -> pages.size() == 3),
+                eq(Set.of("https://example.com/gone")),
+                argThat(changed -> changed.stream().map(PageMeta::getUrl).collect(java.util.stream.Collectors.toSet())
+                        .equals(Set.of("https://example.com/retitled", "https://example.com/new"))));
+    }
+
     @Test
     void testGetLatestLlmsTxt_Success() {
         // Arrange
         Long snapshotId = 1L;
         CrawlSnapshot snapshot = createSnapshotWithId(baseUrl, LocalDateTime.now(), snapshotId);
 
-        List<PageMeta> pages = Arrays.asList(
-                new PageMeta(snapshotId, "https://example.com/page1", "Page 1", "Desc 1", "hash1", PageType.PAGE),
-                new PageMeta(snapshotId, "https://example.com/page2", "Page 2", "Desc 2", "hash2", PageType.PAGE)
-        );
-
         String expectedTxt = "# llms.txt generated for " + baseUrl + "\nGenerated content";
+        LlmsTxtDocument document = new LlmsTxtDocument(snapshotId, baseUrl, expectedTxt, "etag", snapshot.getCreatedAt());
 
         when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
                 .thenReturn(Optional.of(snapshot));
-        when(pageMetaRepository.findBySnapshotId(snapshotId)).thenReturn(pages);
-        when(llmsTxtGeneratorService.generate(pages, baseUrl)).thenReturn(expectedTxt);
+        when(documentService.documentFor(snapshot)).thenReturn(document);
 
         // Act
         String result = monitoringService.getLatestLlmsTxt(baseUrl);
@@ -322,8 +388,8 @@ class LlmsTxtMonitoringServiceTest {
         assertNotNull(result);
         assertEquals(expectedTxt, result);
         verify(snapshotRepository).findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl);
-        verify(pageMetaRepository).findBySnapshotId(snapshotId);
-        verify(llmsTxtGeneratorService).generate(pages, baseUrl);
+        verify(documentService).documentFor(snapshot);
+        verify(pageMetaRepository, never()).findBySnapshotId(any());
     }
 
     @Test
@@ -340,7 +406,32 @@ class LlmsTxtMonitoringServiceTest {
         assertEquals("No snapshot found for baseUrl=" + baseUrl, exception.getMessage());
         verify(snapshotRepository).findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl);
         verify(pageMetaRepository, never()).findBySnapshotId(any());
-        verify(llmsTxtGeneratorService, never()).generate(anyList(), anyString());
+        verify(documentService, never()).documentFor(any());
+    }
+
+    @Test
+    void testCrawlAndUpdate_MaterializesDocumentForNewSnapshot() {
+        // Arrange
+        pageInfos.add(new CrawlService.PageInfo(
+                "https://example.com/page1",
+                "Page 1",
+                "Description 1",
+                "hash1",
+                PageType.PAGE
+        ));
+        crawlResult = new CrawlService.CrawlResult(baseUrl, pageInfos);
+
+        when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
+                .thenReturn(Optional.empty());
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
+        when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(pageMetaRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        monitoringService.crawlAndUpdate(baseUrl);
+
+        // Assert
+        verify(documentService).materialize(any(CrawlSnapshot.class), argThat(pages -> pages.size() == 1));
     }
 
     @Test
@@ -350,7 +441,7 @@ class LlmsTxtMonitoringServiceTest {
 
         when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
                 .thenReturn(Optional.empty());
-        when(crawlService.crawl(baseUrl)).thenReturn(crawlResult);
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
         when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
             CrawlSnapshot snapshot = invocation.getArgument(0);
             // Simulate ID generation by returning a snapshot with ID = 2L
@@ -368,5 +459,92 @@ class LlmsTxtMonitoringServiceTest {
         assertEquals(0, result.getModifiedUrls().size());
         verify(pageMetaRepository).saveAll(Collections.emptyList());
     }
-}
 
+    @Test
+    void testCrawlAndUpdate_CrawlsWithSiteProfile() {
+        // Arrange
+        CrawlProfile shallow = new CrawlProfile("shallow", 10, 1);
+        when(crawlProfiles.forSite(baseUrl)).thenReturn(shallow);
+        crawlResult = new CrawlService.CrawlResult(baseUrl, Collections.emptyList());
+        when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
+                .thenReturn(Optional.empty());
+        when(crawlService.crawl(eq(baseUrl), eq(shallow), any(CrawlListener.class))).thenReturn(crawlResult);
+        when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(pageMetaRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // Act
+        monitoringService.crawlAndUpdate(baseUrl);
+
+        // Assert
+        verify(crawlService).crawl(eq(baseUrl), eq(shallow), any(CrawlListener.class));
+    }
+
+    @Test
+    void testCrawlAndUpdate_RecordsCrawlReportAfterGeneration() {
+        // Arrange
+        Long previousSnapshotId = 1L;
+        CrawlSnapshot previousSnapshot = createSnapshotWithId(baseUrl, LocalDateTime.now().minusDays(1), previousSnapshotId);
+        pageInfos.add(new CrawlService.PageInfo("https://example.com/page1", "Page 1", "Description 1", "hash1", PageType.PAGE));
+        crawlResult = new CrawlService.CrawlResult(baseUrl, pageInfos);
+
+        when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl))
+                .thenReturn(Optional.of(previousSnapshot));
+        when(pageMetaRepository.findBySnapshotId(previousSnapshotId)).thenReturn(List.of());
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class))).thenReturn(crawlResult);
+        when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation -> {
+            CrawlSnapshot snapshot = invocation.getArgument(0);
+            return createSnapshotWithId(snapshot.getBaseUrl(), snapshot.getCreatedAt(), 2L);
+        });
+
+        // Act
+        monitoringService.crawlAndUpdate(baseUrl);
+
+        // Assert: the report covers generation, so it is stored last, for the new snapshot
+        InOrder inOrder = inOrder(documentService, reportService);
+        inOrder.verify(documentService).materializeIncremental(eq(previousSnapshotId), any(CrawlSnapshot.class),
+                anyList(), anySet(), anyList());
+        inOrder.verify(reportService).record(argThat(snapshot -> snapshot.getId() == 2L), same(crawlResult.getStats()));
+    }
+
+    @Test
+    void testRecrawlFresh_SweepsBodiesOfDeletedSnapshots() {
+        // Arrange
+        CrawlSnapshot old = createSnapshotWithId(baseUrl, LocalDateTime.now().minusDays(1), 1L);
+        pageInfos.add(new CrawlService.PageInfo("https://example.com/page1", "Page 1", null, "hash2", PageType.PAGE));
+        when(snapshotRepository.findByBaseUrl(baseUrl)).thenReturn(List.of(old));
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class)))
+                .thenReturn(new CrawlService.CrawlResult(baseUrl, pageInfos));
+        when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation ->
+                createSnapshotWithId(baseUrl, LocalDateTime.now(), 2L));
+
+        // Act
+        monitoringService.recrawlFresh(baseUrl);
+
+        // Assert: the old pages are gone before the store is swept against what is left
+        InOrder order = inOrder(pageMetaRepository, contentStore);
+        order.verify(pageMetaRepository).deleteBySnapshotIdIn(List.of(1L));
+        order.verify(pageMetaRepository).saveAll(anyList());
+        order.verify(contentStore).sweep(any());
+    }
+
+    @Test
+    void testCrawlAndUpdate_CrawlsBeforeTakingTransaction() {
+        // Arrange
+        CrawlSnapshot previous = createSnapshotWithId(baseUrl, LocalDateTime.now().minusHours(1), 1L);
+        when(snapshotRepository.findFirstByBaseUrlOrderByCreatedAtDesc(baseUrl)).thenReturn(Optional.of(previous));
+        when(crawlService.crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class)))
+                .thenReturn(new CrawlService.CrawlResult(baseUrl, pageInfos));
+        when(snapshotRepository.save(any(CrawlSnapshot.class))).thenAnswer(invocation ->
+                createSnapshotWithId(baseUrl, LocalDateTime.now(), 2L));
+
+        // Act
+        monitoringService.crawlAndUpdate(baseUrl);
+
+        // Assert: no connection is pinned while the site is fetched
+        InOrder order = inOrder(crawlService, transactionManager, snapshotRepository);
+        order.verify(crawlService).crawl(eq(baseUrl), eq(CrawlProfile.DEFAULT), any(CrawlListener.class));
+        order.verify(transactionManager).getTransaction(any());
+        order.verify(snapshotRepository).save(any(CrawlSnapshot.class));
+        order.verify(transactionManager).commit(any());
+    }
+}
@@ -0,0 +1,149 @@
+package com.profoundai.llms.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PageContentStoreTest {
+
+    @TempDir
+    Path tempDir;
+
+    private PageContentStore contentStore;
+
+    @BeforeEach
+    void setUp() {
+        contentStore = new PageContentStore(tempDir.toString());
+    }
+
+    @Test
+    void testStoreAndCopy_RoundTripsText() {
+        // Arrange
+        String text = "Héllo wörld — ".repeat(1000);
+
+        // Act
+        contentStore.store("abcdef", text);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean found = contentStore.copyTo("abcdef", out);
+
+        // Assert
+        assertTrue(found);
+        assertEquals(text, out.toString(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testStore_IsCompressedOnDisk() throws Exception {
+        // Arrange
+        String text = "URL: https://example.com/page ".repeat(1000);
+
+        // Act
+        contentStore.store("abcdef", text);
+
+        // Assert
+        Path stored = tempDir.resolve("ab").resolve("abcdef.txt.gz");
+        assertTrue(Files.exists(stored));
+        assertTrue(Files.size(stored) < text.length() / 10);
+    }
+
+    @Test
+    void testStore_SameHashStoredOnce() throws Exception {
+        // Act
+        contentStore.store("abcdef", "first");
+        contentStore.store("abcdef", "second");
+
+        // Assert
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        contentStore.copyTo("abcdef", out);
+        assertEquals("first", out.toString(StandardCharsets.UTF_8));
+        try (Stream<Path> files = Files.list(tempDir.resolve("ab"))) {
+            assertEquals(1, files.count());
+        }
+    }
+
+    @Test
+    void testCopyTo_MissingHash() {
+        // Act
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        boolean found = contentStore.copyTo("missing", out);
+
+        // Assert
+        assertFalse(found);
+        assertFalse(contentStore.contains("missing"));
+        assertFalse(contentStore.contains(null));
+        assertEquals(0, out.size());
+    }
+
+    @Test
+    void testSweep_DeletesUnreferencedBodiesPastGrace() throws Exception {
+        // Arrange: no grace, so everything unreferenced and older than now goes
+        PageContentStore store = new PageContentStore(tempDir.toString(), 0);
+        store.store("aa1111", "kept");
+        store.store("bb2222", "orphaned");
+        Path orphan = tempDir.resolve("bb").resolve("bb2222.txt.gz");
+        Files.setLastModifiedTime(orphan, FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+        Files.setLastModifiedTime(tempDir.resolve("aa").resolve("aa1111.txt.gz"),
+                FileTime.fromMillis(System.currentTimeMillis() - 60_000));
+
+        // Act
+        int deleted = store.sweep(hashes -> Set.of("aa1111"));
+
+        // Assert
+        assertEquals(1, deleted);
+        assertTrue(store.contains("aa1111"));
+        assertFalse(store.contains("bb2222"));
+    }
+
+    @Test
+    void testSweep_KeepsBodiesReusedWithinGrace() throws Exception {
+        // Arrange: an old body that a crawl in progress just stored again
+        PageContentStore store = new PageContentStore(tempDir.toString(), 60_000);
+        store.store("cc3333", "reused");
+        Path body = tempDir.resolve("cc").resolve("cc3333.txt.gz");
+        Files.setLastModifiedTime(body, FileTime.fromMillis(System.currentTimeMillis() - 3_600_000));
+        store.store("cc3333", "reused");
+
+        // Act
+        int deleted = store.sweep(hashes -> Set.of());
+
+        // Assert
+        assertEquals(0, deleted);
+        assertTrue(store.contains("cc3333"));
+    }
+
+    @Test
+    void testSweep_ChecksCandidatesInBatches() throws Exception {
+        // Arrange: more old bodies than one batch, every other one still referenced
+        PageContentStore store = new PageContentStore(tempDir.toString(), 0);
+        for (int i = 0; i < 1_200; i++) {
+            store.store(String.format("%04x", i), "body " + i);
+        }
+        Thread.sleep(10);
+        List<Integer> batchSizes = new ArrayList<>();
+
+        // Act
+        int deleted = store.sweep(hashes -> {
+            batchSizes.add(hashes.size());
+            return hashes.stream().filter(hash -> Integer.parseInt(hash, 16) % 2 == 0).collect(Collectors.toSet());
+        });
+
+        // Assert
+        assertEquals(600, deleted);
+        assertEquals(1_200, batchSizes.stream().mapToInt(Integer::intValue).sum());
+        assertTrue(batchSizes.stream().allMatch(size -> size <= 500), "batches " + batchSizes);
+        assertTrue(store.contains("0000"));
+        assertFalse(store.contains("0001"));
+    }
+}
@@ -0,0 +1,189 @@
+package com.profoundai.llms.service;
+
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PolitenessSchedulerTest {
+
+    private static final String HOST = "example.com";
+
+    private final ExecutorService workers = Executors.newFixedThreadPool(2);
+
+    @AfterEach
+    void tearDown() {
+        workers.shutdownNow();
+    }
+
+    @Test
+    void testTryAcquire_SpacesRequestsAfterBurstAndWaitsOutPause() {
+        // Arrange: 10 requests a second, 3 at once
+        PolitenessScheduler scheduler = new PolitenessScheduler(10, 3, true, 30_000, 5, 1_000, 60_000, Clock.systemUTC());
+
+        // Act
+        long[] burst = {scheduler.tryAcquire(HOST, 0), scheduler.tryAcquire(HOST, 0), scheduler.tryAcquire(HOST, 0)};
+        long[] waiting = {scheduler.tryAcquire(HOST, 0), scheduler.tryAcquire(HOST, 0), scheduler.tryAcquire(HOST, 0)};
+        long due = scheduler.tryAcquire(HOST, 100);
+        long pauseMs = scheduler.pause(HOST, new ThrottledException("https://example.com/", 429, "2"), 1, 0);
+        long afterPause = scheduler.tryAcquire(HOST, 0);
+        long tooLong = scheduler.pause(HOST, new ThrottledException("https://example.com/", 503, "3600"), 1, 0);
+
+        // Assert: requests that found no slot due took none, so the next slot is still 100 ms away
+        assertArrayEquals(new long[]{0, 0, 0}, burst);
+        assertArrayEquals(new long[]{100, 100, 100}, waiting);
+        assertEquals(0, due);
+        assertEquals(2_000, pauseMs);
+        assertEquals(2_000, afterPause);
+        assertEquals(-1, tooLong);
+        assertEquals(60_000, scheduler.pausedFor(HOST, 0));
+        assertEquals(0, scheduler.tryAcquire("other.example.com", 0));
+    }
+
+    @Test
+    void testWrap_PacesOnlyRequestsThatReachTheNetwork(@TempDir Path dir) throws Exception {
+        // Arrange: one request a second, behind the HTTP cache
+        PolitenessScheduler scheduler = new PolitenessScheduler(1, 1, true, 30_000, 5, 1_000, 60_000, Clock.systemUTC());
+        HttpResponseCache cache = new HttpResponseCache(true, dir, 1 << 20, 3_600_000, Clock.systemUTC());
+        AtomicInteger requests = new AtomicInteger();
+        PageFetcher fetcher = cache.wrap(scheduler.wrap(new PageFetcher() {
+            @Override
+            public Response exchange(String url, PageType pageType) {
+                requests.incrementAndGet();
+                return new Response(200, "OK", Map.of("Cache-Control", List.of("max-age=60")),
+                        "body".getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String render(String url) {
+                return null;
+            }
+        }));
+
+        // Act
+        fetcher.exchange("https://example.com/a.css", PageType.STATIC_ASSET);
+        PageFetcher.Response cached = fetcher.exchange("https://example.com/a.css", PageType.STATIC_ASSET);
+        PolitenessScheduler.SlotPending pending = assertThrows(PolitenessScheduler.SlotPending.class,
+                () -> fetcher.exchange("https://example.com/b.css", PageType.STATIC_ASSET));
+
+        // Assert: the cache hit needed no slot, the second network request has to wait for one
+        assertEquals("body", cached.text());
+        assertEquals(1, requests.get());
+        assertTrue(pending.getWaitMs() > 0 && pending.getWaitMs() <= 1_000);
+    }
+
+    @Test
+    void testWrap_RenderWaitsForItsSlot() throws Exception {
+        // Arrange: one request a second
+        PolitenessScheduler scheduler = new PolitenessScheduler(1, 1, true, 30_000, 5, 1_000, 60_000, Clock.systemUTC());
+        List<Long> requestTimes = new ArrayList<>();
+        PageFetcher fetcher = scheduler.wrap(new PageFetcher() {
+            @Override
+            public Response exchange(String url, PageType pageType) {
+                requestTimes.add(System.nanoTime());
+                return new Response(200, "OK", Map.of(), "<html></html>".getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String render(String url) {
+                requestTimes.add(System.nanoTime());
+                return "<html>rendered</html>";
+            }
+        });
+
+        // Act
+        fetcher.exchange("https://example.com/app", PageType.PAGE);
+        String rendered = fetcher.render("https://example.com/app");
+
+        // Assert: the render went out a full interval after the fetch
+        assertEquals("<html>rendered</html>", rendered);
+        assertTrue(requestTimes.get(1) - requestTimes.get(0) >= TimeUnit.MILLISECONDS.toNanos(900));
+    }
+
+    @Test
+    void testReadRobots_AppliesCrawlDelayOfOwnGroupOverWildcard() throws Exception {
+        // Arrange
+        String robots = """
+                User-agent: *
+                Crawl-delay: 10
+
+                User-agent: googlebot
+                User-agent: llms-txt-crawler # us
+                Disallow: /private
+                Crawl-delay: 1.5
+                """;
+        PolitenessScheduler scheduler = new PolitenessScheduler(0, 1, true, 30_000, 5, 1_000, 60_000, Clock.systemUTC());
+        PageFetcher fetcher = new PageFetcher() {
+            @Override
+            public Response exchange(String url, PageType pageType) {
+                assertEquals("https://example.com/robots.txt", url);
+                return new Response(200, "OK", Map.of("Content-Type", List.of("text/plain")),
+                        robots.getBytes(StandardCharsets.UTF_8));
+            }
+
+            @Override
+            public String render(String url) {
+                return null;
+            }
+        };
+
+        // Act
+        scheduler.readRobots("https://example.com/docs/", fetcher);
+        long now = System.currentTimeMillis();
+        long first = scheduler.tryAcquire(HOST, now);
+        long second = scheduler.tryAcquire(HOST, now);
+
+        // Assert
+        assertEquals(1_500, PolitenessScheduler.crawlDelayMs(robots, "llms-txt-crawler"));
+        assertEquals(10_000, PolitenessScheduler.crawlDelayMs(robots, "otherbot"));
+        assertEquals(0, PolitenessScheduler.crawlDelayMs("User-agent: *\nDisallow: /", "llms-txt-crawler"));
+        assertEquals(0, first);
+        assertEquals(1_500, second);
+        assertEquals(5_000, PolitenessScheduler.retryAfterMs("Thu, 01 Jan 1970 00:00:05 GMT", 0));
+        assertEquals(-1, PolitenessScheduler.retryAfterMs("soon", 0));
+    }
+
+    @Test
+    void testSubmit_RequeuesThrottledTaskUntilRetriesRunOut() throws Exception {
+        // Arrange
+        PolitenessScheduler scheduler = new PolitenessScheduler(0, 1, true, 30_000, 2, 10, 60_000, Clock.systemUTC());
+        AtomicInteger recovering = new AtomicInteger();
+        AtomicInteger failing = new AtomicInteger();
+
+        // Act
+        Future<String> recovered = scheduler.submit("https://a.example.com/", workers, true, () -> {
+            if (recovering.incrementAndGet() < 3) {
+                throw new ThrottledException("https://a.example.com/", 503, null);
+            }
+            return "page";
+        }, e -> "failed");
+        Future<String> failed = scheduler.submit("https://b.example.com/", workers, true, () -> {
+            failing.incrementAndGet();
+            throw new ThrottledException("https://b.example.com/", 429, "0");
+        }, e -> "failed " + e.getStatusCode());
+        Future<String> unpaced = scheduler.submit("https://c.example.com/", workers, false, () -> {
+            throw new ThrottledException("https://c.example.com/", 429, "0");
+        }, e -> "failed at once");
+
+        // Assert
+        assertEquals("page", recovered.get(5, TimeUnit.SECONDS));
+        assertEquals(3, recovering.get());
+        assertEquals("failed 429", failed.get(5, TimeUnit.SECONDS));
+        assertEquals(3, failing.get());
+        assertEquals("failed at once", unpaced.get(5, TimeUnit.SECONDS));
+    }
+}
@@ -0,0 +1,324 @@
+package com.profoundai.llms.service;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.SplittableRandom;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * An in-process web server on the loopback interface that serves a deterministic synthetic site,
+ * so crawls can be tested and benchmarked end to end without network access.
+ * <p>
+ * Pages form a tree in breadth-first order: {@code /} is page 0 and page {@code i} at
+ * {@code /p/i} links to its {@link Spec#fanOut()} children, the home page and its next sibling.
+ * The same {@link Spec} and seed always produce the same site. {@link #advance()} edits a share
+ * of the pages, so a recrawl sees modified content. {@link #limitRate(int)} and
+ * {@link #robotsTxt(String)} make it push back on crawlers the way real sites do.
+ */
+public final class SyntheticSite implements AutoCloseable {
+
+    /**
+     * @param pages      pages at most; the tree is cut off below {@code depth}
+     * @param fanOut     child pages linked from every page
+     * @param depth      link hops from the home page to the deepest pages
+     * @param htmlBytes  approximate size of a server-rendered page
+     * @param latencyMs  delay before every response
+     * @param jitterMs   extra delay of up to this much, fixed per URL
+     * @param errorRate  share of pages (never the home page) answered with a 503
+     * @param csrRate    share of pages served as a small shell whose content a script renders
+     * @param scripts    {@code <script src>} tags per page
+     * @param assets     distinct script files the tags are spread over
+     * @param changeRate share of pages edited by each {@link #advance()}
+     * @param seed       makes a different but equally deterministic site
+     */
+    public record Spec(int pages, int fanOut, int depth, int htmlBytes, int latencyMs, int jitterMs,
+                       double errorRate, double csrRate, int scripts, int assets, double changeRate, long seed) {
+
+        public static final Spec DEFAULT = new Spec(1000, 8, 4, 16 * 1024, 0, 0, 0, 0, 2, 16, 0.1, 42);
+
+        public Spec {
+            if (pages < 1 || fanOut < 1 || depth < 0 || htmlBytes < 0 || latencyMs < 0 || jitterMs < 0
+                    || scripts < 0 || assets < 1) {
+                throw new IllegalArgumentException("Invalid synthetic site: " + this);
+            }
+        }
+    }
+
+    static {
+        // Without TCP_NODELAY a response's headers and body are held back by delayed ACKs, adding
+        // ~40 ms to every request. Read once, when the JDK server's configuration is loaded
+        System.setProperty("sun.net.httpserver.nodelay", "true");
+    }
+
+    private static final String[] WORDS = {
+            "crawler", "index", "page", "content", "search", "model", "guide", "reference", "deploy", "config",
+            "request", "response", "latency", "cache", "server", "client", "render", "document", "section", "token",
+            "stream", "batch", "queue", "worker", "schema", "snapshot", "release", "feature", "support", "update",
+            "install", "example", "account", "billing", "project", "team", "access", "policy", "event", "metric"};
+
+    private final Spec spec;
+    private final int pageCount;
+    private final HttpServer server;
+    private final ExecutorService executor;
+    private final AtomicIntegerArray revisions;
+    private final ConcurrentMap<String, byte[]> bodies = new ConcurrentHashMap<>();
+    private final AtomicLong requests = new AtomicLong();
+    private final AtomicLong throttled = new AtomicLong();
+    private int generation;
+    private volatile int rateLimit;
+    private volatile String robotsTxt;
+    private long window;
+    private int windowRequests;
+
+    private SyntheticSite(Spec spec) throws IOException {
+        this.spec = spec;
+        long treeSize = 1;
+        long level = 1;
+        for (int d = 0; d < spec.depth() && treeSize < spec.pages(); d++) {
+            level *= spec.fanOut();
+            treeSize += level;
+        }
+        this.pageCount = (int) Math.min(spec.pages(), treeSize);
+        this.revisions = new AtomicIntegerArray(pageCount);
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "synthetic-site");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 0);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+    }
+
+    public static SyntheticSite start(Spec spec) throws IOException {
+        SyntheticSite site = new SyntheticSite(spec);
+        site.server.start();
+        return site;
+    }
+
+    /** The home page, with a trailing slash so it matches the links back to it. */
+    public String baseUrl() {
+        return "http://" + server.getAddress().getHostString() + ":" + server.getAddress().getPort() + "/";
+    }
+
+    public Spec spec() {
+        return spec;
+    }
+
+    /** Pages the site actually has, after the depth cut-off. */
+    public int pageCount() {
+        return pageCount;
+    }
+
+    /** Pages answered with a 503. */
+    public int errorPageCount() {
+        int errors = 0;
+        for (int id = 1; id < pageCount; id++) {
+            errors += isError(id) ? 1 : 0;
+        }
+        return errors;
+    }
+
+    public long requests() {
+        return requests.get();
+    }
+
+    /** Requests answered with a 429 because of {@link #limitRate(int)}. */
+    public long throttledRequests() {
+        return throttled.get();
+    }
+
+    /**
+     * Answers requests beyond {@code perSecond} within a second with a 429 and {@code Retry-After: 1};
+     * 0 lifts the limit.
+     */
+    public void limitRate(int perSecond) {
+        this.rateLimit = perSecond;
+    }
+
+    /** Serves {@code content} as {@code /robots.txt}, which is a 404 while it is null. */
+    public void robotsTxt(String content) {
+        this.robotsTxt = content;
+    }
+
+    /**
+     * Edits about {@link Spec#changeRate()} of the pages, the same ones for the same seed.
+     *
+     * @return pages edited
+     */
+    public synchronized int advance() {
+        generation++;
+        int changed = 0;
+        for (int id = 0; id < pageCount; id++) {
+            if (unit(id, 3L * generation) < spec.changeRate()) {
+                revisions.incrementAndGet(id);
+                bodies.remove(pagePath(id));
+                bodies.remove("/app/" + id + ".js");
+                changed++;
+            }
+        }
+        return changed;
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        requests.incrementAndGet();
+        try (exchange) {
+            String path = exchange.getRequestURI().getPath();
+            int id = idOf(path);
+            if (spec.latencyMs() > 0 || spec.jitterMs() > 0) {
+                long jitter = spec.jitterMs() > 0 ? (long) (unit(Math.max(id, 0), path.hashCode()) * (spec.jitterMs() + 1)) : 0;
+                try {
+                    Thread.sleep(spec.latencyMs() + jitter);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if (isOverLimit()) {
+                throttled.incrementAndGet();
+                exchange.getResponseHeaders().set("Retry-After", "1");
+                send(exchange, 429, "text/plain", "Too many requests".getBytes(StandardCharsets.UTF_8));
+            } else if (path.equals("/robots.txt") && robotsTxt != null) {
+                send(exchange, 200, "text/plain", robotsTxt.getBytes(StandardCharsets.UTF_8));
+            } else if (path.startsWith("/p/") || path.equals("/")) {
+                if (id < 0) {
+                    send(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+                } else if (isError(id)) {
+                    send(exchange, 503, "text/plain", "Unavailable".getBytes(StandardCharsets.UTF_8));
+                } else {
+                    send(exchange, 200, "text/html; charset=utf-8", bodies.computeIfAbsent(path, p -> page(id)));
+                }
+            } else if (path.startsWith("/assets/chunk-") && path.endsWith(".js")) {
+                send(exchange, 200, "application/javascript", bodies.computeIfAbsent(path, this::chunk));
+            } else if (path.startsWith("/app/") && path.endsWith(".js") && id >= 0 && isCsr(id)) {
+                send(exchange, 200, "application/javascript", bodies.computeIfAbsent(path, p -> app(id)));
+            } else {
+                send(exchange, 404, "text/plain", "Not found".getBytes(StandardCharsets.UTF_8));
+            }
+        }
+    }
+
+    private static void send(HttpExchange exchange, int status, String contentType, byte[] body) throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", contentType);
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private byte[] page(int id) {
+        StringBuilder html = new StringBuilder(spec.htmlBytes() + 1024)
+                .append("<!DOCTYPE html><html><head><title>Page ").append(id).append(" | Synthetic Site</title>")
+                .append("<meta name=\"description\" content=\"Synthetic page ").append(id).append(", revision ")
+                .append(revisions.get(id)).append(".\">");
+        for (int i = 0; i < spec.scripts(); i++) {
+            html.append("<script src=\"/assets/chunk-").append((id + i) % spec.assets()).append(".js\"></script>");
+        }
+        html.append("</head><body><nav><a href=\"/\">Home</a>");
+        for (long child = (long) id * spec.fanOut() + 1; child <= (long) id * spec.fanOut() + spec.fanOut() && child < pageCount; child++) {
+            html.append("<a href=\"").append(pagePath((int) child)).append("\">Page ").append(child).append("</a>");
+        }
+        if (id > 0 && id + 1 < pageCount) {
+            html.append("<a href=\"").append(pagePath(id + 1)).append("\">Next</a>");
+        }
+        html.append("</nav>");
+        if (isCsr(id)) {
+            return html.append("<div id=\"root\"></div><script src=\"/app/").append(id).append(".js\"></script></body></html>")
+                    .toString().getBytes(StandardCharsets.UTF_8);
+        }
+        html.append("<main><h1>Page ").append(id).append("</h1>");
+        appendText(html, id, spec.htmlBytes());
+        return html.append("</main></body></html>").toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Renders the page's content into a CSR shell's root element. */
+    private byte[] app(int id) {
+        StringBuilder content = new StringBuilder("<main><h1>Page ").append(id).append("</h1>");
+        appendText(content, id, spec.htmlBytes());
+        content.append("</main>");
+        return ("document.getElementById(\"root\").innerHTML = \"" + content + "\";").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] chunk(String path) {
+        StringBuilder js = new StringBuilder("/* ").append(path).append(" */\n");
+        SplittableRandom random = new SplittableRandom(spec.seed() ^ path.hashCode());
+        while (js.length() < 2048) {
+            js.append("function ").append(WORDS[random.nextInt(WORDS.length)]).append(random.nextInt(1000))
+                    .append("(){return ").append(random.nextInt()).append(";}\n");
+        }
+        return js.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    /** Paragraphs of filler words until {@code html} is about {@code bytes} long. */
+    private void appendText(StringBuilder html, int id, int bytes) {
+        SplittableRandom random = new SplittableRandom(spec.seed() * 31 + id * 1_000_003L + revisions.get(id));
+        while (html.length() < bytes) {
+            html.append("<p>");
+            for (int i = 0; i < 40; i++) {
+                html.append(WORDS[random.nextInt(WORDS.length)]).append(' ');
+            }
+            html.append("</p>");
+        }
+    }
+
+    private synchronized boolean isOverLimit() {
+        if (rateLimit <= 0) {
+            return false;
+        }
+        long second = System.currentTimeMillis() / 1000;
+        if (second != window) {
+            window = second;
+            windowRequests = 0;
+        }
+        return ++windowRequests > rateLimit;
+    }
+
+    private boolean isError(int id) {
+        return id > 0 && unit(id, 1) < spec.errorRate();
+    }
+
+    private boolean isCsr(int id) {
+        return unit(id, 2) < spec.csrRate();
+    }
+
+    /** A uniform value in [0, 1) fixed by the seed, the page and {@code salt}. */
+    private double unit(int id, long salt) {
+        return new SplittableRandom(spec.seed() ^ (id * 0x9E3779B97F4A7C15L) ^ (salt * 0xC2B2AE3D27D4EB4FL)).nextDouble();
+    }
+
+    private static String pagePath(int id) {
+        return id == 0 ? "/" : "/p/" + id;
+    }
+
+    /** The page id in a page or app script path, or -1. */
+    private int idOf(String path) {
+        if (path.equals("/")) {
+            return 0;
+        }
+        String digits = path.startsWith("/p/") ? path.substring(3)
+                : path.startsWith("/app/") && path.endsWith(".js") ? path.substring(5, path.length() - 3)
+                : null;
+        if (digits == null || digits.isEmpty() || digits.length() > 9 || !digits.chars().allMatch(Character::isDigit)) {
+            return -1;
+        }
+        int id = Integer.parseInt(digits);
+        return id < pageCount ? id : -1;
+    }
+}
@@ -0,0 +1,123 @@
+package com.profoundai.llms.service.archive;
+
+import com.profoundai.llms.entity.CrawlSnapshot;
+import com.profoundai.llms.entity.PageType;
+import com.profoundai.llms.service.CrawlListener;
+import com.profoundai.llms.service.CrawlMetrics;
+import com.profoundai.llms.service.CrawlProfile;
+import com.profoundai.llms.service.CrawlService;
+import com.profoundai.llms.service.CrawlServiceImpl;
+import com.profoundai.llms.service.HttpResponseCache;
+import com.profoundai.llms.service.PageContentStore;
+import com.profoundai.llms.service.PageFetcher;
+import com.profoundai.llms.service.PolitenessScheduler;
+import com.profoundai.llms.service.SyntheticSite;
+import org.jsoup.HttpStatusException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.FileNotFoundException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class CrawlArchiveTest {
+
+    private static final String URL = "https://example.com/";
+
+    @TempDir
+    Path dir;
+
+    @Test
+    void testReplay_ReproducesRecordedCrawlWithoutTheSite() throws Exception {
+        // Arrange: record a crawl of a site with failing pages and script assets, then take the site down
+        CrawlProfile profile = new CrawlProfile("test", 1000, 3);
+        CrawlService.CrawlResult recorded;
+        String baseUrl;
+        try (SyntheticSite site = SyntheticSite.start(
+                new SyntheticSite.Spec(40, 3, 3, 8 * 1024, 0, 0, 0.1, 0, 1, 2, 0, 7))) {
+            baseUrl = site.baseUrl();
+            assertTrue(site.errorPageCount() > 0);
+            recorded = crawler("record").crawl(baseUrl, profile, CrawlListener.NONE);
+        }
+
+        // Act
+        CrawlService.CrawlResult replayed = crawler("replay").crawl(baseUrl, profile, CrawlListener.NONE);
+
+        // Assert
+        assertEquals(pageHashes(recorded), pageHashes(replayed));
+        assertEquals(errors(recorded, baseUrl), errors(replayed, baseUrl));
+    }
+
+    @Test
+    void testReplay_LatestRecordWinsAndCutShortRecordIsIgnored() throws Exception {
+        // Arrange
+        CrawlArchive archive = new CrawlArchive("replay", dir.toString());
+        Path file = archive.fileFor(URL);
+        try (RecordingPageFetcher recorder = new RecordingPageFetcher(new StubFetcher(Map.of(
+                URL, response(200, "first"),
+                URL + "gone", response(503, "Unavailable"))), new WarcWriter(file))) {
+            recorder.exchange(URL, PageType.PAGE);
+            recorder.exchange(URL + "gone", PageType.PAGE);
+        }
+        try (RecordingPageFetcher recorder = new RecordingPageFetcher(
+                new StubFetcher(Map.of(URL, response(200, "second"))), new WarcWriter(file))) {
+            recorder.exchange(URL, PageType.PAGE);
+        }
+        // A crash while appending leaves part of a gzip member behind
+        Files.write(file, Arrays.copyOf(Files.readAllBytes(file), 20), StandardOpenOption.APPEND);
+
+        // Act
+        try (PageFetcher replay = archive.open(URL, null)) {
+
+            // Assert
+            assertEquals("second", replay.fetch(URL, PageType.PAGE).text());
+            HttpStatusException error = assertThrows(HttpStatusException.class, () -> replay.fetch(URL + "gone", PageType.PAGE));
+            assertEquals(503, error.getStatusCode());
+            assertThrows(FileNotFoundException.class, () -> replay.fetch(URL + "never", PageType.PAGE));
+            assertNull(replay.render(URL));
+        }
+    }
+
+    private CrawlServiceImpl crawler(String mode) {
+        return new CrawlServiceImpl(mock(PageContentStore.class), mock(CrawlMetrics.class),
+                new CrawlArchive(mode, dir.toString()), new HttpResponseCache(false, "unused", 1, 0),
+                new PolitenessScheduler(0, 1, true, 30_000, 0, 1_000, 0));
+    }
+
+    private static Set<String> pageHashes(CrawlService.CrawlResult result) {
+        return result.getPages().stream()
+                .map(p -> p.getPageType() + " " + p.getUrl() + " " + p.getContentHash())
+                .collect(Collectors.toSet());
+    }
+
+    private static int errors(CrawlService.CrawlResult result, String baseUrl) {
+        return result.getStats().toReport(new CrawlSnapshot(baseUrl), 0).getCounts().errors();
+    }
+
+    private static PageFetcher.Response response(int status, String body) {
+        return new PageFetcher.Response(status, status == 200 ? "OK" : "Service Unavailable",
+                Map.of("Content-Type", List.of("text/html; charset=utf-8")), body.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private record StubFetcher(Map<String, PageFetcher.Response> responses) implements PageFetcher {
+        @Override
+        public Response exchange(String url, PageType pageType) {
+            return responses.get(url);
+        }
+
+        @Override
+        public String render(String url) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,58 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JsonLlmsTxtFormatTest {
+
+    private final JsonLlmsTxtFormat format = new JsonLlmsTxtFormat();
+
+    @Test
+    void testRender_WritesAllFields() throws Exception {
+        // Arrange
+        List<PageMeta> pages = List.of(
+                new PageMeta(1L, "https://example.com/a", "A", null, "h1", PageType.PAGE));
+
+        // Act
+        StringBuilder out = new StringBuilder();
+        format.render("https://example.com", LocalDateTime.of(2025, 11, 30, 12, 0, 5, 999), pages, out);
+
+        // Assert
+        assertEquals("{\"baseUrl\":\"https://example.com\",\"generatedAt\":\"2025-11-30T12:00:05\",\"pages\":["
+                + "{\"url\":\"https://example.com/a\",\"title\":\"A\",\"description\":null,"
+                + "\"type\":\"PAGE\",\"contentHash\":\"h1\"}]}", out.toString());
+    }
+
+    @Test
+    void testRender_EscapesStrings() throws Exception {
+        // Arrange
+        List<PageMeta> pages = List.of(
+                new PageMeta(1L, "https://example.com/a", "Say \"hi\"\\", "line1\nline2\u0001", "h1", PageType.PAGE));
+
+        // Act
+        StringBuilder out = new StringBuilder();
+        format.render("https://example.com", null, pages, out);
+
+        // Assert
+        String result = out.toString();
+        assertTrue(result.contains("\"generatedAt\":null"));
+        assertTrue(result.contains("\"title\":\"Say \\\"hi\\\"\\\\\""));
+        assertTrue(result.contains("\"description\":\"line1\\nline2\\u0001\""));
+    }
+
+    @Test
+    void testRender_EmptySnapshot() throws Exception {
+        // Act
+        StringBuilder out = new StringBuilder();
+        format.render("https://example.com", null, List.of(), out);
+
+        // Assert
+        assertTrue(out.toString().endsWith("\"pages\":[]}"));
+    }
+}
@@ -0,0 +1,69 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class SpecLlmsTxtFormatTest {
+
+    private final SpecLlmsTxtFormat format = new SpecLlmsTxtFormat();
+    private final LocalDateTime time = LocalDateTime.of(2025, 11, 30, 12, 0);
+
+    @Test
+    void testRender_UsesHomePageForTitleAndSummary() throws Exception {
+        // Arrange
+        List<PageMeta> pages = List.of(
+                new PageMeta(1L, "https://example.com/", "Example Inc", "We make examples", "h0", PageType.PAGE),
+                new PageMeta(1L, "https://example.com/about", "About", "Who we are", "h1", PageType.PAGE));
+
+        // Act
+        StringBuilder out = new StringBuilder();
+        format.render("https://example.com", time, pages, out);
+
+        // Assert
+        String result = out.toString();
+        assertTrue(result.startsWith("# Example Inc\n\n> We make examples\n\n## Pages\n\n"));
+        assertTrue(result.contains("- [About](https://example.com/about): Who we are\n"));
+    }
+
+    @Test
+    void testRender_GroupsBySectionAndSkipsAssets() throws Exception {
+        // Arrange
+        List<PageMeta> pages = List.of(
+                new PageMeta(1L, "https://example.com/docs/intro", "Intro", null, "h1", PageType.PAGE),
+                new PageMeta(1L, "https://example.com/blog/post-1", "Post", "First post", "h2", PageType.PAGE),
+                new PageMeta(1L, "https://example.com/docs/setup", "Setup", "", "h3", PageType.PAGE),
+                new PageMeta(1L, "https://example.com/app.js", "app.js", null, "h4", PageType.STATIC_ASSET));
+
+        // Act
+        StringBuilder out = new StringBuilder();
+        format.render("https://example.com", time, pages, out);
+
+        // Assert
+        String result = out.toString();
+        assertTrue(result.startsWith("# example.com\n\n## Docs\n\n"));
+        assertTrue(result.contains("## Docs\n\n- [Intro](https://example.com/docs/intro)\n- [Setup](https://example.com/docs/setup)\n\n"));
+        assertTrue(result.contains("## Blog\n\n- [Post](https://example.com/blog/post-1): First post\n"));
+        assertFalse(result.contains("app.js"));
+        assertFalse(result.contains("## Pages"));
+    }
+
+    @Test
+    void testRender_EscapesBracketsInLinkText() throws Exception {
+        // Arrange
+        List<PageMeta> pages = List.of(
+                new PageMeta(1L, "https://example.com/x", "[Beta] Feature", null, "h1", PageType.PAGE));
+
+        // Act
+        StringBuilder out = new StringBuilder();
+        format.render("https://example.com", time, pages, out);
+
+        // Assert
+        assertTrue(out.toString().contains("- [\\[Beta\\] Feature](https://example.com/x)"));
+    }
+}
@@ -0,0 +1,79 @@
+package com.profoundai.llms.service.format;
+
+import com.profoundai.llms.entity.PageMeta;
+import com.profoundai.llms.entity.PageType;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemplateLlmsTxtFormatTest {
+
+    private final LocalDateTime time = LocalDateTime.of(2025, 11, 30, 12, 0, 0);
+
+    @Test
+    void testRender_SubstitutesSiteAndPagePlaceholders() throws Exception {
+        // Arrange
+        TemplateLlmsTxtFormat format = TemplateLlmsTxtFormat.compile("acme", null,
+                "Site {{baseUrl}} ({{pageCount}} pages, {{ generatedAt }})\n",
+                "* {{title}} <{{url}}> {{description}}\n",
+                "-- end\n");
+        List<PageMeta> pages = List.of(
+                new PageMeta(1L, "https://example.com/a", "A", "Alpha", "h1", PageType.PAGE),
+                new PageMeta(1L, "https://example.com/b", "B", null, "h2", PageType.STATIC_ASSET));
+
+        // Act
+        StringBuilder out = new StringBuilder();
+        format.render("https://example.com", time, pages, out);
+
+        // Assert
+        assertEquals("Site https://example.com (2 pages, 2025-11-30T12:00)\n"
+                + "* A <https://example.com/a> Alpha\n"
+                + "* B <https://example.com/b> \n"
+                + "-- end\n", out.toString());
+        assertEquals("text/plain;charset=UTF-8", format.contentType());
+    }
+
+    @Test
+    void testCompile_RejectsUnknownPlaceholder() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> TemplateLlmsTxtFormat.compile("bad", null, null, "{{nope}}", null));
+        assertTrue(ex.getMessage().contains("{{nope}}"));
+    }
+
+    @Test
+    void testCompile_RejectsPagePlaceholderInHeader() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> TemplateLlmsTxtFormat.compile("bad", null, "{{title}}", "", null));
+        assertTrue(ex.getMessage().contains("only allowed in the entry template"));
+    }
+
+    @Test
+    void testCompile_RejectsUnterminatedPlaceholder() {
+        assertThrows(IllegalArgumentException.class,
+                () -> TemplateLlmsTxtFormat.compile("bad", null, null, "{{url", null));
+    }
+
+    @Test
+    void testRegistry_ResolvesBuiltInAndTemplateFormats() {
+        // Arrange
+        LlmsTxtFormatRegistry registry = new LlmsTxtFormatRegistry(
+                List.of(new JsonLlmsTxtFormat(), new SpecLlmsTxtFormat()),
+                Map.of("acme", new LlmsTxtFormatRegistry.Template(null, "{{url}}\n", null, "text/csv")));
+
+        // Act & Assert
+        assertInstanceOf(JsonLlmsTxtFormat.class, registry.resolve("json"));
+        assertEquals("text/csv", registry.resolve("acme").contentType());
+        assertThrows(IllegalArgumentException.class, () -> registry.resolve("missing"));
+    }
+
+    @Test
+    void testRegistry_RejectsDuplicateNames() {
+        assertThrows(IllegalStateException.class, () -> new LlmsTxtFormatRegistry(
+                List.of(new JsonLlmsTxtFormat()),
+                Map.of("json", new LlmsTxtFormatRegistry.Template(null, "{{url}}", null, null))));
+    }
+}